@@ -0,0 +1,72 @@
+package uz.pdp.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uz.pdp.entity.Basket;
+import uz.pdp.entity.BasketItem;
+import uz.pdp.entity.Door;
+import uz.pdp.enums.ItemType;
+
+/**
+ * {@link Basket#getTotalPrice()} summed over the items, and with the running
+ * total the basket store keeps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BasketBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int items;
+
+    private Basket summed;
+    private Basket tracked;
+
+    @Setup
+    public void setUp() {
+        List<BasketItem> basketItems = new ArrayList<>();
+        double total = 0;
+        for (Door door : Catalog.doors(items)) {
+            BasketItem item = new BasketItem();
+            item.setItemId(door.getId());
+            item.setType(ItemType.DOOR);
+            item.setName(door.getName());
+            item.setPrice(door.getFinalPrice());
+            item.setQuantity(1 + (int) (door.getId() % 3));
+            basketItems.add(item);
+            total += item.getPrice() * item.getQuantity();
+        }
+        summed = new Basket();
+        summed.setItems(basketItems);
+        tracked = new Basket();
+        tracked.setItems(basketItems);
+        tracked.setRunningTotal(total);
+    }
+
+    @Benchmark
+    public double summedTotal() {
+        return summed.getTotalPrice();
+    }
+
+    @Benchmark
+    public double runningTotal() {
+        return tracked.getTotalPrice();
+    }
+}
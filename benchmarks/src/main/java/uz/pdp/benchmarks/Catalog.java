@@ -0,0 +1,91 @@
+package uz.pdp.benchmarks;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.springframework.util.ReflectionUtils;
+
+import uz.pdp.entity.Door;
+import uz.pdp.enums.Color;
+import uz.pdp.enums.DoorLocation;
+import uz.pdp.enums.FrameType;
+import uz.pdp.enums.HardwareType;
+import uz.pdp.enums.Size;
+
+/**
+ * Test data for the benchmarks: a catalog of doors spread over every location,
+ * frame, hardware, color and size, the same for every run.
+ */
+final class Catalog {
+    private static final String[] MATERIALS = {"Oak", "Pine", "Steel", "Glass", "MDF"};
+
+    private Catalog() {
+    }
+
+    static List<Door> doors(int size) {
+        Random random = new Random(42);
+        List<Door> doors = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Door door = new Door();
+            door.setId((long) i + 1);
+            String material = pick(random, MATERIALS);
+            door.setName(material + " door " + (i + 1));
+            door.setDescription("A sturdy " + material.toLowerCase() + " door");
+            door.setMaterial(material);
+            door.setManufacturer("Etadoor");
+            door.setWarrantyYears(1 + random.nextInt(10));
+            door.setPrice(100.0 + random.nextInt(900));
+            door.setFinalPrice(door.getPrice());
+            door.setDoorLocation(pick(random, DoorLocation.values()));
+            door.setFrameType(pick(random, FrameType.values()));
+            door.setHardware(pick(random, HardwareType.values()));
+            door.setColor(pick(random, Color.values()));
+            Size doorSize = pick(random, Size.values());
+            if (doorSize == Size.CUSTOM) {
+                door.setCustomWidth(700.0 + random.nextInt(500));
+                door.setCustomHeight(2000.0 + random.nextInt(400));
+            }
+            door.setSize(doorSize);
+            door.setIsCustomColor(random.nextInt(10) == 0);
+            door.setImages(new ArrayList<>(List.of("https://images.example/doors/" + (i + 1) + "/1.webp",
+                    "https://images.example/doors/" + (i + 1) + "/2.webp")));
+            doors.add(door);
+        }
+        return doors;
+    }
+
+    /**
+     * A repository whose {@code findAll()} returns the given doors; anything else throws.
+     */
+    static <R> R repository(Class<R> type, List<Door> doors) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll" -> {
+                        if (args != null && args.length > 0) {
+                            throw new UnsupportedOperationException("findAll with arguments");
+                        }
+                        yield doors;
+                    }
+                    case "toString" -> type.getSimpleName() + " over " + doors.size() + " doors";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }));
+    }
+
+    /**
+     * Sets a field Spring would normally inject.
+     */
+    static void inject(Object target, String field, Object value) {
+        Field declared = ReflectionUtils.findField(target.getClass(), field);
+        ReflectionUtils.makeAccessible(declared);
+        ReflectionUtils.setField(declared, target, value);
+    }
+
+    private static <T> T pick(Random random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,75 @@
+package uz.pdp.benchmarks;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uz.pdp.entity.Door;
+import uz.pdp.enums.Color;
+import uz.pdp.enums.DoorLocation;
+import uz.pdp.enums.FrameType;
+import uz.pdp.enums.HardwareType;
+import uz.pdp.repository.DoorFilterRepository;
+import uz.pdp.repository.DoorRepository;
+import uz.pdp.service.DoorFilterService;
+
+/**
+ * The in-memory door filters of {@link DoorFilterService} - the ones that load
+ * the whole catalog and match in Java - over catalogs of growing size. The
+ * repositories hand back a prepared list, so only the matching is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DoorFilterBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    private DoorFilterService doorFilterService;
+
+    @Setup
+    public void setUp() {
+        List<Door> doors = Catalog.doors(catalogSize);
+        doorFilterService = new DoorFilterService(Catalog.repository(DoorFilterRepository.class, doors),
+                Catalog.repository(DoorRepository.class, doors));
+    }
+
+    @Benchmark
+    public List<Door> filterByDisplayNames() {
+        return doorFilterService.filterDoors(DoorLocation.ROOM.getDisplayName() + ","
+                        + DoorLocation.BEDROOM.getDisplayName(),
+                null, HardwareType.PIVOT.getDisplayName() + "," + HardwareType.SLIDING.getDisplayName(),
+                null, null);
+    }
+
+    @Benchmark
+    public List<Door> filterByEverything() {
+        return doorFilterService.filterDoors(DoorLocation.ENTRANCE.getDisplayName(), null,
+                HardwareType.STANDARD_HINGES.getDisplayName(), Color.values()[0].getDisplayName(), "600x2000");
+    }
+
+    @Benchmark
+    public List<Door> partialMatches() {
+        Set<DoorLocation> locations = EnumSet.of(DoorLocation.ROOM, DoorLocation.KITCHEN);
+        Set<FrameType> frameTypes = EnumSet.of(FrameType.HIDDEN);
+        Set<HardwareType> hardware = EnumSet.of(HardwareType.POCKET, HardwareType.PIVOT);
+        return doorFilterService.findPartialMatches(locations, frameTypes, hardware, null, null, 2);
+    }
+}
@@ -0,0 +1,60 @@
+package uz.pdp.benchmarks;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uz.pdp.entity.Order;
+import uz.pdp.entity.User;
+import uz.pdp.enums.ItemType;
+import uz.pdp.service.EmailService;
+
+/**
+ * HTML of the new-order email sellers get, once per ordered item.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailRenderingBenchmark {
+    private EmailService emailService;
+    private Order order;
+    private User buyer;
+
+    @Setup
+    public void setUp() {
+        emailService = new EmailService();
+        buyer = new User();
+        buyer.setName("Aziz");
+        buyer.setLastname("Karimov");
+        buyer.setPhone("+998901234567");
+        buyer.setEmail("aziz@example.com");
+
+        order = new Order();
+        order.setId(1042L);
+        order.setItemType(ItemType.DOOR);
+        order.setItemName("Oak door 17");
+        order.setPrice(349.99);
+        order.setQuantity(2);
+        order.setDeliveryAddress("12 Amir Temur St, Tashkent");
+        order.setOrderDate(ZonedDateTime.now());
+        order.setComment("Please call before delivery");
+    }
+
+    @Benchmark
+    public String renderOrderNotification() {
+        return emailService.renderOrderNotification(order, buyer);
+    }
+}
@@ -0,0 +1,51 @@
+package uz.pdp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uz.pdp.config.filtr.JwtProvider;
+
+/**
+ * Token handling every authenticated request pays for in {@code MyFilter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+    // Same shape as jwt.secret-key in application.yaml
+    private static final String SECRET_KEY = "hbsfghbsdhbghksjdhfjkbdshbsdjkfjksdbgksfbskdjb";
+
+    private JwtProvider jwtProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtProvider = new JwtProvider();
+        Catalog.inject(jwtProvider, "key", SECRET_KEY);
+        Catalog.inject(jwtProvider, "expireTimeout", 86_400_000L);
+        token = jwtProvider.generateToken("etadoor");
+    }
+
+    @Benchmark
+    public String getUsernameFromToken() {
+        return jwtProvider.getUsernameFromToken(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtProvider.generateToken("etadoor");
+    }
+}
@@ -0,0 +1,81 @@
+package uz.pdp.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uz.pdp.entity.Door;
+import uz.pdp.entity.PricingRule;
+import uz.pdp.service.PriceRules;
+import uz.pdp.service.PricingEngine;
+
+/**
+ * Final price of a door - what the old {@code Door.calculateFinalPrice} did, now
+ * the compiled pricing rules - for one door and for a whole catalog, with the
+ * default rules alone or with a stack of time-limited category promotions on top.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    @Param({"0", "50"})
+    public int promotions;
+
+    private List<Door> doors;
+    private PriceRules rules;
+    private long now;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        doors = Catalog.doors(catalogSize);
+        List<PricingRule> all = new ArrayList<>(PricingEngine.defaultRules());
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < promotions; i++) {
+            PricingRule promotion = new PricingRule("Promotion " + i, null, null, -5, 100 + i);
+            promotion.setCategoryId((long) i);
+            promotion.setValidFrom(start);
+            promotion.setValidUntil(start.plusDays(7));
+            all.add(promotion);
+        }
+        rules = PriceRules.compile(all);
+        now = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public double priceOneDoor() {
+        Door door = doors.get(next);
+        next = next + 1 == doors.size() ? 0 : next + 1;
+        return rules.price(door, now);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double priceCatalog() {
+        double total = 0;
+        for (Door door : doors) {
+            total += rules.price(door, now);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,77 @@
+package uz.pdp.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import uz.pdp.config.RedisConfig;
+import uz.pdp.entity.Door;
+import uz.pdp.payload.EntityResponse;
+
+/**
+ * JSON with the {@code RedisConfig} ObjectMapper: a door, a door wrapped in an
+ * {@link EntityResponse} (which carries its class name), and a whole catalog
+ * listing the way the door list endpoints answer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int catalogSize;
+
+    private ObjectMapper objectMapper;
+    private Door door;
+    private EntityResponse<Door> doorResponse;
+    private EntityResponse<List<Door>> catalogResponse;
+    private byte[] doorResponseJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new RedisConfig().redisObjectMapper();
+        List<Door> doors = Catalog.doors(catalogSize);
+        door = doors.get(0);
+        doorResponse = EntityResponse.success("Door found", door);
+        catalogResponse = EntityResponse.success("Doors found", doors);
+        doorResponseJson = objectMapper.writeValueAsBytes(doorResponse);
+    }
+
+    @Benchmark
+    public byte[] door() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(door);
+    }
+
+    @Benchmark
+    public byte[] doorResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(doorResponse);
+    }
+
+    @Benchmark
+    public Object readDoorResponse() throws IOException {
+        return objectMapper.readValue(doorResponseJson, EntityResponse.class);
+    }
+
+    @Benchmark
+    public byte[] catalogResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(catalogResponse);
+    }
+}
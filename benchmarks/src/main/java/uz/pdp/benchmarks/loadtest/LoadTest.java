@@ -0,0 +1,318 @@
+package uz.pdp.benchmarks.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import uz.pdp.enums.Color;
+import uz.pdp.enums.DoorLocation;
+import uz.pdp.enums.HardwareType;
+import uz.pdp.enums.OrderType;
+
+/**
+ * End-to-end load test: virtual users log in as seeded {@code loadtest-N} users
+ * (see {@code LoadTestDataSeeder}) and go round browse → filter → view → add to
+ * basket → checkout against a running application, as fast as they can or with a
+ * think time between steps. Prints a throughput and latency report per step and
+ * writes it to a Markdown file.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar uz.pdp.benchmarks.loadtest.LoadTest \
+ *     --base-url=http://localhost:8080 --users=50 --duration=120 --warmup=30
+ * </pre>
+ *
+ * A step that fails - an error status, or {@code "success": false} in the body -
+ * ends that round of the scenario; the user starts over with browsing.
+ */
+public final class LoadTest {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int MAX_ERROR_SAMPLES = 20;
+    private static final int MAX_ERROR_BODY = 200;
+
+    enum Step {
+        BROWSE("Browse"),
+        FILTER("Filter"),
+        VIEW("View door"),
+        ADD_TO_BASKET("Add to basket"),
+        CHECKOUT("Checkout"),
+        SCENARIO("Whole scenario");
+
+        private final String label;
+
+        Step(String label) {
+            this.label = label;
+        }
+
+        String label() {
+            return label;
+        }
+    }
+
+    record Options(String baseUrl, int users, int firstUser, String password, int durationSeconds,
+                   int warmupSeconds, int thinkTimeMillis, int pages, Path report) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Expected --name=value, got " + arg);
+                }
+                values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+            return new Options(
+                    values.getOrDefault("base-url", "http://localhost:8080"),
+                    Integer.parseInt(values.getOrDefault("users", "50")),
+                    Integer.parseInt(values.getOrDefault("first-user", "1")),
+                    values.getOrDefault("password", "loadtest"),
+                    Integer.parseInt(values.getOrDefault("duration", "120")),
+                    Integer.parseInt(values.getOrDefault("warmup", "30")),
+                    Integer.parseInt(values.getOrDefault("think-time", "0")),
+                    Integer.parseInt(values.getOrDefault("pages", "50")),
+                    Path.of(values.getOrDefault("report", "loadtest-report.md")));
+        }
+    }
+
+    private final Options options;
+    private final HttpClient httpClient;
+    private final List<String> errorSamples = Collections.synchronizedList(new ArrayList<>());
+    private long measureFrom;
+    private long measureUntil;
+
+    private LoadTest(Options options) {
+        this.options = options;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        LoadTestReport report = new LoadTest(options).run();
+        String markdown = report.toMarkdown();
+        System.out.println(markdown);
+        Files.writeString(options.report(), markdown, StandardCharsets.UTF_8);
+        System.out.println("Report written to " + options.report().toAbsolutePath());
+    }
+
+    private LoadTestReport run() throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < options.users(); i++) {
+            tokens.add(login("loadtest-" + (options.firstUser() + i)));
+        }
+        System.out.printf("%d users logged in, warming up for %ds, then measuring for %ds%n",
+                tokens.size(), options.warmupSeconds(), options.durationSeconds());
+
+        long start = System.nanoTime();
+        measureFrom = start + Duration.ofSeconds(options.warmupSeconds()).toNanos();
+        measureUntil = measureFrom + Duration.ofSeconds(options.durationSeconds()).toNanos();
+
+        List<Map<Step, LoadTestReport.Samples>> perUser = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            Map<Step, LoadTestReport.Samples> samples = new EnumMap<>(Step.class);
+            for (Step step : Step.values()) {
+                samples.put(step, new LoadTestReport.Samples());
+            }
+            perUser.add(samples);
+            String token = tokens.get(i);
+            Thread user = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < measureUntil) {
+                        scenario(token, samples);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "virtual-user-" + (options.firstUser() + i));
+            user.setDaemon(true);
+            user.start();
+        }
+        done.await();
+        return new LoadTestReport(options, perUser, options.durationSeconds(), errorSamples);
+    }
+
+    private void scenario(String token, Map<Step, LoadTestReport.Samples> samples) {
+        long start = System.nanoTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        JsonNode page = call(Step.BROWSE, samples, get(token,
+                "/api/doors?page=" + random.nextInt(options.pages()) + "&size=20"));
+        if (page == null) {
+            failScenario(start, samples);
+            return;
+        }
+        think();
+
+        JsonNode filtered = call(Step.FILTER, samples, get(token, "/api/v1/doors/filter"
+                + "?locations=" + encode(pick(DoorLocation.values()).getDisplayName())
+                + "&hardware=" + encode(pick(HardwareType.values()).getDisplayName())
+                + "&color=" + encode(pick(Color.values()).getDisplayName())));
+        if (filtered == null) {
+            failScenario(start, samples);
+            return;
+        }
+        think();
+
+        // Mostly something the filter found, like a shopper would
+        JsonNode doors = filtered.path("data").isEmpty() || random.nextInt(4) == 0
+                ? page.path("data") : filtered.path("data");
+        if (doors.isEmpty()) {
+            failScenario(start, samples);
+            return;
+        }
+        long doorId = doors.get(random.nextInt(doors.size())).path("id").asLong();
+        if (call(Step.VIEW, samples, get(token, "/api/doors/" + doorId)) == null) {
+            failScenario(start, samples);
+            return;
+        }
+        think();
+
+        if (call(Step.ADD_TO_BASKET, samples,
+                post(token, "/api/doors/" + doorId + "/basket?quantity=1", "").build()) == null) {
+            failScenario(start, samples);
+            return;
+        }
+        think();
+
+        ObjectNode checkout = objectMapper.createObjectNode()
+                .put("deliveryAddress", (1 + random.nextInt(200)) + " Amir Temur St, Tashkent")
+                .put("orderType", OrderType.FULL_SET.name())
+                .put("preferredDeliveryTime", ZonedDateTime.now().plusDays(3).toOffsetDateTime().toString())
+                .put("comment", "Load test");
+        HttpRequest request = post(token, "/api/basket/checkout", checkout.toString())
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .build();
+        if (call(Step.CHECKOUT, samples, request) == null) {
+            failScenario(start, samples);
+            return;
+        }
+        record(Step.SCENARIO, samples, start);
+        think();
+    }
+
+    /**
+     * Sends a request and records its latency.
+     *
+     * @return Response body, null if the request failed
+     */
+    private JsonNode call(Step step, Map<Step, LoadTestReport.Samples> samples, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            JsonNode body = response.body().isEmpty()
+                    ? objectMapper.createObjectNode() : objectMapper.readTree(response.body());
+            if (response.statusCode() >= 400 || !body.path("success").asBoolean(true)) {
+                error(step, samples, start, response.statusCode() + " " + truncate(response.body()));
+                return null;
+            }
+            record(step, samples, start);
+            return body;
+        } catch (IOException e) {
+            error(step, samples, start, e.toString());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void record(Step step, Map<Step, LoadTestReport.Samples> samples, long start) {
+        long end = System.nanoTime();
+        if (start >= measureFrom && end <= measureUntil) {
+            samples.get(step).add(end - start);
+        }
+    }
+
+    private void error(Step step, Map<Step, LoadTestReport.Samples> samples, long start, String message) {
+        if (start >= measureFrom && System.nanoTime() <= measureUntil) {
+            samples.get(step).error();
+            if (errorSamples.size() < MAX_ERROR_SAMPLES) {
+                errorSamples.add(step.label() + ": " + message);
+            }
+        }
+    }
+
+    private void failScenario(long start, Map<Step, LoadTestReport.Samples> samples) {
+        if (start >= measureFrom && System.nanoTime() <= measureUntil) {
+            samples.get(Step.SCENARIO).error();
+        }
+    }
+
+    private String login(String username) throws IOException, InterruptedException {
+        ObjectNode credentials = objectMapper.createObjectNode()
+                .put("username", username)
+                .put("password", options.password());
+        HttpRequest request = HttpRequest.newBuilder(URI.create(options.baseUrl() + "/api/auth/signin"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credentials.toString()))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonNode body = objectMapper.readTree(response.body());
+        if (response.statusCode() != 200 || !body.path("success").asBoolean()) {
+            throw new IllegalStateException("Login as " + username + " failed - is the app running with the "
+                    + "loadtest profile and done seeding? " + response.statusCode() + " " + truncate(response.body()));
+        }
+        return body.path("data").asText();
+    }
+
+    private HttpRequest get(String token, String path) {
+        return HttpRequest.newBuilder(URI.create(options.baseUrl() + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest.Builder post(String token, String path, String json) {
+        return HttpRequest.newBuilder(URI.create(options.baseUrl() + path))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    private void think() {
+        if (options.thinkTimeMillis() <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(options.thinkTimeMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <T> T pick(T[] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String truncate(String body) {
+        return body.length() > MAX_ERROR_BODY ? body.substring(0, MAX_ERROR_BODY) + "..." : body;
+    }
+}
@@ -0,0 +1,129 @@
+package uz.pdp.benchmarks.loadtest;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Throughput and latency of a load test run, per scenario step, as Markdown.
+ * Latencies are exact percentiles over every sample of the measured window.
+ */
+final class LoadTestReport {
+
+    /**
+     * Latencies of one step, in nanoseconds. Each virtual user fills its own.
+     */
+    static final class Samples {
+        private long[] values = new long[1024];
+        private int size;
+        private int errors;
+
+        void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        void error() {
+            errors++;
+        }
+
+        void addAll(Samples other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+            errors += other.errors;
+        }
+    }
+
+    private final Map<LoadTest.Step, Samples> steps = new EnumMap<>(LoadTest.Step.class);
+    private final LoadTest.Options options;
+    private final double measuredSeconds;
+    private final List<String> errorSamples;
+
+    LoadTestReport(LoadTest.Options options, List<Map<LoadTest.Step, Samples>> perUser, double measuredSeconds,
+                   List<String> errorSamples) {
+        this.options = options;
+        this.measuredSeconds = measuredSeconds;
+        this.errorSamples = errorSamples;
+        for (LoadTest.Step step : LoadTest.Step.values()) {
+            Samples merged = new Samples();
+            perUser.forEach(samples -> merged.addAll(samples.get(step)));
+            Arrays.sort(merged.values, 0, merged.size);
+            steps.put(step, merged);
+        }
+    }
+
+    String toMarkdown() {
+        StringBuilder out = new StringBuilder();
+        out.append("# Load test report\n\n");
+        out.append("- Run: ").append(ZonedDateTime.now().format(DateTimeFormatter.RFC_1123_DATE_TIME)).append('\n');
+        out.append("- Target: ").append(options.baseUrl()).append('\n');
+        out.append("- Virtual users: ").append(options.users())
+                .append(" (loadtest-").append(options.firstUser()).append(" ... loadtest-")
+                .append(options.firstUser() + options.users() - 1).append(")\n");
+        out.append("- Measured: ").append(format("%.0f", measuredSeconds)).append("s after ")
+                .append(options.warmupSeconds()).append("s warm-up, think time ")
+                .append(options.thinkTimeMillis()).append("ms\n\n");
+
+        out.append("| Step | OK | Errors | Throughput (req/s) | Mean (ms) | p50 | p90 | p95 | p99 | Max |\n");
+        out.append("|---|---:|---:|---:|---:|---:|---:|---:|---:|---:|\n");
+        steps.forEach((step, samples) -> {
+            out.append("| ").append(step.label())
+                    .append(" | ").append(samples.size)
+                    .append(" | ").append(samples.errors)
+                    .append(" | ").append(format("%.1f", samples.size / measuredSeconds));
+            if (samples.size == 0) {
+                out.append(" | - | - | - | - | - | - |\n");
+                return;
+            }
+            out.append(" | ").append(millis(mean(samples)))
+                    .append(" | ").append(millis(percentile(samples, 0.50)))
+                    .append(" | ").append(millis(percentile(samples, 0.90)))
+                    .append(" | ").append(millis(percentile(samples, 0.95)))
+                    .append(" | ").append(millis(percentile(samples, 0.99)))
+                    .append(" | ").append(millis(samples.values[samples.size - 1]))
+                    .append(" |\n");
+        });
+
+        Samples scenarios = steps.get(LoadTest.Step.SCENARIO);
+        out.append("\nCompleted ").append(scenarios.size).append(" checkouts (")
+                .append(format("%.1f", scenarios.size / measuredSeconds)).append("/s), ")
+                .append(scenarios.errors).append(" scenarios failed.\n");
+
+        if (!errorSamples.isEmpty()) {
+            out.append("\n## First errors\n\n");
+            errorSamples.forEach(error -> out.append("- ").append(error).append('\n'));
+        }
+        return out.toString();
+    }
+
+    private static double mean(Samples samples) {
+        double total = 0;
+        for (int i = 0; i < samples.size; i++) {
+            total += samples.values[i];
+        }
+        return total / samples.size;
+    }
+
+    // Nearest rank
+    private static long percentile(Samples samples, double quantile) {
+        int rank = (int) Math.ceil(quantile * samples.size);
+        return samples.values[Math.max(0, rank - 1)];
+    }
+
+    private static String millis(double nanos) {
+        return format("%.1f", nanos / 1_000_000);
+    }
+
+    private static String format(String pattern, double value) {
+        return String.format(Locale.ROOT, pattern, value);
+    }
+}
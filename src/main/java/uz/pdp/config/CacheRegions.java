@@ -0,0 +1,23 @@
+package uz.pdp.config;
+
+/**
+ * Names of the Hibernate second-level cache regions, as configured in
+ * {@code ehcache.xml}. Every region used in a {@code @Cache} annotation or a query
+ * hint must be declared there: unknown regions fail at startup instead of
+ * quietly getting an unbounded default.
+ */
+public final class CacheRegions {
+    public static final String CATEGORIES = "categories";
+    public static final String CATEGORY_QUERIES = "categories-query";
+    public static final String CUSTOM_ENUM_VALUES = "custom-enum-values";
+    public static final String CUSTOM_ENUM_VALUE_QUERIES = "custom-enum-values-query";
+    public static final String USERS = "users";
+    public static final String USER_QUERIES = "users-query";
+    public static final String STORAGES = "storages";
+    public static final String STORAGE_PRODUCT_TYPES = "storages-product-types";
+    public static final String STORAGE_QUERIES = "storages-query";
+    public static final String LOCATIONS = "locations";
+
+    private CacheRegions() {
+    }
+}
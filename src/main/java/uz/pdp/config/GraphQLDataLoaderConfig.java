@@ -0,0 +1,64 @@
+package uz.pdp.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+
+import reactor.core.publisher.Mono;
+import uz.pdp.entity.Address;
+import uz.pdp.entity.Door;
+import uz.pdp.entity.Location;
+import uz.pdp.entity.User;
+import uz.pdp.repository.AddressRepository;
+import uz.pdp.repository.DoorRepository;
+import uz.pdp.repository.UserRepository;
+
+/**
+ * Per-request DataLoaders for the nested GraphQL fields.
+ *
+ * Resolvers don't load anything themselves, they only hand an id to a loader.
+ * Once a level of the query is resolved the loader fires a single {@code IN} query
+ * for all ids it collected, and keeps the results for the rest of the request -
+ * 50 doors by 3 sellers means one user query with 3 ids, not 50 lazy loads. 🚚
+ *
+ * The names below are what the {@code DataLoader} parameters in
+ * {@link uz.pdp.controller.graphql.GraphQLRelationController} are called.
+ */
+@Configuration
+public class GraphQLDataLoaderConfig {
+
+    public static final String USERS_BY_ID = "usersById";
+    public static final String DOORS_BY_ID = "doorsById";
+    public static final String LOCATIONS_BY_ADDRESS_ID = "locationsByAddressId";
+
+    public GraphQLDataLoaderConfig(BatchLoaderRegistry registry, UserRepository userRepository,
+                                   DoorRepository doorRepository, AddressRepository addressRepository) {
+        registry.forTypePair(Long.class, User.class)
+                .withName(USERS_BY_ID)
+                .registerMappedBatchLoader((ids, environment) -> Mono.fromCallable(() -> {
+                    Map<Long, User> users = new HashMap<>();
+                    userRepository.findAllById(ids).forEach(user -> users.put(user.getId(), user));
+                    return users;
+                }));
+
+        registry.forTypePair(Long.class, Door.class)
+                .withName(DOORS_BY_ID)
+                .registerMappedBatchLoader((ids, environment) -> Mono.fromCallable(() -> {
+                    Map<Long, Door> doors = new HashMap<>();
+                    doorRepository.findAllById(ids).forEach(door -> doors.put(door.getId(), door));
+                    return doors;
+                }));
+
+        registry.forTypePair(Long.class, Location.class)
+                .withName(LOCATIONS_BY_ADDRESS_ID)
+                .registerMappedBatchLoader((ids, environment) -> Mono.fromCallable(() -> {
+                    Map<Long, Location> locations = new HashMap<>();
+                    for (Address address : addressRepository.findAllWithLocationByIdIn(ids)) {
+                        locations.put(address.getId(), address.getLocation());
+                    }
+                    return locations;
+                }));
+    }
+}
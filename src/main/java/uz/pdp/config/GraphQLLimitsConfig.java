@@ -0,0 +1,60 @@
+package uz.pdp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+
+/**
+ * Guard rails for the public {@code /graphql} endpoint.
+ *
+ * Before a query runs we check how deep it nests and what it would cost
+ * ({@link QueryCostCalculator}); anything over budget is rejected with an error
+ * instead of being allowed to chew through the CPU and the database. Parsed and
+ * validated documents are cached by hash ({@link PersistedQueryDocumentProvider}),
+ * which also gives clients Automatic Persisted Queries. 🛡️
+ *
+ * Spring Boot registers the instrumentation beans with GraphQL on its own.
+ */
+@Configuration
+public class GraphQLLimitsConfig {
+
+    // The standard introspection query (GraphiQL) nests about 13 levels deep
+    @Value("${graphql.limits.max-depth:15}")
+    private int maxDepth;
+
+    @Value("${graphql.limits.max-cost:1000}")
+    private int maxCost;
+
+    @Value("${graphql.limits.default-list-size:10}")
+    private int defaultListSize;
+
+    @Value("${graphql.limits.max-list-size:100}")
+    private int maxListSize;
+
+    @Value("${graphql.persisted-queries.max-entries:1000}")
+    private int maxPersistedQueries;
+
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation() {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation() {
+        return new MaxQueryComplexityInstrumentation(maxCost, new QueryCostCalculator(defaultListSize, maxListSize));
+    }
+
+    @Bean
+    public PersistedQueryDocumentProvider persistedQueryDocumentProvider() {
+        return new PersistedQueryDocumentProvider(maxPersistedQueries);
+    }
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer persistedQueryCustomizer(PersistedQueryDocumentProvider provider) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(provider));
+    }
+}
@@ -0,0 +1,60 @@
+package uz.pdp.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Worker pools for image uploads and variant rendering.
+ *
+ * Resizing is CPU heavy, so it runs off the request thread on a small bounded pool.
+ * When the queue is full the uploading thread renders the variants itself - slower
+ * for that one request, but we never drop work and never pile up unbounded bitmaps.
+ *
+ * Uploads are network bound, so their pool is wider: a request with 8 photos
+ * sends all of them at once and waits only as long as the slowest one.
+ */
+@Configuration
+public class ImageProcessingConfig {
+
+    @Value("${images.processing.pool-size:2}")
+    private int poolSize;
+
+    @Value("${images.processing.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${images.upload.pool-size:8}")
+    private int uploadPoolSize;
+
+    @Value("${images.upload.queue-capacity:64}")
+    private int uploadQueueCapacity;
+
+    @Bean(name = "imageProcessingExecutor")
+    public ThreadPoolTaskExecutor imageProcessingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-variants-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "imageUploadExecutor")
+    public ThreadPoolTaskExecutor imageUploadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(uploadPoolSize);
+        executor.setMaxPoolSize(uploadPoolSize);
+        executor.setQueueCapacity(uploadQueueCapacity);
+        executor.setThreadNamePrefix("image-upload-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
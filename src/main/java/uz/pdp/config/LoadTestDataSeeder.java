@@ -0,0 +1,389 @@
+package uz.pdp.config;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import uz.pdp.entity.Door;
+import uz.pdp.entity.Order;
+import uz.pdp.enums.Color;
+import uz.pdp.enums.DoorLocation;
+import uz.pdp.enums.DoorStatus;
+import uz.pdp.enums.FrameType;
+import uz.pdp.enums.HardwareType;
+import uz.pdp.enums.ItemType;
+import uz.pdp.enums.OrderType;
+import uz.pdp.enums.Role;
+import uz.pdp.enums.Size;
+import uz.pdp.service.PricingEngine;
+
+/**
+ * Seeds a database big enough to load-test against (profile {@code loadtest}):
+ * users, doors, door history, baskets and orders in the volumes set under
+ * {@code load-test.seed}.
+ *
+ * Rows go in as JDBC batches, one transaction per batch, with ids taken from the
+ * sequences up front like {@code ColorVariantService} does - Hibernate would take
+ * hours for a million history rows. Every stage tops up to its target, so starting
+ * the profile again on a seeded database adds nothing and an interrupted seed
+ * carries on where it stopped.
+ *
+ * Seeded users are {@code loadtest-1} ... {@code loadtest-N}, all with the password
+ * {@code load-test.seed.password}; the first {@code load-test.seed.sellers} of them
+ * are sellers and own the doors. 🏗️
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestDataSeeder implements CommandLineRunner {
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestDataSeeder.class);
+
+    private static final String USER_PREFIX = "loadtest-";
+    private static final String DOOR_CODE_PREFIX = "LT-";
+    private static final String SEEDED_USERS = USER_PREFIX + "%";
+    private static final String SEEDED_DOORS = DOOR_CODE_PREFIX + "%";
+    private static final String[] MATERIALS = {"Oak", "Pine", "Walnut", "Steel", "Tempered Glass", "MDF"};
+    private static final String[] MANUFACTURERS = {"Etadoor", "Doormaster", "Portal Works", "Hinge & Co"};
+    private static final String[] STREETS = {"Amir Temur", "Navoi", "Mustaqillik", "Bunyodkor", "Shota Rustaveli"};
+    private static final Size[] SIZES = Arrays.stream(Size.values())
+            .filter(size -> size != Size.CUSTOM).toArray(Size[]::new);
+    private static final Color[] COLORS = Arrays.stream(Color.values())
+            .filter(color -> color != Color.CUSTOM).toArray(Color[]::new);
+
+    private static final String NEXT_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)";
+    private static final String SEEDED_USERS_SQL = "SELECT id FROM users WHERE name LIKE ? ORDER BY id";
+    private static final String SEEDED_SELLERS_SQL =
+            "SELECT id FROM users WHERE name LIKE ? AND role = 'SELLER' ORDER BY id";
+    private static final String INSERT_USER_SQL = """
+            INSERT INTO users (id, name, lastname, email, password, phone, seller_request_pending, role, active)
+            VALUES (?, ?, ?, ?, ?, ?, false, ?, true)
+            """;
+    private static final String CATEGORIES_SQL = "SELECT id FROM categories WHERE active ORDER BY id";
+    private static final String SEEDED_DOORS_SQL =
+            "SELECT id, name, final_price FROM doors WHERE external_id LIKE ? ORDER BY id";
+    private static final String INSERT_DOOR_SQL = """
+            INSERT INTO doors (id, name, description, price, final_price, category_id, size, color, material,
+                               manufacturer, warranty_years, is_custom_color, status, active, seller_id,
+                               door_location, frame_type, hardware, external_id, is_base_model)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false, ?, true, ?, ?, ?, ?, ?, false)
+            """;
+    private static final String INSERT_IMAGE_SQL = "INSERT INTO door_images (door_id, images) VALUES (?, ?)";
+    private static final String HISTORY_COUNT_SQL = "SELECT count(*) FROM door_history";
+    private static final String INSERT_HISTORY_SQL =
+            "INSERT INTO door_history (user_id, door_id, accessed_at) VALUES (?, ?, ?)";
+    private static final String SEEDED_BASKETS_SQL =
+            "SELECT count(*) FROM baskets b JOIN users u ON u.id = b.user_id WHERE u.name LIKE ?";
+    private static final String USERS_WITHOUT_BASKET_SQL = """
+            SELECT u.id FROM users u
+            WHERE u.name LIKE ? AND NOT EXISTS (SELECT 1 FROM baskets b WHERE b.user_id = u.id)
+            ORDER BY u.id
+            LIMIT ?
+            """;
+    private static final String INSERT_BASKET_SQL = "INSERT INTO baskets (id, user_id) VALUES (?, ?)";
+    private static final String INSERT_BASKET_ITEM_SQL = """
+            INSERT INTO basket_items (version, basket_id, item_id, type, quantity, price, name, image)
+            VALUES (0, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String SEEDED_ORDERS_SQL = "SELECT count(*) FROM orders WHERE customer_name LIKE ?";
+    private static final String INSERT_ORDER_SQL = """
+            INSERT INTO orders (user_id, item_id, item_type, price, quantity, item_name, order_type, customer_name,
+                                email, delivery_address, contact_phone, order_date, preferred_delivery_time, status)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final PricingEngine pricingEngine;
+    private final Random random = new Random(42);
+
+    @Value("${load-test.seed.users:50000}")
+    private int users;
+
+    @Value("${load-test.seed.sellers:500}")
+    private int sellers;
+
+    @Value("${load-test.seed.doors:100000}")
+    private int doors;
+
+    @Value("${load-test.seed.history:1000000}")
+    private int history;
+
+    @Value("${load-test.seed.baskets:20000}")
+    private int baskets;
+
+    @Value("${load-test.seed.orders:200000}")
+    private int orders;
+
+    @Value("${load-test.seed.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${load-test.seed.password:loadtest}")
+    private String password;
+
+    public LoadTestDataSeeder(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              PasswordEncoder passwordEncoder, PricingEngine pricingEngine) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.pricingEngine = pricingEngine;
+    }
+
+    /**
+     * A seeded door, as baskets and orders need it.
+     */
+    private record SeededDoor(long id, String name, double price) {
+    }
+
+    /**
+     * Writes the rows with indexes {@code from} (inclusive) to {@code to} (exclusive) of a stage.
+     */
+    @FunctionalInterface
+    private interface BatchWriter {
+        void write(int from, int to);
+    }
+
+    @Override
+    public void run(String... args) {
+        long start = System.nanoTime();
+        logger.info("Seeding load test data: {} users, {} doors, {} history rows, {} baskets, {} orders",
+                users, doors, history, baskets, orders);
+
+        List<Long> userIds = seedUsers();
+        List<SeededDoor> seededDoors = seedDoors();
+        if (userIds.isEmpty() || seededDoors.isEmpty()) {
+            logger.warn("Load test data: no users or doors, skipping history, baskets and orders");
+            return;
+        }
+        seedHistory(userIds, seededDoors);
+        seedBaskets(seededDoors);
+        seedOrders(userIds, seededDoors);
+
+        logger.info("Load test data ready in {}s", (System.nanoTime() - start) / 1_000_000_000);
+    }
+
+    private List<Long> seedUsers() {
+        List<Long> existing = jdbcTemplate.queryForList(SEEDED_USERS_SQL, Long.class, SEEDED_USERS);
+        // One hash for everyone - BCrypt takes ~100ms a go
+        String encodedPassword = passwordEncoder.encode(password);
+        seed("users", existing.size(), users, (from, to) -> {
+            List<Long> ids = nextIds("users", to - from);
+            jdbcTemplate.batchUpdate(INSERT_USER_SQL, indexes(from, to), batchSize, (ps, i) -> {
+                int n = i + 1;
+                ps.setLong(1, ids.get(i - from));
+                ps.setString(2, USER_PREFIX + n);
+                ps.setString(3, "Tester");
+                ps.setString(4, email(n));
+                ps.setString(5, encodedPassword);
+                ps.setString(6, phone(n));
+                ps.setString(7, (i < sellers ? Role.SELLER : Role.USER).name());
+            });
+        });
+        return jdbcTemplate.queryForList(SEEDED_USERS_SQL, Long.class, SEEDED_USERS);
+    }
+
+    private List<SeededDoor> seedDoors() {
+        List<Long> sellerIds = jdbcTemplate.queryForList(SEEDED_SELLERS_SQL, Long.class, SEEDED_USERS);
+        List<Long> categoryIds = jdbcTemplate.queryForList(CATEGORIES_SQL, Long.class);
+        int existing = jdbcTemplate.query(SEEDED_DOORS_SQL, (rs, row) -> rs.getLong(1), SEEDED_DOORS).size();
+        if (sellerIds.isEmpty() && existing < doors) {
+            logger.warn("Load test data: no seeded sellers, skipping doors");
+            return loadSeededDoors();
+        }
+        seed("doors", existing, doors, (from, to) -> {
+            List<Long> ids = nextIds("doors", to - from);
+            List<Door> batch = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                batch.add(door(ids.get(i - from), i + 1));
+            }
+            jdbcTemplate.batchUpdate(INSERT_DOOR_SQL, batch, batchSize, (ps, door) -> {
+                ps.setLong(1, door.getId());
+                ps.setString(2, door.getName());
+                ps.setString(3, door.getDescription());
+                ps.setDouble(4, door.getPrice());
+                ps.setDouble(5, door.getFinalPrice());
+                if (categoryIds.isEmpty()) {
+                    ps.setNull(6, Types.BIGINT);
+                } else {
+                    ps.setLong(6, categoryIds.get(random.nextInt(categoryIds.size())));
+                }
+                ps.setString(7, door.getSize().name());
+                ps.setString(8, door.getColor().name());
+                ps.setString(9, door.getMaterial());
+                ps.setString(10, door.getManufacturer());
+                ps.setInt(11, door.getWarrantyYears());
+                ps.setString(12, DoorStatus.AVAILABLE.name());
+                ps.setLong(13, sellerIds.get((int) (door.getId() % sellerIds.size())));
+                ps.setString(14, door.getDoorLocation().name());
+                ps.setString(15, door.getFrameType().name());
+                ps.setString(16, door.getHardware().name());
+                ps.setString(17, door.getExternalId());
+            });
+            jdbcTemplate.batchUpdate(INSERT_IMAGE_SQL, batch, batchSize, (ps, door) -> {
+                ps.setLong(1, door.getId());
+                ps.setString(2, door.getImages().get(0));
+            });
+        });
+        return loadSeededDoors();
+    }
+
+    private void seedHistory(List<Long> userIds, List<SeededDoor> seededDoors) {
+        int existing = jdbcTemplate.queryForObject(HISTORY_COUNT_SQL, Integer.class);
+        LocalDateTime now = LocalDateTime.now();
+        seed("door history rows", existing, history, (from, to) ->
+                jdbcTemplate.batchUpdate(INSERT_HISTORY_SQL, indexes(from, to), batchSize, (ps, i) -> {
+                    ps.setLong(1, userIds.get(random.nextInt(userIds.size())));
+                    ps.setLong(2, seededDoors.get(random.nextInt(seededDoors.size())).id());
+                    ps.setObject(3, now.minusSeconds(random.nextInt(90 * 24 * 3600)));
+                }));
+    }
+
+    private void seedBaskets(List<SeededDoor> seededDoors) {
+        int existing = jdbcTemplate.queryForObject(SEEDED_BASKETS_SQL, Integer.class, SEEDED_USERS);
+        if (existing >= baskets) {
+            logger.info("Load test data: {} baskets already there", existing);
+            return;
+        }
+        List<Long> owners = jdbcTemplate.queryForList(USERS_WITHOUT_BASKET_SQL, Long.class, SEEDED_USERS,
+                baskets - existing);
+        seed("baskets", existing, existing + owners.size(), (from, to) -> {
+            List<Long> ids = nextIds("baskets", to - from);
+            List<Object[]> items = new ArrayList<>();
+            for (Long basketId : ids) {
+                for (int line = 1 + random.nextInt(3); line > 0; line--) {
+                    SeededDoor door = seededDoors.get(random.nextInt(seededDoors.size()));
+                    items.add(new Object[]{basketId, door.id(), ItemType.DOOR.name(), 1 + random.nextInt(2),
+                            door.price(), door.name(), imageUrl(door.id())});
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_BASKET_SQL, indexes(from, to), batchSize, (ps, i) -> {
+                ps.setLong(1, ids.get(i - from));
+                ps.setLong(2, owners.get(i - existing));
+            });
+            jdbcTemplate.batchUpdate(INSERT_BASKET_ITEM_SQL, items);
+        });
+    }
+
+    private void seedOrders(List<Long> userIds, List<SeededDoor> seededDoors) {
+        int existing = jdbcTemplate.queryForObject(SEEDED_ORDERS_SQL, Integer.class, SEEDED_USERS);
+        OffsetDateTime now = OffsetDateTime.now();
+        Order.OrderStatus[] statuses = Order.OrderStatus.values();
+        seed("orders", existing, orders, (from, to) ->
+                jdbcTemplate.batchUpdate(INSERT_ORDER_SQL, indexes(from, to), batchSize, (ps, i) -> {
+                    int user = random.nextInt(userIds.size());
+                    int n = user + 1;
+                    SeededDoor door = seededDoors.get(random.nextInt(seededDoors.size()));
+                    OffsetDateTime orderDate = now.minusMinutes(random.nextInt(365 * 24 * 60));
+                    ps.setLong(1, userIds.get(user));
+                    ps.setLong(2, door.id());
+                    ps.setString(3, ItemType.DOOR.name());
+                    ps.setDouble(4, door.price());
+                    ps.setInt(5, 1 + random.nextInt(3));
+                    ps.setString(6, door.name());
+                    ps.setString(7, OrderType.values()[random.nextInt(OrderType.values().length)].name());
+                    ps.setString(8, USER_PREFIX + n);
+                    ps.setString(9, email(n));
+                    ps.setString(10, address());
+                    ps.setString(11, phone(n));
+                    ps.setObject(12, orderDate);
+                    ps.setObject(13, orderDate.plusDays(3));
+                    ps.setString(14, statuses[random.nextInt(statuses.length)].name());
+                }));
+    }
+
+    /**
+     * Runs a stage from {@code existing} up to {@code target} rows, one batch per transaction.
+     */
+    private void seed(String what, int existing, int target, BatchWriter writer) {
+        if (existing >= target) {
+            logger.info("Load test data: {} {} already there", existing, what);
+            return;
+        }
+        long start = System.nanoTime();
+        int reported = 0;
+        for (int from = existing; from < target; from += batchSize) {
+            int batchFrom = from;
+            int batchTo = Math.min(target, from + batchSize);
+            transactionTemplate.executeWithoutResult(status -> writer.write(batchFrom, batchTo));
+            int percent = (int) ((batchTo - existing) * 100L / (target - existing));
+            if (percent >= reported + 10) {
+                reported = percent - percent % 10;
+                logger.info("Load test data: {} {}% ({}/{})", what, reported, batchTo, target);
+            }
+        }
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        logger.info("Load test data: seeded {} {} in {}ms ({} rows/s)", target - existing, what, millis,
+                (target - existing) * 1000L / millis);
+    }
+
+    private Door door(long id, int n) {
+        Door door = new Door();
+        door.setId(id);
+        String material = pick(MATERIALS);
+        DoorLocation location = pick(DoorLocation.values());
+        door.setName(material + " " + location.getDisplayName() + " door #" + n);
+        door.setDescription("A " + material.toLowerCase() + " door for the " + location.getDisplayName().toLowerCase());
+        door.setMaterial(material);
+        door.setManufacturer(pick(MANUFACTURERS));
+        door.setWarrantyYears(1 + random.nextInt(10));
+        door.setPrice(150.0 + random.nextInt(1850));
+        door.setSize(pick(SIZES));
+        door.setColor(pick(COLORS));
+        door.setDoorLocation(location);
+        door.setFrameType(pick(FrameType.values()));
+        door.setHardware(pick(HardwareType.values()));
+        door.setExternalId(DOOR_CODE_PREFIX + n);
+        door.setImages(List.of(imageUrl(id)));
+        pricingEngine.applyTo(door);
+        return door;
+    }
+
+    private List<SeededDoor> loadSeededDoors() {
+        return jdbcTemplate.query(SEEDED_DOORS_SQL,
+                (rs, row) -> new SeededDoor(rs.getLong(1), rs.getString(2), rs.getDouble(3)), SEEDED_DOORS);
+    }
+
+    private List<Long> nextIds(String table, int count) {
+        return jdbcTemplate.queryForList(NEXT_IDS_SQL, Long.class, table, count);
+    }
+
+    private String address() {
+        return (1 + random.nextInt(200)) + " " + pick(STREETS) + " St, Tashkent";
+    }
+
+    private <T> T pick(T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static List<Integer> indexes(int from, int to) {
+        return IntStream.range(from, to).boxed().toList();
+    }
+
+    private static String email(int n) {
+        return USER_PREFIX + n + "@example.com";
+    }
+
+    private static String phone(int n) {
+        return String.format("+99890%07d", n);
+    }
+
+    // A handful of shared pictures: the catalog needs URLs, not 100k uploads
+    private static String imageUrl(long doorId) {
+        return "https://images.etadoor.test/loadtest/door-" + doorId % 20 + ".webp";
+    }
+}
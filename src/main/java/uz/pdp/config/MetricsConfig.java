@@ -0,0 +1,167 @@
+package uz.pdp.config;
+
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+import javax.sql.DataSource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import com.amazonaws.services.s3.AmazonS3;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import uz.pdp.service.DoorFamilyService;
+import uz.pdp.service.DoorFilterService;
+import uz.pdp.service.ImageDeletionQueue;
+import uz.pdp.service.ImageDeliveryService;
+import uz.pdp.service.PriceQuoteService;
+
+/**
+ * Application metrics, scraped by Prometheus at {@code /actuator/prometheus}.
+ *
+ * <ul>
+ *     <li>{@code doorshop.service} - every public method of a service annotated
+ *     with {@code @Timed("doorshop.service")}, tagged by class and method</li>
+ *     <li>{@code doorshop.client.requests} - S3 and SMTP calls, tagged by client
+ *     and operation</li>
+ *     <li>{@code doorshop.http.sql.statements} / {@code doorshop.http.sql.repeated} - SQL
+ *     statements per request, and requests that look like an N+1</li>
+ *     <li>{@code doorshop.cache.requests} - hits and misses of the in-memory caches</li>
+ *     <li>{@code doorshop.filter.scans} / {@code doorshop.filter.scanned.rows} - door
+ *     filters that load the whole catalog</li>
+ *     <li>{@code doorshop.queue.depth} - work waiting in the application's own queues;
+ *     the executor pools are reported by Boot as {@code executor.queued}</li>
+ * </ul>
+ *
+ * Percentiles and histogram buckets are set per meter prefix under
+ * {@code management.metrics.distribution}.
+ */
+@Configuration
+public class MetricsConfig {
+    // Local bookkeeping on the S3 client, no request behind it
+    private static final Set<String> UNTIMED_S3_METHODS = Set.of("getUrl", "getRegion", "getRegionName",
+            "setRegion", "setEndpoint", "setS3ClientOptions", "getCachedResponseMetadata", "waiters", "shutdown",
+            "toString", "hashCode", "equals");
+    private static final Set<String> UNTIMED_SMTP_METHODS = Set.of("createMimeMessage", "toString", "hashCode",
+            "equals");
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Times the S3 client and the mail sender, and counts the statements of the
+     * application's data source.
+     */
+    @Bean
+    public static BeanPostProcessor instrumentingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof AmazonS3) {
+                    return timed(bean, "s3", meterRegistry, UNTIMED_S3_METHODS);
+                }
+                if (bean instanceof JavaMailSender) {
+                    return timed(bean, "smtp", meterRegistry, UNTIMED_SMTP_METHODS);
+                }
+                if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+                    return new StatementCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder cacheMetrics(DoorFamilyService doorFamilyService, PriceQuoteService priceQuoteService,
+                                    ImageDeliveryService imageDeliveryService) {
+        return registry -> {
+            cache(registry, "door-family", doorFamilyService,
+                    DoorFamilyService::getHitCount, DoorFamilyService::getMissCount);
+            cache(registry, "price-quote-snapshots", priceQuoteService,
+                    PriceQuoteService::getHitCount, PriceQuoteService::getMissCount);
+            cache(registry, "images", imageDeliveryService,
+                    ImageDeliveryService::getHitCount, ImageDeliveryService::getMissCount);
+            Gauge.builder("doorshop.cache.entries", doorFamilyService, DoorFamilyService::size)
+                    .tag("cache", "door-family")
+                    .register(registry);
+            Gauge.builder("doorshop.cache.size", imageDeliveryService, ImageDeliveryService::getCachedBytes)
+                    .tag("cache", "images")
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder filterMetrics(DoorFilterService doorFilterService) {
+        return registry -> {
+            FunctionCounter.builder("doorshop.filter.scans", doorFilterService, DoorFilterService::getScanCount)
+                    .description("Door filters that loaded the whole catalog")
+                    .register(registry);
+            FunctionCounter.builder("doorshop.filter.scanned.rows", doorFilterService,
+                            DoorFilterService::getScannedRowCount)
+                    .description("Doors loaded by full-catalog filters")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder queueMetrics(ImageDeletionQueue imageDeletionQueue) {
+        return registry -> Gauge.builder("doorshop.queue.depth", imageDeletionQueue,
+                        ImageDeletionQueue::pendingCount)
+                .tag("queue", "image-deletion")
+                .register(registry);
+    }
+
+    private static <T> void cache(MeterRegistry registry, String name, T cache,
+                                  ToDoubleFunction<T> hits,
+                                  ToDoubleFunction<T> misses) {
+        FunctionCounter.builder("doorshop.cache.requests", cache, hits)
+                .tag("cache", name)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("doorshop.cache.requests", cache, misses)
+                .tag("cache", name)
+                .tag("result", "miss")
+                .register(registry);
+    }
+
+    private static Object timed(Object bean, String client, ObjectProvider<MeterRegistry> meterRegistry,
+                                Set<String> untimed) {
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            String operation = invocation.getMethod().getName();
+            if (untimed.contains(operation)) {
+                return invocation.proceed();
+            }
+            Timer.Sample sample = Timer.start();
+            String outcome = "success";
+            try {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                outcome = "error";
+                throw e;
+            } finally {
+                sample.stop(Timer.builder("doorshop.client.requests")
+                        .description("Calls to external services")
+                        .tag("client", client)
+                        .tag("operation", operation)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry.getObject()));
+            }
+        });
+        return proxyFactory.getProxy();
+    }
+}
@@ -58,6 +58,16 @@ public class MyConf {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
 
+                        // Basket operations - guests get a cookie basket, checkout still needs a login
+                        .requestMatchers(HttpMethod.POST, "/api/doors/*/basket").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/door-accessories/*/basket").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/mouldings/*/basket").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/basket").permitAll()
+                        .requestMatchers("/api/basket/items/**", "/api/basket/clear").permitAll()
+
+                        // Price quotes only read - anyone may ask
+                        .requestMatchers(HttpMethod.POST, "/api/doors/*/quote").permitAll()
+
                         // Protected endpoints for modification operations
                         .requestMatchers(HttpMethod.POST, "/api/doors/**").hasAnyRole("ADMIN", "SELLER")
                         .requestMatchers(HttpMethod.PUT, "/api/doors/**").hasAnyRole("ADMIN", "SELLER")
@@ -67,10 +77,6 @@ public class MyConf {
                         .requestMatchers(HttpMethod.PUT, "/api/contacts/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/contacts/**").hasRole("ADMIN")
 
-                        // Basket operations
-                        .requestMatchers(HttpMethod.POST, "/api/doors/*/basket").authenticated()
-                        .requestMatchers(HttpMethod.POST, "/api/accessories/*/basket").authenticated()
-
                         // Storage operations
                         .requestMatchers(HttpMethod.POST, "/api/storages/**").hasAnyRole("ADMIN", "SELLER")
                         .requestMatchers(HttpMethod.PUT, "/api/storages/**").hasAnyRole("ADMIN", "SELLER")
@@ -101,6 +107,7 @@ public class MyConf {
                         .requestMatchers(HttpMethod.GET, "/api/v1/doors/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/categories/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/storages/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/images/**").permitAll()
 
                         // All other requests need authentication
                         .anyRequest().authenticated())
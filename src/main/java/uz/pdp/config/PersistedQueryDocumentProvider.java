@@ -0,0 +1,132 @@
+package uz.pdp.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import graphql.ExecutionInput;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+
+/**
+ * Parsed-and-validated query cache with Automatic Persisted Queries (Apollo protocol).
+ *
+ * Every valid document is cached under the SHA-256 of its text in a bounded LRU,
+ * so a hot query is parsed and validated once and then just looked up. Clients
+ * that speak APQ can send only {@code extensions.persistedQuery.sha256Hash}:
+ * <ul>
+ *     <li>known hash - executed straight from the cache;</li>
+ *     <li>unknown hash - {@code PersistedQueryNotFound}, the client retries with the full text;</li>
+ *     <li>hash plus text that don't match - {@code PersistedQueryIdInvalid}.</li>
+ * </ul>
+ * Documents with validation errors are never cached. Over HTTP, hash-only requests
+ * need {@link uz.pdp.config.filtr.PersistedQueryFilter} to get this far.
+ */
+public class PersistedQueryDocumentProvider implements PreparsedDocumentProvider {
+    private static final String PERSISTED_QUERY = "persistedQuery";
+    private static final String SHA256_HASH = "sha256Hash";
+
+    private final Map<String, PreparsedDocumentEntry> documents;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public PersistedQueryDocumentProvider(int maxEntries) {
+        this.documents = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparsedDocumentEntry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(
+            ExecutionInput executionInput, Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        return CompletableFuture.completedFuture(lookup(executionInput, parseAndValidate));
+    }
+
+    private PreparsedDocumentEntry lookup(ExecutionInput executionInput,
+                                          Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        String query = executionInput.getQuery();
+        String requestedHash = requestedHash(executionInput);
+
+        // PersistedQueryFilter puts the marker in place of a missing query
+        if (query == null || query.isBlank() || PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query)) {
+            if (requestedHash == null) {
+                // Nothing to look up - let graphql-java report the empty query
+                return parseAndValidate.apply(executionInput);
+            }
+            PreparsedDocumentEntry cached = documents.get(requestedHash.toLowerCase());
+            if (cached == null) {
+                misses.incrementAndGet();
+                return new PreparsedDocumentEntry(persistedQueryError("PersistedQueryNotFound",
+                        "PERSISTED_QUERY_NOT_FOUND"));
+            }
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        String hash = sha256(query);
+        if (requestedHash != null && !requestedHash.equalsIgnoreCase(hash)) {
+            return new PreparsedDocumentEntry(persistedQueryError("PersistedQueryIdInvalid",
+                    "PERSISTED_QUERY_ID_INVALID"));
+        }
+        PreparsedDocumentEntry cached = documents.get(hash);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        PreparsedDocumentEntry entry = parseAndValidate.apply(executionInput);
+        if (!entry.hasErrors()) {
+            documents.put(hash, entry);
+        }
+        return entry;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    private static String requestedHash(ExecutionInput executionInput) {
+        Map<String, Object> extensions = executionInput.getExtensions();
+        if (extensions == null || !(extensions.get(PERSISTED_QUERY) instanceof Map<?, ?> persistedQuery)) {
+            return null;
+        }
+        return persistedQuery.get(SHA256_HASH) instanceof String hash ? hash : null;
+    }
+
+    private static GraphQLError persistedQueryError(String message, String code) {
+        return GraphqlErrorBuilder.newError()
+                .message(message)
+                .extensions(Map.of("classification", message, "code", code))
+                .build();
+    }
+
+    private static String sha256(String query) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package uz.pdp.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Worker pool for price lists that go out by email.
+ *
+ * Each job holds a database connection while it reads the catalog, so the pool
+ * stays small. When the queue is full new requests are turned away instead of
+ * piling up behind the ones already waiting.
+ */
+@Configuration
+public class PriceListExportConfig {
+
+    @Value("${price-list.export.email.pool-size:1}")
+    private int poolSize;
+
+    @Value("${price-list.export.email.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Bean(name = "priceListExportExecutor")
+    public ThreadPoolTaskExecutor priceListExportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("price-list-export-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,94 @@
+package uz.pdp.config;
+
+import java.util.Map;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.FieldComplexityEnvironment;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLNonNull;
+import graphql.schema.GraphQLType;
+
+/**
+ * Static cost of a GraphQL query, computed before anything is executed.
+ *
+ * Every field costs its weight (1 unless listed in {@link #WEIGHTS}) plus the cost of
+ * its children, and list fields multiply their children by the number of rows they
+ * can return: the {@code size}/{@code limit}/{@code first} argument if there is one -
+ * on the list itself or on the page wrapper above it - otherwise a default guess.
+ * Page sizes are capped, so {@code size: 1000000} doesn't sneak past as "one field".
+ *
+ * Introspection is free: it is answered from the in-memory schema.
+ */
+public class QueryCostCalculator implements FieldComplexityCalculator {
+
+    /** Fields that hit the database harder than a plain property read. */
+    private static final Map<String, Integer> WEIGHTS = Map.ofEntries(
+            Map.entry("Query.doors", 5),
+            Map.entry("Query.searchDoors", 10),
+            Map.entry("Query.users", 5),
+            Map.entry("Query.addresses", 5),
+            Map.entry("Query.searchAddresses", 5),
+            Map.entry("Query.nearestAddress", 10),
+            Map.entry("Query.doorHistory", 5),
+            Map.entry("Query.userOrders", 5),
+            Map.entry("Page_Door.getAllDoors", 5),
+            Map.entry("Door.seller", 2),
+            Map.entry("Order.door", 2),
+            Map.entry("Address.location", 2),
+            Map.entry("DoorHistory.door", 2)
+    );
+    private static final String[] PAGE_SIZE_ARGUMENTS = {"size", "limit", "first"};
+
+    private final int defaultListSize;
+    private final int maxListSize;
+
+    public QueryCostCalculator(int defaultListSize, int maxListSize) {
+        this.defaultListSize = defaultListSize;
+        this.maxListSize = maxListSize;
+    }
+
+    @Override
+    public int calculate(FieldComplexityEnvironment environment, int childComplexity) {
+        String fieldName = environment.getField().getName();
+        String parentName = environment.getParentType().getName();
+        if (fieldName.startsWith("__") || parentName.startsWith("__")) {
+            return 0;
+        }
+        int weight = WEIGHTS.getOrDefault(parentName + "." + fieldName, 1);
+        long cost = weight + (long) multiplier(environment) * childComplexity;
+        return (int) Math.min(Integer.MAX_VALUE, cost);
+    }
+
+    private int multiplier(FieldComplexityEnvironment environment) {
+        if (!isList(environment.getFieldDefinition().getType())) {
+            // Page wrappers cost like a single object - their content list picks up the size below
+            return 1;
+        }
+        Integer size = pageSize(environment.getArguments());
+        FieldComplexityEnvironment parent = environment.getParentEnvironment();
+        if (size == null && parent != null && !isList(parent.getFieldDefinition().getType())) {
+            size = pageSize(parent.getArguments());
+        }
+        if (size == null) {
+            return defaultListSize;
+        }
+        return Math.max(1, Math.min(size, maxListSize));
+    }
+
+    private static Integer pageSize(Map<String, Object> arguments) {
+        if (arguments == null) {
+            return null;
+        }
+        for (String name : PAGE_SIZE_ARGUMENTS) {
+            if (arguments.get(name) instanceof Number number) {
+                return number.intValue();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isList(GraphQLType type) {
+        GraphQLType unwrapped = type instanceof GraphQLNonNull nonNull ? nonNull.getWrappedType() : type;
+        return unwrapped instanceof GraphQLList;
+    }
+}
@@ -0,0 +1,118 @@
+package uz.pdp.config;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Read replicas for read-only transactions.
+ *
+ * With {@code replicas.enabled} the application gets three data sources instead
+ * of Boot's one: the primary pool, configured by {@code spring.datasource} as
+ * before, a pool per replica URL, and a router in front of both that everything
+ * else uses. Without it nothing changes.
+ *
+ * Replica pools copy the primary pool's settings, and are read-only.
+ *
+ * Hibernate gives its connection back after every transaction instead of holding
+ * it until the EntityManager closes. With open-in-view that is the end of the
+ * request, and the first transaction would pick the pool for all the others: a
+ * write after a read-only lookup would go to the replica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Value("${replicas.urls}")
+    private String urls;
+
+    @Value("${replicas.username:${spring.datasource.username:}}")
+    private String username;
+
+    @Value("${replicas.password:${spring.datasource.password:}}")
+    private String password;
+
+    @Value("${replicas.pool-size:20}")
+    private int poolSize;
+
+    @Value("${replicas.lag-query}")
+    private String lagQuery;
+
+    @Value("${replicas.max-lag-seconds:5}")
+    private double maxLagSeconds;
+
+    private ReplicaRoutingDataSource router;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") HikariDataSource primaryDataSource) {
+        List<String> replicaUrls = Arrays.stream(urls.split(",")).map(String::trim).filter(url -> !url.isEmpty()).toList();
+        if (replicaUrls.isEmpty()) {
+            throw new IllegalStateException("replicas.enabled is set but replicas.urls is empty");
+        }
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            primaryDataSource.copyStateTo(replica);
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(replicaUrls.get(i));
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setMinimumIdle(Math.min(primaryDataSource.getMinimumIdle(), poolSize));
+            replica.setReadOnly(true);
+            // Start lazily: a replica that's down at boot mustn't keep the application from starting
+            replica.setInitializationFailTimeout(-1);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        router = new ReplicaRoutingDataSource(primaryDataSource, replicas, lagQuery, maxLagSeconds);
+        router.checkLag();
+        return router;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Scheduled(fixedDelayString = "${replicas.lag-check-interval-ms:2000}")
+    public void checkReplicaLag() {
+        if (router != null) {
+            router.checkLag();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package uz.pdp.config;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary.
+ *
+ * Replicas are picked round robin among the healthy ones. A replica is healthy
+ * while its last lag check answered within the allowed lag; one that lags, fails
+ * the check or refuses a connection is skipped until a later check finds it well
+ * again. With no healthy replica, reads go to the primary.
+ *
+ * Must sit behind a {@code LazyConnectionDataSourceProxy}: the transaction manager
+ * asks for a connection before the transaction is marked read-only, the proxy
+ * only fetches it at the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param primary Where writes, and reads without a healthy replica, go
+     * @param replicas Replica pools by name
+     * @param lagQuery Returns the replica's lag in seconds as its only column
+     * @param maxLagSeconds Lag above which a replica is skipped
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, String lagQuery,
+                                    double maxLagSeconds) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        // Unknown until the first check; a fresh replica shouldn't serve stale reads
+        private volatile boolean healthy;
+        private volatile double lagSeconds = Double.NaN;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.jdbcTemplate.setQueryTimeout(2);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            Replica replica = pick();
+            if (replica != null) {
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    markDown(replica, "connection failed: " + e.getMessage());
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Asks every replica how far behind it is and updates which ones may serve reads.
+     */
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            try {
+                Number lag = replica.jdbcTemplate.queryForObject(lagQuery, Number.class);
+                replica.lagSeconds = lag != null ? lag.doubleValue() : 0.0;
+                if (replica.lagSeconds > maxLagSeconds) {
+                    markDown(replica, String.format("lagging %.1f s behind", replica.lagSeconds));
+                } else if (!replica.healthy) {
+                    replica.healthy = true;
+                    logger.info("Replica {} is serving reads, lag {} s", replica.name, replica.lagSeconds);
+                }
+            } catch (RuntimeException e) {
+                replica.lagSeconds = Double.NaN;
+                markDown(replica, "lag check failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Names of the replicas that may serve reads right now.
+     */
+    public List<String> healthyReplicas() {
+        return replicas.stream().filter(replica -> replica.healthy).map(replica -> replica.name).toList();
+    }
+
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Could not close replica {}: {}", replica.name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private Replica pick() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void markDown(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            logger.warn("Replica {} taken out of rotation: {}", replica.name, reason);
+        }
+    }
+}
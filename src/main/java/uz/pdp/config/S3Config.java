@@ -3,15 +3,23 @@ package uz.pdp.config;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 
+/**
+ * S3 client for the default image store - skipped entirely with {@code images.storage.type=local}.
+ */
 @Configuration
+@ConditionalOnProperty(name = "images.storage.type", havingValue = "s3", matchIfMissing = true)
 public class S3Config {
     @Value("${aws.access.key.id}")
     private String accessKeyId;
@@ -22,13 +30,42 @@ public class S3Config {
     @Value("${aws.s3.bucket}")
     private String bucketName;
 
+    // Optional S3-compatible endpoint (e.g. MinIO on http://localhost:9000) for local runs
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
+
+    // Files above this size are split into parts and uploaded in parallel
+    @Value("${images.upload.multipart-threshold:8388608}")
+    private long multipartThreshold;
+
+    @Value("${images.upload.part-size:5242880}")
+    private long partSize;
+
 
     @Bean
     public AmazonS3 s3Client() {
         AWSCredentials credentials = new BasicAWSCredentials(accessKeyId, secretAccessKey);
-        return AmazonS3ClientBuilder.standard()
-                .withCredentials(new AWSStaticCredentialsProvider(credentials))
+        AmazonS3ClientBuilder builder = AmazonS3ClientBuilder.standard()
+                .withCredentials(new AWSStaticCredentialsProvider(credentials));
+        if (endpoint != null && !endpoint.isBlank()) {
+            return builder
+                    .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(
+                            endpoint, Regions.EU_NORTH_1.getName()))
+                    .withPathStyleAccessEnabled(true)
+                    .build();
+        }
+        return builder
                 .withRegion(Regions.EU_NORTH_1)
                 .build();
     }
-}
\ No newline at end of file
+
+    @Bean
+    public TransferManager transferManager(AmazonS3 s3Client) {
+        return TransferManagerBuilder.standard()
+                .withS3Client(s3Client)
+                .withMultipartUploadThreshold(multipartThreshold)
+                .withMinimumUploadPartSize(partSize)
+                .withShutDownThreadPools(true)
+                .build();
+    }
+}
@@ -0,0 +1,12 @@
+package uz.pdp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on @Scheduled background jobs (S3 deletion queue, orphan sweeper, ...).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
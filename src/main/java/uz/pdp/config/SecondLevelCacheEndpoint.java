@@ -0,0 +1,85 @@
+package uz.pdp.config;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Hit ratios of the second-level cache regions, at {@code /actuator/l2cache} and
+ * as the {@code hibernate.cache.hit.ratio} gauge tagged by region.
+ *
+ * Ratios are since startup; a region nobody has read yet reports NaN.
+ */
+@Component
+@Endpoint(id = "l2cache")
+public class SecondLevelCacheEndpoint {
+    private static final List<String> ENTITY_REGIONS = List.of(CacheRegions.CATEGORIES,
+            CacheRegions.CUSTOM_ENUM_VALUES, CacheRegions.USERS, CacheRegions.STORAGES,
+            CacheRegions.STORAGE_PRODUCT_TYPES, CacheRegions.LOCATIONS);
+    private static final List<String> QUERY_REGIONS = List.of(CacheRegions.CATEGORY_QUERIES,
+            CacheRegions.CUSTOM_ENUM_VALUE_QUERIES, CacheRegions.USER_QUERIES, CacheRegions.STORAGE_QUERIES);
+
+    private final Statistics statistics;
+
+    public SecondLevelCacheEndpoint(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        ENTITY_REGIONS.forEach(region -> Gauge.builder("hibernate.cache.hit.ratio",
+                        () -> ratio(statistics.getDomainDataRegionStatistics(region)))
+                .tag("region", region)
+                .register(meterRegistry));
+        QUERY_REGIONS.forEach(region -> Gauge.builder("hibernate.cache.hit.ratio",
+                        () -> ratio(statistics.getQueryRegionStatistics(region)))
+                .tag("region", region)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Counters of one region.
+     */
+    public record RegionStats(long hits, long misses, long puts, double hitRatio) {
+    }
+
+    @ReadOperation
+    public Map<String, Object> regions() {
+        Map<String, RegionStats> entities = new LinkedHashMap<>();
+        ENTITY_REGIONS.forEach(region -> entities.put(region, stats(statistics.getDomainDataRegionStatistics(region))));
+        Map<String, RegionStats> queries = new LinkedHashMap<>();
+        QUERY_REGIONS.forEach(region -> queries.put(region, stats(statistics.getQueryRegionStatistics(region))));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("secondLevelCacheHitRatio", ratio(statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount()));
+        result.put("queryCacheHitRatio", ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+        result.put("entityRegions", entities);
+        result.put("queryRegions", queries);
+        return result;
+    }
+
+    private static RegionStats stats(CacheRegionStatistics region) {
+        if (region == null) {
+            return new RegionStats(0, 0, 0, Double.NaN);
+        }
+        return new RegionStats(region.getHitCount(), region.getMissCount(), region.getPutCount(), ratio(region));
+    }
+
+    private static double ratio(CacheRegionStatistics region) {
+        return region != null ? ratio(region.getHitCount(), region.getMissCount()) : Double.NaN;
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total > 0 ? (double) hits / total : Double.NaN;
+    }
+}
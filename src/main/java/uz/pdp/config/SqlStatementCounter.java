@@ -0,0 +1,105 @@
+package uz.pdp.config;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Counts the SQL statements the current thread sends while a count is open,
+ * and how often each statement shape came up.
+ *
+ * {@link StatementCountingDataSource} reports every statement, from Hibernate and
+ * JdbcTemplate alike; statements on threads without an open count are ignored.
+ * A shape is the SQL with its literals and IN lists collapsed, so loading 30
+ * sellers one by one is 30 times the same shape - the N+1 signature.
+ */
+public final class SqlStatementCounter {
+    private static final ThreadLocal<Count> COUNT = new ThreadLocal<>();
+    // Beyond this, new shapes are counted but not tracked
+    private static final int MAX_SHAPES = 200;
+    private static final Pattern LITERALS = Pattern.compile("'(?:[^']|'')*'|\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LISTS = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SqlStatementCounter() {
+    }
+
+    private static final class Count {
+        private int statements;
+        private final Map<String, Integer> shapes = new LinkedHashMap<>();
+    }
+
+    /**
+     * Statements sent while a count was open.
+     *
+     * @param statements Number of statements
+     * @param shapes How many times each statement shape was sent, in first-seen order
+     */
+    public record Report(int statements, Map<String, Integer> shapes) {
+        public static final Report EMPTY = new Report(0, Map.of());
+
+        /**
+         * Shapes sent at least {@code threshold} times.
+         */
+        public Map<String, Integer> repeated(int threshold) {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            shapes.forEach((shape, times) -> {
+                if (times >= threshold) {
+                    repeated.put(shape, times);
+                }
+            });
+            return repeated;
+        }
+    }
+
+    /**
+     * Starts counting on this thread, from zero.
+     */
+    public static void begin() {
+        COUNT.set(new Count());
+    }
+
+    /**
+     * Stops counting on this thread.
+     *
+     * @return Statements sent since {@link #begin()}, empty if no count was open
+     */
+    public static Report end() {
+        Count count = COUNT.get();
+        COUNT.remove();
+        return count != null
+                ? new Report(count.statements, Collections.unmodifiableMap(count.shapes))
+                : Report.EMPTY;
+    }
+
+    /**
+     * Statements sent so far, without stopping the count.
+     */
+    public static int current() {
+        Count count = COUNT.get();
+        return count != null ? count.statements : 0;
+    }
+
+    /**
+     * The shape of a statement: literals and IN lists collapsed to {@code ?},
+     * whitespace normalized.
+     */
+    public static String shapeOf(String sql) {
+        String shape = LITERALS.matcher(sql).replaceAll("?");
+        shape = IN_LISTS.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    static void record(String sql) {
+        Count count = COUNT.get();
+        if (count == null) {
+            return;
+        }
+        count.statements++;
+        String shape = shapeOf(sql);
+        if (count.shapes.size() < MAX_SHAPES || count.shapes.containsKey(shape)) {
+            count.shapes.merge(shape, 1, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package uz.pdp.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Data source that reports every statement to {@link SqlStatementCounter}.
+ *
+ * A prepared statement or call counts once when it is prepared, however many
+ * times it runs - a JDBC batch is one round trip. A plain statement counts once
+ * per SQL string it executes.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+    private static final Set<String> PREPARE = Set.of("prepareStatement", "prepareCall");
+    private static final Set<String> EXECUTE = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "addBatch");
+
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private static Connection counting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new Handler(connection) {
+                    @Override
+                    Object intercept(Method method, Object result, Object[] args) {
+                        if (PREPARE.contains(method.getName())) {
+                            SqlStatementCounter.record((String) args[0]);
+                        } else if (method.getName().equals("createStatement")) {
+                            return counting((Statement) result);
+                        }
+                        return result;
+                    }
+                });
+    }
+
+    private static Statement counting(Statement statement) {
+        return (Statement) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Statement.class}, new Handler(statement) {
+                    @Override
+                    void before(Method method, Object[] args) {
+                        if (EXECUTE.contains(method.getName()) && args != null && args.length > 0
+                                && args[0] instanceof String sql) {
+                            SqlStatementCounter.record(sql);
+                        }
+                    }
+                });
+    }
+
+    private abstract static class Handler implements InvocationHandler {
+        private final Object target;
+
+        Handler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            before(method, args);
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            return intercept(method, result, args);
+        }
+
+        void before(Method method, Object[] args) {
+        }
+
+        Object intercept(Method method, Object result, Object[] args) {
+            return result;
+        }
+    }
+}
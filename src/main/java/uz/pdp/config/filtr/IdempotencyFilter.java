@@ -0,0 +1,152 @@
+package uz.pdp.config.filtr;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import uz.pdp.exception.GlobalExceptionHandler.IdempotencyKeyException;
+import uz.pdp.payload.EntityResponse;
+import uz.pdp.service.GuestBasketService;
+import uz.pdp.service.IdempotencyService;
+
+/**
+ * Makes the checkout endpoints safe to retry.
+ *
+ * A POST that carries an {@code Idempotency-Key} header goes through
+ * {@link IdempotencyService}: the first request runs and its response is recorded,
+ * duplicates get that same response back with {@code Idempotent-Replayed: true}.
+ * Requests without the header behave exactly as before.
+ *
+ * Runs after Spring Security, so keys are scoped to the logged-in user, or to the
+ * guest of a signed guest basket cookie. Anyone else has nobody to scope a key to
+ * and goes through without idempotency.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    // Path -> scope; keys of different endpoints never collide
+    private static final Map<String, String> SCOPES = Map.of(
+            "/api/basket/checkout", "basket-checkout",
+            "/api/v1/additional/checkout", "checkout");
+
+    private final IdempotencyService idempotencyService;
+    private final GuestBasketService guestBasketService;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyFilter(IdempotencyService idempotencyService, GuestBasketService guestBasketService,
+                             ObjectMapper objectMapper) {
+        this.idempotencyService = idempotencyService;
+        this.guestBasketService = guestBasketService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        return !HttpMethod.POST.matches(request.getMethod()) || scopeOf(request) == null
+                || key == null || key.isBlank();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST,
+                    "Idempotency-Key can't be longer than " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        String owner = ownerOf(request);
+        if (owner == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        // The body is read here to hash it, so the controller gets a replayable copy
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        HttpServletRequest cachedRequest = new CachedBodyRequest(request, body);
+
+        try {
+            IdempotencyService.Outcome outcome = idempotencyService.execute(scopeOf(request), owner, key, sha256(body),
+                    () -> {
+                        ContentCachingResponseWrapper recorder = new ContentCachingResponseWrapper(response);
+                        filterChain.doFilter(cachedRequest, recorder);
+                        IdempotencyService.StoredResponse stored = new IdempotencyService.StoredResponse(
+                                recorder.getStatus(), recorder.getContentType(),
+                                new String(recorder.getContentAsByteArray(), StandardCharsets.UTF_8));
+                        recorder.copyBodyToResponse();
+                        return stored;
+                    });
+            if (outcome.replayed()) {
+                replay(response, outcome.response());
+            }
+        } catch (IdempotencyKeyException e) {
+            writeError(response, e.getStatus().value(), e.getMessage());
+        }
+    }
+
+    private void replay(HttpServletResponse response, IdempotencyService.StoredResponse stored) throws IOException {
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.body() != null) {
+            response.getOutputStream().write(stored.body().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), EntityResponse.error(message));
+    }
+
+    private static String scopeOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return SCOPES.get(path);
+    }
+
+    // Null when there's nobody to scope the key to
+    private String ownerOf(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return authentication.getName();
+        }
+        String guestId = guestBasketService.guestId(request);
+        return guestId == null ? null : "guest:" + guestId;
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -2,18 +2,22 @@ package uz.pdp.config.filtr;
 
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
 import uz.pdp.entity.User;
+import uz.pdp.service.CurrentUserContext;
 
 import java.io.IOException;
 
 @Component
-public class    MyFilter implements Filter {
+// Registered both as a servlet filter and in the security chain; once per request is enough
+public class    MyFilter extends OncePerRequestFilter {
 
     @Autowired
     @Lazy
@@ -22,13 +26,16 @@ public class    MyFilter implements Filter {
     @Autowired
     private JwtProvider jwtProvider;
 
+    @Autowired
+    @Lazy
+    private CurrentUserContext currentUserContext;
+
     @Override
-    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain) throws IOException, ServletException {
-        HttpServletRequest request = (HttpServletRequest) servletRequest;
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws IOException, ServletException {
         String authorization = request.getHeader("Authorization");
         
         if (authorization == null || authorization.isBlank()) {
-            filterChain.doFilter(request, servletResponse);
+            filterChain.doFilter(request, response);
             return;
         }
 
@@ -36,15 +43,28 @@ public class    MyFilter implements Filter {
             String token = authorization.substring(7);
             String username = jwtProvider.getUsernameFromToken(token);
             if (username != null) {
-                setUserToContext(username);
+                setUserToContext(request, username);
             }
         }
 
-        filterChain.doFilter(servletRequest, servletResponse);
+        filterChain.doFilter(request, response);
+    }
+
+    // Async (streamed downloads) and error dispatches need the user too, as before
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected boolean shouldNotFilterErrorDispatch() {
+        return false;
     }
 
-    private void setUserToContext(String username) {
+    private void setUserToContext(HttpServletRequest request, String username) {
         User user = (User) userDetailsService.loadUserByUsername(username);
+        // The one lookup of this request; everything after reads it from here
+        currentUserContext.set(request, user);
         UsernamePasswordAuthenticationToken authenticationToken =
                 new UsernamePasswordAuthenticationToken(
                         user,
@@ -0,0 +1,91 @@
+package uz.pdp.config.filtr;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import uz.pdp.config.PersistedQueryDocumentProvider;
+
+/**
+ * Lets Automatic Persisted Queries through the GraphQL HTTP endpoint.
+ *
+ * An APQ client first sends only {@code extensions.persistedQuery.sha256Hash}, without
+ * a {@code query}. Spring GraphQL turns a request without a query into a 400 before
+ * the {@link PersistedQueryDocumentProvider} ever sees it, so such requests get
+ * graphql-java's persisted query marker as their query. The provider treats the
+ * marker like a missing query and answers from its cache, or with
+ * {@code PersistedQueryNotFound} so the client sends the full text.
+ *
+ * Every other request is passed through untouched.
+ */
+@Component
+public class PersistedQueryFilter extends OncePerRequestFilter {
+    private static final String PERSISTED_QUERY = "persistedQuery";
+    private static final TypeReference<Map<String, Object>> BODY_TYPE = new TypeReference<>() { };
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${spring.graphql.path:/graphql}")
+    private String graphQlPath;
+
+    public PersistedQueryFilter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !HttpMethod.POST.matches(request.getMethod()) || !graphQlPath.equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        filterChain.doFilter(new CachedBodyRequest(request, withMarker(body)), response);
+    }
+
+    private byte[] withMarker(byte[] body) {
+        // Most requests aren't APQ at all - don't parse them twice
+        if (!new String(body, StandardCharsets.UTF_8).contains(PERSISTED_QUERY)) {
+            return body;
+        }
+        Map<String, Object> document;
+        try {
+            document = objectMapper.readValue(body, BODY_TYPE);
+        } catch (IOException e) {
+            // Not ours to judge - Spring GraphQL reports the broken body
+            return body;
+        }
+        if (document == null || !isHashOnly(document)) {
+            return body;
+        }
+        document.put("query", PersistedQuerySupport.PERSISTED_QUERY_MARKER);
+        try {
+            return objectMapper.writeValueAsBytes(document);
+        } catch (JsonProcessingException e) {
+            return body;
+        }
+    }
+
+    private static boolean isHashOnly(Map<String, Object> document) {
+        boolean hasQuery = document.get("query") instanceof String query && !query.isBlank();
+        return !hasQuery && document.get("extensions") instanceof Map<?, ?> extensions
+                && extensions.get(PERSISTED_QUERY) instanceof Map<?, ?>;
+    }
+}
@@ -0,0 +1,182 @@
+package uz.pdp.config.filtr;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import uz.pdp.config.SqlStatementCounter;
+
+/**
+ * Counts the SQL statements of every request, REST and GraphQL alike.
+ *
+ * <ul>
+ *     <li>records them as the {@code doorshop.http.sql.statements} summary,
+ *     tagged like {@code http.server.requests}</li>
+ *     <li>logs a warning, and counts {@code doorshop.http.sql.repeated}, when one
+ *     statement shape runs {@code sql-statements.repeat-threshold} times or more
+ *     in a request - the usual N+1</li>
+ *     <li>with {@code sql-statements.header.enabled}, answers with an
+ *     {@code X-SQL-Count} header, which endpoint tests can hold to a budget</li>
+ * </ul>
+ *
+ * Runs before everything else, so the statements Spring Security sends count too.
+ * The header needs the whole body buffered - statements can still run while it
+ * is written - so it is a debugging aid, off by default. Streamed responses
+ * (price list export, SSE) are passed through and get no header.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlStatementFilter extends OncePerRequestFilter {
+    public static final String SQL_COUNT_HEADER = "X-SQL-Count";
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementFilter.class);
+    // Set by Spring MVC on requests whose body is streamed, see ShallowEtagHeaderFilter.disableContentCaching
+    private static final String STREAMING_ATTRIBUTE = ShallowEtagHeaderFilter.class.getName() + ".STREAMING";
+    private static final int MAX_LOGGED_SHAPE_LENGTH = 300;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${sql-statements.repeat-threshold:5}")
+    private int repeatThreshold;
+
+    @Value("${sql-statements.header.enabled:false}")
+    private boolean headerEnabled;
+
+    public SqlStatementFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // Bodies of async requests may end up in our buffer, see finishAsync
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            finishAsync(request, response, filterChain);
+            return;
+        }
+        CountingResponse countingResponse = headerEnabled ? new CountingResponse(request, response) : null;
+        SqlStatementCounter.begin();
+        try {
+            filterChain.doFilter(request, countingResponse != null ? countingResponse : response);
+        } finally {
+            SqlStatementCounter.Report report = SqlStatementCounter.end();
+            record(request, report);
+            if (countingResponse != null && !request.isAsyncStarted()) {
+                if (!countingResponse.isCommitted()) {
+                    countingResponse.setIntHeader(SQL_COUNT_HEADER, report.statements());
+                }
+                countingResponse.copyBodyToResponse();
+            }
+        }
+    }
+
+    // Statements of the async part run on other threads and aren't counted
+    private void finishAsync(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ContentCachingResponseWrapper buffered =
+                    WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+            if (buffered instanceof CountingResponse && !request.isAsyncStarted()) {
+                buffered.copyBodyToResponse();
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementCounter.Report report) {
+        String uri = uriOf(request);
+        DistributionSummary.builder("doorshop.http.sql.statements")
+                .description("SQL statements sent per request")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(report.statements());
+
+        Map<String, Integer> repeated = report.repeated(repeatThreshold);
+        if (repeated.isEmpty()) {
+            return;
+        }
+        Counter.builder("doorshop.http.sql.repeated")
+                .description("Requests that sent the same statement shape over and over")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .increment();
+        if (logger.isWarnEnabled()) {
+            StringBuilder message = new StringBuilder();
+            repeated.forEach((shape, times) -> message.append("\n  ").append(times).append(" x ")
+                    .append(shape.length() > MAX_LOGGED_SHAPE_LENGTH
+                            ? shape.substring(0, MAX_LOGGED_SHAPE_LENGTH) + "..." : shape));
+            logger.warn("Possible N+1 in {} {}: {} statements, repeated:{}", request.getMethod(),
+                    request.getRequestURI(), report.statements(), message);
+        }
+    }
+
+    // The handler's pattern, never the raw path - one time series per endpoint
+    private static String uriOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    /**
+     * Buffers the body so the header can still be set once the request is done,
+     * unless Spring MVC marked the response as streamed.
+     */
+    private static final class CountingResponse extends ContentCachingResponseWrapper {
+        private final HttpServletRequest request;
+
+        CountingResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        private boolean streaming() {
+            return request.getAttribute(STREAMING_ATTRIBUTE) != null;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return streaming() ? getResponse().getOutputStream() : super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return streaming() ? getResponse().getWriter() : super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (streaming()) {
+                getResponse().flushBuffer();
+            } else {
+                super.flushBuffer();
+            }
+        }
+    }
+}
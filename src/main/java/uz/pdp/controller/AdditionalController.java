@@ -7,14 +7,23 @@ import lombok.RequiredArgsConstructor;
 
 import java.util.List;
 
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uz.pdp.dto.CheckoutDTO;
 import uz.pdp.dto.CheckoutItemsDTO;
 import uz.pdp.dto.CheckoutHistoryDTO;
 import uz.pdp.dto.PriceListRequestDto;
+import uz.pdp.entity.User;
+import uz.pdp.enums.PriceListFormat;
 import uz.pdp.payload.EntityResponse;
 import uz.pdp.service.CheckoutService;
+import uz.pdp.service.PriceListExportService;
 import uz.pdp.service.PriceListService;
 
 /**
@@ -30,6 +39,7 @@ import uz.pdp.service.PriceListService;
 public class AdditionalController {
     private final CheckoutService checkoutService;
     private final PriceListService priceListService;
+    private final PriceListExportService priceListExportService;
 
     /**
      * Get checkout history for the current user.
@@ -46,7 +56,8 @@ public class AdditionalController {
         return checkoutService.getCheckoutHistory();
     }
 
-    @Operation(summary = "Process checkout", description = "Process checkout for items in the basket")
+    @Operation(summary = "Process checkout", description = "Process checkout for items in the basket. " +
+            "Send an Idempotency-Key header to make retries safe: repeats get the first response back instead of new orders.")
     @PostMapping("/checkout")
     public EntityResponse<?> processCheckout(@Valid @RequestBody CheckoutDTO checkoutDto) {
         checkoutService.processCheckout(checkoutDto);
@@ -65,4 +76,35 @@ public class AdditionalController {
         priceListService.generateAndSendPriceList(request);
         return EntityResponse.success("Price list has been sent to your email!  Check your inbox for all the details!", true);
     }
+
+    @Operation(
+        summary = "Export the full price list",
+        description = "Download every door, moulding and accessory with its price as CSV, XLSX or PDF. " +
+                "The file is streamed while it is being built, so the download starts right away."
+    )
+    @GetMapping("/price-list/export")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> exportPriceList(
+            @RequestParam(defaultValue = "CSV") PriceListFormat format) {
+        StreamingResponseBody body = out -> priceListExportService.export(format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(PriceListExportService.fileName(format))
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @Operation(
+        summary = "Email the full price list",
+        description = "Build the full price list in the background and send it to your email as an attachment"
+    )
+    @PostMapping("/price-list/export/email")
+    @PreAuthorize("isAuthenticated()")
+    public EntityResponse<?> emailPriceList(@RequestParam(defaultValue = "XLSX") PriceListFormat format,
+                                            @AuthenticationPrincipal User user) {
+        priceListExportService.emailExport(format, user.getEmail());
+        return EntityResponse.success("The full price list is on its way to " + user.getEmail() + "! 📬", true);
+    }
 }
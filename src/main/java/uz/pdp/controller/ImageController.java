@@ -0,0 +1,194 @@
+package uz.pdp.controller;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import uz.pdp.service.ImageDeliveryService;
+import uz.pdp.service.ImageStore;
+
+/**
+ * CDN-style delivery of images straight out of the {@link ImageStore}.
+ *
+ * Image keys never change their content, so every response may be cached forever
+ * ({@code immutable}) and carries a strong ETag - the SHA-256 of the bytes, or the
+ * store's own ETag for big images - for revalidation. Single byte ranges are honoured (206 Partial Content), so browsers can
+ * resume and progressive viewers can fetch just the start.
+ *
+ * Hot small images come from the {@link ImageDeliveryService} cache without touching
+ * disk or S3. Bigger files on local disk are handed to Tomcat's sendfile when it is
+ * available - the bytes never enter the JVM - and otherwise copied with
+ * {@code FileChannel.transferTo}. 📸
+ *
+ * @version 1.0
+ * @since 2025-02-14
+ */
+@RestController
+@Tag(name = "Images", description = "Image delivery")
+public class ImageController {
+    private static final Logger logger = LoggerFactory.getLogger(ImageController.class);
+    private static final String IMAGES_PATH = "/images/";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ImageStore imageStore;
+    private final ImageDeliveryService imageDeliveryService;
+    private final String cacheControl;
+
+    public ImageController(ImageStore imageStore, ImageDeliveryService imageDeliveryService,
+                           @Value("${images.delivery.cache-control:public, max-age=31536000, immutable}")
+                           String cacheControl) {
+        this.imageStore = imageStore;
+        this.imageDeliveryService = imageDeliveryService;
+        this.cacheControl = cacheControl;
+    }
+
+    /**
+     * A single byte range, both ends inclusive.
+     */
+    record ByteRange(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+    }
+
+    @GetMapping("/images/**")
+    @Operation(summary = "Download an image, optionally a byte range of it")
+    public void serveImage(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String key = request.getRequestURI().substring(request.getContextPath().length() + IMAGES_PATH.length());
+        Optional<ImageDeliveryService.ImageInfo> found;
+        try {
+            found = imageDeliveryService.find(key);
+        } catch (IllegalArgumentException e) {
+            found = Optional.empty();
+        }
+        if (found.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        ImageDeliveryService.ImageInfo image = found.get();
+        long size = image.size();
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ETAG, image.etag());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), image.etag())) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        if (image.contentType() != null) {
+            response.setContentType(image.contentType());
+        }
+
+        ByteRange range = new ByteRange(0, size - 1);
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // If-Range with an old ETag means "the range is only good for that version" - send everything
+        if (rangeHeader != null && size > 0 && (ifRange == null || ifRange.trim().equals(image.etag()))) {
+            ByteRange requested = parseRange(rangeHeader, size);
+            if (requested == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            range = requested;
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + range.start() + "-" + range.end() + "/" + size);
+        }
+        response.setContentLengthLong(Math.max(0, range.length()));
+        if ("HEAD".equals(request.getMethod()) || range.length() <= 0) {
+            return;
+        }
+
+        if (!image.isCached()) {
+            Optional<Path> file = imageStore.localPath(key);
+            if (file.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // Tomcat writes the file itself after we return, straight from the page cache
+                request.setAttribute(SENDFILE_FILENAME, file.get().toString());
+                request.setAttribute(SENDFILE_START, range.start());
+                request.setAttribute(SENDFILE_END, range.end() + 1);
+                return;
+            }
+        }
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        imageDeliveryService.transferTo(image, range.start(), range.length(), out);
+        logger.debug("Served {} bytes of {}{}", range.length(), key, image.isCached() ? " from cache" : "");
+    }
+
+    /**
+     * Checks an If-None-Match header against our ETag (weak comparison, as the spec wants).
+     */
+    static boolean matchesAny(String header, String etag) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses a Range header into a single satisfiable range.
+     * Multiple ranges are answered with the whole image, which the spec allows.
+     *
+     * @param header Value of the Range header
+     * @param size Size of the image
+     * @return Requested range, the whole image for ranges we don't do, or null if unsatisfiable
+     */
+    static ByteRange parseRange(String header, long size) {
+        ByteRange whole = new ByteRange(0, size - 1);
+        if (!header.startsWith("bytes=") || header.contains(",")) {
+            return whole;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return whole;
+        }
+        try {
+            String from = spec.substring(0, dash).trim();
+            String to = spec.substring(dash + 1).trim();
+            if (from.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(to);
+                if (suffix <= 0) {
+                    return null;
+                }
+                return new ByteRange(Math.max(0, size - suffix), size - 1);
+            }
+            long start = Long.parseLong(from);
+            long end = to.isEmpty() ? size - 1 : Long.parseLong(to);
+            if (end < start) {
+                // Syntactically invalid - ignore it like any other range we don't understand
+                return whole;
+            }
+            if (start >= size) {
+                return null;
+            }
+            return new ByteRange(start, Math.min(end, size - 1));
+        } catch (NumberFormatException e) {
+            return whole;
+        }
+    }
+}
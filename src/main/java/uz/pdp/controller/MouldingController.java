@@ -89,7 +89,7 @@ public class MouldingController {
      * @return Response containing the updated basket
      */
     @PostMapping("/{mouldingId}/basket")
-    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @PreAuthorize("permitAll()")
     @Operation(summary = "Add moulding to basket", description = "Adds specified quantity of moulding to user's basket")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully added to basket"),
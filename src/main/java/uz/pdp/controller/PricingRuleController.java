@@ -0,0 +1,93 @@
+package uz.pdp.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import uz.pdp.dto.PricingRuleDto;
+import uz.pdp.entity.PricingRule;
+import uz.pdp.payload.EntityResponse;
+import uz.pdp.service.PricingRuleService;
+
+/**
+ * Controller for the door pricing rules.
+ * 🏷️ Where admins decide what a hidden frame is worth!
+ *
+ * Changes take effect right away: the engine reloads and re-prices the catalog
+ * as soon as the change is committed.
+ *
+ * @version 1.0
+ * @since 2025-02-22
+ */
+@RestController
+@RequestMapping("/api/pricing-rules")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Pricing Rules", description = "Rules behind every door's final price")
+public class PricingRuleController {
+    private final PricingRuleService pricingRuleService;
+
+    @GetMapping
+    @Operation(summary = "Get all pricing rules", description = "All rules, active or not, in the order they are applied")
+    public ResponseEntity<EntityResponse<List<PricingRule>>> getRules() {
+        return ResponseEntity.ok(EntityResponse.success("Here are the rules of the price game! 🎲",
+                pricingRuleService.getRules()));
+    }
+
+    @PostMapping
+    @Operation(summary = "Add a pricing rule",
+            description = "Empty conditions match every door. PERCENT amounts are percentages (10 = +10%), FIXED amounts are money.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rule added, catalog re-priced"),
+            @ApiResponse(responseCode = "400", description = "Invalid rule")
+    })
+    public ResponseEntity<EntityResponse<PricingRule>> createRule(@Valid @RequestBody PricingRuleDto dto) {
+        return ResponseEntity.ok(EntityResponse.success("Pricing rule added! 💸", pricingRuleService.createRule(dto)));
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Change a pricing rule")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rule updated, catalog re-priced"),
+            @ApiResponse(responseCode = "400", description = "Invalid rule"),
+            @ApiResponse(responseCode = "404", description = "Rule not found")
+    })
+    public ResponseEntity<EntityResponse<PricingRule>> updateRule(@PathVariable Long id,
+                                                                  @Valid @RequestBody PricingRuleDto dto) {
+        return ResponseEntity.ok(EntityResponse.success("Pricing rule updated! 🔧", pricingRuleService.updateRule(id, dto)));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete a pricing rule")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rule deleted, catalog re-priced"),
+            @ApiResponse(responseCode = "404", description = "Rule not found")
+    })
+    public ResponseEntity<EntityResponse<Void>> deleteRule(@PathVariable Long id) {
+        pricingRuleService.deleteRule(id);
+        return ResponseEntity.ok(EntityResponse.success("Pricing rule deleted! 🗑️"));
+    }
+
+    @PostMapping("/reprice")
+    @Operation(summary = "Re-price the catalog", description = "Recomputes every door's final price and writes the ones that changed")
+    public ResponseEntity<EntityResponse<Integer>> repriceCatalog() {
+        int changed = pricingRuleService.repriceCatalog();
+        return ResponseEntity.ok(EntityResponse.success(
+                String.format("Catalog re-priced, %d door(s) got a new price! 🏷️", changed), changed));
+    }
+}
@@ -0,0 +1,144 @@
+package uz.pdp.controller.graphql;
+
+import java.util.Optional;
+
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Controller;
+
+import reactor.core.publisher.Flux;
+import uz.pdp.entity.Door;
+import uz.pdp.entity.FurnitureDoor;
+import uz.pdp.entity.Moulding;
+import uz.pdp.entity.Order;
+import uz.pdp.entity.User;
+import uz.pdp.enums.ItemType;
+import uz.pdp.exception.ResourceNotFoundException;
+import uz.pdp.repository.DoorRepository;
+import uz.pdp.repository.FurnitureDoorRepository;
+import uz.pdp.repository.MouldingRepository;
+import uz.pdp.repository.OrderRepository;
+import uz.pdp.repository.UserRepository;
+import uz.pdp.service.LiveUpdateService;
+
+/**
+ * GraphQL subscriptions over {@code /graphql-ws}.
+ *
+ * Every subscription is a filtered view of the {@link LiveUpdateService} stream,
+ * so a thousand sockets watching the same door cost one event, not a thousand
+ * database polls. Stay tuned! 📺
+ *
+ * @version 1.0
+ * @since 2025-02-18
+ */
+@Controller
+public class LiveUpdateGraphQLController {
+
+    private final LiveUpdateService liveUpdateService;
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final DoorRepository doorRepository;
+    private final MouldingRepository mouldingRepository;
+    private final FurnitureDoorRepository furnitureDoorRepository;
+
+    public LiveUpdateGraphQLController(LiveUpdateService liveUpdateService, OrderRepository orderRepository,
+                                       UserRepository userRepository, DoorRepository doorRepository,
+                                       MouldingRepository mouldingRepository,
+                                       FurnitureDoorRepository furnitureDoorRepository) {
+        this.liveUpdateService = liveUpdateService;
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.doorRepository = doorRepository;
+        this.mouldingRepository = mouldingRepository;
+        this.furnitureDoorRepository = furnitureDoorRepository;
+    }
+
+    /**
+     * Status changes of an order. Customers can only follow their own orders,
+     * sellers also the orders of what they sell; admins any order.
+     *
+     * @param orderId Order to follow
+     * @return The order after each status change
+     */
+    @SubscriptionMapping
+    public Flux<Order> orderStatusChanged(@Argument Long orderId) {
+        Order order = orderRepository.findById(orderId)
+            .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+        checkCanFollow(order);
+        return liveUpdateService.orderUpdates(orderId);
+    }
+
+    /**
+     * Changes to a door: details, images, status.
+     *
+     * @param id Door to follow
+     * @return The door after each change
+     */
+    @SubscriptionMapping
+    public Flux<Door> doorUpdated(@Argument Long id) {
+        return liveUpdateService.doorUpdates(id);
+    }
+
+    /**
+     * Doors as they are created.
+     *
+     * @return Each new door
+     */
+    @SubscriptionMapping
+    public Flux<Door> newDoorAdded() {
+        return liveUpdateService.newDoors();
+    }
+
+    /**
+     * Stock level changes of a moulding or door accessory.
+     *
+     * @param itemType Kind of item
+     * @param itemId Item to follow
+     * @return Each new stock level
+     */
+    @SubscriptionMapping
+    public Flux<LiveUpdateService.StockChange> stockChanged(@Argument ItemType itemType, @Argument Long itemId) {
+        return liveUpdateService.stockUpdates(itemType, itemId);
+    }
+
+    private void checkCanFollow(Order order) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            throw new AccessDeniedException("Log in to follow an order");
+        }
+        if (hasRole(authentication, "ROLE_ADMIN")) {
+            return;
+        }
+        Long userId = userRepository.findByName(authentication.getName())
+            .map(User::getId)
+            .orElseThrow(() -> new AccessDeniedException("You can only follow your own orders"));
+        // Id of the lazy user proxy - no extra query
+        if (userId.equals(order.getUser().getId())) {
+            return;
+        }
+        if (hasRole(authentication, "ROLE_SELLER") && userId.equals(sellerIdOf(order))) {
+            return;
+        }
+        throw new AccessDeniedException("You can only follow your own orders");
+    }
+
+    // Who sells the ordered item; null if it is gone
+    private Long sellerIdOf(Order order) {
+        Optional<User> seller = switch (order.getItemType()) {
+            case DOOR -> doorRepository.findById(order.getItemId()).map(Door::getSeller);
+            case MOULDING -> mouldingRepository.findById(order.getItemId()).map(Moulding::getUser);
+            case DOOR_ACCESSORY -> furnitureDoorRepository.findById(order.getItemId()).map(FurnitureDoor::getUser);
+        };
+        return seller.map(User::getId).orElse(null);
+    }
+
+    private static boolean hasRole(Authentication authentication, String role) {
+        return authentication.getAuthorities().stream()
+            .anyMatch(authority -> role.equals(authority.getAuthority()));
+    }
+}
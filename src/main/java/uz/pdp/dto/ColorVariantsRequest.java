@@ -0,0 +1,26 @@
+package uz.pdp.dto;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import uz.pdp.enums.Color;
+
+/**
+ * Colors to create variants of a door model in, all at once.
+ * 🎨 The whole palette in one go - no more painting doors one coat at a time!
+ *
+ * Colors the model already comes in are skipped, so sending the same request
+ * twice is harmless.
+ */
+@Data
+public class ColorVariantsRequest {
+    @Size(max = 50, message = "At most 50 colors per request")
+    private Set<Color> colors = new LinkedHashSet<>();
+
+    @Size(max = 50, message = "At most 50 custom colors per request")
+    private Set<@Pattern(regexp = "^#[0-9A-Fa-f]{6}$", message = "Custom colors must be hex codes like #FF5733")
+            String> customColorCodes = new LinkedHashSet<>();
+}
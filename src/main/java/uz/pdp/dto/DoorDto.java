@@ -79,6 +79,7 @@ public class DoorDto {
     private String categoryName;  // Used when returning door details
     
     private List<String> images; // Door images
+    private List<ImageVariantsDTO> imageVariants; // Thumbnail/medium URLs for each image
     private String status; // Door status (AVAILABLE, etc)
 
     /**
@@ -108,6 +109,7 @@ public class DoorDto {
         dto.setIsCustomColor(door.getIsCustomColor());
         dto.setStatus(door.getStatus().toString());
         dto.setImages(door.getImages());
+        dto.setImageVariants(ImageVariantsDTO.fromAll(door.getImages()));
         
         // Set just the category name if category is present
         if (door.getCategory() != null) {
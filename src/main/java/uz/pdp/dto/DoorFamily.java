@@ -0,0 +1,42 @@
+package uz.pdp.dto;
+
+import java.util.List;
+import java.util.Set;
+
+import uz.pdp.enums.Color;
+import uz.pdp.enums.Size;
+
+/**
+ * Everything the product page needs to know about a door model and its color
+ * variants, in one piece: who is in the family, which colors and sizes it comes
+ * in and what it costs. 👪
+ *
+ * Instances are shared between requests, so every collection is read-only.
+ *
+ * @param baseModelId The base model, or the door itself when it has no variants
+ * @param standalone True when that door is no base model either - it only comes in its own color
+ * @param variants Every door of the model, the base model included
+ * @param colors Colors offered by the base model
+ * @param sizes Sizes offered by the base model
+ * @param minPrice Lowest final price of an active variant, null if none is active
+ * @param maxPrice Highest final price of an active variant, null if none is active
+ */
+public record DoorFamily(Long baseModelId, boolean standalone, List<Member> variants, Set<Color> colors,
+                         Set<Size> sizes, Double minPrice, Double maxPrice) {
+
+    /**
+     * One door of the model.
+     *
+     * @param customColorCode Hex code of a custom colored variant, otherwise null
+     * @param price Final price, or the base price if the door was never priced
+     */
+    public record Member(Long id, Color color, String customColorCode, Size size, Double price, boolean active) {
+    }
+
+    /**
+     * IDs of every door of the model.
+     */
+    public List<Long> variantIds() {
+        return variants.stream().map(Member::id).toList();
+    }
+}
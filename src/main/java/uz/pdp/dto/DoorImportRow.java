@@ -0,0 +1,29 @@
+package uz.pdp.dto;
+
+import lombok.Data;
+
+/**
+ * One door in a bulk import file, exactly as the seller wrote it.
+ *
+ * Everything is text on purpose: CSV has no types, and a typo in one cell should
+ * become an error on that row - not a failed upload. 📦
+ */
+@Data
+public class DoorImportRow {
+    private String externalId;   // Seller's catalog code; re-importing the same code updates the door
+    private String name;
+    private String description;
+    private String price;
+    private String size;         // SIZE_800x2000, 800x2000 or CUSTOM
+    private String color;        // Enum name or display name, e.g. WHITE or "White"
+    private String material;
+    private String manufacturer;
+    private String frameType;
+    private String hardware;
+    private String doorLocation;
+    private String warrantyYears;
+    private String customWidth;  // Required for CUSTOM size
+    private String customHeight; // Required for CUSTOM size
+    private String categoryId;
+    private String categoryName; // Used when categoryId is empty
+}
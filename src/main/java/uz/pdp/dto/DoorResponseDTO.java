@@ -31,4 +31,5 @@ public class DoorResponseDTO {
     private FurnitureType furnitureType;
     private CategoryDTO category;
     private List<String> images;
+    private List<ImageVariantsDTO> imageVariants;
 }
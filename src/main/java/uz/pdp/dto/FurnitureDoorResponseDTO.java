@@ -43,4 +43,7 @@ public class FurnitureDoorResponseDTO {
     @Schema(description = "URLs of the door images", example = "[\"https://your-bucket.s3.amazonaws.com/doors/image1.jpg\", \"https://your-bucket.s3.amazonaws.com/doors/image2.jpg\"]")
     private List<String> imageUrls = new ArrayList<>();
 
+    @Schema(description = "Thumbnail and medium renditions of each image, in the same order as imageUrls")
+    private List<ImageVariantsDTO> imageVariants = new ArrayList<>();
+
 }
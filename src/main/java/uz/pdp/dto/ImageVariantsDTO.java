@@ -0,0 +1,64 @@
+package uz.pdp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import uz.pdp.enums.ImageVariant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * URLs of all renditions of a single uploaded image.
+ * One photo, three outfits - pick the one that fits the screen! 📐
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageVariantsDTO {
+    @Schema(description = "URL of the original upload", example = "https://etadoor.s3.eu-north-1.amazonaws.com/doors/3f2a.jpg")
+    private String original;
+
+    @Schema(description = "URL of the 320px thumbnail", example = "https://etadoor.s3.eu-north-1.amazonaws.com/doors/3f2a_thumb.webp")
+    private String thumbnail;
+
+    @Schema(description = "URL of the 1024px medium rendition", example = "https://etadoor.s3.eu-north-1.amazonaws.com/doors/3f2a_medium.webp")
+    private String medium;
+
+    /**
+     * Builds the variant URLs for one original image URL.
+     * External images (not uploaded by us) simply reuse the original URL.
+     *
+     * @param originalUrl URL of the original image
+     * @return Variant URLs derived from the original
+     */
+    public static ImageVariantsDTO from(String originalUrl) {
+        if (!ImageVariant.hasVariants(originalUrl)) {
+            return new ImageVariantsDTO(originalUrl, originalUrl, originalUrl);
+        }
+        return ImageVariantsDTO.builder()
+                .original(originalUrl)
+                .thumbnail(ImageVariant.THUMBNAIL.deriveFrom(originalUrl))
+                .medium(ImageVariant.MEDIUM.deriveFrom(originalUrl))
+                .build();
+    }
+
+    /**
+     * Builds the variant URLs for a list of original image URLs.
+     *
+     * @param originalUrls URLs of the original images, may be null
+     * @return List of variant URLs in the same order, never null
+     */
+    public static List<ImageVariantsDTO> fromAll(List<String> originalUrls) {
+        List<ImageVariantsDTO> variants = new ArrayList<>();
+        if (originalUrls != null) {
+            for (String url : originalUrls) {
+                variants.add(from(url));
+            }
+        }
+        return variants;
+    }
+}
@@ -0,0 +1,33 @@
+package uz.pdp.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What a bulk import did, row by row where it went wrong.
+ * Good rows are saved even when others fail - fix the bad ones and upload again! 📝
+ */
+@Data
+@NoArgsConstructor
+public class ImportReport {
+    private int total;
+    private int inserted;
+    private int updated;
+    private int failed;
+    private long durationMs;
+    private boolean errorsTruncated; // true when there were more errors than listed
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long row;         // CSV: line the record starts on; JSON: position in the array, from 1
+        private String externalId;
+        private String message;
+    }
+}
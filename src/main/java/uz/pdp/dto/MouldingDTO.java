@@ -46,6 +46,9 @@ public class MouldingDTO {
     @Size(max = 10, message = "Cannot upload more than 10 images")
     private List<String> imagesUrl;
 
+    // Thumbnail/medium renditions of each image - read only, derived from imagesUrl
+    private List<ImageVariantsDTO> imageVariants;
+
     // Optional seller ID - will be set automatically for SELLER role, 
     // but ADMIN can specify a different seller
     private Long sellerId;
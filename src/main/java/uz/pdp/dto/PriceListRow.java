@@ -0,0 +1,54 @@
+package uz.pdp.dto;
+
+import java.util.StringJoiner;
+
+import uz.pdp.enums.Color;
+import uz.pdp.enums.FrameType;
+import uz.pdp.enums.FurnitureType;
+import uz.pdp.enums.ItemType;
+import uz.pdp.enums.Size;
+
+/**
+ * One line of the catalog price list.
+ *
+ * Built straight from JPQL constructor expressions - one constructor per product
+ * table - so the export never loads, tracks or lazily initialises an entity. 📋
+ */
+public record PriceListRow(ItemType type, Long id, String name, String group, String details,
+                           Double basePrice, Double price) {
+
+    /**
+     * Door row; the price is the final price under the current pricing rules.
+     */
+    public PriceListRow(Long id, String name, String category, Size size, Color color, FrameType frameType,
+                        Double basePrice, Double finalPrice) {
+        this(ItemType.DOOR, id, name, category, join(size, color, frameType), basePrice,
+                finalPrice != null ? finalPrice : basePrice);
+    }
+
+    /**
+     * Moulding row, grouped by article.
+     */
+    public PriceListRow(Long id, String title, String article, String size, Double price) {
+        this(ItemType.MOULDING, id, title, article, join(size), price, price);
+    }
+
+    /**
+     * Accessory row, grouped by furniture type.
+     */
+    public PriceListRow(Long id, String name, FurnitureType furnitureType, String material, String dimensions,
+                        Double price) {
+        this(ItemType.DOOR_ACCESSORY, id, name, furnitureType != null ? furnitureType.name() : null,
+                join(material, dimensions), price, price);
+    }
+
+    private static String join(Object... parts) {
+        StringJoiner joiner = new StringJoiner(" / ");
+        for (Object part : parts) {
+            if (part != null) {
+                joiner.add(part.toString());
+            }
+        }
+        return joiner.toString();
+    }
+}
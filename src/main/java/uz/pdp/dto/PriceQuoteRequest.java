@@ -0,0 +1,35 @@
+package uz.pdp.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import uz.pdp.enums.Color;
+import uz.pdp.enums.FrameType;
+import uz.pdp.enums.HardwareType;
+
+/**
+ * Candidate configurations of one door to get prices for.
+ * 🎛️ Every slider position of the configurator, in one request!
+ *
+ * Fields left empty keep the door's current value.
+ */
+@Data
+public class PriceQuoteRequest {
+    @NotEmpty(message = "At least one configuration is required")
+    @Size(max = 200, message = "At most 200 configurations per request")
+    @Valid
+    private List<Configuration> configurations;
+
+    @Data
+    public static class Configuration {
+        private uz.pdp.enums.Size size;
+        private Color color;
+        private Double width;
+        private Double height;
+        private FrameType frameType;
+        private HardwareType hardware;
+    }
+}
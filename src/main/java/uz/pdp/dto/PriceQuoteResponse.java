@@ -0,0 +1,31 @@
+package uz.pdp.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Prices for candidate configurations of a door, in request order.
+ * Nothing was saved to get them - try as many as you like! 🧾
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceQuoteResponse {
+    private Long doorId;
+    private String doorName;
+    private Double basePrice;
+    private Double currentPrice;
+    private List<Quote> quotes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Quote {
+        private PriceQuoteRequest.Configuration configuration;
+        private Double price;     // null when the configuration is invalid
+        private String error;     // why the configuration can't be priced
+    }
+}
@@ -0,0 +1,57 @@
+package uz.pdp.dto;
+
+import java.time.LocalDateTime;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import uz.pdp.entity.PricingRule;
+import uz.pdp.enums.PriceAdjustment;
+import uz.pdp.enums.PricingAttribute;
+
+/**
+ * DTO for creating and changing door pricing rules.
+ * 🏷️ Leave a condition empty and the rule applies to every door!
+ */
+@Data
+public class PricingRuleDto {
+    @NotBlank(message = "Rule name is required")
+    private String name;
+
+    private PricingAttribute attribute;
+    private String attributeValue;
+    private Long categoryId;
+    private Long sellerId;
+    private LocalDateTime validFrom;
+    private LocalDateTime validUntil;
+
+    @NotNull(message = "Adjustment is required")
+    private PriceAdjustment adjustment;
+
+    @NotNull(message = "Amount is required")
+    private Double amount;
+
+    private int priority;
+    private boolean active = true;
+
+    /**
+     * Copies the DTO onto a rule entity.
+     *
+     * @param rule New or existing rule
+     * @return The same rule, updated
+     */
+    public PricingRule applyTo(PricingRule rule) {
+        rule.setName(name);
+        rule.setAttribute(attribute);
+        rule.setAttributeValue(attributeValue);
+        rule.setCategoryId(categoryId);
+        rule.setSellerId(sellerId);
+        rule.setValidFrom(validFrom);
+        rule.setValidUntil(validUntil);
+        rule.setAdjustment(adjustment);
+        rule.setAmount(amount);
+        rule.setPriority(priority);
+        rule.setActive(active);
+        return rule;
+    }
+}
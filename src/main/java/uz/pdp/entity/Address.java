@@ -41,7 +41,8 @@ public class Address {
     @JsonIgnoreProperties({"addresses", "password"})
     private User user;
 
-    @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true)
+    // Lazy so address lists don't drag a location query per row along; GraphQL batches them
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "location_id")
     @JsonManagedReference
     private Location location;
@@ -1,5 +1,6 @@
 package uz.pdp.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -37,8 +38,16 @@ public class Basket {
     @OneToMany(mappedBy = "basket", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<BasketItem> items = new ArrayList<>();
 
-    // Total price is calculated dynamically to ensure accuracy
+    // Total kept by the basket store while the basket is in memory; not a column
+    @JsonIgnore
+    @Transient
+    private Double runningTotal;
+
+    // Total price is calculated dynamically to ensure accuracy, unless the store already knows it
     public double getTotalPrice() {
+        if (runningTotal != null) {
+            return runningTotal;
+        }
         return items.stream()
                 .mapToDouble(item -> item.getPrice() * item.getQuantity())
                 .sum();
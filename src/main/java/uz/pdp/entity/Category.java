@@ -2,6 +2,10 @@ package uz.pdp.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import uz.pdp.config.CacheRegions;
+import uz.pdp.service.CacheInvalidationListener;
 
 /**
  * Entity representing door categories in the system.
@@ -21,6 +25,8 @@ import lombok.*;
     @Index(name = "idx_category_name", columnList = "name"),
     @Index(name = "idx_category_active", columnList = "active")
 })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CATEGORIES)
+@EntityListeners(CacheInvalidationListener.class)
 public class Category {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -4,6 +4,10 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import uz.pdp.config.CacheRegions;
+import uz.pdp.service.CacheInvalidationListener;
 
 /**
  * Entity for storing custom enum values added by admins and sellers.
@@ -14,6 +18,8 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Entity
 @Table(name = "custom_enum_values")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CUSTOM_ENUM_VALUES)
+@EntityListeners(CacheInvalidationListener.class)
 public class CustomEnumValue {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
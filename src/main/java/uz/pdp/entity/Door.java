@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import uz.pdp.enums.*;
+import uz.pdp.service.DoorPriceListener;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -19,6 +20,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
  * 
  * Every door tells a story, and this class tells it in code! 
  * From its location to its hardware, each field paints a picture of the perfect door.
+ * The final price comes from the pricing rules, set by {@link DoorPriceListener} on every save.
  */
 @Data
 @AllArgsConstructor
@@ -35,9 +37,14 @@ import com.fasterxml.jackson.annotation.JsonProperty;
     @Index(name = "idx_door_seller", columnList = "seller_id"),
     @Index(name = "idx_door_category", columnList = "category_id"),
     @Index(name = "idx_door_location", columnList = "door_location"),
-    @Index(name = "idx_door_frame_type", columnList = "frameType")
+    @Index(name = "idx_door_frame_type", columnList = "frameType"),
+    @Index(name = "idx_door_base_model", columnList = "base_model_id")
+}, uniqueConstraints = {
+    // Bulk imports upsert on this: one seller, one door per catalog code
+    @UniqueConstraint(name = "uk_door_seller_external_id", columnNames = {"seller_id", "external_id"})
 })
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@EntityListeners(DoorPriceListener.class)
 public class Door {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -108,6 +115,9 @@ public class Door {
     @JsonProperty("hardware")  
     private HardwareType hardware;
 
+    @Column(name = "external_id", length = 100)
+    private String externalId;  // The seller's own catalog code (SKU), set by bulk imports
+
     @Column(name = "base_model_id")
     private Long baseModelId;  // ID of the base model for color variants
     
@@ -135,55 +145,6 @@ public class Door {
     @Enumerated(EnumType.STRING)
     private Set<Color> availableColors = new HashSet<>();
 
-    @PrePersist
-    @PreUpdate
-    protected void onSave() {
-        calculateFinalPrice();
-    }
-
-    /**
-     * Calculates the final price of the door based on its features.
-     * 
-     * Price adjustments:
-     * - Custom size: +10% 📏
-     * - Custom color: +5% 🎨
-     * - Hidden frame: +15% 🚪
-     * - Pivot hardware: +8% 🔧
-     * 
-     * Fun fact: Our doors are like fine wine - they get more valuable 
-     * with each special feature! 💎
-     */
-    public void calculateFinalPrice() {
-        if (this.price != null) {
-            // Start with the base price
-            double finalPrice = this.price;
-            
-            // Add premium for custom sizes (10% extra)
-            if (Size.CUSTOM.equals(this.size)) {
-                finalPrice *= 1.1;
-            }
-            
-            // Add premium for custom colors (5% extra)
-            if (Boolean.TRUE.equals(this.isCustomColor)) {
-                finalPrice *= 1.05;
-            }
-            
-            // Add premium for premium frame types (15% extra)
-            if (FrameType.HIDDEN.equals(this.frameType)) {
-                finalPrice *= 1.15;
-            }
-            
-            // Add premium for special hardware (8% extra)
-            if (HardwareType.PIVOT.equals(this.hardware)) {
-                finalPrice *= 1.08;
-            }
-            
-            this.finalPrice = Math.round(finalPrice * 100.0) / 100.0; // Round to 2 decimal places
-        } else {
-            this.finalPrice = 0.0;
-        }
-    }
-
     /**
      * Updates the width based on the door's size.
      * 
@@ -0,0 +1,70 @@
+package uz.pdp.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Outcome of a request sent with an {@code Idempotency-Key}.
+ *
+ * The row is inserted before the request runs - the unique constraint makes sure only
+ * one execution per key ever starts, across all instances - and gets the response once
+ * it is done. A null response status means the first request is still in flight; it
+ * holds the key until its lease runs out, after which a retry may take the key over.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "idempotency_keys", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_idempotency_scope_owner_key", columnNames = {"scope", "owner", "idempotency_key"})
+}, indexes = {
+    @Index(name = "idx_idempotency_expiry", columnList = "expires_at")
+})
+public class IdempotencyRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String scope;
+
+    @Column(nullable = false)
+    private String owner;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    private Integer responseStatus;
+
+    private String responseContentType;
+
+    @Column(columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Until when the in-flight execution owns the key; null counts as run out
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,7 +1,9 @@
 package uz.pdp.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -11,15 +13,22 @@ import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import uz.pdp.config.CacheRegions;
+import uz.pdp.service.CacheInvalidationListener;
 
 @Entity
 @Data
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @AllArgsConstructor
 @NoArgsConstructor 
 @Table(name = "locations", indexes = {
     @Index(name = "idx_location_coords", columnList = "latitude,longitude"),
     @Index(name = "idx_location_title", columnList = "markerTitle")
 })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.LOCATIONS)
+@EntityListeners(CacheInvalidationListener.class)
 public class Location {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,84 @@
+package uz.pdp.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import uz.pdp.enums.PriceAdjustment;
+import uz.pdp.enums.PricingAttribute;
+
+/**
+ * One rule of the door pricing engine.
+ *
+ * A rule applies to a door when every condition that is set matches: the
+ * attribute value, the category, the seller and the validity window (for
+ * promotions). Empty conditions match everything. Matching rules are applied
+ * in priority order, each on top of the price so far.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "pricing_rules")
+public class PricingRule {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    private PricingAttribute attribute;
+
+    @Column(name = "attribute_value")
+    private String attributeValue;
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "seller_id")
+    private Long sellerId;
+
+    @Column(name = "valid_from")
+    private LocalDateTime validFrom;
+
+    @Column(name = "valid_until")
+    private LocalDateTime validUntil;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PriceAdjustment adjustment = PriceAdjustment.PERCENT;
+
+    // Percent (10 = +10%, -20 = -20%) or money, depending on the adjustment
+    @Column(nullable = false)
+    private double amount;
+
+    @Column(nullable = false)
+    private int priority;
+
+    private boolean active = true;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public PricingRule(String name, PricingAttribute attribute, String attributeValue, double percent, int priority) {
+        this.name = name;
+        this.attribute = attribute;
+        this.attributeValue = attributeValue;
+        this.amount = percent;
+        this.priority = priority;
+    }
+}
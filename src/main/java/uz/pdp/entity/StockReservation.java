@@ -0,0 +1,65 @@
+package uz.pdp.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import uz.pdp.enums.ItemType;
+import uz.pdp.enums.ReservationStatus;
+
+/**
+ * Stock set aside for a user while their basket is in checkout.
+ * The quantity is already taken off the shelf; releasing the hold puts it back.
+ *
+ * Status changes only go through conditional updates in the repository,
+ * so the sweeper and a checkout can never both act on the same hold.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "stock_reservations", indexes = {
+    @Index(name = "idx_reservation_status_expiry", columnList = "status,expires_at"),
+    @Index(name = "idx_reservation_user_status", columnList = "user_id,status")
+})
+public class StockReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "item_type", nullable = false)
+    private ItemType itemType;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReservationStatus status = ReservationStatus.HELD;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
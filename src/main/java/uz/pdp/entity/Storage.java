@@ -5,7 +5,11 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import uz.pdp.config.CacheRegions;
 import uz.pdp.enums.ItemType;
+import uz.pdp.service.CacheInvalidationListener;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -25,6 +29,8 @@ import java.util.Set;
     @Index(name = "idx_storage_name", columnList = "name")
 })
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.STORAGES)
+@EntityListeners(CacheInvalidationListener.class)
 public class Storage {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -38,6 +44,7 @@ public class Storage {
     private Location location;
 
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.STORAGE_PRODUCT_TYPES)
     @CollectionTable(name = "storage_product_types", 
                     joinColumns = @JoinColumn(name = "storage_id"))
     @Column(name = "product_type")
@@ -6,8 +6,12 @@ import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import uz.pdp.config.CacheRegions;
 import uz.pdp.enums.Role;
+import uz.pdp.service.CacheInvalidationListener;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -32,6 +36,8 @@ import java.util.List;
     @Index(name = "idx_user_phone", columnList = "phone"),
     @Index(name = "idx_user_role_active", columnList = "role,active")
 })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.USERS)
+@EntityListeners(CacheInvalidationListener.class)
 public class User implements UserDetails {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,85 @@
+package uz.pdp.enums;
+
+import lombok.Getter;
+
+/**
+ * Fixed set of resized renditions generated for every uploaded image.
+ *
+ * Variants live right next to the original in the bucket, so their keys
+ * (and URLs) can be derived from the original without touching the database:
+ * {@code doors/3f2a.jpg} -> {@code doors/3f2a_thumb.webp}, {@code doors/3f2a_medium.webp}.
+ *
+ * Catalog cards get the thumbnail, product pages the medium one - nobody downloads
+ * a 5MB original just to look at a doorknob! 🖼️
+ */
+@Getter
+public enum ImageVariant {
+    THUMBNAIL("thumb", 320),
+    MEDIUM("medium", 1024);
+
+    public static final String FORMAT = "webp";
+    public static final String CONTENT_TYPE = "image/webp";
+
+    /** Folders of our own uploads - anything else (Unsplash, seeded data) has no variants. */
+    private static final String[] MANAGED_PREFIXES = {"doors/", "mouldings/", "accessories/"};
+
+    private final String suffix;
+    private final int maxDimension;
+
+    ImageVariant(String suffix, int maxDimension) {
+        this.suffix = suffix;
+        this.maxDimension = maxDimension;
+    }
+
+    /**
+     * Derives the key (or URL) of this variant from the key (or URL) of the original.
+     *
+     * @param original Key or full URL of the original image
+     * @return Key or URL of the variant, or null if original is null
+     */
+    public String deriveFrom(String original) {
+        if (original == null) {
+            return null;
+        }
+        int slash = original.lastIndexOf('/');
+        int dot = original.lastIndexOf('.');
+        String base = dot > slash ? original.substring(0, dot) : original;
+        return base + "_" + suffix + "." + FORMAT;
+    }
+
+    /**
+     * Checks whether an image was uploaded through our pipeline and therefore has variants.
+     *
+     * @param keyOrUrl Key or URL of the original image
+     * @return true if it lives in one of our upload folders
+     */
+    public static boolean hasVariants(String keyOrUrl) {
+        if (keyOrUrl == null) {
+            return false;
+        }
+        for (String prefix : MANAGED_PREFIXES) {
+            if (keyOrUrl.startsWith(prefix) || keyOrUrl.contains("/" + prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a key or URL points to a generated variant rather than an original.
+     *
+     * @param keyOrUrl Key or URL to check
+     * @return true if it ends with one of the variant suffixes
+     */
+    public static boolean isVariant(String keyOrUrl) {
+        if (keyOrUrl == null) {
+            return false;
+        }
+        for (ImageVariant variant : values()) {
+            if (keyOrUrl.endsWith("_" + variant.suffix + "." + FORMAT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,10 @@
+package uz.pdp.enums;
+
+/**
+ * How a pricing rule changes the price: by a percentage of the running price,
+ * or by a fixed amount.
+ */
+public enum PriceAdjustment {
+    PERCENT,
+    FIXED
+}
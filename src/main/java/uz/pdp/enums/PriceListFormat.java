@@ -0,0 +1,27 @@
+package uz.pdp.enums;
+
+/**
+ * File formats the catalog price list can be exported in.
+ * Pick your poison: plain text, spreadsheet or something to print! 🖨️
+ */
+public enum PriceListFormat {
+    CSV("text/csv", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx"),
+    PDF("application/pdf", "pdf");
+
+    private final String contentType;
+    private final String extension;
+
+    PriceListFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
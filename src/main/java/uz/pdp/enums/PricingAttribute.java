@@ -0,0 +1,44 @@
+package uz.pdp.enums;
+
+/**
+ * Door attribute a pricing rule can be tied to.
+ * Rule values are the enum constant names (e.g. FRAME_TYPE = "HIDDEN"),
+ * or "true"/"false" for CUSTOM_COLOR.
+ */
+public enum PricingAttribute {
+    SIZE(Size.class),
+    COLOR(Color.class),
+    CUSTOM_COLOR(null),
+    FRAME_TYPE(FrameType.class),
+    HARDWARE(HardwareType.class),
+    LOCATION(DoorLocation.class);
+
+    private final Class<? extends Enum<?>> valueType;
+
+    PricingAttribute(Class<? extends Enum<?>> valueType) {
+        this.valueType = valueType;
+    }
+
+    /**
+     * Turns a rule value into the number a compiled rule compares against:
+     * the enum ordinal, or 1/0 for CUSTOM_COLOR.
+     *
+     * @param value Rule value
+     * @return Comparable code
+     * @throws IllegalArgumentException if the value isn't valid for this attribute
+     */
+    public int code(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(name() + " rules need a value");
+        }
+        if (valueType == null) {
+            return Boolean.parseBoolean(value.trim()) ? 1 : 0;
+        }
+        for (Enum<?> constant : valueType.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(value.trim())) {
+                return constant.ordinal();
+            }
+        }
+        throw new IllegalArgumentException("'" + value + "' is not a valid " + name());
+    }
+}
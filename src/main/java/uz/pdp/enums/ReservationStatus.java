@@ -0,0 +1,11 @@
+package uz.pdp.enums;
+
+/**
+ * Lifecycle of a stock reservation.
+ * HELD until the order goes through (COMMITTED) or the hold runs out (RELEASED).
+ */
+public enum ReservationStatus {
+    HELD,
+    COMMITTED,
+    RELEASED
+}
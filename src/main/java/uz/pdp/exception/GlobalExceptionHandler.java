@@ -135,6 +135,28 @@ public class GlobalExceptionHandler {
         }
     }
 
+    /**
+     * Exception for an Idempotency-Key that can't be used right now:
+     * reused with a different request, or its first request is still running.
+     * Same key, same request - that's the deal! 🔑
+     */
+    public static class IdempotencyKeyException extends BaseException {
+        public IdempotencyKeyException(String message, HttpStatus status) {
+            super(message, status);
+        }
+    }
+
+    /**
+     * Exception for work we are already doing as much of as we can afford.
+     * Take a number and come back in a minute! 🎫
+     */
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public static class TooManyRequestsException extends BaseException {
+        public TooManyRequestsException(String message) {
+            super(" " + message, HttpStatus.TOO_MANY_REQUESTS);
+        }
+    }
+
     /**
      * Handles all custom base exceptions.
      * One handler to catch them all! 
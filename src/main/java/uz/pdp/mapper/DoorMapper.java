@@ -4,6 +4,7 @@ import org.mapstruct.*;
 import org.springframework.stereotype.Component;
 import uz.pdp.dto.DoorDto;
 import uz.pdp.dto.DoorResponseDTO;
+import uz.pdp.dto.ImageVariantsDTO;
 import uz.pdp.entity.Door;
 import uz.pdp.entity.Category;
 import uz.pdp.dto.CategoryDTO;
@@ -27,7 +28,7 @@ import uz.pdp.dto.CategoryDTO;
  * Mapper for Door entities. For when doors need mapping services and a good laugh! 
  */
 @Component
-@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE, imports = ImageVariantsDTO.class)
 public interface DoorMapper {
 
     /**
@@ -40,6 +41,7 @@ public interface DoorMapper {
      */
     @Mapping(target = "status", expression = "java(door.getStatus().toString())")
     @Mapping(target = "categoryName", expression = "java(door.getCategory() != null ? door.getCategory().getName() : null)")
+    @Mapping(target = "imageVariants", expression = "java(ImageVariantsDTO.fromAll(door.getImages()))")
     DoorDto toDto(Door door);
 
     /**
@@ -84,6 +86,7 @@ public interface DoorMapper {
      * @return The response DTO with all the door's glamour shots
      */
     @Mapping(target = "category", expression = "java(mapCategory(door.getCategory()))")
+    @Mapping(target = "imageVariants", expression = "java(ImageVariantsDTO.fromAll(door.getImages()))")
     DoorResponseDTO toResponseDto(Door door);
 
     /**
@@ -103,7 +106,7 @@ public interface DoorMapper {
     }
 
     /**
-     * After mapping, initialize collections and calculate final price.
+     * After mapping, initialize collections. The final price is set when the door is saved.
      * 
      * @param door The mapped door entity
      */
@@ -115,6 +118,5 @@ public interface DoorMapper {
         if (door.getAvailableColors() == null) {
             door.setAvailableColors(new java.util.HashSet<>());
         }
-        door.calculateFinalPrice();
     }
 }
@@ -4,6 +4,7 @@ import org.mapstruct.*;
 import org.springframework.stereotype.Component;
 import uz.pdp.dto.FurnitureDoorCreateDTO;
 import uz.pdp.dto.FurnitureDoorResponseDTO;
+import uz.pdp.dto.ImageVariantsDTO;
 import uz.pdp.entity.FurnitureDoor;
 
 /**
@@ -13,7 +14,7 @@ import uz.pdp.entity.FurnitureDoor;
  * 
  * Warning: May cause occasional door-to-DTO transformation dizziness! 🌀
  */
-@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE, imports = ImageVariantsDTO.class)
 @Component
 public interface FurnitureDoorMapper {
 
@@ -36,6 +37,7 @@ public interface FurnitureDoorMapper {
      * @return A presentable door DTO, ready for its API debut!
      */
     @Mapping(target = "imageUrls", source = "images")
+    @Mapping(target = "imageVariants", expression = "java(ImageVariantsDTO.fromAll(entity.getImages()))")
     FurnitureDoorResponseDTO toDto(FurnitureDoor entity);
 
     /**
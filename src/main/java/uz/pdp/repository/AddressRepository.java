@@ -153,4 +153,14 @@ public interface AddressRepository extends JpaRepository<Address, Long> {
     Collection<Object> findAllByUserId(Long id);
 
     List<Address> findByCity(String city);
+
+    /**
+     * Loads addresses together with their locations in one query.
+     * Used by the GraphQL location loader, one call per request.
+     *
+     * @param ids Address IDs
+     * @return Addresses with initialized locations
+     */
+    @Query("SELECT a FROM Address a JOIN FETCH a.location WHERE a.id IN :ids")
+    List<Address> findAllWithLocationByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
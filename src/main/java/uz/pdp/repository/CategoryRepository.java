@@ -1,6 +1,11 @@
 package uz.pdp.repository;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import jakarta.persistence.QueryHint;
+import uz.pdp.config.CacheRegions;
 import uz.pdp.entity.Category;
 
 import java.util.List;
@@ -13,6 +18,10 @@ import java.util.Optional;
  */
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByNameIgnoreCase(String name);
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.CATEGORY_QUERIES)
+    })
     List<Category> findAllByActiveTrue();
 
     Optional<Category> findByName(String securityDoors);
@@ -1,10 +1,19 @@
 package uz.pdp.repository;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import jakarta.persistence.QueryHint;
+import uz.pdp.config.CacheRegions;
 import uz.pdp.entity.CustomEnumValue;
 import java.util.List;
 
 public interface CustomEnumValueRepository extends JpaRepository<CustomEnumValue, Long> {
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.CUSTOM_ENUM_VALUE_QUERIES)
+    })
     List<CustomEnumValue> findByEnumTypeAndIsActiveTrue(String enumType);
     boolean existsByNameAndEnumType(String name, String enumType);
 }
@@ -1,5 +1,6 @@
 package uz.pdp.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -10,6 +11,8 @@ import java.util.List;
 @Repository
 public interface DoorHistoryRepository extends JpaRepository<DoorHistory, Long> {
     
+    // User and door come along in the same query - history lists read both for every entry
+    @EntityGraph(attributePaths = {"user", "door"})
     List<DoorHistory> findByUserId(Long userId);
     
     @Modifying
@@ -18,5 +21,6 @@ public interface DoorHistoryRepository extends JpaRepository<DoorHistory, Long>
 
     List<DoorHistory> findByDoorId(Long doorId);
 
+    @EntityGraph(attributePaths = {"user", "door"})
     List<DoorHistory> findByUserIdAndDoorId(Long userId, Long doorId);
 }
\ No newline at end of file
@@ -1,21 +1,27 @@
 package uz.pdp.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import uz.pdp.dto.PriceListRow;
 import uz.pdp.entity.Category;
 import uz.pdp.entity.Door;
 import uz.pdp.entity.User;
 import uz.pdp.enums.Color;
 import uz.pdp.enums.Size;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Door entities.
@@ -183,4 +189,33 @@ public interface DoorRepository extends JpaRepository<Door, Long> {
      * @return List of doors in the category
      */
     List<Door> findByCategory(Category category);
-}
\ No newline at end of file
+
+    /**
+     * Every image URL referenced by any door.
+     * Used by the orphan sweeper to tell live S3 objects from leftovers.
+     */
+    @Query(value = "SELECT images FROM door_images", nativeQuery = true)
+    List<String> findAllImageUrls();
+
+    /**
+     * Which of these image URLs other doors use too.
+     * Color variants share their base model's images, so a file may only go once nobody uses it.
+     */
+    @Query(value = "SELECT DISTINCT images FROM door_images WHERE door_id <> :doorId AND images IN (:urls)",
+            nativeQuery = true)
+    List<String> findImagesUsedByOtherDoors(@Param("doorId") Long doorId, @Param("urls") Collection<String> urls);
+
+    /**
+     * Active doors as price list rows, read through a cursor 500 rows at a time.
+     * Must be consumed inside a transaction and closed - it holds a connection. 🚰
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT new uz.pdp.dto.PriceListRow(d.id, d.name, c.name, d.size, d.color, d.frameType, d.price, d.finalPrice)
+            FROM Door d
+            LEFT JOIN d.category c
+            WHERE d.active = true
+            ORDER BY d.id
+            """)
+    Stream<PriceListRow> streamPriceList();
+}
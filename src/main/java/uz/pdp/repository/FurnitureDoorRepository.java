@@ -1,9 +1,59 @@
 package uz.pdp.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import uz.pdp.dto.PriceListRow;
 import uz.pdp.entity.FurnitureDoor;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface FurnitureDoorRepository extends JpaRepository<FurnitureDoor, Long> {
+
+    /**
+     * Every image URL referenced by any door accessory.
+     * Used by the orphan sweeper to tell live S3 objects from leftovers.
+     */
+    @Query(value = "SELECT image_url FROM furniture_door_images", nativeQuery = true)
+    List<String> findAllImageUrls();
+
+    /**
+     * Takes stock off the shelf in one statement, only if there is enough of it.
+     * Two concurrent checkouts can't both take the last piece.
+     *
+     * @return 1 if the stock was taken, 0 if there wasn't enough
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE FurnitureDoor f SET f.stockQuantity = f.stockQuantity - :amount " +
+           "WHERE f.id = :id AND f.stockQuantity >= :amount")
+    int decrementStock(@Param("id") Long id, @Param("amount") int amount);
+
+    /**
+     * Puts stock back on the shelf.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE FurnitureDoor f SET f.stockQuantity = f.stockQuantity + :amount WHERE f.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("amount") int amount);
+
+    @Query("SELECT f.stockQuantity FROM FurnitureDoor f WHERE f.id = :id")
+    Integer findStockQuantityById(@Param("id") Long id);
+
+    /**
+     * All door accessories as price list rows, read through a cursor 500 rows at a time.
+     * Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT new uz.pdp.dto.PriceListRow(f.id, f.name, f.furnitureType, f.material, f.dimensions, f.price)
+            FROM FurnitureDoor f
+            ORDER BY f.id
+            """)
+    Stream<PriceListRow> streamPriceList();
 }
@@ -0,0 +1,43 @@
+package uz.pdp.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import uz.pdp.entity.IdempotencyRecord;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByScopeAndOwnerAndIdempotencyKey(String scope, String owner, String idempotencyKey);
+
+    /**
+     * Claims an unfinished execution whose lease ran out (the instance running it died).
+     * Only one caller wins the race.
+     *
+     * @return 1 if the caller owns the key now, 0 otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.leaseExpiresAt = :leaseUntil WHERE r.id = :id " +
+           "AND r.responseStatus IS NULL AND (r.leaseExpiresAt IS NULL OR r.leaseExpiresAt < :now)")
+    int takeOver(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Removes outcomes past their retention, and executions that never finished
+     * and whose lease ran out, so their key can be used again.
+     *
+     * @return Number of rows removed
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now " +
+           "OR (r.responseStatus IS NULL AND (r.leaseExpiresAt IS NULL OR r.leaseExpiresAt < :now))")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
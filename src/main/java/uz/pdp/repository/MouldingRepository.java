@@ -1,14 +1,22 @@
 package uz.pdp.repository;
 
+import jakarta.persistence.QueryHint;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import uz.pdp.dto.PriceListRow;
 import uz.pdp.entity.Moulding;
 import uz.pdp.entity.User;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface MouldingRepository extends JpaRepository<Moulding, Long> {
@@ -23,4 +31,41 @@ public interface MouldingRepository extends JpaRepository<Moulding, Long> {
      * @throws IllegalArgumentException if user is null. Where doors go to hang out! 
      */
     List<Moulding> findAllByUser(User user);
-}
\ No newline at end of file
+
+    /**
+     * Every image URL referenced by any moulding.
+     * Used by the orphan sweeper to tell live S3 objects from leftovers.
+     */
+    @Query(value = "SELECT image_url FROM moulding_images", nativeQuery = true)
+    List<String> findAllImageUrls();
+
+    /**
+     * Takes stock off the shelf in one statement, only if there is enough of it.
+     * Two concurrent checkouts can't both take the last piece.
+     *
+     * @return 1 if the stock was taken, 0 if there wasn't enough
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Moulding m SET m.quantity = m.quantity - :amount, m.priceOverall = m.price * (m.quantity - :amount) " +
+           "WHERE m.id = :id AND m.quantity >= :amount")
+    int decrementQuantity(@Param("id") Long id, @Param("amount") int amount);
+
+    /**
+     * Puts stock back on the shelf.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Moulding m SET m.quantity = m.quantity + :amount, m.priceOverall = m.price * (m.quantity + :amount) " +
+           "WHERE m.id = :id")
+    int incrementQuantity(@Param("id") Long id, @Param("amount") int amount);
+
+    @Query("SELECT m.quantity FROM Moulding m WHERE m.id = :id")
+    Integer findQuantityById(@Param("id") Long id);
+
+    /**
+     * All mouldings as price list rows, read through a cursor 500 rows at a time.
+     * Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new uz.pdp.dto.PriceListRow(m.id, m.title, m.article, m.size, m.price) FROM Moulding m ORDER BY m.id")
+    Stream<PriceListRow> streamPriceList();
+}
@@ -0,0 +1,18 @@
+package uz.pdp.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import uz.pdp.entity.PricingRule;
+
+/**
+ * Repository for door pricing rules.
+ */
+@Repository
+public interface PricingRuleRepository extends JpaRepository<PricingRule, Long> {
+    List<PricingRule> findByActiveTrueOrderByPriorityAscIdAsc();
+
+    List<PricingRule> findAllByOrderByPriorityAscIdAsc();
+}
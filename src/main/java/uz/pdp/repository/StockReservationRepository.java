@@ -0,0 +1,40 @@
+package uz.pdp.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import uz.pdp.entity.StockReservation;
+import uz.pdp.enums.ReservationStatus;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    List<StockReservation> findByUserIdAndStatus(Long userId, ReservationStatus status);
+
+    List<StockReservation> findTop500ByStatusAndExpiresAtBefore(ReservationStatus status, LocalDateTime now);
+
+    /**
+     * Moves a reservation from one status to another, only if it is still in the expected one.
+     *
+     * @return 1 if this caller won the transition, 0 if someone else got there first
+     */
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :to WHERE r.id = :id AND r.status = :from")
+    int transition(@Param("id") Long id, @Param("from") ReservationStatus from, @Param("to") ReservationStatus to);
+
+    /**
+     * Pushes back the expiry of a hold that hasn't run out yet.
+     *
+     * @return 1 if the hold was extended, 0 if it is gone
+     */
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.expiresAt = :expiresAt " +
+           "WHERE r.id = :id AND r.status = uz.pdp.enums.ReservationStatus.HELD AND r.expiresAt > :now")
+    int extendHold(@Param("id") Long id, @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+}
@@ -1,7 +1,14 @@
 package uz.pdp.repository;
 
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+import uz.pdp.config.CacheRegions;
 import uz.pdp.entity.Location;
 import uz.pdp.entity.Storage;
 
@@ -11,5 +18,10 @@ import uz.pdp.entity.Storage;
  */
 @Repository
 public interface StorageRepository extends JpaRepository<Storage, Long> {
-    // Add custom queries here if needed in the future
+    @Override
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.STORAGE_QUERIES)
+    })
+    List<Storage> findAll();
 }
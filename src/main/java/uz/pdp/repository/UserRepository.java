@@ -1,8 +1,13 @@
 package uz.pdp.repository;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
+import uz.pdp.config.CacheRegions;
 import uz.pdp.entity.User;
 import uz.pdp.enums.Role;
 
@@ -19,7 +24,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.email = :email AND u.active = true")
     Optional<User> findByEmail(@Param("email") String email);
     
+    // Every authenticated request looks its principal up by name
     @Query("SELECT u FROM User u WHERE u.name = :name AND u.active = true")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.USER_QUERIES)
+    })
     Optional<User> findByName(@Param("name") String name);
     
     @Query("SELECT COUNT(u) > 0 FROM User u WHERE u.email = :email")
@@ -6,8 +6,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -70,6 +68,9 @@ public class AdminService {
     @Autowired
     private DoorRepository doorRepository;          // The gateway to all things door-related
 
+    @Autowired
+    private CurrentUserContext currentUserContext;  // Who's holding the keys this request
+
     /**
      * 🎭 The Final Act of Seller Transformation! 
      * 
@@ -420,13 +421,10 @@ public class AdminService {
      * @throws UnauthorizedException if no admin is logged in
      */
     private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
+        User user = currentUserContext.getOrNull();
+        if (user == null) {
             throw new UnauthorizedException("No authenticated user found");
         }
-
-        String username = authentication.getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("Admin not found: " + username));
+        return user;
     }
 }
@@ -48,6 +48,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;      // The password scrambler
     private final JwtProvider jwtProvider;             // Token dispenser
     private final AuthenticationManager authManager;    // The final gatekeeper
+    private final GuestBasketService guestBasketService; // Brings the guest basket along
 
     /**
      * Initializes the authentication service with required dependencies.
@@ -60,16 +61,19 @@ public class AuthService {
      * @param passwordEncoder BCrypt encoder (because MD5 is so 1990s)
      * @param jwtProvider JWT token generator and validator
      * @param authManager Spring Security's authentication manager
+     * @param guestBasketService Merges the guest basket into the user's on login
      */
     public AuthService(
             UserRepository userRepository,
             PasswordEncoder passwordEncoder,
             JwtProvider jwtProvider,
-            AuthenticationManager authManager) {
+            AuthenticationManager authManager,
+            GuestBasketService guestBasketService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtProvider = jwtProvider;
         this.authManager = authManager;
+        this.guestBasketService = guestBasketService;
     }
 
     /**
@@ -141,6 +145,7 @@ public class AuthService {
      * 2. Check account status
      * 3. Generate JWT token
      * 4. Update last login time
+     * 5. Move the guest basket into the user's basket
      * 
      * Fun fact: 90% of login failures are just caps lock being on.
      * The other 10% are people trying their old passwords from 2015.
@@ -170,6 +175,13 @@ public class AuthService {
 
             // Generate JWT token
             String token = jwtProvider.generateToken(user.getName());
+
+            // Whatever they picked as a guest comes along - but never at the cost of the login
+            try {
+                guestBasketService.mergeInto(user);
+            } catch (Exception e) {
+                logger.warn("Could not merge guest basket of user {}: {}", user.getName(), e.getMessage());
+            }
             return EntityResponse.success("Login successful", token);
         } catch (BadCredentialsException e) {
             throw new UnauthorizedException("Invalid username or password");
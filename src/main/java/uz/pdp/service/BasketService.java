@@ -6,24 +6,23 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import uz.pdp.entity.*;
 import uz.pdp.enums.ItemType;
 import uz.pdp.exception.GlobalExceptionHandler.FurnitureDoorNotFoundException;
 import uz.pdp.dto.BasketItemDTO;
 import uz.pdp.repository.BasketItemRepository;
 import uz.pdp.repository.BasketRepository;
-import uz.pdp.repository.UserRepository;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 
 /**
  * Service for managing shopping basket operations.
- * Now with turbocharged Redis caching! 🛒✨
+ * Baskets live in the {@link BasketStore} and reach the database a moment later! 🛒✨
  * Because your shopping cart should move at the speed of light!
  *
  * @version 1.0
@@ -43,46 +42,51 @@ public class BasketService {
     private final DoorService doorService;
     private final FurnitureDoorService furnitureDoorService;
     private final MouldingService mouldingService;
-    private final UserRepository userRepository;
+    private final CurrentUserContext currentUserContext;
+    private final BasketStore basketStore;
+    private final GuestBasketService guestBasketService;
 
     /**
-     * Get the current user from the security context.
+     * Get the current user of the request.
+     * MyFilter already loaded it, so no extra query is needed.
      * @throws IllegalStateException if no user is authenticated
      */
     private User getCurrentUser() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        if (principal instanceof UserDetails) {
-            String name = ((UserDetails) principal).getUsername();
-            return userRepository.findByName(name)
-                .orElseThrow(() -> new IllegalStateException("User not found: " + name));
-        }   
-        throw new IllegalStateException("No authenticated user found");
+        User user = getCurrentUserOrNull();
+        if (user == null) {
+            throw new IllegalStateException("No authenticated user found");
+        }
+        return user;
+    }
+
+    /**
+     * Same as {@link #getCurrentUser()}, but null for guests - they get a guest basket.
+     */
+    private User getCurrentUserOrNull() {
+        return currentUserContext.getOrNull();
     }
 
     /**
-     * Get the current user's basket.
+     * Get the current user's basket, or the guest basket for visitors who aren't logged in.
      * Creates a new basket if one doesn't exist.
-     * Cached per user - because your cart is your castle! 🏰
+     * Served from the basket store - because your cart is your castle! 🏰
      */
-    //@Cacheable(value = USER_BASKET_CACHE, key = "#root.target.getCurrentUser().id")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Basket getBasket() {
-        User user = getCurrentUser();
-        return basketRepository.findByUserId(user.getId())
-                .orElseGet(() -> {
-                    Basket basket = new Basket();
-                    basket.setUser(user);
-                    return basketRepository.save(basket);
-                });
+        User user = getCurrentUserOrNull();
+        return user != null ? basketStore.get(user) : guestBasketService.get();
     }
 
     /**
      * Get a basket by ID.
-     * Cached individually - every basket deserves VIP treatment! 🌟
+     * Served from the basket store too - the database only tells us whose it is,
+     * its items may not have been written yet. 🌟
      */
     //@Cacheable(value = BASKET_CACHE, key = "#id")
     public Basket getBasketById(Long id) {
-        return basketRepository.findById(id)
+        Basket basket = basketRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Basket not found with id: " + id));
+        return basket.getUser() != null ? basketStore.get(basket.getUser()) : basket;
     }
 
     /**
@@ -109,8 +113,15 @@ public class BasketService {
      * Updates caches because shopping waits for no one! 🛍️
      */
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Basket addItem(Long itemId, ItemType type, int quantity) {
-        Basket basket = getBasket();
+        User user = getCurrentUserOrNull();
+
+        // Already in the basket - only the quantity changes, no need to look the item up
+        Basket updated = user != null ? basketStore.addMore(user, type, itemId, quantity) : null;
+        if (updated != null) {
+            return updated;
+        }
         
         // Get item details based on type
         String name;
@@ -141,84 +152,70 @@ public class BasketService {
             throw new IllegalArgumentException("Invalid item type: " + type);
         }
         
-        // Check if item already exists in basket
-        BasketItem existingItem = basket.getItems().stream()
-                .filter(item -> Objects.equals(item.getItemId(), itemId) && item.getType() == type)
-                .findFirst()
-                .orElse(null);
-        
-        if (existingItem != null) {
-            // Update quantity if item exists
-            existingItem.setQuantity(existingItem.getQuantity() + quantity);
-        } else {
-            // Create new basket item
-            BasketItem basketItem = new BasketItem();
-            basketItem.setBasket(basket);
-            basketItem.setItemId(itemId);
-            basketItem.setType(type);
-            basketItem.setQuantity(quantity);
-            basketItem.setPrice(price);
-            basketItem.setName(name);
-            basketItem.setImage(image);
-            basket.getItems().add(basketItem);
-        }
-        
-        return basketRepository.save(basket);
+        BasketStore.Line line = new BasketStore.Line(null, itemId, type, quantity, price, name, image);
+        return user != null ? basketStore.add(user, line) : guestBasketService.add(line);
     }
 
     /**
      * Remove an item from the basket.
-     * Cleans up caches like a neat freak! 🧹
+     * Inside a checkout transaction it only happens once the orders are committed. 🧹
      */
-
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void removeBasketItem(Long basketItemId) {
-        BasketItem basketItem = basketItemRepository.findById(basketItemId)
-                .orElseThrow(() -> new IllegalArgumentException("Basket item not found: " + basketItemId));
-        
-        if (!Objects.equals(basketItem.getBasket().getId(), getBasket().getId())) {
-            throw new IllegalStateException("Cannot remove item from another user's basket");
+        User user = getCurrentUserOrNull();
+        if (user == null) {
+            guestBasketService.remove(List.of(basketItemId));
+            return;
         }
-
-        Basket basket = basketItem.getBasket();
-        basketItemRepository.deleteBasketItemById(basketItemId);
-        basket.getItems().remove(basketItem);
-        basketRepository.save(basket);
-        log.info("Successfully removed basket item {} from basket {}", basketItemId, basketItem.getBasket().getId());
+        afterCommit(() -> {
+            basketStore.remove(user, List.of(basketItemId));
+            log.info("Successfully removed basket item {} from the basket of user {}", basketItemId, user.getId());
+        });
     }
 
     /**
      * Update the quantity of an item in the basket.
-     * Updates caches faster than you can say "checkout"! 💨
+     * Updates the basket faster than you can say "checkout"! 💨
      */
-
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Basket updateItemQuantity(Long itemId, int quantity) {
         if (quantity < 0) {
             throw new IllegalArgumentException("Quantity cannot be negative");
         }
-
-        BasketItem item = basketItemRepository.findById(itemId)
-                .orElseThrow(() -> new RuntimeException("Basket item not found"));
-
-        if (quantity == 0) {
-            // Delete using native query
-            basketItemRepository.deleteById(itemId);
-            return getBasket();
-        }
-
-        item.setQuantity(quantity);
-        return getBasket();
+        User user = getCurrentUserOrNull();
+        return user != null ? basketStore.updateQuantity(user, itemId, quantity)
+                : guestBasketService.updateQuantity(itemId, quantity);
     }
 
     /**
      * Clear all items from the basket.
-     * Evicts all caches because sometimes you need a fresh start! 🌅
+     * Inside a checkout transaction it only happens once the orders are committed. 🌅
      */
-
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void clearBasket() {
-        Basket basket = getBasket();
-        log.info("Clearing basket with ID: {} containing {} items", basket.getId(), basket.getItems().size());
-        basketItemRepository.deleteAllByBasketId(basket.getId());
-        log.info("Successfully cleared all items from basket {}", basket.getId());
+        User user = getCurrentUserOrNull();
+        if (user == null) {
+            guestBasketService.clear();
+            return;
+        }
+        afterCommit(() -> {
+            basketStore.clear(user);
+            log.info("Successfully cleared the basket of user {}", user.getId());
+        });
+    }
+
+    // A rolled back checkout must leave the basket as it was
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     /**
@@ -235,12 +232,6 @@ public class BasketService {
         };
     }
 
-    private Basket getCurrentUserBasket() {
-        User user = getCurrentUser();
-        return basketRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new RuntimeException("User's basket not found"));
-    }
-
     /**
      * Checkout specific items from the basket.
      * Like a VIP door service - only the items you want! 🎯
@@ -249,24 +240,17 @@ public class BasketService {
      * @return List of checked out items
      * @throws IllegalArgumentException if any item is not found or doesn't belong to user's basket
      */
-    @Transactional
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<BasketItem> checkoutItems(List<Long> basketItemIds) {
-        Basket userBasket = getCurrentUserBasket();
-        List<BasketItem> itemsToCheckout = basketItemRepository.findAllById(basketItemIds);
+        User user = getCurrentUser();
+        Basket userBasket = basketStore.get(user);
+        List<BasketItem> itemsToCheckout = userBasket.getItems().stream()
+            .filter(item -> basketItemIds.contains(item.getId()))
+            .toList();
 
         // Verify all items exist and belong to user's basket
-        log.info("Basket items before checkout: {}", userBasket.getItems());
-
         if (itemsToCheckout.size() != basketItemIds.size()) {
-            throw new IllegalArgumentException("Some basket items not found");
-        }
-
-        for (BasketItem item : itemsToCheckout) {
-            if (!Objects.equals(item.getBasket().getId(), userBasket.getId())) {
-                throw new IllegalArgumentException(
-                    "Item " + item.getId() + " does not belong to the current user's basket"
-                );
-            }
+            throw new IllegalArgumentException("Some basket items not found in the current user's basket");
         }
 
         // Process the checkout (you can add payment processing here)
@@ -278,17 +262,7 @@ public class BasketService {
             itemsToCheckout.size(), String.format("%.2f", totalAmount));
 
         // Remove checked out items from basket
-        for (BasketItem item : itemsToCheckout) {
-            basketItemRepository.delete(item);
-        }
-
-        // Refresh the basket items after checkout
-        for (BasketItem item : itemsToCheckout) {
-            userBasket.getItems().remove(item);
-        }
-        basketRepository.save(userBasket); // Save the updated basket
-
-        log.info("Basket items after checkout: {}", userBasket.getItems());
+        afterCommit(() -> basketStore.remove(user, basketItemIds));
 
         log.info("Successfully checked out {} items from basket {}", 
             itemsToCheckout.size(), userBasket.getId());
@@ -0,0 +1,425 @@
+package uz.pdp.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import uz.pdp.entity.Basket;
+import uz.pdp.entity.BasketItem;
+import uz.pdp.entity.User;
+import uz.pdp.enums.ItemType;
+import uz.pdp.repository.BasketItemRepository;
+import uz.pdp.repository.BasketRepository;
+
+/**
+ * Hot copy of the users' baskets, with write-behind to {@code baskets}/{@code basket_items}.
+ *
+ * A basket is read from the database once, then lives in memory with a running total.
+ * Adding, changing and removing items only touch that copy and mark it dirty; a
+ * scheduled flush writes each dirty basket in one transaction - upserts and deletes
+ * as JDBC batches - so ten quick "+1" clicks end up as a single row update. 🛒💨
+ *
+ * New lines get their ids right away from blocks pre-fetched off the
+ * {@code basket_items} id sequence, so clients can address an item before it
+ * reaches the database.
+ *
+ * A failed flush is retried on the next ones. Changes the database rejects for
+ * good (constraint violations, bad data), or that still fail after
+ * {@code baskets.write-behind.max-attempts} flushes, are dropped and logged, and the
+ * basket is read from the database again on next use.
+ *
+ * The copy belongs to this instance: with several instances, route a user's
+ * basket requests to the same one (sticky sessions).
+ *
+ * @version 1.0
+ * @since 2025-02-20
+ */
+@Service
+public class BasketStore {
+    private static final Logger logger = LoggerFactory.getLogger(BasketStore.class);
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final String UPSERT_ITEM_SQL = """
+            INSERT INTO basket_items (id, version, basket_id, item_id, type, quantity, price, name, image)
+            VALUES (?, 0, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (id) DO UPDATE SET quantity = EXCLUDED.quantity, price = EXCLUDED.price,
+                name = EXCLUDED.name, image = EXCLUDED.image, version = basket_items.version + 1
+            """;
+    private static final String DELETE_ITEM_SQL = "DELETE FROM basket_items WHERE id = ?";
+    private static final String NEXT_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('basket_items', 'id')) FROM generate_series(1, ?)";
+
+    private final BasketRepository basketRepository;
+    private final BasketItemRepository basketItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<Long, HotBasket> baskets = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyUsers = ConcurrentHashMap.newKeySet();
+    private final ArrayDeque<Long> freeItemIds = new ArrayDeque<>();
+
+    @Value("${baskets.cache.idle-minutes:30}")
+    private long idleMinutes;
+
+    @Value("${baskets.write-behind.max-attempts:30}")
+    private int maxFlushAttempts;
+
+    public BasketStore(BasketRepository basketRepository, BasketItemRepository basketItemRepository,
+                       JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.basketRepository = basketRepository;
+        this.basketItemRepository = basketItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * One line of a basket. Immutable - a change replaces the line.
+     */
+    public record Line(Long id, Long itemId, ItemType type, int quantity, double price, String name, String image) {
+
+        long totalCents() {
+            return Math.round(price * 100) * quantity;
+        }
+
+        Line withQuantity(int newQuantity) {
+            return new Line(id, itemId, type, newQuantity, price, name, image);
+        }
+    }
+
+    /**
+     * The in-memory basket of one user. Always used under its own lock.
+     */
+    private static class HotBasket {
+        private final Long basketId;
+        private final Map<Long, Line> lines = new LinkedHashMap<>();
+        // Cents, so adding and taking away never drifts
+        private long totalCents;
+        private final Set<Long> changedLines = new HashSet<>();
+        private final Set<Long> deletedLines = new HashSet<>();
+        private volatile long lastAccess = System.nanoTime();
+        private boolean evicted;
+        private int failedFlushes;
+
+        HotBasket(Long basketId) {
+            this.basketId = basketId;
+        }
+
+        void put(Line line) {
+            Line previous = lines.put(line.id(), line);
+            totalCents += line.totalCents() - (previous != null ? previous.totalCents() : 0);
+            changedLines.add(line.id());
+        }
+
+        void remove(Long lineId) {
+            Line removed = lines.remove(lineId);
+            if (removed != null) {
+                totalCents -= removed.totalCents();
+                changedLines.remove(lineId);
+                deletedLines.add(lineId);
+            }
+        }
+
+        boolean hasPendingChanges() {
+            return !changedLines.isEmpty() || !deletedLines.isEmpty();
+        }
+    }
+
+    /**
+     * The user's basket.
+     *
+     * @param user Basket owner
+     * @return Detached snapshot of the basket
+     */
+    public Basket get(User user) {
+        return apply(user, basket -> { });
+    }
+
+    /**
+     * Adds an item, or more of it if it is already in the basket.
+     *
+     * @param user Basket owner
+     * @param line Item to add; its id is ignored
+     * @return Detached snapshot of the updated basket
+     */
+    public Basket add(User user, Line line) {
+        return apply(user, basket -> {
+            Line existing = findLine(basket, line.type(), line.itemId());
+            if (existing != null) {
+                basket.put(existing.withQuantity(existing.quantity() + line.quantity()));
+            } else {
+                basket.put(new Line(nextItemId(), line.itemId(), line.type(), line.quantity(), line.price(),
+                        line.name(), line.image()));
+            }
+        });
+    }
+
+    /**
+     * Adds more of an item that is already in the basket.
+     *
+     * @param user Basket owner
+     * @param type Kind of item
+     * @param itemId Item ID
+     * @param quantity Units to add
+     * @return Detached snapshot of the updated basket, or null if the item isn't in the basket
+     */
+    public Basket addMore(User user, ItemType type, Long itemId, int quantity) {
+        boolean[] found = new boolean[1];
+        Basket updated = apply(user, basket -> {
+            Line existing = findLine(basket, type, itemId);
+            if (existing != null) {
+                basket.put(existing.withQuantity(existing.quantity() + quantity));
+                found[0] = true;
+            }
+        });
+        return found[0] ? updated : null;
+    }
+
+    /**
+     * Sets the quantity of a line; zero removes it.
+     *
+     * @param user Basket owner
+     * @param lineId Basket item ID
+     * @param quantity New quantity
+     * @return Detached snapshot of the updated basket
+     * @throws IllegalArgumentException if the line isn't in this user's basket
+     */
+    public Basket updateQuantity(User user, Long lineId, int quantity) {
+        return apply(user, basket -> {
+            Line line = basket.lines.get(lineId);
+            if (line == null) {
+                throw new IllegalArgumentException("Basket item not found: " + lineId);
+            }
+            if (quantity == 0) {
+                basket.remove(lineId);
+            } else {
+                basket.put(line.withQuantity(quantity));
+            }
+        });
+    }
+
+    /**
+     * Removes lines from the basket.
+     *
+     * @param user Basket owner
+     * @param lineIds Basket item IDs
+     * @return Detached snapshot of the updated basket
+     * @throws IllegalArgumentException if a line isn't in this user's basket
+     */
+    public Basket remove(User user, Collection<Long> lineIds) {
+        return apply(user, basket -> {
+            for (Long lineId : lineIds) {
+                if (!basket.lines.containsKey(lineId)) {
+                    throw new IllegalArgumentException("Basket item not found: " + lineId);
+                }
+            }
+            lineIds.forEach(basket::remove);
+        });
+    }
+
+    /**
+     * Empties the basket.
+     *
+     * @param user Basket owner
+     */
+    public void clear(User user) {
+        apply(user, basket -> new ArrayList<>(basket.lines.keySet()).forEach(basket::remove));
+    }
+
+    /**
+     * Writes every dirty basket to the database and forgets baskets nobody used for a while.
+     */
+    @Scheduled(fixedDelayString = "${baskets.write-behind.flush-interval-ms:1000}")
+    public void flush() {
+        for (Long userId : new ArrayList<>(dirtyUsers)) {
+            dirtyUsers.remove(userId);
+            HotBasket basket = baskets.get(userId);
+            if (basket != null) {
+                flush(userId, basket);
+            }
+        }
+        long idleBefore = System.nanoTime() - TimeUnit.MINUTES.toNanos(idleMinutes);
+        baskets.forEach((userId, basket) -> {
+            synchronized (basket) {
+                if (basket.lastAccess < idleBefore && !basket.hasPendingChanges()) {
+                    basket.evicted = true;
+                    baskets.remove(userId, basket);
+                }
+            }
+        });
+    }
+
+    /**
+     * Nothing in memory gets lost on a normal shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!dirtyUsers.isEmpty()) {
+            logger.info("Flushing {} baskets before shutdown", dirtyUsers.size());
+            flush();
+        }
+    }
+
+    /**
+     * Number of baskets held in memory.
+     */
+    public int size() {
+        return baskets.size();
+    }
+
+    private Basket apply(User user, Consumer<HotBasket> change) {
+        while (true) {
+            HotBasket basket = baskets.get(user.getId());
+            if (basket == null) {
+                HotBasket loaded = load(user);
+                basket = Objects.requireNonNullElse(baskets.putIfAbsent(user.getId(), loaded), loaded);
+            }
+            synchronized (basket) {
+                // Evicted between lookup and lock - load it again
+                if (basket.evicted) {
+                    continue;
+                }
+                basket.lastAccess = System.nanoTime();
+                change.accept(basket);
+                if (basket.hasPendingChanges()) {
+                    dirtyUsers.add(user.getId());
+                }
+                return snapshot(user, basket);
+            }
+        }
+    }
+
+    private HotBasket load(User user) {
+        return transactionTemplate.execute(status -> {
+            Basket entity = basketRepository.findByUserId(user.getId()).orElseGet(() -> {
+                Basket created = new Basket();
+                created.setUser(user);
+                return basketRepository.save(created);
+            });
+            HotBasket basket = new HotBasket(entity.getId());
+            for (BasketItem item : basketItemRepository.findByBasketId(entity.getId())) {
+                basket.put(new Line(item.getId(), item.getItemId(), item.getType(), item.getQuantity(),
+                        item.getPrice(), item.getName(), item.getImage()));
+            }
+            // Freshly loaded lines are already in the database
+            basket.changedLines.clear();
+            return basket;
+        });
+    }
+
+    private void flush(Long userId, HotBasket basket) {
+        List<Line> changed;
+        List<Long> deleted;
+        synchronized (basket) {
+            changed = basket.changedLines.stream().map(basket.lines::get).filter(Objects::nonNull).toList();
+            deleted = new ArrayList<>(basket.deletedLines);
+            basket.changedLines.clear();
+            basket.deletedLines.clear();
+        }
+        if (changed.isEmpty() && deleted.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!deleted.isEmpty()) {
+                    jdbcTemplate.batchUpdate(DELETE_ITEM_SQL, deleted, deleted.size(),
+                            (ps, id) -> ps.setLong(1, id));
+                }
+                if (!changed.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPSERT_ITEM_SQL, changed, changed.size(), (ps, line) -> {
+                        ps.setLong(1, line.id());
+                        ps.setLong(2, basket.basketId);
+                        ps.setLong(3, line.itemId());
+                        ps.setString(4, line.type().name());
+                        ps.setInt(5, line.quantity());
+                        ps.setDouble(6, line.price());
+                        ps.setString(7, line.name());
+                        ps.setString(8, line.image());
+                    });
+                }
+            });
+            synchronized (basket) {
+                basket.failedFlushes = 0;
+            }
+        } catch (RuntimeException e) {
+            synchronized (basket) {
+                basket.failedFlushes++;
+                if (e instanceof NonTransientDataAccessException || basket.failedFlushes >= maxFlushAttempts) {
+                    // Retrying won't help - forget the copy, the next request reads what the database has
+                    logger.error("Dropping {} changed and {} removed lines of user {}'s basket after {} failed writes",
+                            changed.size(), deleted.size(), userId, basket.failedFlushes, e);
+                    basket.evicted = true;
+                    baskets.remove(userId, basket);
+                    return;
+                }
+                logger.warn("Failed to write basket of user {}, will retry: {}", userId, e.getMessage());
+                // Lines changed again in the meantime are already marked; removed ones stay removed
+                changed.stream().map(Line::id).filter(basket.lines::containsKey).forEach(basket.changedLines::add);
+                basket.deletedLines.addAll(deleted);
+            }
+            dirtyUsers.add(userId);
+        }
+    }
+
+    private synchronized long nextItemId() {
+        if (freeItemIds.isEmpty()) {
+            freeItemIds.addAll(jdbcTemplate.queryForList(NEXT_IDS_SQL, Long.class, ID_BLOCK_SIZE));
+        }
+        return freeItemIds.poll();
+    }
+
+    private static Line findLine(HotBasket basket, ItemType type, Long itemId) {
+        for (Line line : basket.lines.values()) {
+            if (line.type() == type && Objects.equals(line.itemId(), itemId)) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    private static Basket snapshot(User user, HotBasket hot) {
+        return view(user, hot.basketId, hot.lines.values(), hot.totalCents);
+    }
+
+    /**
+     * Builds a detached Basket out of lines, the way controllers expect it.
+     */
+    static Basket view(User user, Long basketId, Collection<Line> lines, long totalCents) {
+        Basket basket = new Basket();
+        basket.setId(basketId);
+        basket.setUser(user);
+        List<BasketItem> items = new ArrayList<>(lines.size());
+        for (Line line : lines) {
+            BasketItem item = new BasketItem();
+            item.setId(line.id());
+            item.setBasket(basket);
+            item.setItemId(line.itemId());
+            item.setType(line.type());
+            item.setQuantity(line.quantity());
+            item.setPrice(line.price());
+            item.setName(line.name());
+            item.setImage(line.image());
+            items.add(item);
+        }
+        basket.setItems(items);
+        basket.setRunningTotal(totalCents / 100.0);
+        return basket;
+    }
+}
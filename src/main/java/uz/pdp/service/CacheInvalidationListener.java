@@ -0,0 +1,31 @@
+package uz.pdp.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Tells the other instances about every write to a second-level cached entity,
+ * so they can drop their copy.
+ *
+ * Looked up lazily for the same reason as {@link DoorPriceListener}: Hibernate
+ * creates it while the EntityManagerFactory is still being built.
+ */
+@Component
+public class CacheInvalidationListener {
+    private final ObjectProvider<ClusterCacheInvalidator> invalidator;
+
+    public CacheInvalidationListener(ObjectProvider<ClusterCacheInvalidator> invalidator) {
+        this.invalidator = invalidator;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        invalidator.getObject().publish(entity);
+    }
+}
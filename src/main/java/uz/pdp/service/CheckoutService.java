@@ -1,20 +1,21 @@
 package uz.pdp.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import uz.pdp.dto.CheckoutDTO;
 import uz.pdp.dto.CheckoutHistoryDTO;
 import uz.pdp.entity.*;
 import uz.pdp.enums.ItemType;
 import uz.pdp.enums.OrderType;
 import uz.pdp.enums.Role;
+import uz.pdp.exception.ConflictException;
 import uz.pdp.payload.EntityResponse;
 import uz.pdp.repository.*;
 
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -27,6 +28,7 @@ import java.util.Collections;
  * Where doors, mouldings, and furniture find their forever homes! 🏠✨
  */
 @Service
+@Timed("doorshop.service")
 @RequiredArgsConstructor
 public class CheckoutService {
     private final DoorRepository doorRepository;
@@ -35,6 +37,8 @@ public class CheckoutService {
     private final EmailService emailService;
     private final UserRepository userRepository;
     private final OrderRepository orderRepository;
+    private final InventoryService inventoryService;
+    private final CurrentUserContext currentUserContext;
 
     private static final Logger log = LoggerFactory.getLogger(CheckoutService.class);
 
@@ -50,16 +54,7 @@ public class CheckoutService {
     public EntityResponse<String> processCheckout(CheckoutDTO dto) {
         try {
             // Get current user if authenticated, otherwise create a temporary user
-            User user = null;
-            try {
-                String username = SecurityContextHolder.getContext().getAuthentication().getName();
-                if (!"anonymousUser".equals(username)) {
-                    user = userRepository.findByName(username)
-                        .orElse(null);
-                }
-            } catch (Exception e) {
-                log.debug("No authenticated user found, proceeding with guest checkout");
-            }
+            User user = currentUserContext.getOrNull();
 
             // For guest checkout or if user not found
             if (user == null) {
@@ -116,6 +111,9 @@ public class CheckoutService {
                 order.setComment(dto.getComment());
             }
             
+            // Conditional decrement - two buyers can't both get the last piece
+            inventoryService.take(dto.getItemType(), dto.getItemId(), order.getQuantity());
+            
             Order savedOrder = orderRepository.save(order);
             log.info("Created new order with ID: {} for user: {}", savedOrder.getId(), user.getEmail());
 
@@ -211,6 +209,11 @@ public class CheckoutService {
             }
 
             return new EntityResponse<>("Order placed successfully! Check your email for confirmation. 🎉", true, "ORDER_PLACED");
+        } catch (ConflictException e) {
+            // Sold out: nothing from this checkout may stick, not even a new guest user
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            log.info("Checkout rejected: {}", e.getMessage());
+            return new EntityResponse<>("Sorry, this item just sold out. 📦", false, null);
         } catch (Exception e) {
             log.error("Error processing checkout: {}", e.getMessage(), e);
             return new EntityResponse<>("Failed to process order. Please try again. 🔄", false, null);
@@ -273,17 +276,13 @@ public class CheckoutService {
      */
     public EntityResponse<List<CheckoutHistoryDTO>> getCheckoutHistory() {
         try {
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            log.debug("Fetching checkout history for user: {}", username);
-            
-            Optional<User> userOptional = userRepository.findByName(username);
-            
-            if (userOptional.isEmpty()) {
-                log.warn("User not found with username: {}", username);
+            User user = currentUserContext.getOrNull();
+            if (user == null) {
+                log.warn("No logged-in user found for checkout history");
                 return EntityResponse.error("Oops! We couldn't find your account. Please try logging in again. 🔑");
             }
+            log.debug("Fetching checkout history for user: {}", user.getName());
             
-            User user = userOptional.get();
             List<CheckoutHistoryDTO> history = orderRepository.findAllByUserIdOrderByOrderDateDesc(user.getId())
                     .stream()
                     .map(order -> CheckoutHistoryDTO.builder()
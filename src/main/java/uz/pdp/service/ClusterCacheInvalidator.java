@@ -0,0 +1,192 @@
+package uz.pdp.service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.hibernate.Cache;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import uz.pdp.config.CacheRegions;
+import uz.pdp.entity.Category;
+import uz.pdp.entity.CustomEnumValue;
+import uz.pdp.entity.Location;
+import uz.pdp.entity.Storage;
+import uz.pdp.entity.User;
+
+/**
+ * Keeps the second-level caches of all instances in step.
+ *
+ * Each instance's cache only sees its own writes. So every write to a cached
+ * entity also sends a Postgres {@code NOTIFY} with the entity and its ID, from
+ * inside the writing transaction - Postgres delivers it when, and only if, that
+ * transaction commits. Every instance listens on one connection of its own and
+ * drops the entity and the query results that might list it. 📣
+ *
+ * Notifications sent while an instance wasn't listening are lost, so after every
+ * (re)connect it clears the reference regions once.
+ *
+ * @version 1.0
+ * @since 2025-02-28
+ */
+@Service
+public class ClusterCacheInvalidator {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterCacheInvalidator.class);
+    private static final String CHANNEL = "l2_cache_invalidation";
+
+    // Query results that may list an entity of the type, by entity name
+    private static final Map<String, List<String>> QUERY_REGIONS = Map.of(
+            Category.class.getName(), List.of(CacheRegions.CATEGORY_QUERIES),
+            CustomEnumValue.class.getName(), List.of(CacheRegions.CUSTOM_ENUM_VALUE_QUERIES),
+            User.class.getName(), List.of(CacheRegions.USER_QUERIES),
+            Storage.class.getName(), List.of(CacheRegions.STORAGE_QUERIES),
+            Location.class.getName(), List.of(CacheRegions.STORAGE_QUERIES));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final String instanceId = UUID.randomUUID().toString();
+    private volatile boolean running;
+    private Thread listener;
+
+    @Value("${second-level-cache.cluster-invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username:}")
+    private String username;
+
+    @Value("${spring.datasource.password:}")
+    private String password;
+
+    @Value("${second-level-cache.cluster-invalidation.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    public ClusterCacheInvalidator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "l2-cache-invalidation");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    /**
+     * Tells the other instances that an entity changed. Does nothing outside a
+     * transaction: the notification would never be committed.
+     *
+     * @param entity Entity that was inserted, updated or deleted
+     */
+    public void publish(Object entity) {
+        if (!enabled || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        Object id = entityManagerFactory.getPersistenceUnitUtil().getIdentifier(entity);
+        if (id == null) {
+            return;
+        }
+        String payload = instanceId + " " + Hibernate.getClass(entity).getName() + " " + id;
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> {
+        }, CHANNEL, payload);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Whatever changed while nobody was listening
+                clearAll();
+                logger.info("Listening for second-level cache invalidations from other instances");
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(10_000);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Cache invalidation listener lost its connection, retrying in {} ms: {}",
+                        reconnectDelayMs, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void apply(String payload) {
+        String[] parts = payload.split(" ", 3);
+        if (parts.length != 3 || parts[0].equals(instanceId)) {
+            // Our own writes are already in our cache
+            return;
+        }
+        String entityName = parts[1];
+        List<String> queryRegions = QUERY_REGIONS.get(entityName);
+        if (queryRegions == null) {
+            return;
+        }
+        Long id = Long.valueOf(parts[2]);
+        Cache cache = cache();
+        cache.evictEntityData(entityName, id);
+        if (entityName.equals(Storage.class.getName())) {
+            cache.evictCollectionData(entityName + ".productTypes", id);
+        }
+        queryRegions.forEach(cache::evictQueryRegion);
+    }
+
+    private void clearAll() {
+        Cache cache = cache();
+        QUERY_REGIONS.forEach((entityName, queryRegions) -> {
+            cache.evictEntityData(entityName);
+            queryRegions.forEach(cache::evictQueryRegion);
+        });
+        cache.evictCollectionData(Storage.class.getName() + ".productTypes");
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
@@ -0,0 +1,269 @@
+package uz.pdp.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import uz.pdp.dto.ColorVariantsRequest;
+import uz.pdp.entity.Door;
+import uz.pdp.enums.Color;
+import uz.pdp.enums.DoorLocation;
+import uz.pdp.enums.FrameType;
+import uz.pdp.enums.HardwareType;
+import uz.pdp.enums.Size;
+import uz.pdp.exception.GlobalExceptionHandler.BadRequestException;
+import uz.pdp.exception.GlobalExceptionHandler.ResourceNotFoundException;
+import uz.pdp.repository.DoorRepository;
+
+/**
+ * Creates many color variants of a door model in one go.
+ *
+ * Variants are copied from the base model row by the database itself
+ * ({@code INSERT ... SELECT}), images and sizes included - the image URLs are
+ * shared, not uploaded again. Everything happens in one transaction with a fixed
+ * number of statements: twelve colors cost the same round trips as one. 🌈
+ *
+ * @version 1.0
+ * @since 2025-02-26
+ */
+@Service
+public class ColorVariantService {
+    private static final Logger logger = LoggerFactory.getLogger(ColorVariantService.class);
+
+    private static final String MODEL_SQL = "SELECT coalesce(base_model_id, id) FROM doors WHERE id = ?";
+    // Locks the model so two requests can't add the same color side by side
+    private static final String LOCK_BASE_SQL = """
+            SELECT price, size, color, frame_type, hardware, door_location, category_id, seller_id
+            FROM doors
+            WHERE id = ?
+            FOR UPDATE
+            """;
+    private static final String EXISTING_COLORS_SQL = """
+            SELECT color, custom_color_code FROM doors WHERE id = ? OR base_model_id = ?
+            """;
+    private static final String NEXT_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('doors', 'id')) FROM generate_series(1, ?)";
+    private static final String INSERT_VARIANT_SQL = """
+            INSERT INTO doors (id, name, description, price, final_price, category_id, size, color, material,
+                               manufacturer, warranty_years, custom_width, custom_height, is_custom_color,
+                               custom_color_code, status, active, seller_id, door_location, frame_type, hardware,
+                               base_model_id, is_base_model)
+            SELECT ?, name, description, price, ?, category_id, size, ?, material,
+                   manufacturer, warranty_years, custom_width, custom_height, ?,
+                   ?, status, active, seller_id, door_location, frame_type, hardware,
+                   id, false
+            FROM doors
+            WHERE id = ?
+            """;
+    private static final String COPY_IMAGES_SQL =
+            "INSERT INTO door_images (door_id, images) SELECT ?, images FROM door_images WHERE door_id = ?";
+    private static final String COPY_SIZES_SQL =
+            "INSERT INTO door_available_sizes (door_id, size) SELECT ?, size FROM door_available_sizes WHERE door_id = ?";
+    private static final String COPY_COLORS_SQL =
+            "INSERT INTO door_available_colors (door_id, color) SELECT ?, color FROM door_available_colors WHERE door_id = ?";
+    private static final String ADD_BASE_COLOR_SQL = """
+            INSERT INTO door_available_colors (door_id, color)
+            SELECT ?, ?
+            WHERE NOT EXISTS (SELECT 1 FROM door_available_colors WHERE door_id = ? AND color = ?)
+            """;
+    private static final String MARK_BASE_SQL =
+            "UPDATE doors SET is_base_model = true WHERE id = ? AND is_base_model IS DISTINCT FROM true";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DoorRepository doorRepository;
+    private final PricingEngine pricingEngine;
+    private final LiveUpdateService liveUpdateService;
+    private final DoorFamilyService doorFamilyService;
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    public ColorVariantService(JdbcTemplate jdbcTemplate, DoorRepository doorRepository, PricingEngine pricingEngine,
+                               LiveUpdateService liveUpdateService, DoorFamilyService doorFamilyService,
+                               ObjectProvider<CacheManager> cacheManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.doorRepository = doorRepository;
+        this.pricingEngine = pricingEngine;
+        this.liveUpdateService = liveUpdateService;
+        this.doorFamilyService = doorFamilyService;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * What a bulk variant request did.
+     *
+     * @param variants Newly created variants
+     * @param skipped Colors the model already had, as enum names or hex codes
+     */
+    public record Result(List<Door> variants, List<String> skipped) {
+    }
+
+    /**
+     * One variant to create: a standard color, or CUSTOM with a hex code.
+     */
+    private record Variant(long id, Color color, String customColorCode, double finalPrice) {
+    }
+
+    /**
+     * Creates a variant of the model for every requested color it doesn't have yet.
+     * The model is the door itself, or its base model if the door is a variant.
+     *
+     * @param doorId Any door of the model
+     * @param request Standard colors and custom hex codes
+     * @return Created variants and skipped colors
+     * @throws ResourceNotFoundException if the door doesn't exist
+     * @throws BadRequestException if no colors were sent, or CUSTOM was sent without a hex code
+     */
+    @Transactional
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('SELLER') and @doorSecurityService.isSeller(#doorId))")
+    public Result createVariants(Long doorId, ColorVariantsRequest request) {
+        Set<Color> colors = request.getColors() != null ? new LinkedHashSet<>(request.getColors()) : new LinkedHashSet<>();
+        Set<String> codes = new LinkedHashSet<>();
+        if (request.getCustomColorCodes() != null) {
+            request.getCustomColorCodes().forEach(code -> codes.add(code.toUpperCase(Locale.ROOT)));
+        }
+        if (colors.remove(Color.CUSTOM)) {
+            throw new BadRequestException("Send custom colors as hex codes in customColorCodes");
+        }
+        if (colors.isEmpty() && codes.isEmpty()) {
+            throw new BadRequestException("At least one color or custom color code is required");
+        }
+
+        List<Long> model = jdbcTemplate.queryForList(MODEL_SQL, Long.class, doorId);
+        if (model.isEmpty()) {
+            throw new ResourceNotFoundException("Door", "id", doorId);
+        }
+        long baseId = model.get(0);
+        Map<String, Object> base = jdbcTemplate.queryForMap(LOCK_BASE_SQL, baseId);
+
+        // Skip what the model already comes in, the base door's own color included
+        Set<String> existing = new HashSet<>();
+        jdbcTemplate.query(EXISTING_COLORS_SQL, rs -> {
+            String code = rs.getString("custom_color_code");
+            existing.add(code != null ? code.toUpperCase(Locale.ROOT) : rs.getString("color"));
+        }, baseId, baseId);
+        List<String> skipped = new ArrayList<>();
+        for (Color color : List.copyOf(colors)) {
+            if (existing.contains(color.name())) {
+                colors.remove(color);
+                skipped.add(color.name());
+            }
+        }
+        for (String code : List.copyOf(codes)) {
+            if (existing.contains(code)) {
+                codes.remove(code);
+                skipped.add(code);
+            }
+        }
+        if (colors.isEmpty() && codes.isEmpty()) {
+            return new Result(List.of(), skipped);
+        }
+
+        List<Long> ids = jdbcTemplate.queryForList(NEXT_IDS_SQL, Long.class, colors.size() + codes.size());
+        PriceRules rules = pricingEngine.rules();
+        long now = System.currentTimeMillis();
+        List<Variant> variants = new ArrayList<>(ids.size());
+        int next = 0;
+        for (Color color : colors) {
+            variants.add(new Variant(ids.get(next++), color, null, price(rules, base, color, now)));
+        }
+        for (String code : codes) {
+            variants.add(new Variant(ids.get(next++), Color.CUSTOM, code, price(rules, base, Color.CUSTOM, now)));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_VARIANT_SQL, variants, variants.size(), (ps, variant) -> {
+            ps.setLong(1, variant.id());
+            ps.setDouble(2, variant.finalPrice());
+            ps.setString(3, variant.color().name());
+            ps.setBoolean(4, variant.customColorCode() != null);
+            ps.setString(5, variant.customColorCode());
+            ps.setLong(6, baseId);
+        });
+        jdbcTemplate.batchUpdate(COPY_IMAGES_SQL, variants, variants.size(), (ps, variant) -> {
+            ps.setLong(1, variant.id());
+            ps.setLong(2, baseId);
+        });
+        jdbcTemplate.batchUpdate(COPY_SIZES_SQL, variants, variants.size(), (ps, variant) -> {
+            ps.setLong(1, variant.id());
+            ps.setLong(2, baseId);
+        });
+
+        // The one base model update: it becomes a base model and offers every new color
+        jdbcTemplate.update(MARK_BASE_SQL, baseId);
+        List<String> palette = new ArrayList<>();
+        if (base.get("color") != null) {
+            palette.add((String) base.get("color"));
+        }
+        colors.forEach(color -> palette.add(color.name()));
+        if (!codes.isEmpty()) {
+            palette.add(Color.CUSTOM.name());
+        }
+        jdbcTemplate.batchUpdate(ADD_BASE_COLOR_SQL, palette, palette.size(), (ps, color) -> {
+            ps.setLong(1, baseId);
+            ps.setString(2, color);
+            ps.setLong(3, baseId);
+            ps.setString(4, color);
+        });
+        jdbcTemplate.batchUpdate(COPY_COLORS_SQL, variants, variants.size(), (ps, variant) -> {
+            ps.setLong(1, variant.id());
+            ps.setLong(2, baseId);
+        });
+
+        List<Door> created = doorRepository.findAllById(ids);
+        created.forEach(variant -> liveUpdateService.doorChanged(variant, true));
+        evictCaches(baseId);
+        logger.info("Created {} color variants of door model {}, skipped {}", created.size(), baseId, skipped.size());
+        return new Result(created, skipped);
+    }
+
+    private static double price(PriceRules rules, Map<String, Object> base, Color color, long now) {
+        Number price = (Number) base.get("price");
+        if (price == null) {
+            return 0.0;
+        }
+        return rules.price(price.doubleValue(),
+                PriceRules.ordinal(Size.class, (String) base.get("size")),
+                color.ordinal(),
+                color == Color.CUSTOM,
+                PriceRules.ordinal(FrameType.class, (String) base.get("frame_type")),
+                PriceRules.ordinal(HardwareType.class, (String) base.get("hardware")),
+                PriceRules.ordinal(DoorLocation.class, (String) base.get("door_location")),
+                id(base.get("category_id")),
+                id(base.get("seller_id")),
+                now);
+    }
+
+    private static long id(Object value) {
+        return value != null ? ((Number) value).longValue() : PriceRules.NO_ID;
+    }
+
+    private void evictCaches(long baseId) {
+        doorFamilyService.evict(baseId);
+        CacheManager manager = cacheManager.getIfAvailable();
+        if (manager == null) {
+            return;
+        }
+        Cache doors = manager.getCache("doors");
+        if (doors != null) {
+            doors.clear();
+        }
+        for (String name : List.of("door", "door-colors", "door-variants")) {
+            Cache cache = manager.getCache(name);
+            if (cache != null) {
+                cache.evict(baseId);
+            }
+        }
+    }
+}
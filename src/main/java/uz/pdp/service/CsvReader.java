@@ -0,0 +1,109 @@
+package uz.pdp.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads CSV records one at a time.
+ *
+ * RFC 4180: quoted fields may hold separators, doubled quotes and line breaks.
+ * The separator is a comma, or a semicolon when the first line has semicolons but
+ * no commas - what Excel saves in locales that use a decimal comma. A leading BOM
+ * is skipped.
+ */
+class CsvReader implements Closeable {
+    private final BufferedReader reader;
+    private final char separator;
+    private long line = 1;
+    private long recordLine;
+
+    CsvReader(Reader source) throws IOException {
+        this.reader = source instanceof BufferedReader buffered ? buffered : new BufferedReader(source);
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+        reader.mark(64 * 1024);
+        String first = reader.readLine();
+        reader.reset();
+        this.separator = first != null && first.indexOf(';') >= 0 && first.indexOf(',') < 0 ? ';' : ',';
+    }
+
+    /**
+     * The next record, or null at the end. Blank lines are skipped.
+     */
+    List<String> next() throws IOException {
+        int c = reader.read();
+        while (c == '\r' || c == '\n') {
+            if (c == '\n') {
+                line++;
+            }
+            c = reader.read();
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unclosed quote in the record starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    int after = reader.read();
+                    if (after == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = after;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                if (c != -1) {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    /**
+     * Line the last record returned by {@link #next()} started on, from 1.
+     */
+    long recordLine() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,73 @@
+package uz.pdp.service;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import jakarta.servlet.http.HttpServletRequest;
+import uz.pdp.entity.User;
+import uz.pdp.repository.UserRepository;
+
+/**
+ * The user behind the current request, resolved once per request.
+ *
+ * MyFilter loads the user while it checks the token and hands it over here;
+ * services, controllers and resolvers read it back instead of looking the name up
+ * again. Any other kind of login (OAuth2, form) is looked up on first use and
+ * kept in the request for the rest of it. Outside a request - schedulers, async
+ * jobs - the security context is all there is, so the lookup isn't kept. 🪪
+ *
+ * The user is shared by everything in the request and is not attached to any
+ * persistence context: fine as an association target, but save it through the
+ * repository after changing it.
+ *
+ * @version 1.0
+ * @since 2025-03-01
+ */
+@Component
+public class CurrentUserContext {
+    private static final String ATTRIBUTE = CurrentUserContext.class.getName() + ".user";
+
+    private final UserRepository userRepository;
+
+    public CurrentUserContext(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Remembers the user authenticated for a request.
+     *
+     * @param request Current request
+     * @param user User the request's token belongs to
+     */
+    public void set(HttpServletRequest request, User user) {
+        request.setAttribute(ATTRIBUTE, user);
+    }
+
+    /**
+     * The current user, or null for guests and anonymous requests.
+     */
+    public User getOrNull() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null && request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User user
+                && user.getName().equals(authentication.getName())) {
+            return user;
+        }
+        if (authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
+        User user = userRepository.findByName(authentication.getName()).orElse(null);
+        if (user != null && request != null) {
+            request.setAttribute(ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+}
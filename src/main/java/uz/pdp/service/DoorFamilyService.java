@@ -0,0 +1,248 @@
+package uz.pdp.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import uz.pdp.dto.DoorFamily;
+import uz.pdp.enums.Color;
+import uz.pdp.enums.Size;
+import uz.pdp.exception.GlobalExceptionHandler.ResourceNotFoundException;
+
+/**
+ * The door family read model: a door model and all its color variants, kept in
+ * memory and keyed by base model.
+ *
+ * The product page used to ask four questions - variants, colors, palette, sizes -
+ * and every one of them loaded the door, then its base model, then a collection.
+ * A family is now built once, with two queries, and after that any door of the
+ * model is answered from two map lookups. 🏡
+ *
+ * Writes drop the families they touch, right away and again after commit, so a
+ * reader racing the writer can't put the old family back. The TTL catches writes
+ * made by other instances.
+ *
+ * @version 1.0
+ * @since 2025-02-27
+ */
+@Service
+public class DoorFamilyService {
+    private static final String MEMBERS_SQL = """
+            WITH family AS (SELECT coalesce(base_model_id, id) AS id FROM doors WHERE id = ?)
+            SELECT family.id AS family_id, d.id, d.color, d.custom_color_code, d.size,
+                   coalesce(d.final_price, d.price) AS price, d.active,
+                   coalesce(d.is_base_model, false) AS is_base_model
+            FROM family
+            JOIN doors d ON d.id = family.id OR d.base_model_id = family.id
+            ORDER BY d.id
+            """;
+    private static final String OPTIONS_SQL = """
+            SELECT 'COLOR' AS kind, color AS value FROM door_available_colors WHERE door_id = ?
+            UNION ALL
+            SELECT 'SIZE', size FROM door_available_sizes WHERE door_id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentHashMap<Long, Entry> families = new ConcurrentHashMap<>();
+    // Door ID -> base model ID, for every door of a cached family
+    private final ConcurrentHashMap<Long, Long> familyOf = new ConcurrentHashMap<>();
+    // Bumped by every eviction; a load that saw one in flight isn't cached
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Value("${door-family.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${door-family.max-entries:50000}")
+    private int maxEntries;
+
+    public DoorFamilyService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    private record Entry(DoorFamily family, long loadedAt) {
+    }
+
+    /**
+     * The family of a door.
+     *
+     * @param doorId ID of any variant or base model
+     * @return The door's family
+     * @throws ResourceNotFoundException if the door doesn't exist
+     */
+    public DoorFamily getFamily(Long doorId) {
+        Long baseModelId = familyOf.get(doorId);
+        Entry cached = baseModelId != null ? families.get(baseModelId) : null;
+        long now = System.nanoTime();
+        if (cached != null && now - cached.loadedAt() < TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+            hits.incrementAndGet();
+            return cached.family();
+        }
+        misses.incrementAndGet();
+        return load(doorId, now);
+    }
+
+    /**
+     * Colors a door can be ordered in: the base model's palette, or just its own color
+     * when the door is neither a base model nor a variant.
+     *
+     * @param doorId ID of any variant or base model
+     * @throws ResourceNotFoundException if the door doesn't exist
+     */
+    public Set<Color> getAvailableColors(Long doorId) {
+        DoorFamily family = getFamily(doorId);
+        if (family.standalone()) {
+            return family.variants().stream()
+                    .filter(member -> member.id().equals(family.baseModelId()))
+                    .map(DoorFamily.Member::color)
+                    .collect(Collectors.toSet());
+        }
+        return family.colors();
+    }
+
+    /**
+     * Forgets the family of a door, e.g. after the door changed. Safe to call inside
+     * a transaction: the family is dropped again once it commits.
+     *
+     * @param doorId ID of any variant or base model; null is ignored
+     */
+    public void evict(Long doorId) {
+        if (doorId == null) {
+            return;
+        }
+        drop(doorId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    drop(doorId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Forgets every family, e.g. after a bulk import or a catalog re-price.
+     */
+    public void evictAll() {
+        generation.incrementAndGet();
+        families.clear();
+        familyOf.clear();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int size() {
+        return families.size();
+    }
+
+    private void drop(Long doorId) {
+        generation.incrementAndGet();
+        Long baseModelId = familyOf.remove(doorId);
+        remove(doorId);
+        if (baseModelId != null) {
+            remove(baseModelId);
+        }
+    }
+
+    private void remove(Long baseModelId) {
+        Entry removed = families.remove(baseModelId);
+        if (removed != null) {
+            removed.family().variants().forEach(member -> familyOf.remove(member.id()));
+        }
+    }
+
+    private DoorFamily load(Long doorId, long now) {
+        long seen = generation.get();
+        long[] baseModelId = new long[1];
+        boolean[] standalone = new boolean[1];
+        List<DoorFamily.Member> variants = new ArrayList<>();
+        Double[] range = new Double[2];
+        jdbcTemplate.query(MEMBERS_SQL, rs -> {
+            baseModelId[0] = rs.getLong("family_id");
+            if (rs.getLong("id") == baseModelId[0]) {
+                standalone[0] = !rs.getBoolean("is_base_model");
+            }
+            Double price = rs.getDouble("price");
+            if (rs.wasNull()) {
+                price = null;
+            }
+            boolean active = rs.getBoolean("active");
+            variants.add(new DoorFamily.Member(rs.getLong("id"),
+                    enumOrNull(Color.class, rs.getString("color")),
+                    rs.getString("custom_color_code"),
+                    enumOrNull(Size.class, rs.getString("size")),
+                    price, active));
+            if (active && price != null) {
+                range[0] = range[0] == null ? price : Math.min(range[0], price);
+                range[1] = range[1] == null ? price : Math.max(range[1], price);
+            }
+        }, doorId);
+        if (variants.isEmpty()) {
+            throw new ResourceNotFoundException("Door", "id", doorId);
+        }
+
+        Set<Color> colors = EnumSet.noneOf(Color.class);
+        Set<Size> sizes = EnumSet.noneOf(Size.class);
+        jdbcTemplate.query(OPTIONS_SQL, rs -> {
+            if ("COLOR".equals(rs.getString("kind"))) {
+                Color color = enumOrNull(Color.class, rs.getString("value"));
+                if (color != null) {
+                    colors.add(color);
+                }
+            } else {
+                Size size = enumOrNull(Size.class, rs.getString("value"));
+                if (size != null) {
+                    sizes.add(size);
+                }
+            }
+        }, baseModelId[0], baseModelId[0]);
+
+        DoorFamily family = new DoorFamily(baseModelId[0], standalone[0], Collections.unmodifiableList(variants),
+                Collections.unmodifiableSet(colors), Collections.unmodifiableSet(sizes), range[0], range[1]);
+        if (generation.get() == seen) {
+            if (families.size() >= maxEntries) {
+                // Cheap bound; a cleared map refills from the pages people actually open
+                families.clear();
+                familyOf.clear();
+            }
+            families.put(family.baseModelId(), new Entry(family, now));
+            variants.forEach(member -> familyOf.put(member.id(), family.baseModelId()));
+            if (generation.get() != seen) {
+                // An eviction slipped in between the check and the put
+                remove(family.baseModelId());
+            }
+        }
+        return family;
+    }
+
+    private static <E extends Enum<E>> E enumOrNull(Class<E> type, String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
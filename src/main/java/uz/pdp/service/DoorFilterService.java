@@ -1,5 +1,6 @@
 package uz.pdp.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -28,11 +30,15 @@ import java.util.stream.Collectors;
  * Now with multi-select support for location, frame type, and hardware! 🎯
  */
 @Service
+@Timed("doorshop.service")
 @RequiredArgsConstructor
 public class DoorFilterService {
     private final DoorFilterRepository doorFilterRepository;
     private final DoorRepository doorRepository;
     private static final Logger log = LoggerFactory.getLogger(DoorFilterService.class);
+    // Filters that load the whole catalog and match in memory
+    private final AtomicLong scans = new AtomicLong();
+    private final AtomicLong scannedRows = new AtomicLong();
 
     public List<Door> filterDoors(DoorFilterDto filterDto) {
         // I don`t know how this works but this works just do not touch 
@@ -96,7 +102,9 @@ public class DoorFilterService {
             String size,
             int minimumMatchingCriteria) {
         
-        return doorFilterRepository.findAll().stream()
+        List<Door> allDoors = doorFilterRepository.findAll();
+        countScan(allDoors);
+        return allDoors.stream()
             .filter(door -> {
                 int matchCount = 0;
                 
@@ -127,6 +135,7 @@ public class DoorFilterService {
                   locations, frameTypes, hardware, color, size);
 
         List<Door> allDoors = doorRepository.findAll();
+        countScan(allDoors);
         log.debug("Found {} doors before filtering", allDoors.size());
         
         List<Door> filteredDoors = allDoors.stream()
@@ -156,6 +165,19 @@ public class DoorFilterService {
         return filteredDoors;
     }
 
+    public long getScanCount() {
+        return scans.get();
+    }
+
+    public long getScannedRowCount() {
+        return scannedRows.get();
+    }
+
+    private void countScan(List<Door> doors) {
+        scans.incrementAndGet();
+        scannedRows.addAndGet(doors.size());
+    }
+
     private boolean isMatchingLocation(Door door, String locations) {
         if (locations == null || locations.isEmpty() || "none".equalsIgnoreCase(locations)) {
             return true;
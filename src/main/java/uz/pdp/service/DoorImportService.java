@@ -0,0 +1,559 @@
+package uz.pdp.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import uz.pdp.dto.DoorImportRow;
+import uz.pdp.dto.ImportReport;
+import uz.pdp.entity.Category;
+import uz.pdp.entity.CustomEnumValue;
+import uz.pdp.entity.User;
+import uz.pdp.enums.Color;
+import uz.pdp.enums.DoorLocation;
+import uz.pdp.enums.DoorManufacturer;
+import uz.pdp.enums.DoorMaterial;
+import uz.pdp.enums.DoorStatus;
+import uz.pdp.enums.FrameType;
+import uz.pdp.enums.HardwareType;
+import uz.pdp.enums.Size;
+import uz.pdp.exception.GlobalExceptionHandler.BadRequestException;
+import uz.pdp.repository.CategoryRepository;
+import uz.pdp.repository.CustomEnumValueRepository;
+
+/**
+ * Loads a seller's whole door catalog from one CSV or JSON file.
+ *
+ * The file is read as a stream, a chunk of rows at a time. Each chunk is checked
+ * in parallel against lookup maps built once per import (categories, enum names,
+ * materials), then written with JDBC batch upserts keyed by the seller's own
+ * catalog code - so uploading the same file twice updates instead of duplicating.
+ * Bad rows are reported with their line and skipped; good rows are saved either way.
+ * Caches are cleared once at the end instead of once per door. 🚚
+ *
+ * @version 1.0
+ * @since 2025-02-25
+ */
+@Service
+public class DoorImportService {
+    private static final Logger logger = LoggerFactory.getLogger(DoorImportService.class);
+    private static final List<String> DOOR_CACHES = List.of("doors", "door", "door-colors", "door-variants");
+    private static final int MAX_EXTERNAL_ID_LENGTH = 100;
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private static final String EXISTING_SQL =
+            "SELECT external_id FROM doors WHERE seller_id = ? AND external_id = ANY (?)";
+    private static final String UPSERT_SQL = """
+            INSERT INTO doors (external_id, seller_id, name, description, price, final_price, size, color, material,
+                               manufacturer, frame_type, hardware, door_location, warranty_years, custom_width,
+                               custom_height, is_custom_color, category_id, status, active, is_base_model)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, true, false)
+            ON CONFLICT (seller_id, external_id) DO UPDATE SET
+                name = EXCLUDED.name,
+                description = EXCLUDED.description,
+                price = EXCLUDED.price,
+                final_price = EXCLUDED.final_price,
+                size = EXCLUDED.size,
+                color = EXCLUDED.color,
+                material = EXCLUDED.material,
+                manufacturer = EXCLUDED.manufacturer,
+                frame_type = EXCLUDED.frame_type,
+                hardware = EXCLUDED.hardware,
+                door_location = EXCLUDED.door_location,
+                warranty_years = EXCLUDED.warranty_years,
+                custom_width = EXCLUDED.custom_width,
+                custom_height = EXCLUDED.custom_height,
+                is_custom_color = EXCLUDED.is_custom_color,
+                category_id = EXCLUDED.category_id
+            """;
+    // The door's own size and color are always on offer; anything else already there stays
+    private static final String ADD_SIZE_SQL = """
+            INSERT INTO door_available_sizes (door_id, size)
+            SELECT d.id, ? FROM doors d
+            WHERE d.seller_id = ? AND d.external_id = ?
+              AND NOT EXISTS (SELECT 1 FROM door_available_sizes s WHERE s.door_id = d.id AND s.size = ?)
+            """;
+    private static final String ADD_COLOR_SQL = """
+            INSERT INTO door_available_colors (door_id, color)
+            SELECT d.id, ? FROM doors d
+            WHERE d.seller_id = ? AND d.external_id = ?
+              AND NOT EXISTS (SELECT 1 FROM door_available_colors c WHERE c.door_id = d.id AND c.color = ?)
+            """;
+
+    // Header cells are matched without case, spaces, dashes or underscores
+    private static final Map<String, BiConsumer<DoorImportRow, String>> COLUMNS = Map.ofEntries(
+            Map.entry("externalid", DoorImportRow::setExternalId),
+            Map.entry("sku", DoorImportRow::setExternalId),
+            Map.entry("name", DoorImportRow::setName),
+            Map.entry("description", DoorImportRow::setDescription),
+            Map.entry("price", DoorImportRow::setPrice),
+            Map.entry("size", DoorImportRow::setSize),
+            Map.entry("color", DoorImportRow::setColor),
+            Map.entry("material", DoorImportRow::setMaterial),
+            Map.entry("manufacturer", DoorImportRow::setManufacturer),
+            Map.entry("frametype", DoorImportRow::setFrameType),
+            Map.entry("hardware", DoorImportRow::setHardware),
+            Map.entry("doorlocation", DoorImportRow::setDoorLocation),
+            Map.entry("location", DoorImportRow::setDoorLocation),
+            Map.entry("warrantyyears", DoorImportRow::setWarrantyYears),
+            Map.entry("customwidth", DoorImportRow::setCustomWidth),
+            Map.entry("customheight", DoorImportRow::setCustomHeight),
+            Map.entry("categoryid", DoorImportRow::setCategoryId),
+            Map.entry("categoryname", DoorImportRow::setCategoryName),
+            Map.entry("category", DoorImportRow::setCategoryName));
+
+    private static final Map<String, Size> SIZES = lookup(Size.values(), size -> size == Size.CUSTOM
+            ? size.name() : size.getWidth() + "x" + size.getHeight());
+    private static final Map<String, Color> COLORS = lookup(Color.values(), Color::getDisplayName);
+    private static final Map<String, FrameType> FRAME_TYPES = lookup(FrameType.values(), FrameType::getDisplayName);
+    private static final Map<String, HardwareType> HARDWARE = lookup(HardwareType.values(), HardwareType::getDisplayName);
+    private static final Map<String, DoorLocation> LOCATIONS = lookup(DoorLocation.values(), DoorLocation::getDisplayName);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryRepository categoryRepository;
+    private final CustomEnumValueRepository customEnumValueRepository;
+    private final PricingEngine pricingEngine;
+    private final PriceQuoteService priceQuoteService;
+    private final DoorFamilyService doorFamilyService;
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${door-import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${door-import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public DoorImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             CategoryRepository categoryRepository,
+                             CustomEnumValueRepository customEnumValueRepository, PricingEngine pricingEngine,
+                             PriceQuoteService priceQuoteService, DoorFamilyService doorFamilyService,
+                             ObjectProvider<CacheManager> cacheManager, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.categoryRepository = categoryRepository;
+        this.customEnumValueRepository = customEnumValueRepository;
+        this.pricingEngine = pricingEngine;
+        this.priceQuoteService = priceQuoteService;
+        this.doorFamilyService = doorFamilyService;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * A validated row, ready to be written.
+     */
+    private record ImportedDoor(String externalId, String name, String description, double price, double finalPrice,
+                                Size size, Color color, String material, String manufacturer, FrameType frameType,
+                                HardwareType hardware, DoorLocation location, Integer warrantyYears,
+                                Double customWidth, Double customHeight, Long categoryId) {
+    }
+
+    /**
+     * A row as read, and what validation made of it: a door or an error.
+     */
+    private record Checked(long row, DoorImportRow source, ImportedDoor door, String error) {
+    }
+
+    /**
+     * Everything validation looks things up in, built once per import.
+     */
+    private record Lookups(Set<Long> categoryIds, Map<String, Long> categoryNames,
+                           Map<String, String> materials, Map<String, String> manufacturers,
+                           PriceRules rules, long sellerId, long now) {
+    }
+
+    /**
+     * Imports doors for a seller. JSON files hold an array of rows; CSV files have a header line.
+     *
+     * @param file Uploaded .csv or .json file
+     * @param seller Seller who will own the doors
+     * @return Counts and per-row errors
+     * @throws BadRequestException if the file can't be read at all
+     */
+    public ImportReport importDoors(MultipartFile file, User seller) {
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException("Import file is empty");
+        }
+        long started = System.nanoTime();
+        ImportReport report = new ImportReport();
+        Lookups lookups = lookups(seller);
+        Map<String, Long> seen = new HashMap<>();
+        List<Checked> chunk = new ArrayList<>(chunkSize);
+
+        try (InputStream in = file.getInputStream()) {
+            if (isJson(file)) {
+                MappingIterator<DoorImportRow> rows = objectMapper.readerFor(DoorImportRow.class).readValues(in);
+                long row = 0;
+                while (rows.hasNextValue()) {
+                    chunk.add(new Checked(++row, rows.nextValue(), null, null));
+                    if (chunk.size() == chunkSize) {
+                        process(chunk, lookups, seen, report);
+                    }
+                }
+            } else {
+                CsvReader csv = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+                List<BiConsumer<DoorImportRow, String>> columns = header(csv.next());
+                List<String> fields;
+                while ((fields = csv.next()) != null) {
+                    DoorImportRow row = new DoorImportRow();
+                    for (int i = 0; i < fields.size() && i < columns.size(); i++) {
+                        if (columns.get(i) != null) {
+                            columns.get(i).accept(row, fields.get(i));
+                        }
+                    }
+                    chunk.add(new Checked(csv.recordLine(), row, null, null));
+                    if (chunk.size() == chunkSize) {
+                        process(chunk, lookups, seen, report);
+                    }
+                }
+            }
+            process(chunk, lookups, seen, report);
+        } catch (IOException e) {
+            // Keep what was read before the broken spot
+            process(chunk, lookups, seen, report);
+            error(report, new Checked(report.getTotal() + 1L, null, null, null),
+                    "File could not be read past this point: " + e.getMessage());
+        } finally {
+            if (report.getInserted() + report.getUpdated() > 0) {
+                evictCaches();
+            }
+        }
+
+        report.setDurationMs((System.nanoTime() - started) / 1_000_000);
+        logger.info("Seller {} imported {} doors: {} new, {} updated, {} failed, in {} ms", seller.getId(),
+                report.getTotal(), report.getInserted(), report.getUpdated(), report.getFailed(),
+                report.getDurationMs());
+        return report;
+    }
+
+    private void process(List<Checked> chunk, Lookups lookups, Map<String, Long> seen, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        report.setTotal(report.getTotal() + chunk.size());
+
+        // Checking a row is pure CPU over read-only maps, so rows are checked side by side
+        Checked[] checked = new Checked[chunk.size()];
+        IntStream.range(0, checked.length).parallel().forEach(i -> checked[i] = check(chunk.get(i), lookups));
+        chunk.clear();
+
+        List<Checked> valid = new ArrayList<>(checked.length);
+        for (Checked row : checked) {
+            if (row.error() != null) {
+                error(report, row, row.error());
+                continue;
+            }
+            Long firstRow = seen.putIfAbsent(row.door().externalId(), row.row());
+            if (firstRow != null) {
+                error(report, row, "Duplicate externalId, already used on row " + firstRow);
+                continue;
+            }
+            valid.add(row);
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+        try {
+            count(report, write(valid, lookups.sellerId()), valid.size());
+        } catch (DataAccessException e) {
+            // Something only the database could spot; find the culprits one row at a time
+            logger.debug("Import chunk failed, retrying row by row: {}", e.getMessage());
+            for (Checked row : valid) {
+                try {
+                    count(report, write(List.of(row), lookups.sellerId()), 1);
+                } catch (DataAccessException rowFailure) {
+                    error(report, row, "Could not be saved: " + rowFailure.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private static void count(ImportReport report, int inserted, int written) {
+        report.setInserted(report.getInserted() + inserted);
+        report.setUpdated(report.getUpdated() + written - inserted);
+    }
+
+    // One transaction per chunk: a late failure doesn't undo the chunks before it
+    private int write(List<Checked> rows, long sellerId) {
+        List<ImportedDoor> doors = rows.stream().map(Checked::door).toList();
+        Integer inserted = transactionTemplate.execute(status -> {
+            Set<String> existing = new HashSet<>(jdbcTemplate.query(EXISTING_SQL, ps -> {
+                ps.setLong(1, sellerId);
+                Array keys = ps.getConnection().createArrayOf("text",
+                        doors.stream().map(ImportedDoor::externalId).toArray());
+                ps.setArray(2, keys);
+            }, (rs, rowNum) -> rs.getString(1)));
+
+            jdbcTemplate.batchUpdate(UPSERT_SQL, doors, doors.size(), (ps, door) -> {
+                ps.setString(1, door.externalId());
+                ps.setLong(2, sellerId);
+                ps.setString(3, door.name());
+                ps.setString(4, door.description());
+                ps.setDouble(5, door.price());
+                ps.setDouble(6, door.finalPrice());
+                ps.setString(7, door.size().name());
+                ps.setString(8, door.color().name());
+                ps.setString(9, door.material());
+                ps.setString(10, door.manufacturer());
+                ps.setString(11, door.frameType().name());
+                ps.setString(12, door.hardware().name());
+                ps.setString(13, door.location().name());
+                ps.setObject(14, door.warrantyYears(), Types.INTEGER);
+                ps.setObject(15, door.customWidth(), Types.DOUBLE);
+                ps.setObject(16, door.customHeight(), Types.DOUBLE);
+                ps.setBoolean(17, door.color() == Color.CUSTOM);
+                ps.setObject(18, door.categoryId(), Types.BIGINT);
+                ps.setString(19, DoorStatus.AVAILABLE.name());
+            });
+            jdbcTemplate.batchUpdate(ADD_SIZE_SQL, doors, doors.size(), (ps, door) -> {
+                ps.setString(1, door.size().name());
+                ps.setLong(2, sellerId);
+                ps.setString(3, door.externalId());
+                ps.setString(4, door.size().name());
+            });
+            jdbcTemplate.batchUpdate(ADD_COLOR_SQL, doors, doors.size(), (ps, door) -> {
+                ps.setString(1, door.color().name());
+                ps.setLong(2, sellerId);
+                ps.setString(3, door.externalId());
+                ps.setString(4, door.color().name());
+            });
+            return doors.size() - existing.size();
+        });
+        return inserted == null ? 0 : inserted;
+    }
+
+    // Same rules as DoorDto validation and DoorService.configureDoor, one message per row
+    private static Checked check(Checked row, Lookups lookups) {
+        DoorImportRow source = row.source();
+        if (source == null) {
+            return new Checked(row.row(), null, null, "Row is empty");
+        }
+        try {
+            String externalId = required(source.getExternalId(), "externalId");
+            if (externalId.length() > MAX_EXTERNAL_ID_LENGTH) {
+                return failed(row, "externalId cannot be longer than " + MAX_EXTERNAL_ID_LENGTH + " characters");
+            }
+            double price = number(required(source.getPrice(), "price"), "price");
+            if (price <= 0) {
+                return failed(row, "Price must be greater than 0");
+            }
+            Size size = enumValue(SIZES, source.getSize(), "size");
+            Color color = enumValue(COLORS, source.getColor(), "color");
+            FrameType frameType = enumValue(FRAME_TYPES, source.getFrameType(), "frameType");
+            HardwareType hardware = enumValue(HARDWARE, source.getHardware(), "hardware");
+            DoorLocation location = enumValue(LOCATIONS, source.getDoorLocation(), "doorLocation");
+
+            Double width = blank(source.getCustomWidth()) ? null : number(source.getCustomWidth(), "customWidth");
+            Double height = blank(source.getCustomHeight()) ? null : number(source.getCustomHeight(), "customHeight");
+            if (size == Size.CUSTOM && (width == null || height == null)) {
+                return failed(row, "Custom size requires both customWidth and customHeight");
+            }
+            if ((width != null && width <= 0) || (height != null && height <= 0)) {
+                return failed(row, "Width and height must be positive");
+            }
+            if (size != Size.CUSTOM) {
+                // Door.setSize does the same for standard sizes
+                width = (double) size.getWidth();
+                height = (double) size.getHeight();
+            }
+
+            Integer warranty = null;
+            if (!blank(source.getWarrantyYears())) {
+                double years = number(source.getWarrantyYears(), "warrantyYears");
+                if (years < 0 || years != Math.rint(years)) {
+                    return failed(row, "warrantyYears must be a whole number of years");
+                }
+                warranty = (int) years;
+            }
+
+            Long categoryId = null;
+            if (!blank(source.getCategoryId())) {
+                categoryId = (long) number(source.getCategoryId(), "categoryId");
+                if (!lookups.categoryIds().contains(categoryId)) {
+                    return failed(row, "Category not found with id: " + source.getCategoryId().trim());
+                }
+            } else if (!blank(source.getCategoryName())) {
+                categoryId = lookups.categoryNames().get(source.getCategoryName().trim().toLowerCase(Locale.ROOT));
+                if (categoryId == null) {
+                    return failed(row, "Category not found with name: " + source.getCategoryName().trim());
+                }
+            }
+
+            String name = text(source.getName(), "name");
+            String description = text(source.getDescription(), "description");
+            String material = text(source.getMaterial(), "material");
+            String manufacturer = text(source.getManufacturer(), "manufacturer");
+            double finalPrice = lookups.rules().price(price, size.ordinal(), color.ordinal(), color == Color.CUSTOM,
+                    frameType.ordinal(), hardware.ordinal(), location.ordinal(),
+                    categoryId != null ? categoryId : PriceRules.NO_ID, lookups.sellerId(), lookups.now());
+
+            return new Checked(row.row(), source, new ImportedDoor(externalId, name, description, price, finalPrice, size, color,
+                    lookups.materials().getOrDefault(normalize(material), material),
+                    lookups.manufacturers().getOrDefault(normalize(manufacturer), manufacturer),
+                    frameType, hardware, location, warranty, width, height, categoryId), null);
+        } catch (IllegalArgumentException e) {
+            return failed(row, e.getMessage());
+        }
+    }
+
+    private Lookups lookups(User seller) {
+        Set<Long> categoryIds = new HashSet<>();
+        Map<String, Long> categoryNames = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categoryIds.add(category.getId());
+            if (category.getName() != null) {
+                categoryNames.putIfAbsent(category.getName().trim().toLowerCase(Locale.ROOT), category.getId());
+            }
+        }
+        Map<String, String> materials = new HashMap<>();
+        Arrays.stream(DoorMaterial.values()).forEach(m -> canonical(materials, m.name(), m.getDisplayName()));
+        Map<String, String> manufacturers = new HashMap<>();
+        Arrays.stream(DoorManufacturer.values()).forEach(m -> canonical(manufacturers, m.name(), m.getDisplayName()));
+        for (CustomEnumValue value : customEnumValueRepository.findByEnumTypeAndIsActiveTrue("DoorMaterial")) {
+            canonical(materials, value.getName(), value.getDisplayName());
+        }
+        for (CustomEnumValue value : customEnumValueRepository.findByEnumTypeAndIsActiveTrue("DoorManufacturer")) {
+            canonical(manufacturers, value.getName(), value.getDisplayName());
+        }
+        return new Lookups(categoryIds, categoryNames, materials, manufacturers, pricingEngine.rules(),
+                seller.getId(), System.currentTimeMillis());
+    }
+
+    private void evictCaches() {
+        CacheManager manager = cacheManager.getIfAvailable();
+        if (manager != null) {
+            for (String name : DOOR_CACHES) {
+                Cache cache = manager.getCache(name);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+        }
+        priceQuoteService.evictAll();
+        doorFamilyService.evictAll();
+    }
+
+    private void error(ImportReport report, Checked row, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            String externalId = row.source() != null ? row.source().getExternalId() : null;
+            report.getErrors().add(new ImportReport.RowError(row.row(), externalId, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private static List<BiConsumer<DoorImportRow, String>> header(List<String> cells) {
+        if (cells == null) {
+            throw new BadRequestException("CSV file has no header line");
+        }
+        List<BiConsumer<DoorImportRow, String>> columns = new ArrayList<>(cells.size());
+        boolean any = false;
+        for (String cell : cells) {
+            BiConsumer<DoorImportRow, String> column = COLUMNS.get(cell.toLowerCase(Locale.ROOT).replaceAll("[\\s_-]", ""));
+            any |= column != null;
+            columns.add(column);
+        }
+        if (!any) {
+            throw new BadRequestException("CSV header has none of the known columns: externalId, name, price, ...");
+        }
+        return columns;
+    }
+
+    private static boolean isJson(MultipartFile file) {
+        String name = file.getOriginalFilename();
+        return (file.getContentType() != null && file.getContentType().contains("json"))
+                || (name != null && name.toLowerCase(Locale.ROOT).endsWith(".json"));
+    }
+
+    private static Checked failed(Checked row, String message) {
+        return new Checked(row.row(), row.source(), null, message);
+    }
+
+    private static boolean blank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String required(String value, String field) {
+        if (blank(value)) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        return value.trim();
+    }
+
+    // Plain varchar(255) columns
+    private static String text(String value, String field) {
+        String text = required(value, field);
+        if (text.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(field + " cannot be longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        return text;
+    }
+
+    private static double number(String value, String field) {
+        try {
+            // Spreadsheets in some locales write 1234,50
+            return Double.parseDouble(value.trim().replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + value.trim());
+        }
+    }
+
+    private static <E extends Enum<E>> E enumValue(Map<String, E> values, String value, String field) {
+        E resolved = values.get(normalize(required(value, field)));
+        if (resolved == null) {
+            throw new IllegalArgumentException("Unknown " + field + ": " + value.trim());
+        }
+        return resolved;
+    }
+
+    // "Solid Oak", "SOLID_OAK" and "solid-oak" are all the same thing
+    private static String normalize(String value) {
+        return value.toUpperCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]", "");
+    }
+
+    private static void canonical(Map<String, String> values, String name, String displayName) {
+        values.putIfAbsent(normalize(name), displayName);
+        values.putIfAbsent(normalize(displayName), displayName);
+    }
+
+    private static <E extends Enum<E>> Map<String, E> lookup(E[] values, Function<E, String> alias) {
+        Map<String, E> lookup = new HashMap<>();
+        for (E value : values) {
+            lookup.put(normalize(value.name()), value);
+            lookup.putIfAbsent(normalize(alias.apply(value)), value);
+        }
+        return Map.copyOf(lookup);
+    }
+}
@@ -0,0 +1,51 @@
+package uz.pdp.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import uz.pdp.entity.Door;
+
+/**
+ * Keeps {@code Door.finalPrice} in line with the pricing rules on every insert and update,
+ * and drops the quote snapshot and family of doors that changed.
+ *
+ * Hibernate gets this listener from Spring; the services are looked up lazily because
+ * the listener is created while the EntityManagerFactory - which they need -
+ * is still being built.
+ */
+@Component
+public class DoorPriceListener {
+    private final ObjectProvider<PricingEngine> pricingEngine;
+    private final ObjectProvider<PriceQuoteService> priceQuoteService;
+    private final ObjectProvider<DoorFamilyService> doorFamilyService;
+
+    public DoorPriceListener(ObjectProvider<PricingEngine> pricingEngine,
+                             ObjectProvider<PriceQuoteService> priceQuoteService,
+                             ObjectProvider<DoorFamilyService> doorFamilyService) {
+        this.pricingEngine = pricingEngine;
+        this.priceQuoteService = priceQuoteService;
+        this.doorFamilyService = doorFamilyService;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void price(Door door) {
+        pricingEngine.getObject().applyTo(door);
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Door door) {
+        priceQuoteService.getObject().evict(door.getId());
+        // A new or changed variant changes its base model's family too
+        DoorFamilyService families = doorFamilyService.getObject();
+        families.evict(door.getId());
+        families.evict(door.getBaseModelId());
+    }
+}
@@ -2,11 +2,14 @@ package uz.pdp.service;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import io.micrometer.core.annotation.Timed;
 import org.hibernate.service.spi.ServiceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,11 +25,14 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.SneakyThrows;
 import uz.pdp.dto.DoorDto;
+import uz.pdp.dto.ImageVariantsDTO;
 import uz.pdp.entity.Category;
 import uz.pdp.entity.Door;
 import uz.pdp.entity.User;
@@ -47,6 +53,7 @@ import uz.pdp.repository.UserRepository;
  * @since 2025-01-17
  */
 @Service
+@Timed("doorshop.service")
 public class DoorService {
     private static final Logger logger = LoggerFactory.getLogger(DoorService.class);
     private static final String DOORS_CACHE = "doors";
@@ -60,16 +67,23 @@ public class DoorService {
     private final UserService userService;
     private final ImageStorageService imageStorageService;
     private final DoorHistoryRepository doorHistoryRepository;
+    private final LiveUpdateService liveUpdateService;
+    private final PricingEngine pricingEngine;
+    private final DoorFamilyService doorFamilyService;
 
     @Autowired
     public DoorService(DoorRepository doorRepository, CategoryRepository categoryRepository, UserRepository userRepository, UserService userService, ImageStorageService imageStorageService,
-                       DoorHistoryRepository doorHistoryRepository) {
+                       DoorHistoryRepository doorHistoryRepository, LiveUpdateService liveUpdateService,
+                       PricingEngine pricingEngine, DoorFamilyService doorFamilyService) {
         this.doorRepository = doorRepository;
         this.categoryRepository = categoryRepository;
         this.userRepository = userRepository;
         this.userService = userService;
         this.imageStorageService = imageStorageService;
         this.doorHistoryRepository = doorHistoryRepository;
+        this.liveUpdateService = liveUpdateService;
+        this.pricingEngine = pricingEngine;
+        this.doorFamilyService = doorFamilyService;
     }
 
     /**
@@ -141,12 +155,26 @@ public class DoorService {
         Door door = new Door();
         mapDtoToEntity(doorDto, door);
         door.setSeller(currentUser);
-        door.calculateFinalPrice();
+        pricingEngine.applyTo(door);
         Door savedDoor = doorRepository.saveAndFlush(door);
         logger.info("Door created with ID: {}", savedDoor.getId());
+        liveUpdateService.doorChanged(savedDoor, true);
         return savedDoor;
     }
 
+    /**
+     * The images of a door that no other door uses - color variants share images
+     * with their base model, and a shared file must outlive this door.
+     */
+    private List<String> unsharedImages(Long doorId, Collection<String> imageUrls) {
+        if (imageUrls.isEmpty()) {
+            return List.of();
+        }
+        List<String> unshared = new ArrayList<>(imageUrls);
+        unshared.removeAll(doorRepository.findImagesUsedByOtherDoors(doorId, imageUrls));
+        return unshared;
+    }
+
     /**
      * Maps DTO fields to Door entity.
      *
@@ -214,9 +242,12 @@ public class DoorService {
         logger.info("Updating door with ID: {}, data: {}", id, doorDto);
         Door door = getDoor(id);
         mapDtoToEntity(doorDto, door);
-        door.calculateFinalPrice();
+        pricingEngine.applyTo(door);
         Door savedDoor = doorRepository.save(door);
+        // A change to the sizes or colors alone doesn't reach the entity listener
+        doorFamilyService.evict(id);
         logger.info("Door with ID {} updated.", id);
+        liveUpdateService.doorChanged(savedDoor, false);
         return savedDoor;
     }
 
@@ -240,15 +271,9 @@ public class DoorService {
             logger.info("Deleting door with ID: {}", id);
             Door door = getDoorById(id);
 
-            // Delete associated images
+            // Delete associated images - queued, removed from S3 in one batch after commit
             if (door.getImages() != null && !door.getImages().isEmpty()) {
-                for (String imageUrl : door.getImages()) {
-                    try {
-                        imageStorageService.deleteImage(imageUrl);
-                    } catch (Exception e) {
-                        logger.warn("Failed to delete image from storage: {}", imageUrl);
-                    }
-                }
+                imageStorageService.deleteImages(unsharedImages(id, door.getImages()));
             }
 
             // Delete associated history records
@@ -309,6 +334,7 @@ public class DoorService {
         
         Door savedDoor = doorRepository.save(door);
         logger.info("Door with ID {} configured successfully", id);
+        liveUpdateService.doorChanged(savedDoor, false);
         return savedDoor;
     }
 
@@ -326,20 +352,53 @@ public class DoorService {
     @CachePut(value = DOOR_CACHE, key = "#id")
     public Door addImages(Long id, List<MultipartFile> images) {
         Door door = getDoor(id);
-        List<String> imageUrls = new ArrayList<>();
-        
-        for (MultipartFile image : images) {
+        List<String> imageUrls;
+
+        try {
+            // All images go up in parallel; if one fails, none of them stay in S3
+            imageUrls = imageStorageService.storeDoorImages(images);
+        } catch (IOException e) {
+            logger.error("Failed to store image for door {}: {}", id, e.getMessage());
+            throw new BadRequestException("Failed to store image", e.getMessage(), e);
+        }
+
+        door.getImages().addAll(imageUrls);
+        return saveWithUploadedImages(door, imageUrls);
+    }
+
+    /**
+     * Saves a door that references freshly uploaded images.
+     * If the transaction rolls back, the uploads are removed again so S3 doesn't collect
+     * orphans - most failures only show up at flush or commit, long after save() returned.
+     */
+    private Door saveWithUploadedImages(Door door, List<String> uploadedUrls) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
             try {
-                String imageUrl = imageStorageService.storeDoorImage(image);
-                imageUrls.add(imageUrl);
-            } catch (IOException e) {
-                logger.error("Failed to store image for door {}: {}", id, e.getMessage());
-                throw new BadRequestException("Failed to store image", e.getMessage(), e);
+                Door savedDoor = doorRepository.save(door);
+                liveUpdateService.doorChanged(savedDoor, false);
+                return savedDoor;
+            } catch (RuntimeException e) {
+                discardUploads(door, uploadedUrls);
+                throw e;
             }
         }
-        
-        door.getImages().addAll(imageUrls);
-        return doorRepository.save(door);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    discardUploads(door, uploadedUrls);
+                }
+            }
+        });
+        Door savedDoor = doorRepository.save(door);
+        liveUpdateService.doorChanged(savedDoor, false);
+        return savedDoor;
+    }
+
+    private void discardUploads(Door door, List<String> uploadedUrls) {
+        logger.error("Failed to save door {} after image upload, discarding {} images",
+            door.getId(), uploadedUrls.size());
+        imageStorageService.discardUploads(uploadedUrls);
     }
 
     /**
@@ -358,17 +417,17 @@ public class DoorService {
         Door door = getDoor(id);
         door.getImages().removeAll(imageUrls);
         
-        // Delete images from storage
-        for (String imageUrl : imageUrls) {
-            try {
-                imageStorageService.deleteImage(imageUrl);
-            } catch (Exception e) {
-                logger.warn("Failed to delete image from storage: {}", imageUrl);
-                throw new BadRequestException("Failed to delete image", e.getMessage(), e);
-            }
+        // Delete images from storage once the door no longer references them
+        try {
+            imageStorageService.deleteImages(unsharedImages(id, imageUrls));
+        } catch (Exception e) {
+            logger.warn("Failed to delete images from storage: {}", imageUrls);
+            throw new BadRequestException("Failed to delete image", e.getMessage(), e);
         }
         
-        return doorRepository.save(door);
+        Door savedDoor = doorRepository.save(door);
+        liveUpdateService.doorChanged(savedDoor, false);
+        return savedDoor;
     }
 
     /**
@@ -410,9 +469,10 @@ public class DoorService {
         if (door.getSize() == Size.CUSTOM) {
             door.setCustomWidth(customWidth);
             door.setCustomHeight(customHeight);
-            door.calculateFinalPrice();
+            pricingEngine.applyTo(door);
             doorRepository.save(door);
             logger.info("Configured dimensions for door ID: {}", doorId);
+            liveUpdateService.doorChanged(door, false);
         } else {
             throw new BadRequestException("Only doors with CUSTOM size can have custom dimensions");
         }
@@ -465,15 +525,11 @@ public class DoorService {
     //@CachePut(value = DOOR_CACHE, key = "#id")
     public Door uploadImages(Long id, List<MultipartFile> images) {
         Door door = getDoor(id);
-        List<String> imageUrls = new ArrayList<>();
 
         try {
-            for (MultipartFile image : images) {
-                String imageUrl = imageStorageService.storeDoorImage(image);
-                imageUrls.add(imageUrl);
-            }
+            List<String> imageUrls = imageStorageService.storeDoorImages(images);
             door.setImages(imageUrls);
-            return doorRepository.save(door);
+            return saveWithUploadedImages(door, imageUrls);
         } catch (IOException e) {
             logger.error("Failed to upload images for door {}: {}", id, e.getMessage());
             throw new BadRequestException("Failed to upload images: " + e.getMessage());
@@ -496,7 +552,9 @@ public class DoorService {
         try {
             Door door = getDoor(id);
             door.setStatus(status);
-            return doorRepository.save(door);
+            Door savedDoor = doorRepository.save(door);
+            liveUpdateService.doorChanged(savedDoor, false);
+            return savedDoor;
         } catch (Exception e) {
             logger.error("Failed to update status for door {}: {}", id, e.getMessage());
             throw new BadRequestException("Failed to update door status: " + e.getMessage());
@@ -602,6 +660,7 @@ public class DoorService {
             
             Door savedDoor = doorRepository.save(door);
             logger.info("Created door with ID: {}", savedDoor.getId());
+            liveUpdateService.doorChanged(savedDoor, true);
             return EntityResponse.success("Door created successfully", savedDoor);
         } catch (Exception e) {
             logger.error("Error creating door: {}", e.getMessage());
@@ -642,6 +701,7 @@ public class DoorService {
             
             Door savedDoor = doorRepository.save(existingDoor);
             logger.info("Updated door with ID: {}", savedDoor.getId());
+            liveUpdateService.doorChanged(savedDoor, false);
             return EntityResponse.success("Door updated successfully", savedDoor);
         } catch (Exception e) {
             logger.error("Error updating door {}: {}", id, e.getMessage());
@@ -682,6 +742,7 @@ public class DoorService {
             
             Door savedDoor = doorRepository.save(door);
             logger.info("Updated status for door ID: {}", doorId);
+            liveUpdateService.doorChanged(savedDoor, false);
             return savedDoor;
         } catch (Exception e) {
             logger.error("Error updating door status {}: {}", doorId, e.getMessage());
@@ -713,14 +774,11 @@ public class DoorService {
     @Transactional(readOnly = true)
     //@Cacheable(value = DOOR_VARIANTS_CACHE, key = "#doorId")
     public List<Door> getDoorColorVariants(Long doorId) {
-        Door door = getDoor(doorId);
-        Long baseModelId = door.getIsBaseModel() ? door.getId() : door.getBaseModelId();
-        
-        if (baseModelId == null) {
-            return Collections.singletonList(door);
-        }
-        
-        return doorRepository.findByBaseModelIdOrId(baseModelId, baseModelId);
+        // findAllById makes no promise about order
+        List<Door> variants = new ArrayList<>(
+            doorRepository.findAllById(doorFamilyService.getFamily(doorId).variantIds()));
+        variants.sort(Comparator.comparing(Door::getId));
+        return variants;
     }
 
     /**
@@ -757,7 +815,9 @@ public class DoorService {
         baseModel.getAvailableColors().add(color);
         doorRepository.save(baseModel);
         
-        return doorRepository.save(variant);
+        Door savedVariant = doorRepository.save(variant);
+        liveUpdateService.doorChanged(savedVariant, true);
+        return savedVariant;
     }
 
     /**
@@ -782,7 +842,9 @@ public class DoorService {
         variant.setBaseModelId(baseModel.getId());
         variant.setIsBaseModel(false);
         
-        return doorRepository.save(variant);
+        Door savedVariant = doorRepository.save(variant);
+        liveUpdateService.doorChanged(savedVariant, true);
+        return savedVariant;
     }
 
     /**
@@ -792,18 +854,9 @@ public class DoorService {
      * @param doorId ID of any variant or base model
      * @return Set of available colors
      */
-    @Transactional(readOnly = true)
    // @Cacheable(value = DOOR_COLORS_CACHE, key = "#doorId")
     public Set<Color> getAvailableColors(Long doorId) {
-        Door door = getDoor(doorId);
-        Long baseModelId = door.getIsBaseModel() ? door.getId() : door.getBaseModelId();
-        
-        if (baseModelId == null) {
-            return Collections.singleton(door.getColor());
-        }
-        
-        Door baseModel = getDoor(baseModelId);
-        return baseModel.getAvailableColors();
+        return doorFamilyService.getAvailableColors(doorId);
     }
 
     /**
@@ -815,25 +868,14 @@ public class DoorService {
      * @return Set of available colors for the door
      * @throws ResourceNotFoundException if door not found
      */
-    @Transactional(readOnly = true)
     //@Cacheable(value = DOOR_COLORS_CACHE, key = "#id")
     public Set<Color> getDoorColors(Long id) {
-        Door door = getDoor(id);
-        
-        // If this is a variant, get colors from base model
-        if (!door.getIsBaseModel() && door.getBaseModelId() != null) {
-            door = getDoor(door.getBaseModelId());
-        }
-        
-        // If no colors are set, return an empty set
-        if (door.getAvailableColors() == null) {
+        // Variants share their base model's palette
+        Set<Color> colors = doorFamilyService.getFamily(id).colors();
+        if (colors.isEmpty()) {
             logger.warn("Door {} has no available colors set!  This door is having an identity crisis.", id);
-            return Collections.emptySet();
         }
-        
-        logger.info("Found {} fabulous colors for door {}! ", 
-            door.getAvailableColors().size(), door.getName());
-        return door.getAvailableColors();
+        return colors;
     }
     
     /**
@@ -846,19 +888,9 @@ public class DoorService {
      * 
      * 🚪 Because one size doesn't fit all doorways! 
      */
-    @Transactional(readOnly = true)
     public Set<Size> getDoorSizes(Long id) {
-        Door door = getDoor(id);
-        // If this is a variant, get sizes from base model
-        if (!door.getIsBaseModel() && door.getBaseModelId() != null) {
-            door = getDoor(door.getBaseModelId());
-        }
-        // If no sizes are set, return an empty set
-        if (door.getAvailableSizes() == null) {
-            logger.warn("Door {} has no available sizes set!", id);
-            return Collections.emptySet();
-        }
-        return door.getAvailableSizes();
+        // Variants share their base model's sizes
+        return doorFamilyService.getFamily(id).sizes();
     }
 
     private DoorDto mapToDto(Door door) {
@@ -882,6 +914,7 @@ public class DoorService {
         dto.setAvailableColors(door.getAvailableColors());
         dto.setAvailableSizes(door.getAvailableSizes());
         dto.setImages(door.getImages());
+        dto.setImageVariants(ImageVariantsDTO.fromAll(door.getImages()));
         dto.setStatus(door.getStatus().toString());
 
         if (door.getCategory() != null) {
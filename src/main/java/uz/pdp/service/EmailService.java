@@ -1,7 +1,9 @@
 package uz.pdp.service;
 
+import jakarta.activation.FileDataSource;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,6 +19,7 @@ import uz.pdp.entity.User;
 import uz.pdp.enums.VerificationType;
 import uz.pdp.payload.EntityResponse;
 
+import java.io.File;
 import java.time.format.DateTimeFormatter;
 import java.util.Random;
 import java.util.UUID;
@@ -49,6 +52,7 @@ import java.util.regex.Pattern;
  * @since 2025-01-17
  */
 @Service
+@Timed("doorshop.service")
 @Slf4j
 public class EmailService {
     // For logging when emails venture into the digital abyss
@@ -309,6 +313,50 @@ public class EmailService {
         }
     }
 
+    /**
+     * Sends an HTML email with a file attached.
+     * The file is read while sending, so even big attachments never sit in memory. 📎
+     *
+     * @param to          Recipient email address
+     * @param subject     Email subject
+     * @param htmlContent HTML-formatted content
+     * @param attachment  File to attach
+     * @param fileName    Name the recipient sees
+     * @param contentType MIME type of the attachment
+     * @return EntityResponse indicating success/failure
+     */
+    public EntityResponse<Void> sendHtmlEmailWithAttachment(String to, String subject, String htmlContent,
+                                                            File attachment, String fileName, String contentType) {
+        try {
+            if (!isValidEmail(to)) {
+                logger.error("Invalid email address: {}", to);
+                return EntityResponse.error("Invalid email address");
+            }
+
+            logger.info("Sending HTML email with attachment {} to: {}", fileName, to);
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+            helper.setFrom(fromEmail);
+            helper.setTo(to);
+            helper.setSubject(subject);
+            helper.setText(BASE_TEMPLATE.formatted(htmlContent), true);
+            helper.addAttachment(fileName, new FileDataSource(attachment) {
+                @Override
+                public String getContentType() {
+                    return contentType;
+                }
+            });
+
+            mailSender.send(message);
+            logger.info("HTML email with attachment sent successfully to: {}", to);
+            return EntityResponse.success("Email sent successfully");
+        } catch (MessagingException | MailSendException e) {
+            logger.error("Failed to send HTML email with attachment to {}: {}", to, e.getMessage());
+            return EntityResponse.error("Failed to send email: " + e.getMessage());
+        }
+    }
+
     /**
      * Sends a verification code email for seller registration.
      * Because every seller deserves a grand entrance! 🎭
@@ -442,70 +490,7 @@ public class EmailService {
             helper.setTo(sellerEmail);
             helper.setSubject("🛍️ New Order #" + order.getId());
 
-            String emailContent = String.format(
-                    "<div style='font-family: Arial, sans-serif; max-width: 600px; margin: 0 auto;'>" +
-                            "<div style='background-color: #4a90e2; color: white; padding: 20px; text-align: center; border-radius: 5px 5px 0 0;'>" +
-                            "<h1>🛍️ New Order!</h1>" +
-                            "</div>" +
-                            "<div style='padding: 20px; border: 1px solid #ddd;'>" +
-                            "<p>Hello,</p>" +
-                            "<p>Great news! You've received a new order. Here are the details:</p>" +
-                            "<div style='background-color: #f9f9f9; padding: 15px; border-radius: 5px; margin: 15px 0;'>" +
-                            "<h3>📦 Order Details</h3>" +
-                            "<p><strong>Order ID:</strong> %d</p>" +
-                            "<p><strong>Order Date:</strong> %s</p>" +
-                            "<p><strong>Total Amount:</strong> $%.2f</p>" +
-                            "<h3>👤 Customer Information</h3>" +
-                            "<p><strong>Name:</strong> %s %s</p>" +
-                            "<p><strong>Phone:</strong> %s</p>" +
-                            "<p><strong>Email:</strong> %s</p>" +
-                            "<h3>📍 Delivery Information</h3>" +
-                            "<p><strong>Address:</strong> %s</p>" +
-                            "<h3>🛍️ Ordered Items</h3>" +
-                            "<table style='width: 100%%; border-collapse: collapse; margin-top: 10px;'>" +
-                            "<tr style='background-color: #f2f2f2;'>" +
-                            "<th style='padding: 8px; text-align: left;'>Item</th>" +
-                            "<th style='padding: 8px; text-align: left;'>Type</th>" +
-                            "<th style='padding: 8px; text-align: left;'>Quantity</th>" +
-                            "<th style='padding: 8px; text-align: left;'>Price</th>" +
-                            "<th style='padding: 8px; text-align: left;'>Total</th>" +
-                            "</tr>" +
-                            "<tr>" +
-                            "<td style='padding: 8px; border-top: 1px solid #ddd;'>%s</td>" +
-                            "<td style='padding: 8px; border-top: 1px solid #ddd;'>%s</td>" +
-                            "<td style='padding: 8px; border-top: 1px solid #ddd;'>%d</td>" +
-                            "<td style='padding: 8px; border-top: 1px solid #ddd;'>$%.2f</td>" +
-                            "<td style='padding: 8px; border-top: 1px solid #ddd;'>$%.2f</td>" +
-                            "</tr>" +
-                            "</table>" +
-                            "<div style='margin-top: 20px; padding-top: 20px; border-top: 1px solid #ddd;'>" +
-                            "<p><strong>Order Notes:</strong> %s</p>" +
-                            "<p><strong>Installation Notes:</strong> %s</p>" +
-                            "<p><strong>Delivery Notes:</strong> %s</p>" +
-                            "</div>" +
-                            "</div>" +
-                            "</div>" +
-                            "<div style='text-align: center; margin-top: 20px; color: #666;'>" +
-                            "<p>Thank you for being an awesome seller! 🌟</p>" +
-                            "</div>" +
-                            "</div>",
-                    order.getId(),
-                    order.getOrderDate().format(DateTimeFormatter.ofPattern("MMMM dd, yyyy HH:mm:ss")),
-                    order.getPrice() * order.getQuantity(), // Calculate total amount
-                    buyer.getName(),
-                    buyer.getLastname(),
-                    buyer.getPhone(),
-                    buyer.getEmail(),
-                    order.getDeliveryAddress(),
-                    order.getItemName(),
-                    order.getItemType().toString(),
-                    order.getQuantity(),
-                    order.getPrice(),
-                    order.getPrice() * order.getQuantity(), // Calculate total for this item
-                    order.getComment() != null ? order.getComment() : "No comments provided",
-                    order.getInstallationNotes() != null ? order.getInstallationNotes() : "No installation notes provided",
-                    order.getDeliveryNotes() != null ? order.getDeliveryNotes() : "No delivery notes provided"
-            );
+            String emailContent = renderOrderNotification(order, buyer);
 
             helper.setText(emailContent, true);
             helper.setFrom(fromEmail);
@@ -517,4 +502,80 @@ public class EmailService {
             throw new MessagingException("Failed to send order notification email: " + e.getMessage());
         }
     }
+
+    /**
+     * Builds the HTML of the new-order email a seller gets.
+     * Split out of {@link #sendOrderNotification} so it can be looked at (and
+     * benchmarked) without an SMTP server in the room. 🧾
+     *
+     * @param order Order details
+     * @param buyer Buyer information
+     * @return Email body as HTML
+     */
+    public String renderOrderNotification(Order order, User buyer) {
+        return String.format(
+                "<div style='font-family: Arial, sans-serif; max-width: 600px; margin: 0 auto;'>" +
+                        "<div style='background-color: #4a90e2; color: white; padding: 20px; text-align: center; border-radius: 5px 5px 0 0;'>" +
+                        "<h1>🛍️ New Order!</h1>" +
+                        "</div>" +
+                        "<div style='padding: 20px; border: 1px solid #ddd;'>" +
+                        "<p>Hello,</p>" +
+                        "<p>Great news! You've received a new order. Here are the details:</p>" +
+                        "<div style='background-color: #f9f9f9; padding: 15px; border-radius: 5px; margin: 15px 0;'>" +
+                        "<h3>📦 Order Details</h3>" +
+                        "<p><strong>Order ID:</strong> %d</p>" +
+                        "<p><strong>Order Date:</strong> %s</p>" +
+                        "<p><strong>Total Amount:</strong> $%.2f</p>" +
+                        "<h3>👤 Customer Information</h3>" +
+                        "<p><strong>Name:</strong> %s %s</p>" +
+                        "<p><strong>Phone:</strong> %s</p>" +
+                        "<p><strong>Email:</strong> %s</p>" +
+                        "<h3>📍 Delivery Information</h3>" +
+                        "<p><strong>Address:</strong> %s</p>" +
+                        "<h3>🛍️ Ordered Items</h3>" +
+                        "<table style='width: 100%%; border-collapse: collapse; margin-top: 10px;'>" +
+                        "<tr style='background-color: #f2f2f2;'>" +
+                        "<th style='padding: 8px; text-align: left;'>Item</th>" +
+                        "<th style='padding: 8px; text-align: left;'>Type</th>" +
+                        "<th style='padding: 8px; text-align: left;'>Quantity</th>" +
+                        "<th style='padding: 8px; text-align: left;'>Price</th>" +
+                        "<th style='padding: 8px; text-align: left;'>Total</th>" +
+                        "</tr>" +
+                        "<tr>" +
+                        "<td style='padding: 8px; border-top: 1px solid #ddd;'>%s</td>" +
+                        "<td style='padding: 8px; border-top: 1px solid #ddd;'>%s</td>" +
+                        "<td style='padding: 8px; border-top: 1px solid #ddd;'>%d</td>" +
+                        "<td style='padding: 8px; border-top: 1px solid #ddd;'>$%.2f</td>" +
+                        "<td style='padding: 8px; border-top: 1px solid #ddd;'>$%.2f</td>" +
+                        "</tr>" +
+                        "</table>" +
+                        "<div style='margin-top: 20px; padding-top: 20px; border-top: 1px solid #ddd;'>" +
+                        "<p><strong>Order Notes:</strong> %s</p>" +
+                        "<p><strong>Installation Notes:</strong> %s</p>" +
+                        "<p><strong>Delivery Notes:</strong> %s</p>" +
+                        "</div>" +
+                        "</div>" +
+                        "</div>" +
+                        "<div style='text-align: center; margin-top: 20px; color: #666;'>" +
+                        "<p>Thank you for being an awesome seller! 🌟</p>" +
+                        "</div>" +
+                        "</div>",
+                order.getId(),
+                order.getOrderDate().format(DateTimeFormatter.ofPattern("MMMM dd, yyyy HH:mm:ss")),
+                order.getPrice() * order.getQuantity(), // Calculate total amount
+                buyer.getName(),
+                buyer.getLastname(),
+                buyer.getPhone(),
+                buyer.getEmail(),
+                order.getDeliveryAddress(),
+                order.getItemName(),
+                order.getItemType().toString(),
+                order.getQuantity(),
+                order.getPrice(),
+                order.getPrice() * order.getQuantity(), // Calculate total for this item
+                order.getComment() != null ? order.getComment() : "No comments provided",
+                order.getInstallationNotes() != null ? order.getInstallationNotes() : "No installation notes provided",
+                order.getDeliveryNotes() != null ? order.getDeliveryNotes() : "No delivery notes provided"
+        );
+    }
 }
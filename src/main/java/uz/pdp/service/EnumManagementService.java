@@ -3,8 +3,6 @@ package uz.pdp.service;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import uz.pdp.entity.CustomEnumValue;
@@ -12,7 +10,6 @@ import uz.pdp.entity.User;
 import uz.pdp.enums.*;
 import uz.pdp.exception.UnauthorizedException;
 import uz.pdp.repository.CustomEnumValueRepository;
-import uz.pdp.repository.UserRepository;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -37,7 +34,7 @@ public class EnumManagementService {
     private static final Logger logger = LoggerFactory.getLogger(EnumManagementService.class);
     
     private final CustomEnumValueRepository customEnumValueRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserContext currentUserContext;
 
     /**
      * Adds a new custom enum value.
@@ -49,20 +46,12 @@ public class EnumManagementService {
      * @throws IllegalArgumentException if enum type is invalid or value already exists
      */
     public CustomEnumValue addCustomEnumValue(CustomEnumValue customEnumValue) {
-        // Get current user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
+        // Get current user - already loaded for this request
+        User currentUser = currentUserContext.getOrNull();
+        if (currentUser == null) {
             throw new UnauthorizedException("You must be logged in to add custom enum values! 🔐");
         }
 
-        String name = authentication.getName();
-        logger.debug("Looking up user by username: {}", name);
-        
-        User currentUser = userRepository.findByName(name)
-                .orElseThrow(() -> new UnauthorizedException(
-                    "Hmm... We can't find your user account. Are you sure you're logged in? 🤔 (name: " + name + ")"
-                ));
-
         // Validate enum type
         validateEnumType(customEnumValue.getEnumType());
 
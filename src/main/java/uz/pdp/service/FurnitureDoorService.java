@@ -5,10 +5,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import uz.pdp.entity.FurnitureDoor;
+import uz.pdp.enums.ItemType;
 import uz.pdp.exception.GlobalExceptionHandler.FurnitureDoorNotFoundException;
 import uz.pdp.repository.FurnitureDoorRepository;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -20,13 +22,16 @@ import java.util.Optional;
 public class FurnitureDoorService {
 
     private final FurnitureDoorRepository furnitureDoorRepository;
+    private final LiveUpdateService liveUpdateService;
 
     /**
      * Creates a new furniture door.
      * Like a door factory, but more magical! 🏭✨
      */
     public FurnitureDoor create(FurnitureDoor furnitureDoor) {
-        return furnitureDoorRepository.save(furnitureDoor);
+        FurnitureDoor saved = furnitureDoorRepository.save(furnitureDoor);
+        liveUpdateService.stockChanged(ItemType.DOOR_ACCESSORY, saved.getId(), saved.getStockQuantity());
+        return saved;
     }
 
     /**
@@ -64,11 +69,15 @@ public class FurnitureDoorService {
      * Time for a door makeover! 💅
      */
     public FurnitureDoor update(Long id, FurnitureDoor furnitureDoor) {
-        if (!furnitureDoorRepository.existsById(id)) {
-            throw new FurnitureDoorNotFoundException(id);
-        }
+        Integer previousStock = furnitureDoorRepository.findById(id)
+            .map(FurnitureDoor::getStockQuantity)
+            .orElseThrow(() -> new FurnitureDoorNotFoundException(id));
         furnitureDoor.setId(id);
-        return furnitureDoorRepository.save(furnitureDoor);
+        FurnitureDoor saved = furnitureDoorRepository.save(furnitureDoor);
+        if (!Objects.equals(previousStock, saved.getStockQuantity())) {
+            liveUpdateService.stockChanged(ItemType.DOOR_ACCESSORY, id, saved.getStockQuantity());
+        }
+        return saved;
     }
 
     /**
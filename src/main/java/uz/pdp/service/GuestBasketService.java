@@ -0,0 +1,277 @@
+package uz.pdp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import uz.pdp.entity.Basket;
+import uz.pdp.entity.User;
+
+/**
+ * Baskets for visitors who haven't logged in yet.
+ *
+ * A guest is recognised by a cookie holding a random ID and its HMAC, so nobody
+ * can guess or forge their way into someone else's basket. The basket itself lives
+ * in a {@link GuestBasketStore} - no throwaway users, no rows in Postgres just for
+ * browsing. On login it is poured into the user's real basket. 🕵️‍♂️🛒
+ *
+ * @version 1.0
+ * @since 2025-02-21
+ */
+@Service
+public class GuestBasketService {
+    private static final Logger logger = LoggerFactory.getLogger(GuestBasketService.class);
+    public static final String COOKIE_NAME = "guest_basket";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int LOCK_STRIPES = 64;
+
+    private final GuestBasketStore store;
+    private final BasketStore basketStore;
+    private final SecretKeySpec signingKey;
+    private final Duration ttl;
+    // Read-modify-write of one guest's basket happens under one of these
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public GuestBasketService(GuestBasketStore store, BasketStore basketStore,
+                              @Value("${guest-basket.cookie-secret:${jwt.secret-key}}") String cookieSecret,
+                              @Value("${guest-basket.ttl-hours:72}") long ttlHours) {
+        this.store = store;
+        this.basketStore = basketStore;
+        this.signingKey = new SecretKeySpec(cookieSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.ttl = Duration.ofHours(ttlHours);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * The current guest's basket. Doesn't hand out a cookie - looking is free.
+     *
+     * @return Detached basket without a user; empty for new visitors
+     */
+    public Basket get() {
+        String guestId = guestIdFromCookie();
+        return view(guestId == null ? List.of() : store.load(guestId));
+    }
+
+    /**
+     * Adds an item, or more of it if it is already in the basket.
+     * Gives the visitor a guest cookie if they don't have one yet.
+     *
+     * @param line Item to add; its id is ignored
+     * @return Detached updated basket
+     */
+    public Basket add(BasketStore.Line line) {
+        String guestId = guestIdFromCookie();
+        if (guestId == null) {
+            guestId = UUID.randomUUID().toString();
+        }
+        // Every write restarts the TTL, so the cookie follows along
+        writeCookie(guestId, ttl);
+        return change(guestId, lines -> {
+            for (int i = 0; i < lines.size(); i++) {
+                BasketStore.Line existing = lines.get(i);
+                if (existing.type() == line.type() && Objects.equals(existing.itemId(), line.itemId())) {
+                    lines.set(i, existing.withQuantity(existing.quantity() + line.quantity()));
+                    return;
+                }
+            }
+            long nextId = lines.stream().mapToLong(BasketStore.Line::id).max().orElse(0) + 1;
+            lines.add(new BasketStore.Line(nextId, line.itemId(), line.type(), line.quantity(), line.price(),
+                    line.name(), line.image()));
+        });
+    }
+
+    /**
+     * Sets the quantity of a line; zero removes it.
+     *
+     * @param lineId Guest basket item ID
+     * @param quantity New quantity
+     * @return Detached updated basket
+     * @throws IllegalArgumentException if the line isn't in the guest's basket
+     */
+    public Basket updateQuantity(Long lineId, int quantity) {
+        return change(requireGuestId(), lines -> {
+            int index = indexOf(lines, lineId);
+            if (quantity == 0) {
+                lines.remove(index);
+            } else {
+                lines.set(index, lines.get(index).withQuantity(quantity));
+            }
+        });
+    }
+
+    /**
+     * Removes lines from the guest's basket.
+     *
+     * @param lineIds Guest basket item IDs
+     * @return Detached updated basket
+     * @throws IllegalArgumentException if a line isn't in the guest's basket
+     */
+    public Basket remove(Collection<Long> lineIds) {
+        return change(requireGuestId(), lines -> {
+            for (Long lineId : lineIds) {
+                lines.remove(indexOf(lines, lineId));
+            }
+        });
+    }
+
+    /**
+     * Empties the guest's basket.
+     */
+    public void clear() {
+        String guestId = guestIdFromCookie();
+        if (guestId != null) {
+            store.delete(guestId);
+        }
+    }
+
+    /**
+     * Moves the guest basket of the current request into the user's basket.
+     * Items already in there just get their quantities added up.
+     *
+     * @param user User who just logged in
+     */
+    public void mergeInto(User user) {
+        String guestId = guestIdFromCookie();
+        if (guestId == null) {
+            return;
+        }
+        List<BasketStore.Line> lines;
+        synchronized (lockFor(guestId)) {
+            lines = store.load(guestId);
+            store.delete(guestId);
+        }
+        for (BasketStore.Line line : lines) {
+            basketStore.add(user, line);
+        }
+        writeCookie("", Duration.ZERO);
+        if (!lines.isEmpty()) {
+            logger.info("Merged {} guest basket lines into the basket of user {}", lines.size(), user.getId());
+        }
+    }
+
+    private Basket change(String guestId, Consumer<List<BasketStore.Line>> change) {
+        synchronized (lockFor(guestId)) {
+            List<BasketStore.Line> lines = new ArrayList<>(store.load(guestId));
+            change.accept(lines);
+            store.save(guestId, lines);
+            return view(lines);
+        }
+    }
+
+    private String requireGuestId() {
+        String guestId = guestIdFromCookie();
+        if (guestId == null) {
+            throw new IllegalArgumentException("Basket item not found");
+        }
+        return guestId;
+    }
+
+    private Object lockFor(String guestId) {
+        return locks[Math.floorMod(guestId.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static int indexOf(List<BasketStore.Line> lines, Long lineId) {
+        for (int i = 0; i < lines.size(); i++) {
+            if (Objects.equals(lines.get(i).id(), lineId)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Basket item not found: " + lineId);
+    }
+
+    private static Basket view(List<BasketStore.Line> lines) {
+        long totalCents = lines.stream().mapToLong(BasketStore.Line::totalCents).sum();
+        return BasketStore.view(null, null, lines, totalCents);
+    }
+
+    private String guestIdFromCookie() {
+        return guestId(currentRequest().getRequest());
+    }
+
+    /**
+     * The guest this request comes from, going by a correctly signed cookie.
+     * Cookie value: {@code <guest id>.<HMAC of the id>}; anything else counts as no cookie.
+     *
+     * @return Guest ID, null if the request has no valid guest cookie
+     */
+    public String guestId(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return null;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                String value = cookie.getValue();
+                int dot = value.lastIndexOf('.');
+                if (dot > 0) {
+                    String guestId = value.substring(0, dot);
+                    byte[] signature = value.substring(dot + 1).getBytes(StandardCharsets.US_ASCII);
+                    if (MessageDigest.isEqual(signature, sign(guestId).getBytes(StandardCharsets.US_ASCII))) {
+                        return guestId;
+                    }
+                }
+                logger.debug("Ignoring guest basket cookie with a bad signature");
+            }
+        }
+        return null;
+    }
+
+    private void writeCookie(String guestId, Duration maxAge) {
+        ServletRequestAttributes attributes = currentRequest();
+        HttpServletResponse response = attributes.getResponse();
+        if (response == null) {
+            return;
+        }
+        ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, guestId.isEmpty() ? "" : guestId + "." + sign(guestId))
+                .path("/")
+                .httpOnly(true)
+                .secure(attributes.getRequest().isSecure())
+                .sameSite("Lax")
+                .maxAge(maxAge)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    private String sign(String guestId) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(guestId.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Can't sign guest basket cookie", e);
+        }
+    }
+
+    private static ServletRequestAttributes currentRequest() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes;
+        }
+        throw new IllegalStateException("Guest baskets need an HTTP request");
+    }
+}
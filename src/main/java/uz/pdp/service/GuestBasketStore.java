@@ -0,0 +1,40 @@
+package uz.pdp.service;
+
+import java.util.List;
+
+/**
+ * Where baskets of visitors who haven't logged in live.
+ *
+ * Guests never touch Postgres: their basket sits in Redis
+ * ({@code spring.data.redis.enabled: true}) or, without Redis, in this instance's
+ * memory. Either way it expires after {@code guest-basket.ttl-hours} of quiet,
+ * and {@link GuestBasketService} moves it into the real basket on login.
+ *
+ * @version 1.0
+ * @since 2025-02-21
+ */
+public interface GuestBasketStore {
+
+    /**
+     * The guest's basket lines.
+     *
+     * @param guestId ID from the guest cookie
+     * @return Lines, empty if the basket doesn't exist or expired
+     */
+    List<BasketStore.Line> load(String guestId);
+
+    /**
+     * Replaces the guest's basket and restarts its expiry clock.
+     *
+     * @param guestId ID from the guest cookie
+     * @param lines New basket lines
+     */
+    void save(String guestId, List<BasketStore.Line> lines);
+
+    /**
+     * Forgets the guest's basket.
+     *
+     * @param guestId ID from the guest cookie
+     */
+    void delete(String guestId);
+}
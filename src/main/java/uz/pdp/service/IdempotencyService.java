@@ -0,0 +1,279 @@
+package uz.pdp.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.ServletException;
+import uz.pdp.entity.IdempotencyRecord;
+import uz.pdp.exception.GlobalExceptionHandler.IdempotencyKeyException;
+import uz.pdp.repository.IdempotencyRecordRepository;
+
+/**
+ * Runs a request at most once per {@code (scope, owner, Idempotency-Key)} and
+ * replays its response to every retry.
+ *
+ * Duplicates that arrive while the first request is still running don't run in
+ * parallel: on this instance they wait for the in-flight execution and share its
+ * result (single-flight); on other instances the unique row in
+ * {@code idempotency_keys} stops them, and they poll until the outcome is stored.
+ * A double-click on "Checkout" makes one order and sends one email. 🎯
+ *
+ * Only successful outcomes are stored: a 2xx whose body doesn't say
+ * {@code "success": false} (the checkout endpoints report failures with a 200).
+ * Anything else frees the key, so a retry really runs again.
+ *
+ * An execution holds its key for {@code idempotency.lease-seconds}. If the instance
+ * running it dies, the next retry after the lease runs out takes the key over.
+ *
+ * @version 1.0
+ * @since 2025-02-19
+ */
+@Service
+public class IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMs;
+
+    @Value("${idempotency.lease-seconds:60}")
+    private long leaseSeconds;
+
+    public IdempotencyService(IdempotencyRecordRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * A finished response, as stored and replayed.
+     */
+    public record StoredResponse(int status, String contentType, String body) {
+    }
+
+    /**
+     * The response for a request, and whether it is a replay of an earlier execution.
+     */
+    public record Outcome(StoredResponse response, boolean replayed) {
+    }
+
+    /**
+     * The actual request handling.
+     */
+    @FunctionalInterface
+    public interface Execution {
+        StoredResponse run() throws IOException, ServletException;
+    }
+
+    private record Flight(String requestHash, CompletableFuture<StoredResponse> result) {
+    }
+
+    /**
+     * Runs the request, or hands back the response of the execution that already ran.
+     *
+     * @param scope Endpoint the key belongs to
+     * @param owner Who sent the request
+     * @param key Client's Idempotency-Key
+     * @param requestHash Hash of the request body, to catch keys reused for a different request
+     * @param execution Runs the request when this is the first time the key is seen
+     * @return Response to send back
+     * @throws IdempotencyKeyException if the key belongs to another request, or its first request is still running
+     */
+    public Outcome execute(String scope, String owner, String key, String requestHash, Execution execution)
+            throws IOException, ServletException {
+        String flightKey = scope + '\n' + owner + '\n' + key;
+        Flight mine = new Flight(requestHash, new CompletableFuture<>());
+        Flight running = inFlight.putIfAbsent(flightKey, mine);
+        if (running != null) {
+            checkSameRequest(running.requestHash(), requestHash);
+            logger.debug("Duplicate {} request joined the one in flight", scope);
+            return new Outcome(await(running.result()), true);
+        }
+        try {
+            Outcome outcome = lead(scope, owner, key, requestHash, execution);
+            mine.result().complete(outcome.response());
+            return outcome;
+        } catch (IOException | ServletException | RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, mine);
+        }
+    }
+
+    private Outcome lead(String scope, String owner, String key, String requestHash, Execution execution)
+            throws IOException, ServletException {
+        Optional<IdempotencyRecord> existing = repository.findByScopeAndOwnerAndIdempotencyKey(scope, owner, key);
+        if (existing.isPresent()) {
+            IdempotencyRecord record = existing.get();
+            LocalDateTime now = LocalDateTime.now();
+            if (record.getExpiresAt().isAfter(now)) {
+                checkSameRequest(record.getRequestHash(), requestHash);
+                if (record.getResponseStatus() != null) {
+                    return new Outcome(toResponse(record), true);
+                }
+                if (!leaseRanOut(record, now)) {
+                    // Started on another instance and still running there
+                    return new Outcome(pollUntilDone(scope, owner, key, requestHash), true);
+                }
+                LocalDateTime leaseUntil = now.plusSeconds(leaseSeconds);
+                if (repository.takeOver(record.getId(), now, leaseUntil) == 0) {
+                    // Another retry took it over first
+                    return new Outcome(pollUntilDone(scope, owner, key, requestHash), true);
+                }
+                logger.info("Took over {} key whose first execution never finished", scope);
+                record.setLeaseExpiresAt(leaseUntil);
+                return run(record, execution);
+            }
+            repository.delete(record);
+        }
+
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setScope(scope);
+        record.setOwner(owner);
+        record.setIdempotencyKey(key);
+        record.setRequestHash(requestHash);
+        record.setExpiresAt(LocalDateTime.now().plusHours(ttlHours));
+        record.setLeaseExpiresAt(LocalDateTime.now().plusSeconds(leaseSeconds));
+        try {
+            record = repository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance claimed the key a moment ago
+            return new Outcome(pollUntilDone(scope, owner, key, requestHash), true);
+        }
+        return run(record, execution);
+    }
+
+    private Outcome run(IdempotencyRecord record, Execution execution) throws IOException, ServletException {
+        StoredResponse response;
+        try {
+            response = execution.run();
+        } catch (IOException | ServletException | RuntimeException e) {
+            repository.delete(record);
+            throw e;
+        }
+        if (!isSuccess(response)) {
+            repository.delete(record);
+        } else {
+            record.setResponseStatus(response.status());
+            record.setResponseContentType(response.contentType());
+            record.setResponseBody(response.body());
+            repository.save(record);
+        }
+        return new Outcome(response, false);
+    }
+
+    private StoredResponse pollUntilDone(String scope, String owner, String key, String requestHash) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMs);
+        while (true) {
+            IdempotencyRecord record = repository.findByScopeAndOwnerAndIdempotencyKey(scope, owner, key)
+                    .orElseThrow(IdempotencyService::firstRequestFailed);
+            checkSameRequest(record.getRequestHash(), requestHash);
+            if (record.getResponseStatus() != null) {
+                return toResponse(record);
+            }
+            if (leaseRanOut(record, LocalDateTime.now())) {
+                // Whoever ran it is gone; the client's retry takes the key over
+                throw firstRequestFailed();
+            }
+            if (System.nanoTime() > deadline) {
+                throw stillRunning();
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw stillRunning();
+            }
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> result) {
+        try {
+            return result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw stillRunning();
+        } catch (ExecutionException e) {
+            throw firstRequestFailed();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw stillRunning();
+        }
+    }
+
+    /**
+     * Forgets expired outcomes and executions that were abandoned halfway.
+     */
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        int removed = repository.deleteExpired(LocalDateTime.now());
+        if (removed > 0) {
+            logger.info("Removed {} expired idempotency keys", removed);
+        }
+    }
+
+    private boolean isSuccess(StoredResponse response) {
+        if (response.status() < 200 || response.status() >= 300) {
+            return false;
+        }
+        if (response.body() == null || response.body().isBlank()) {
+            return true;
+        }
+        try {
+            JsonNode body = objectMapper.readTree(response.body());
+            return body.path("success").asBoolean(true);
+        } catch (JsonProcessingException e) {
+            // Not JSON, so no success flag to go by
+            return true;
+        }
+    }
+
+    private static boolean leaseRanOut(IdempotencyRecord record, LocalDateTime now) {
+        return record.getLeaseExpiresAt() == null || record.getLeaseExpiresAt().isBefore(now);
+    }
+
+    private static void checkSameRequest(String expectedHash, String requestHash) {
+        if (!expectedHash.equals(requestHash)) {
+            throw new IdempotencyKeyException("This Idempotency-Key was already used for a different request",
+                    HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+    }
+
+    private static StoredResponse toResponse(IdempotencyRecord record) {
+        return new StoredResponse(record.getResponseStatus(), record.getResponseContentType(), record.getResponseBody());
+    }
+
+    private static IdempotencyKeyException stillRunning() {
+        return new IdempotencyKeyException("A request with this Idempotency-Key is still being processed",
+                HttpStatus.CONFLICT);
+    }
+
+    private static IdempotencyKeyException firstRequestFailed() {
+        return new IdempotencyKeyException("The first request with this Idempotency-Key failed, please retry",
+                HttpStatus.CONFLICT);
+    }
+}
@@ -0,0 +1,155 @@
+package uz.pdp.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Collects image keys that are no longer referenced and deletes them in bulk.
+ *
+ * Keys enqueued inside a transaction only join the queue after that transaction
+ * commits - a rolled back delete leaves the images alone. A scheduled flush drains
+ * the queue in batches of up to 1000 keys - one DeleteObjects call on S3 - so deleting
+ * a door with 8 photos (24 objects with variants) costs one round trip, off the request
+ * thread. Keys that fail are retried on the next flushes before we give up and
+ * leave them to the orphan sweeper.
+ *
+ * @version 1.0
+ * @since 2025-02-12
+ */
+@Service
+public class ImageDeletionQueue {
+    private static final Logger logger = LoggerFactory.getLogger(ImageDeletionQueue.class);
+    private static final int MAX_KEYS_PER_REQUEST = 1000; // S3 DeleteObjects hard limit
+
+    private final ImageStore imageStore;
+    private final ImageDeliveryService imageDeliveryService;
+    private final ConcurrentLinkedQueue<PendingDeletion> queue = new ConcurrentLinkedQueue<>();
+
+    @Value("${images.deletion.max-attempts:5}")
+    private int maxAttempts;
+
+    public ImageDeletionQueue(ImageStore imageStore, ImageDeliveryService imageDeliveryService) {
+        this.imageStore = imageStore;
+        this.imageDeliveryService = imageDeliveryService;
+    }
+
+    private record PendingDeletion(String key, int attempts) {
+    }
+
+    /**
+     * Schedules keys for deletion.
+     * Inside a transaction they are queued on commit, otherwise right away.
+     *
+     * @param keys Storage keys to delete
+     */
+    public void enqueue(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+        List<String> snapshot = new ArrayList<>(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(snapshot);
+                }
+            });
+        } else {
+            add(snapshot);
+        }
+    }
+
+    private void add(List<String> keys) {
+        for (String key : keys) {
+            queue.add(new PendingDeletion(key, 0));
+        }
+        logger.debug("Queued {} image keys for deletion, {} pending", keys.size(), queue.size());
+    }
+
+    /**
+     * Number of keys waiting to be deleted.
+     *
+     * @return Current queue depth
+     */
+    public int pendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Drains the queue in delete batches.
+     * Runs on the scheduler thread, never on a request thread.
+     */
+    @Scheduled(fixedDelayString = "${images.deletion.flush-interval-ms:2000}")
+    public void flush() {
+        List<PendingDeletion> batch = new ArrayList<>(MAX_KEYS_PER_REQUEST);
+        Set<String> keysInBatch = new HashSet<>();
+        // Only drain what is there now - retries re-queued below wait for the next flush
+        int remaining = queue.size();
+        PendingDeletion next;
+        while (remaining-- > 0 && (next = queue.poll()) != null) {
+            // The same key can be queued twice (delete + sweeper) - send it once
+            if (keysInBatch.add(next.key())) {
+                batch.add(next);
+            }
+            if (batch.size() == MAX_KEYS_PER_REQUEST) {
+                deleteBatch(batch);
+                batch = new ArrayList<>(MAX_KEYS_PER_REQUEST);
+                keysInBatch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            deleteBatch(batch);
+        }
+    }
+
+    private void deleteBatch(List<PendingDeletion> batch) {
+        List<String> keys = batch.stream().map(PendingDeletion::key).toList();
+        Set<String> failed;
+        try {
+            failed = imageStore.deleteAll(keys);
+        } catch (Exception e) {
+            logger.warn("Failed to delete {} images: {}", keys.size(), e.getMessage());
+            failed = new HashSet<>(keys);
+        }
+        // Gone from the store means gone from the delivery cache too
+        Set<String> retryKeys = failed;
+        imageDeliveryService.evict(keys.stream().filter(key -> !retryKeys.contains(key)).toList());
+        // Partial failure: only the failed keys need another try
+        batch.stream().filter(pending -> retryKeys.contains(pending.key())).forEach(this::retry);
+    }
+
+    private void retry(PendingDeletion pending) {
+        int attempts = pending.attempts() + 1;
+        if (attempts >= maxAttempts) {
+            logger.error("Giving up on deleting {} after {} attempts, leaving it to the orphan sweeper",
+                    pending.key(), attempts);
+            return;
+        }
+        queue.add(new PendingDeletion(pending.key(), attempts));
+    }
+
+    /**
+     * Last flush on shutdown so queued keys aren't simply forgotten.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!queue.isEmpty()) {
+            logger.info("Flushing {} pending image deletions before shutdown", queue.size());
+            flush();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package uz.pdp.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Looks up images for the delivery endpoint and keeps the hot ones in memory.
+ *
+ * Image keys never change their content (UUID names on S3, content hashes on local
+ * disk), so whatever we learned about a key stays true until it is deleted:
+ * <ul>
+ *     <li>small images (thumbnails, catalog cards) live in an LRU of direct
+ *     ByteBuffers - a cache hit touches neither disk nor S3, and the bytes stay
+ *     off the heap so a full cache doesn't slow down GC;</li>
+ *     <li>for bigger images only the metadata and the store's own ETag are
+ *     remembered - a miss costs one metadata lookup, the bytes are streamed from
+ *     the store on every request.</li>
+ * </ul>
+ * The {@link ImageDeletionQueue} evicts keys once they are really gone. 🔥
+ *
+ * @version 1.0
+ * @since 2025-02-15
+ */
+@Service
+public class ImageDeliveryService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageDeliveryService.class);
+
+    private final ImageStore imageStore;
+    private final long maxCacheBytes;
+    private final long maxImageBytes;
+    private final int maxMetadataEntries;
+
+    // Both maps are access ordered, i.e. LRU; guarded by "this"
+    private final LinkedHashMap<String, ImageInfo> hotImages = new LinkedHashMap<>(256, 0.75f, true);
+    private final LinkedHashMap<String, ImageInfo> metadata = new LinkedHashMap<>(1024, 0.75f, true);
+    private long cachedBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ImageDeliveryService(ImageStore imageStore,
+                                @Value("${images.delivery.cache.max-bytes:67108864}") long maxCacheBytes,
+                                @Value("${images.delivery.cache.max-image-bytes:262144}") long maxImageBytes,
+                                @Value("${images.delivery.cache.max-metadata-entries:10000}") int maxMetadataEntries) {
+        this.imageStore = imageStore;
+        this.maxCacheBytes = maxCacheBytes;
+        this.maxImageBytes = Math.min(maxImageBytes, maxCacheBytes);
+        this.maxMetadataEntries = maxMetadataEntries;
+    }
+
+    /**
+     * Everything the endpoint needs to answer a request for one image.
+     *
+     * @param key Storage key
+     * @param size Size in bytes
+     * @param contentType MIME type, null if unknown
+     * @param etag Strong ETag: quoted SHA-256 of the content if cached, the store's ETag otherwise
+     * @param content Read-only direct buffer with the whole image, null if not cached
+     */
+    public record ImageInfo(String key, long size, String contentType, String etag, ByteBuffer content) {
+        public boolean isCached() {
+            return content != null;
+        }
+    }
+
+    /**
+     * Finds an image, loading it into the cache on first use.
+     *
+     * @param key Storage key
+     * @return Image info, or empty if there is no such image
+     * @throws IOException if the store can't be read
+     * @throws IllegalArgumentException if the key is not a valid key for the store
+     */
+    public Optional<ImageInfo> find(String key) throws IOException {
+        ImageInfo known = lookup(key);
+        if (known != null) {
+            hits.incrementAndGet();
+            return Optional.of(known);
+        }
+        misses.incrementAndGet();
+
+        Optional<ImageStore.StoredObject> stored = imageStore.stat(key);
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        ImageStore.StoredObject object = stored.get();
+        ImageInfo info = object.size() <= maxImageBytes ? loadSmall(object) : loadLarge(object);
+        remember(info);
+        return Optional.of(info);
+    }
+
+    /**
+     * Writes a byte range of an image, from memory if it is cached.
+     *
+     * @param info Image returned by {@link #find(String)}
+     * @param position First byte to write
+     * @param count Number of bytes to write
+     * @param target Channel to write into
+     * @throws IOException if writing fails
+     */
+    public void transferTo(ImageInfo info, long position, long count, WritableByteChannel target) throws IOException {
+        if (!info.isCached()) {
+            imageStore.transferTo(info.key(), position, count, target);
+            return;
+        }
+        // duplicate() gives this request its own position/limit over the shared bytes
+        ByteBuffer slice = info.content().duplicate();
+        slice.position((int) position);
+        slice.limit((int) (position + count));
+        while (slice.hasRemaining()) {
+            target.write(slice);
+        }
+    }
+
+    /**
+     * Forgets deleted images.
+     *
+     * @param keys Keys that no longer exist
+     */
+    public synchronized void evict(Collection<String> keys) {
+        for (String key : keys) {
+            ImageInfo removed = hotImages.remove(key);
+            if (removed != null) {
+                cachedBytes -= removed.size();
+            }
+            metadata.remove(key);
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    private synchronized ImageInfo lookup(String key) {
+        ImageInfo info = hotImages.get(key);
+        return info != null ? info : metadata.get(key);
+    }
+
+    private synchronized void remember(ImageInfo info) {
+        if (!info.isCached()) {
+            metadata.put(info.key(), info);
+            if (metadata.size() > maxMetadataEntries) {
+                Iterator<String> eldest = metadata.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+            return;
+        }
+        ImageInfo previous = hotImages.put(info.key(), info);
+        if (previous != null) {
+            // Two requests raced to load the same image - count it once
+            cachedBytes -= previous.size();
+        }
+        cachedBytes += info.size();
+        Iterator<Map.Entry<String, ImageInfo>> eldest = hotImages.entrySet().iterator();
+        while (cachedBytes > maxCacheBytes && eldest.hasNext()) {
+            ImageInfo evicted = eldest.next().getValue();
+            eldest.remove();
+            cachedBytes -= evicted.size();
+        }
+    }
+
+    private ImageInfo loadSmall(ImageStore.StoredObject object) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) object.size());
+        imageStore.transferTo(object.key(), 0, object.size(), Channels.newChannel(out));
+        byte[] bytes = out.toByteArray();
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        logger.debug("Cached image {} ({} bytes)", object.key(), bytes.length);
+        return new ImageInfo(object.key(), bytes.length, object.contentType(),
+                etagOf(sha256().digest(bytes)), buffer.asReadOnlyBuffer());
+    }
+
+    // No reading at all - the store already knows an ETag for the content
+    private ImageInfo loadLarge(ImageStore.StoredObject object) {
+        String etag = object.etag() != null ? object.etag()
+                : "\"" + Long.toHexString(object.lastModified().toEpochMilli())
+                + "-" + Long.toHexString(object.size()) + "\"";
+        return new ImageInfo(object.key(), object.size(), object.contentType(), etag, null);
+    }
+
+    private static String etagOf(byte[] hash) {
+        return "\"" + HexFormat.of().formatHex(hash) + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
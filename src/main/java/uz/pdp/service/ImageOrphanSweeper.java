@@ -0,0 +1,110 @@
+package uz.pdp.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import uz.pdp.enums.ImageVariant;
+import uz.pdp.repository.DoorRepository;
+import uz.pdp.repository.FurnitureDoorRepository;
+import uz.pdp.repository.MouldingRepository;
+
+/**
+ * Periodically reconciles the image store against the database.
+ *
+ * Anything under doors/, mouldings/ or accessories/ that no door, moulding or
+ * accessory references any more (and isn't a variant of something referenced)
+ * is handed to the {@link ImageDeletionQueue}. Fresh objects are left alone for a
+ * grace period, so uploads whose entity is still being saved don't get swept.
+ *
+ * Catches everything the regular delete path missed: failed retries, crashes
+ * between commit and flush, entities deleted without their images - and, on the
+ * content-addressed local store, it is the only thing that deletes files at all.
+ *
+ * @version 1.0
+ * @since 2025-02-12
+ */
+@Service
+public class ImageOrphanSweeper {
+    private static final Logger logger = LoggerFactory.getLogger(ImageOrphanSweeper.class);
+    private static final String[] SWEPT_PREFIXES = {"doors/", "mouldings/", "accessories/"};
+
+    private final ImageStore imageStore;
+    private final ImageStorageService imageStorageService;
+    private final ImageDeletionQueue imageDeletionQueue;
+    private final DoorRepository doorRepository;
+    private final MouldingRepository mouldingRepository;
+    private final FurnitureDoorRepository furnitureDoorRepository;
+
+    @Value("${images.sweeper.grace-period-hours:24}")
+    private long gracePeriodHours;
+
+    public ImageOrphanSweeper(ImageStore imageStore, ImageStorageService imageStorageService,
+                              ImageDeletionQueue imageDeletionQueue, DoorRepository doorRepository,
+                              MouldingRepository mouldingRepository,
+                              FurnitureDoorRepository furnitureDoorRepository) {
+        this.imageStore = imageStore;
+        this.imageStorageService = imageStorageService;
+        this.imageDeletionQueue = imageDeletionQueue;
+        this.doorRepository = doorRepository;
+        this.mouldingRepository = mouldingRepository;
+        this.furnitureDoorRepository = furnitureDoorRepository;
+    }
+
+    /**
+     * Lists the store and queues every unreferenced object older than the grace period.
+     *
+     * @return Number of objects queued for deletion
+     */
+    @Scheduled(cron = "${images.sweeper.cron:0 30 3 * * *}")
+    @Transactional(readOnly = true)
+    public int sweep() {
+        Set<String> referencedKeys = loadReferencedKeys();
+        Instant cutoff = Instant.now().minus(Duration.ofHours(gracePeriodHours));
+        List<String> orphans = new ArrayList<>();
+        int scanned = 0;
+
+        for (String prefix : SWEPT_PREFIXES) {
+            for (ImageStore.StoredObject object : imageStore.list(prefix)) {
+                scanned++;
+                if (!referencedKeys.contains(object.key()) && object.lastModified().isBefore(cutoff)) {
+                    orphans.add(object.key());
+                }
+            }
+        }
+
+        logger.info("Orphan sweep scanned {} objects, {} referenced keys, {} orphans queued",
+                scanned, referencedKeys.size(), orphans.size());
+        imageDeletionQueue.enqueue(orphans);
+        return orphans.size();
+    }
+
+    private Set<String> loadReferencedKeys() {
+        List<String> urls = new ArrayList<>();
+        urls.addAll(doorRepository.findAllImageUrls());
+        urls.addAll(mouldingRepository.findAllImageUrls());
+        urls.addAll(furnitureDoorRepository.findAllImageUrls());
+
+        Set<String> keys = new HashSet<>();
+        for (String url : urls) {
+            String key = imageStorageService.resolveKey(url);
+            if (key != null) {
+                keys.add(key);
+                for (ImageVariant variant : ImageVariant.values()) {
+                    keys.add(variant.deriveFrom(key));
+                }
+            }
+        }
+        return keys;
+    }
+}
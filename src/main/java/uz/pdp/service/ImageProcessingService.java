@@ -0,0 +1,160 @@
+package uz.pdp.service;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import uz.pdp.enums.ImageVariant;
+
+/**
+ * Turns one uploaded image into the fixed set of {@link ImageVariant} renditions.
+ *
+ * The source is decoded exactly once, every variant is scaled from that single
+ * bitmap and re-encoded from raw pixels - so EXIF, GPS tags and other metadata
+ * never make it into a variant. Pure CPU work, no storage calls: hand it bytes,
+ * get bytes back.
+ *
+ * @version 1.0
+ * @since 2025-02-10
+ */
+@Service
+public class ImageProcessingService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageProcessingService.class);
+    private static final String FALLBACK_FORMAT = "jpeg";
+    private static final String FALLBACK_CONTENT_TYPE = "image/jpeg";
+
+    private final float quality;
+    private final boolean webpSupported;
+
+    public ImageProcessingService(@Value("${images.variants.quality:0.8}") float quality) {
+        this.quality = quality;
+        this.webpSupported = ImageIO.getImageWritersByFormatName(ImageVariant.FORMAT).hasNext();
+        if (!webpSupported) {
+            logger.warn("No WebP ImageIO writer found - variants will be encoded as JPEG");
+        }
+    }
+
+    /**
+     * Encoded bytes of a single variant.
+     *
+     * @param bytes Encoded image
+     * @param contentType MIME type of the encoded image
+     */
+    public record ProcessedImage(byte[] bytes, String contentType) {
+    }
+
+    /**
+     * Decodes the source image once and renders every variant from it.
+     *
+     * @param source Raw bytes of the uploaded image
+     * @return Encoded variants keyed by variant type
+     * @throws IllegalArgumentException if the bytes are not a readable image
+     * @throws IOException if encoding fails
+     */
+    public Map<ImageVariant, ProcessedImage> process(byte[] source) throws IOException {
+        BufferedImage original = ImageIO.read(new ByteArrayInputStream(source));
+        if (original == null) {
+            throw new IllegalArgumentException("Uploaded file is not a readable image");
+        }
+
+        Map<ImageVariant, ProcessedImage> variants = new EnumMap<>(ImageVariant.class);
+        for (ImageVariant variant : ImageVariant.values()) {
+            BufferedImage scaled = scaleDown(original, variant.getMaxDimension());
+            variants.put(variant, encode(scaled));
+        }
+        logger.debug("Rendered {} variants from {}x{} source", variants.size(),
+                original.getWidth(), original.getHeight());
+        return variants;
+    }
+
+    /**
+     * Scales an image so that its longest side fits into maxDimension.
+     * Never upscales; halves repeatedly first so big downscales stay sharp.
+     */
+    private BufferedImage scaleDown(BufferedImage source, int maxDimension) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double ratio = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        BufferedImage current = source;
+        int currentWidth = width;
+        int currentHeight = height;
+        do {
+            currentWidth = Math.max(targetWidth, currentWidth / 2);
+            currentHeight = Math.max(targetHeight, currentHeight / 2);
+            current = draw(current, currentWidth, currentHeight);
+        } while (currentWidth != targetWidth || currentHeight != targetHeight);
+        return current;
+    }
+
+    private BufferedImage draw(BufferedImage source, int width, int height) {
+        // Always redraw into a plain RGB bitmap: drops palettes, alpha and any attached metadata
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(java.awt.Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private ProcessedImage encode(BufferedImage image) throws IOException {
+        String format = webpSupported ? ImageVariant.FORMAT : FALLBACK_FORMAT;
+        String contentType = webpSupported ? ImageVariant.CONTENT_TYPE : FALLBACK_CONTENT_TYPE;
+
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        if (!writers.hasNext()) {
+            throw new IOException("No ImageIO writer available for " + format);
+        }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), lossyParam(writer));
+        } finally {
+            writer.dispose();
+        }
+        return new ProcessedImage(out.toByteArray(), contentType);
+    }
+
+    private ImageWriteParam lossyParam(ImageWriter writer) {
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        if (param.canWriteCompressed()) {
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            String[] types = param.getCompressionTypes();
+            if (types != null && types.length > 0) {
+                param.setCompressionType(Arrays.stream(types)
+                        .filter(type -> type.toLowerCase().contains("lossy"))
+                        .findFirst()
+                        .orElse(types[0]));
+            }
+            param.setCompressionQuality(quality);
+        }
+        return param;
+    }
+}
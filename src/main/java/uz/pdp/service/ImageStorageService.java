@@ -1,28 +1,59 @@
 package uz.pdp.service;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
-import org.springframework.beans.factory.annotation.Value;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
-import com.amazonaws.AmazonServiceException;
-import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.model.ObjectMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import uz.pdp.enums.ImageVariant;
+
 /**
- * Service class for managing image storage operations using Amazon S3.
+ * Service class for managing image storage operations.
  * Handles uploading, retrieving, and deleting images for doors and other
  * entities.
  * Implements secure file handling and proper error management.
  *
+ * Every upload also gets its {@link ImageVariant} renditions (thumbnail, medium)
+ * stored next to the original. The original goes up synchronously, the variants
+ * are rendered on the bounded image worker pool so the upload returns right away.
+ * Inside a transaction the rendering only starts once it commits - an item that
+ * never got saved doesn't need thumbnails.
+ *
+ * The bytes themselves go to an {@link ImageStore} - S3 by default, local disk with
+ * {@code images.storage.type=local}.
+ *
+ * Batches of images are uploaded concurrently on the upload pool, each one streamed
+ * straight from the multipart temp file into the store. It's all or nothing:
+ * if one image fails, the ones that already made it are deleted again.
+ *
+ * Deletions don't hit the store inline: keys go to the {@link ImageDeletionQueue}, which
+ * removes them in batches once the surrounding transaction commits.
+ *
  * @version 1.0
  * @since 2025-01-17
  */
 @Service
+@Timed("doorshop.service")
 public class ImageStorageService {
     private static final Logger logger = LoggerFactory.getLogger(ImageStorageService.class);
     private static final String DOOR_IMAGES_PREFIX = "doors/";
@@ -33,17 +64,33 @@ public class ImageStorageService {
             "image/jpeg", "image/png", "image/gif"
     };
 
-    private final AmazonS3 s3Client;
+    private static final String VARIANT_CACHE_CONTROL = "public, max-age=31536000, immutable";
 
-    @Value("${aws.s3.bucket}")
-    private String bucketName;
+    private final ImageStore imageStore;
+    private final ImageProcessingService imageProcessingService;
+    private final Executor imageProcessingExecutor;
+    private final Executor imageUploadExecutor;
+    private final ImageDeletionQueue imageDeletionQueue;
 
-    public ImageStorageService(AmazonS3 s3Client) {
-        this.s3Client = s3Client;
+    /**
+     * Originals whose variants are scheduled or being rendered, mapped to whether
+     * they have been discarded in the meantime.
+     */
+    private final ConcurrentMap<String, Boolean> pendingVariants = new ConcurrentHashMap<>();
+
+    public ImageStorageService(ImageStore imageStore, ImageProcessingService imageProcessingService,
+                               @Qualifier("imageProcessingExecutor") Executor imageProcessingExecutor,
+                               @Qualifier("imageUploadExecutor") Executor imageUploadExecutor,
+                               ImageDeletionQueue imageDeletionQueue) {
+        this.imageStore = imageStore;
+        this.imageProcessingService = imageProcessingService;
+        this.imageProcessingExecutor = imageProcessingExecutor;
+        this.imageUploadExecutor = imageUploadExecutor;
+        this.imageDeletionQueue = imageDeletionQueue;
     }
 
     /**
-     * Uploads a door image to Amazon S3.
+     * Uploads a door image.
      * Because doors need their glamour shots too! 
      *
      * @param file Image file to upload
@@ -56,7 +103,7 @@ public class ImageStorageService {
     }
 
     /**
-     * Uploads a moulding image to Amazon S3.
+     * Uploads a moulding image.
      * Because mouldings need their own spotlight too! 
      *
      * @param file Image file to upload
@@ -69,7 +116,7 @@ public class ImageStorageService {
     }
 
     /**
-     * Uploads a door accessory image to Amazon S3.
+     * Uploads a door accessory image.
      * Because accessories need to look their best! 
      *
      * @param file Image file to upload
@@ -81,32 +128,219 @@ public class ImageStorageService {
         return storeImage(file, ACCESSORY_IMAGES_PREFIX);
     }
 
+    /**
+     * Uploads several door images at once.
+     * The whole photo shoot in one go - or none of it! 
+     *
+     * @param files Image files to upload
+     * @return URLs of the uploaded images, in the same order as the files
+     * @throws IllegalArgumentException if any file is invalid (nothing is uploaded then)
+     * @throws IOException              if any upload fails (already uploaded images are removed)
+     */
+    public List<String> storeDoorImages(List<MultipartFile> files) throws IOException {
+        return storeImages(files, DOOR_IMAGES_PREFIX);
+    }
+
+    /**
+     * Uploads several moulding images at once.
+     *
+     * @param files Image files to upload
+     * @return URLs of the uploaded images, in the same order as the files
+     * @throws IllegalArgumentException if any file is invalid (nothing is uploaded then)
+     * @throws IOException              if any upload fails (already uploaded images are removed)
+     */
+    public List<String> storeMouldingImages(List<MultipartFile> files) throws IOException {
+        return storeImages(files, MOULDING_IMAGES_PREFIX);
+    }
+
     private String storeImage(MultipartFile file, String prefix) throws IOException {
-        validateFile(file);
+        return storeImages(List.of(file), prefix).get(0);
+    }
 
-        String filename = generateUniqueFilename(file);
-        String key = prefix + filename;
+    private List<String> storeImages(List<MultipartFile> files, String prefix) throws IOException {
+        if (files == null || files.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // Validate everything up front - no point uploading 7 photos to reject the 8th
+        files.forEach(this::validateFile);
+
+        List<CompletableFuture<String>> uploads = new ArrayList<>();
+        for (MultipartFile file : files) {
+            uploads.add(CompletableFuture.supplyAsync(() -> uploadOriginal(file, prefix), imageUploadExecutor));
+        }
 
         try {
-            logger.info("Uploading image to {}: {}", prefix, filename);
-            ObjectMetadata metadata = new ObjectMetadata();
-            metadata.setContentType(file.getContentType());
-            metadata.setContentLength(file.getSize());
+            // allOf completes only once every upload is done, successful or not
+            CompletableFuture.allOf(uploads.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            List<String> uploadedKeys = new ArrayList<>();
+            for (CompletableFuture<String> upload : uploads) {
+                if (!upload.isCompletedExceptionally()) {
+                    uploadedKeys.add(upload.join());
+                }
+            }
+            rollback(uploadedKeys);
+            Throwable cause = e.getCause() instanceof UncheckedIOException
+                    ? e.getCause().getCause() : e.getCause();
+            logger.error("Failed to upload {} images to {}: {}", files.size(), prefix, cause.getMessage());
+            throw new IOException("Failed to upload image", cause);
+        }
 
-            s3Client.putObject(bucketName, key, file.getInputStream(), metadata);
-            String imageUrl = s3Client.getUrl(bucketName, key).toString();
+        List<String> imageUrls = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            String key = uploads.get(i).join();
+            imageUrls.add(imageStore.urlFor(key));
+            scheduleVariants(key, files.get(i));
+        }
+        logger.info("Successfully uploaded {} images to {}", imageUrls.size(), prefix);
+        return imageUrls;
+    }
 
-            logger.info("Successfully uploaded image to {}: {}", prefix, filename);
-            return imageUrl;
-        } catch (AmazonServiceException e) {
-            logger.error("Failed to upload image to {}: {}", prefix, e.getMessage());
-            throw new IOException("Failed to upload image to S3", e);
+    /**
+     * Streams one original image into the store. Runs on the upload pool.
+     *
+     * @param file Image file to upload
+     * @param prefix Folder to store it in
+     * @return Key the image was stored under
+     */
+    private String uploadOriginal(MultipartFile file, String prefix) {
+        logger.info("Uploading image {} to {}", file.getOriginalFilename(), prefix);
+        try (InputStream input = file.getInputStream()) {
+            return imageStore.store(prefix, extensionOf(file), input, file.getSize(), file.getContentType());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Hands the original over to the variant renderer.
+     * The multipart temp file is gone once the request ends, so the bytes are read now,
+     * but inside a transaction the rendering waits for the commit. On a rollback the
+     * original is discarded and its variants are never written.
+     */
+    private void scheduleVariants(String key, MultipartFile file) {
+        byte[] bytes;
+        try {
+            bytes = file.getBytes();
+        } catch (IOException e) {
+            logger.error("Failed to read image {} for variant rendering: {}", key, e.getMessage());
+            return;
+        }
+        pendingVariants.put(key, false);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submitVariants(key, bytes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    submitVariants(key, bytes);
+                } else {
+                    pendingVariants.remove(key);
+                }
+            }
+        });
+    }
+
+    private void submitVariants(String key, byte[] bytes) {
+        try {
+            imageProcessingExecutor.execute(() -> storeVariants(key, bytes));
+        } catch (RejectedExecutionException e) {
+            pendingVariants.remove(key);
+            logger.error("Image workers are saturated, no variants for image {}", key);
+        }
+    }
+
+    /**
+     * Compensates a failed batch by deleting the originals that did make it into the store.
+     * Variants are only scheduled after the whole batch succeeds, so a failed batch has none.
+     *
+     * @param keys Keys of the uploaded images
+     */
+    private void rollback(List<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (imageStore.isContentAddressed()) {
+            // The same bytes may belong to an existing item - the orphan sweeper sorts it out
+            logger.info("Leaving {} uploaded images to the orphan sweeper", keys.size());
+            return;
+        }
+        Set<String> failed = imageStore.deleteAll(keys);
+        if (failed.isEmpty()) {
+            logger.info("Rolled back {} uploaded images", keys.size());
+        } else {
+            logger.error("Failed to roll back uploaded images {}", failed);
+        }
+    }
+
+    /**
+     * Removes freshly uploaded images when the entity they were meant for could not be saved.
+     * Variants that are already stored are removed with them. Variants that are still
+     * waiting for the commit or being rendered are never written, or dropped by the
+     * renderer as soon as it is done.
+     *
+     * @param imageUrls URLs returned by one of the store methods
+     */
+    public void discardUploads(List<String> imageUrls) {
+        List<String> rendered = new ArrayList<>();
+        List<String> pending = new ArrayList<>();
+        for (String url : imageUrls) {
+            String key = extractKeyFromUrl(url);
+            if (key == null) {
+                continue;
+            }
+            // Atomic with the renderer's final remove(): either it sees the flag, or we see it gone
+            if (pendingVariants.computeIfPresent(key, (k, discarded) -> true) == null) {
+                rendered.add(key);
+            } else {
+                pending.add(key);
+            }
+        }
+        List<String> keys = withVariants(rendered);
+        keys.addAll(pending);
+        rollback(keys);
+    }
+
+    /**
+     * Renders and uploads all variants of an already stored original.
+     * Runs on the image worker pool; failures are logged and never reach the uploader,
+     * the original is still there and clients can fall back to it.
+     * If the original is discarded while this runs, whatever was written is deleted again.
+     *
+     * @param originalKey Key of the original image
+     * @param bytes Raw bytes of the original image
+     */
+    private void storeVariants(String originalKey, byte[] bytes) {
+        List<String> written = new ArrayList<>();
+        try {
+            if (Boolean.TRUE.equals(pendingVariants.get(originalKey))) {
+                logger.info("Image {} was discarded, skipping its variants", originalKey);
+                return;
+            }
+            Map<ImageVariant, ImageProcessingService.ProcessedImage> variants = imageProcessingService.process(bytes);
+            for (Map.Entry<ImageVariant, ImageProcessingService.ProcessedImage> entry : variants.entrySet()) {
+                String variantKey = entry.getKey().deriveFrom(originalKey);
+                ImageProcessingService.ProcessedImage image = entry.getValue();
+                // Keys are never rewritten, so browsers and CDNs may keep them forever
+                imageStore.write(variantKey, image.bytes(), image.contentType(), VARIANT_CACHE_CONTROL);
+                written.add(variantKey);
+            }
+            logger.info("Stored {} variants for image: {}", variants.size(), originalKey);
+        } catch (Exception e) {
+            logger.error("Failed to store variants for image {}: {}", originalKey, e.getMessage());
+        } finally {
+            if (Boolean.TRUE.equals(pendingVariants.remove(originalKey)) && !written.isEmpty()) {
+                logger.info("Image {} was discarded while rendering, removing its variants", originalKey);
+                rollback(written);
+            }
         }
     }
 
     /**
      * Validates file properties including size and content type.
-     * Because we can't let just any file sneak into our S3 bucket! 
+     * Because we can't let just any file sneak into our storage! 
      * 
      * Think of this as our bouncer - checking IDs and making sure no troublemakers
      * get in.
@@ -168,49 +402,103 @@ public class ImageStorageService {
     }
 
     /**
-     * Generates a unique filename for the uploaded file.
+     * Extension of the uploaded file, dot included - the store picks the name itself.
      *
      * @param file Original file
-     * @return Generated unique filename
+     * @return Extension such as ".jpg", or empty if there is none
      */
-    private String generateUniqueFilename(MultipartFile file) {
+    private String extensionOf(MultipartFile file) {
         String originalFilename = file.getOriginalFilename();
         String extension = "";
         if (originalFilename != null && originalFilename.contains(".")) {
             extension = originalFilename.substring(originalFilename.lastIndexOf("."));
         }
-        return UUID.randomUUID() + extension;
+        return extension;
     }
 
     /**
-     * Deletes an image from Amazon S3.
+     * Deletes an image (and its variants) from storage.
+     * The actual delete happens asynchronously, after the current transaction commits.
      *
      * @param imageUrl URL of the image to delete
      * @throws IllegalArgumentException if URL is invalid
      */
     public void deleteImage(String imageUrl) {
-        try {
-            String key = extractKeyFromUrl(imageUrl);
-            if (key == null) {
-                logger.info("External URL detected, skipping deletion: {}", imageUrl);
-                return;
+        String key = extractKeyFromUrl(imageUrl);
+        if (key == null) {
+            logger.info("External URL detected, skipping deletion: {}", imageUrl);
+            return;
+        }
+        logger.info("Deleting image with key: {}", key);
+        enqueueDeletion(List.of(key));
+    }
+
+    /**
+     * Deletes several images (and their variants) from storage in one go.
+     * Invalid and external URLs are skipped; the rest is deleted in batches
+     * after the current transaction commits.
+     *
+     * @param imageUrls URLs of the images to delete
+     */
+    public void deleteImages(Collection<String> imageUrls) {
+        if (imageUrls == null || imageUrls.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        for (String url : imageUrls) {
+            try {
+                String key = extractKeyFromUrl(url);
+                if (key != null) {
+                    keys.add(key);
+                }
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping deletion of invalid image URL: {}", url);
             }
-            logger.info("Deleting image with key: {}", key);
+        }
+        logger.info("Deleting {} images", keys.size());
+        enqueueDeletion(keys);
+    }
 
-            s3Client.deleteObject(bucketName, key);
-            logger.info("Successfully deleted image: {}", key);
-        } catch (AmazonServiceException e) {
-            logger.error("Failed to delete image: {}", e.getMessage());
-            throw new IllegalStateException("Failed to delete image from S3", e);
+    private void enqueueDeletion(List<String> keys) {
+        if (imageStore.isContentAddressed()) {
+            // Identical uploads share a file - only the sweeper knows whether anyone still uses it
+            logger.debug("Content-addressed store, leaving {} images to the orphan sweeper", keys.size());
+            return;
         }
+        imageDeletionQueue.enqueue(withVariants(keys));
     }
 
     /**
-     * Extracts the S3 key from a full URL.
+     * Resolves the storage key behind one of our image URLs.
+     *
+     * @param imageUrl URL of the image
+     * @return Storage key, or null for external or invalid URLs
+     */
+    public String resolveKey(String imageUrl) {
+        try {
+            return extractKeyFromUrl(imageUrl);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private List<String> withVariants(List<String> keys) {
+        List<String> all = new ArrayList<>(keys.size() * (ImageVariant.values().length + 1));
+        for (String key : keys) {
+            all.add(key);
+            for (ImageVariant variant : ImageVariant.values()) {
+                all.add(variant.deriveFrom(key));
+            }
+        }
+        return all;
+    }
+
+    /**
+     * Extracts the storage key from a full URL.
      * Because URLs are like treasure maps - we need to know where X marks the spot! 
      *
-     * @param url Full S3 URL
-     * @return Extracted key
+     * @param url Full image URL
+     * @return Extracted key, or null for external URLs
      * @throws IllegalArgumentException if URL is invalid
      */
     private String extractKeyFromUrl(String url) {
@@ -219,33 +507,26 @@ public class ImageStorageService {
                 throw new IllegalArgumentException("Empty URL provided");
             }
 
-            // Handle external URLs (non-S3)
-            if (!url.contains("amazonaws.com")) {
+            String path = imageStore.keyOf(url);
+            if (path == null) {
+                // Handle external URLs (Unsplash, seeded data)
                 logger.info("External URL detected, skipping deletion: {}", url);
                 return null;
             }
 
-            // Extract the path after the domain for S3 URLs
-            String path;
-            if (url.contains(".amazonaws.com/")) {
-                path = url.split(".amazonaws.com/")[1];
-            } else {
-                throw new IllegalArgumentException("Invalid S3 URL format: missing amazonaws.com domain");
-            }
-
             // Validate the path contains our expected prefix
             if (!path.startsWith(MOULDING_IMAGES_PREFIX) && 
                 !path.startsWith(DOOR_IMAGES_PREFIX) && 
                 !path.startsWith(ACCESSORY_IMAGES_PREFIX)) {
                 throw new IllegalArgumentException(
-                    "Invalid S3 URL format: must be in mouldings/, doors/, or accessories/ directory");
+                    "Invalid image URL format: must be in mouldings/, doors/, or accessories/ directory");
             }
 
             logger.info("Successfully extracted key from URL: {}", path);
             return path;
         } catch (Exception e) {
             logger.error("Failed to extract key from URL: {}", url);
-            throw new IllegalArgumentException("Invalid S3 URL: " + e.getMessage());
+            throw new IllegalArgumentException("Invalid image URL: " + e.getMessage());
         }
     }
 }
\ No newline at end of file
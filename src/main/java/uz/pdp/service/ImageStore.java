@@ -0,0 +1,139 @@
+package uz.pdp.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Where image bytes actually live.
+ *
+ * {@link ImageStorageService} decides what gets stored (validation, variants,
+ * rollback, deletion queue); an ImageStore only knows how to put, read, list and
+ * delete objects by key. Pick one with {@code images.storage.type}:
+ * {@code s3} (default) or {@code local} for on-prem boxes and AWS-free test runs.
+ *
+ * Keys always look like {@code doors/<name>.<ext>} - the folder is ours, the
+ * name is the backend's business.
+ *
+ * @version 1.0
+ * @since 2025-02-14
+ */
+public interface ImageStore {
+
+    /**
+     * Metadata of one stored object.
+     *
+     * @param key Storage key
+     * @param size Size in bytes
+     * @param lastModified Last write time
+     * @param contentType MIME type, null if unknown
+     * @param etag Strong ETag the backend keeps for the content, quoted; null if unknown
+     */
+    record StoredObject(String key, long size, Instant lastModified, String contentType, String etag) {
+    }
+
+    /**
+     * Stores a new original under a name the backend picks.
+     *
+     * @param prefix Folder, e.g. {@code doors/}
+     * @param extension File extension including the dot, may be empty
+     * @param input Image bytes, read exactly once
+     * @param length Number of bytes in input
+     * @param contentType MIME type of the image
+     * @return Key the image was stored under
+     * @throws IOException if the write fails
+     */
+    String store(String prefix, String extension, InputStream input, long length, String contentType)
+            throws IOException;
+
+    /**
+     * Stores bytes under an exact key, overwriting whatever was there.
+     * Used for variants, whose keys are derived from the original.
+     *
+     * @param key Storage key
+     * @param bytes Content
+     * @param contentType MIME type
+     * @param cacheControl Cache-Control to serve the object with, may be null
+     * @throws IOException if the write fails
+     */
+    void write(String key, byte[] bytes, String contentType, String cacheControl) throws IOException;
+
+    /**
+     * Deletes objects in as few calls as the backend allows.
+     *
+     * @param keys Keys to delete; missing keys count as deleted
+     * @return Keys that could not be deleted and are worth retrying
+     */
+    Set<String> deleteAll(Collection<String> keys);
+
+    /**
+     * Lists everything below a folder.
+     *
+     * @param prefix Folder, e.g. {@code doors/}
+     * @return Every object under the prefix
+     */
+    List<StoredObject> list(String prefix);
+
+    /**
+     * Looks up a single object.
+     *
+     * @param key Storage key
+     * @return Metadata, or empty if there is no such object
+     */
+    Optional<StoredObject> stat(String key);
+
+    /**
+     * Copies a byte range of an object into a channel.
+     *
+     * @param key Storage key
+     * @param position First byte to copy
+     * @param count Number of bytes to copy
+     * @param target Channel to copy into
+     * @throws IOException if reading or writing fails
+     */
+    void transferTo(String key, long position, long count, WritableByteChannel target) throws IOException;
+
+    /**
+     * The file behind a key, for backends that keep objects on local disk.
+     * Lets the servlet container send it with sendfile.
+     *
+     * @param key Storage key
+     * @return Path of the file, or empty for remote backends
+     */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    /**
+     * Public URL of a key.
+     *
+     * @param key Storage key
+     * @return URL clients can download the object from
+     */
+    String urlFor(String key);
+
+    /**
+     * Reverse of {@link #urlFor(String)}.
+     *
+     * @param url Image URL
+     * @return Key, or null if the URL does not belong to this store
+     */
+    String keyOf(String url);
+
+    /**
+     * Whether identical uploads end up under the same key.
+     * Such keys may be shared by several entities, so deleting one entity must
+     * not delete the file - only the reference-aware orphan sweeper may.
+     *
+     * @return true for content-addressed backends
+     */
+    default boolean isContentAddressed() {
+        return false;
+    }
+}
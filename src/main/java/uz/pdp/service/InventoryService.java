@@ -0,0 +1,377 @@
+package uz.pdp.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import uz.pdp.entity.BasketItem;
+import uz.pdp.entity.StockReservation;
+import uz.pdp.enums.ItemType;
+import uz.pdp.enums.ReservationStatus;
+import uz.pdp.exception.ConflictException;
+import uz.pdp.repository.FurnitureDoorRepository;
+import uz.pdp.repository.MouldingRepository;
+import uz.pdp.repository.StockReservationRepository;
+
+/**
+ * Stock bookkeeping for mouldings and door accessories.
+ * Doors are made to order, so they never run out. 🚪♾️
+ *
+ * Stock is only ever taken with a conditional {@code UPDATE ... WHERE qty >= :n}:
+ * no read-modify-write, so concurrent checkouts can't sell the same last piece.
+ * A basket in checkout holds its stock for a while ({@link StockReservation});
+ * the order commits the hold, and the sweeper puts abandoned holds back.
+ *
+ * Hot items (a flash sale, say) would make every checkout queue on the same row
+ * lock, so they get a {@link StripedStockCounter} instead: the counter takes a
+ * chunk of stock from the database in one update and hands it out from memory.
+ * Unused units are written back once the item goes quiet, so the database shows
+ * slightly less stock than there really is, never more. Live stock updates for a
+ * hot item are sent when its units go back, not on every sale.
+ *
+ * @version 1.0
+ * @since 2025-02-19
+ */
+@Service
+public class InventoryService {
+    private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
+
+    // Lock rows in the same order in every checkout, so two baskets can't deadlock
+    private static final Comparator<StockKey> LOCK_ORDER =
+            Comparator.comparing(StockKey::itemType).thenComparing(StockKey::itemId);
+
+    private final MouldingRepository mouldingRepository;
+    private final FurnitureDoorRepository furnitureDoorRepository;
+    private final StockReservationRepository reservationRepository;
+    private final LiveUpdateService liveUpdateService;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<StockKey, StripedStockCounter> hotCounters = new ConcurrentHashMap<>();
+
+    @Value("${inventory.reservation.ttl-minutes:15}")
+    private long reservationTtlMinutes;
+
+    @Value("${inventory.hot.chunk-size:50}")
+    private int chunkSize;
+
+    public InventoryService(MouldingRepository mouldingRepository, FurnitureDoorRepository furnitureDoorRepository,
+                            StockReservationRepository reservationRepository, LiveUpdateService liveUpdateService,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${inventory.hot.items:}") List<String> hotItems,
+                            @Value("${inventory.hot.stripes:8}") int stripes) {
+        this.mouldingRepository = mouldingRepository;
+        this.furnitureDoorRepository = furnitureDoorRepository;
+        this.reservationRepository = reservationRepository;
+        this.liveUpdateService = liveUpdateService;
+        this.transactionTemplate = transactionTemplate;
+        for (String item : hotItems) {
+            if (!item.isBlank()) {
+                hotCounters.put(StockKey.parse(item), new StripedStockCounter(stripes));
+            }
+        }
+        if (!hotCounters.isEmpty()) {
+            logger.info("Serving {} hot items from striped counters: {}", hotCounters.size(), hotCounters.keySet());
+        }
+    }
+
+    /**
+     * An item that has stock.
+     *
+     * @param itemType Kind of item
+     * @param itemId Item ID
+     */
+    public record StockKey(ItemType itemType, Long itemId) {
+
+        /**
+         * Parses {@code TYPE:id}, e.g. {@code MOULDING:12}.
+         */
+        static StockKey parse(String value) {
+            String[] parts = value.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Hot item must look like TYPE:id, got: " + value);
+            }
+            return new StockKey(ItemType.valueOf(parts[0].trim()), Long.valueOf(parts[1].trim()));
+        }
+
+        @Override
+        public String toString() {
+            return itemType + ":" + itemId;
+        }
+    }
+
+    /**
+     * Whether items of this type have limited stock.
+     *
+     * @param itemType Kind of item
+     * @return false for doors, true for everything on a shelf
+     */
+    public boolean tracksStock(ItemType itemType) {
+        return itemType == ItemType.MOULDING || itemType == ItemType.DOOR_ACCESSORY;
+    }
+
+    /**
+     * Takes stock for an immediate purchase, without a hold.
+     * Rolled back together with the surrounding transaction.
+     *
+     * @param itemType Kind of item
+     * @param itemId Item ID
+     * @param quantity Units to take
+     * @throws ConflictException if there isn't enough stock
+     */
+    @Transactional
+    public void take(ItemType itemType, Long itemId, int quantity) {
+        if (tracksStock(itemType)) {
+            decrement(new StockKey(itemType, itemId), quantity);
+        }
+    }
+
+    /**
+     * Holds stock for everything in a basket that is going through checkout.
+     * Holds the user already has for the same item and quantity are extended instead
+     * of taken again; holds for things no longer in the basket are released.
+     * All or nothing: if one item is short, nothing is held.
+     *
+     * @param userId Basket owner
+     * @param items Basket items
+     * @return The holds now covering the basket
+     * @throws ConflictException if an item doesn't have enough stock
+     */
+    @Transactional
+    public List<StockReservation> holdBasket(Long userId, List<BasketItem> items) {
+        Map<StockKey, Integer> wanted = new TreeMap<>(LOCK_ORDER);
+        for (BasketItem item : items) {
+            if (tracksStock(item.getType())) {
+                wanted.merge(new StockKey(item.getType(), item.getItemId()), Math.max(1, item.getQuantity()), Integer::sum);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusMinutes(reservationTtlMinutes);
+        List<StockReservation> held = new ArrayList<>();
+        for (StockReservation reservation : reservationRepository.findByUserIdAndStatus(userId, ReservationStatus.HELD)) {
+            StockKey key = new StockKey(reservation.getItemType(), reservation.getItemId());
+            boolean stillWanted = reservation.getQuantity().equals(wanted.get(key));
+            if (stillWanted && reservationRepository.extendHold(reservation.getId(), expiresAt, now) == 1) {
+                wanted.remove(key);
+                held.add(reservation);
+            } else {
+                release(reservation);
+            }
+        }
+
+        for (Map.Entry<StockKey, Integer> entry : wanted.entrySet()) {
+            StockKey key = entry.getKey();
+            decrement(key, entry.getValue());
+            StockReservation reservation = new StockReservation();
+            reservation.setUserId(userId);
+            reservation.setItemType(key.itemType());
+            reservation.setItemId(key.itemId());
+            reservation.setQuantity(entry.getValue());
+            reservation.setExpiresAt(expiresAt);
+            held.add(reservationRepository.save(reservation));
+        }
+        logger.debug("User {} holds {} items for checkout until {}", userId, held.size(), expiresAt);
+        return held;
+    }
+
+    /**
+     * Turns holds into sold stock once the order is placed.
+     *
+     * @param reservations Holds returned by {@link #holdBasket}
+     * @throws ConflictException if a hold ran out and was released in the meantime
+     */
+    @Transactional
+    public void commit(List<StockReservation> reservations) {
+        for (StockReservation reservation : reservations) {
+            if (reservationRepository.transition(reservation.getId(), ReservationStatus.HELD,
+                    ReservationStatus.COMMITTED) == 0) {
+                throw new ConflictException("Your reservation for " + reservation.getItemType() + " #"
+                        + reservation.getItemId() + " has expired, please check out again");
+            }
+        }
+    }
+
+    /**
+     * Puts abandoned holds back on the shelf.
+     * Each release is its own small transaction, so one bad row doesn't block the rest.
+     */
+    @Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval-ms:30000}")
+    public void releaseExpired() {
+        List<StockReservation> expired = reservationRepository.findTop500ByStatusAndExpiresAtBefore(
+                ReservationStatus.HELD, LocalDateTime.now());
+        int released = 0;
+        for (StockReservation reservation : expired) {
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> release(reservation)))) {
+                    released++;
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to release reservation {}: {}", reservation.getId(), e.getMessage());
+            }
+        }
+        if (released > 0) {
+            logger.info("Released {} expired stock reservations", released);
+        }
+    }
+
+    /**
+     * Write-behind for hot items: once an item has gone quiet, the units its counter
+     * still holds go back to the database.
+     */
+    @Scheduled(fixedDelayString = "${inventory.hot.flush-interval-ms:5000}")
+    public void flushIdleCounters() {
+        hotCounters.forEach((key, counter) -> {
+            if (!counter.checkAndClearUsed()) {
+                returnToDatabase(key, counter);
+            }
+        });
+    }
+
+    /**
+     * Nothing stays in memory when the application stops.
+     */
+    @PreDestroy
+    public void shutdown() {
+        hotCounters.forEach(this::returnToDatabase);
+    }
+
+    private boolean release(StockReservation reservation) {
+        // Whoever flips the status puts the stock back - never both the sweeper and a checkout
+        if (reservationRepository.transition(reservation.getId(), ReservationStatus.HELD,
+                ReservationStatus.RELEASED) == 0) {
+            return false;
+        }
+        increment(new StockKey(reservation.getItemType(), reservation.getItemId()), reservation.getQuantity());
+        return true;
+    }
+
+    private void decrement(StockKey key, int quantity) {
+        StripedStockCounter counter = hotCounters.get(key);
+        if (counter != null) {
+            takeHot(key, counter, quantity);
+            return;
+        }
+        if (decrementInDatabase(key, quantity) == 0) {
+            throw outOfStock(key);
+        }
+        publishStock(key);
+    }
+
+    private void takeHot(StockKey key, StripedStockCounter counter, int quantity) {
+        if (counter.tryTake(quantity)) {
+            // The database never saw this take, so a rollback has to undo it by hand
+            afterCompletion(committed -> {
+                if (!committed) {
+                    counter.add(quantity);
+                }
+            });
+            return;
+        }
+        int chunk = Math.max(chunkSize, quantity);
+        if (decrementInDatabase(key, chunk) == 1) {
+            // The rest of the chunk only becomes spendable once the database update is committed
+            afterCompletion(committed -> {
+                if (committed) {
+                    counter.add(chunk - quantity);
+                }
+            });
+        } else if (decrementInDatabase(key, quantity) == 0) {
+            // Not a whole chunk left: the last few units go straight from the row
+            throw outOfStock(key);
+        }
+    }
+
+    private void increment(StockKey key, int quantity) {
+        StripedStockCounter counter = hotCounters.get(key);
+        if (counter != null) {
+            afterCompletion(committed -> {
+                if (committed) {
+                    counter.add(quantity);
+                }
+            });
+            return;
+        }
+        incrementInDatabase(key, quantity);
+        publishStock(key);
+    }
+
+    private void returnToDatabase(StockKey key, StripedStockCounter counter) {
+        int units = counter.drain();
+        if (units == 0) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                incrementInDatabase(key, units);
+                publishStock(key);
+            });
+            logger.debug("Returned {} unused units of {} to the database", units, key);
+        } catch (Exception e) {
+            // Keep them in memory rather than lose them; the next flush tries again
+            counter.add(units);
+            logger.warn("Failed to return {} units of {} to the database: {}", units, key, e.getMessage());
+        }
+    }
+
+    private int decrementInDatabase(StockKey key, int quantity) {
+        return switch (key.itemType()) {
+            case MOULDING -> mouldingRepository.decrementQuantity(key.itemId(), quantity);
+            case DOOR_ACCESSORY -> furnitureDoorRepository.decrementStock(key.itemId(), quantity);
+            default -> throw new IllegalArgumentException("No stock is kept for " + key.itemType());
+        };
+    }
+
+    private void incrementInDatabase(StockKey key, int quantity) {
+        switch (key.itemType()) {
+            case MOULDING -> mouldingRepository.incrementQuantity(key.itemId(), quantity);
+            case DOOR_ACCESSORY -> furnitureDoorRepository.incrementStock(key.itemId(), quantity);
+            default -> throw new IllegalArgumentException("No stock is kept for " + key.itemType());
+        }
+    }
+
+    private void publishStock(StockKey key) {
+        Integer quantity = switch (key.itemType()) {
+            case MOULDING -> mouldingRepository.findQuantityById(key.itemId());
+            case DOOR_ACCESSORY -> furnitureDoorRepository.findStockQuantityById(key.itemId());
+            default -> null;
+        };
+        if (quantity == null) {
+            return;
+        }
+        StripedStockCounter counter = hotCounters.get(key);
+        int inMemory = counter != null ? counter.available() : 0;
+        liveUpdateService.stockChanged(key.itemType(), key.itemId(), quantity + inMemory);
+    }
+
+    private static ConflictException outOfStock(StockKey key) {
+        return new ConflictException("Not enough stock left for " + key);
+    }
+
+    private static void afterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+}
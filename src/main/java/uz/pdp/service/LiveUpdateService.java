@@ -0,0 +1,166 @@
+package uz.pdp.service;
+
+import java.util.Objects;
+
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import uz.pdp.entity.Door;
+import uz.pdp.entity.Order;
+import uz.pdp.enums.ItemType;
+
+/**
+ * In-process event bus behind the GraphQL subscriptions.
+ *
+ * Services publish what changed (order status, door, stock level) and every event
+ * goes into one shared sink, once - however many sockets are listening. Each
+ * subscription is just a filter on that sink with its own bounded buffer, so a slow
+ * client only loses its own oldest updates and never holds up the publisher or the
+ * other subscribers. 📡
+ *
+ * Events published inside a transaction are sent after it commits: nobody gets told
+ * about a status change that was rolled back.
+ *
+ * @version 1.0
+ * @since 2025-02-18
+ */
+@Service
+public class LiveUpdateService {
+    private static final Logger logger = LoggerFactory.getLogger(LiveUpdateService.class);
+
+    // Best effort: a subscriber without demand is skipped, the rest still get the event
+    private final Sinks.Many<Object> events = Sinks.many().multicast().directBestEffort();
+
+    @Value("${graphql.subscriptions.buffer-size:256}")
+    private int bufferSize;
+
+    /**
+     * A stock level that changed. Also the payload of the {@code stockChanged} subscription.
+     */
+    public record StockChange(ItemType itemType, Long itemId, Integer quantity) {
+    }
+
+    private record OrderStatusChanged(Order order) {
+    }
+
+    private record DoorChanged(Door door, boolean created) {
+    }
+
+    /**
+     * Announces a new order status.
+     *
+     * @param order Order with its new status
+     */
+    public void orderStatusChanged(Order order) {
+        publish(new OrderStatusChanged(order));
+    }
+
+    /**
+     * Announces a created or updated door.
+     * Must be called inside the transaction that saved it, while its images can still be loaded.
+     *
+     * @param door Saved door
+     * @param created true for a brand new door
+     */
+    public void doorChanged(Door door, boolean created) {
+        // Subscribers resolve the door long after the session is gone
+        Hibernate.initialize(door.getImages());
+        publish(new DoorChanged(door, created));
+    }
+
+    /**
+     * Announces a new stock level.
+     *
+     * @param itemType Kind of item
+     * @param itemId Item ID
+     * @param quantity Quantity now in stock
+     */
+    public void stockChanged(ItemType itemType, Long itemId, Integer quantity) {
+        publish(new StockChange(itemType, itemId, quantity));
+    }
+
+    /**
+     * Status updates of one order.
+     *
+     * @param orderId Order to follow
+     * @return Endless stream of the order after each status change
+     */
+    public Flux<Order> orderUpdates(Long orderId) {
+        return stream(OrderStatusChanged.class)
+                .filter(event -> Objects.equals(event.order().getId(), orderId))
+                .map(OrderStatusChanged::order);
+    }
+
+    /**
+     * Updates of one door.
+     *
+     * @param doorId Door to follow
+     * @return Endless stream of the door after each change
+     */
+    public Flux<Door> doorUpdates(Long doorId) {
+        return stream(DoorChanged.class)
+                .filter(event -> Objects.equals(event.door().getId(), doorId))
+                .map(DoorChanged::door);
+    }
+
+    /**
+     * Newly created doors.
+     *
+     * @return Endless stream of new doors
+     */
+    public Flux<Door> newDoors() {
+        return stream(DoorChanged.class)
+                .filter(DoorChanged::created)
+                .map(DoorChanged::door);
+    }
+
+    /**
+     * Stock changes of one item.
+     *
+     * @param itemType Kind of item
+     * @param itemId Item to follow
+     * @return Endless stream of stock changes
+     */
+    public Flux<StockChange> stockUpdates(ItemType itemType, Long itemId) {
+        return stream(StockChange.class)
+                .filter(change -> change.itemType() == itemType && Objects.equals(change.itemId(), itemId));
+    }
+
+    private <T> Flux<T> stream(Class<T> type) {
+        return events.asFlux()
+                .ofType(type)
+                // Per-subscriber buffer: it always has demand upstream, so the shared sink never waits
+                .onBackpressureBuffer(bufferSize,
+                        dropped -> logger.debug("Slow subscriber, dropped a {} update", type.getSimpleName()),
+                        BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    private void publish(Object event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    emit(event);
+                }
+            });
+        } else {
+            emit(event);
+        }
+    }
+
+    // Sinks must not be fed from two threads at once
+    private synchronized void emit(Object event) {
+        Sinks.EmitResult result = events.tryEmitNext(event);
+        if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            logger.warn("Could not publish {}: {}", event.getClass().getSimpleName(), result);
+        }
+    }
+}
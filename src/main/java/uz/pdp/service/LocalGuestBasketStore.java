@@ -0,0 +1,80 @@
+package uz.pdp.service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link GuestBasketStore} in this instance's memory, for when there is no Redis.
+ *
+ * Baskets are gone after a restart and each instance sees only its own guests -
+ * fine for window shoppers, and still nothing for the database to write. 🪟
+ *
+ * @version 1.0
+ * @since 2025-02-21
+ */
+@Service
+@ConditionalOnProperty(name = "spring.data.redis.enabled", havingValue = "false", matchIfMissing = true)
+public class LocalGuestBasketStore implements GuestBasketStore {
+    private static final Logger logger = LoggerFactory.getLogger(LocalGuestBasketStore.class);
+
+    private final ConcurrentHashMap<String, Entry> baskets = new ConcurrentHashMap<>();
+
+    @Value("${guest-basket.ttl-hours:72}")
+    private long ttlHours;
+
+    @Value("${guest-basket.local.max-baskets:100000}")
+    private int maxBaskets;
+
+    private record Entry(List<BasketStore.Line> lines, Instant expiresAt) {
+    }
+
+    @Override
+    public List<BasketStore.Line> load(String guestId) {
+        Entry entry = baskets.get(guestId);
+        if (entry == null || entry.expiresAt().isBefore(Instant.now())) {
+            return List.of();
+        }
+        return entry.lines();
+    }
+
+    @Override
+    public void save(String guestId, List<BasketStore.Line> lines) {
+        if (lines.isEmpty()) {
+            baskets.remove(guestId);
+            return;
+        }
+        if (baskets.size() >= maxBaskets && !baskets.containsKey(guestId)) {
+            // Rather no new guest baskets than running out of heap
+            throw new IllegalStateException("Too many guest baskets, please log in to use the basket");
+        }
+        baskets.put(guestId, new Entry(List.copyOf(lines), Instant.now().plus(ttlHours, ChronoUnit.HOURS)));
+    }
+
+    @Override
+    public void delete(String guestId) {
+        baskets.remove(guestId);
+    }
+
+    /**
+     * Drops expired guest baskets.
+     */
+    @Scheduled(fixedDelayString = "${guest-basket.local.sweep-interval-ms:600000}")
+    public void removeExpired() {
+        Instant now = Instant.now();
+        int before = baskets.size();
+        baskets.values().removeIf(entry -> entry.expiresAt().isBefore(now));
+        int removed = before - baskets.size();
+        if (removed > 0) {
+            logger.debug("Removed {} expired guest baskets", removed);
+        }
+    }
+}
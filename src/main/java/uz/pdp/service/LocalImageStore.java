@@ -0,0 +1,247 @@
+package uz.pdp.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link ImageStore} on the local filesystem - for on-prem boxes and runs without AWS.
+ *
+ * Originals are content addressed: the file name is the SHA-256 of the bytes, so
+ * {@code doors/9f86d0...a08.jpg} can never change and uploading the same photo twice
+ * stores it once. Files are written to a temp file first and moved into place
+ * atomically, so readers never see half an image.
+ *
+ * Reads go through {@link FileChannel#transferTo}, and {@link #localPath(String)}
+ * lets the container sendfile the bytes straight from the page cache to the socket. 💾
+ *
+ * @version 1.0
+ * @since 2025-02-14
+ */
+@Service
+@ConditionalOnProperty(name = "images.storage.type", havingValue = "local")
+public class LocalImageStore implements ImageStore {
+    private static final Logger logger = LoggerFactory.getLogger(LocalImageStore.class);
+    private static final String TEMP_DIR = ".tmp";
+
+    private final Path root;
+    private final String baseUrl;
+
+    public LocalImageStore(@Value("${images.storage.local.root:uploads}") String root,
+                           @Value("${images.storage.local.base-url:http://localhost:8080/images/}") String baseUrl)
+            throws IOException {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        Files.createDirectories(this.root.resolve(TEMP_DIR));
+        logger.info("Storing images on local disk under {}", this.root);
+    }
+
+    @Override
+    public String store(String prefix, String extension, InputStream input, long length, String contentType)
+            throws IOException {
+        Path temp = Files.createTempFile(root.resolve(TEMP_DIR), "upload-", extension);
+        try {
+            MessageDigest digest = sha256();
+            try (DigestInputStream digesting = new DigestInputStream(input, digest)) {
+                long copied = Files.copy(digesting, temp, StandardCopyOption.REPLACE_EXISTING);
+                if (copied != length) {
+                    throw new IOException("Expected " + length + " bytes but got " + copied);
+                }
+            }
+            String key = prefix + HexFormat.of().formatHex(digest.digest()) + extension.toLowerCase(Locale.ROOT);
+            Path target = resolve(key);
+            if (Files.exists(target)) {
+                // Same bytes are already there - nothing to write, just keep the sweeper's grace period fresh
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                logger.debug("Image {} already stored, reusing it", key);
+            } else {
+                moveIntoPlace(temp, target);
+            }
+            return key;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void write(String key, byte[] bytes, String contentType, String cacheControl) throws IOException {
+        Path temp = Files.createTempFile(root.resolve(TEMP_DIR), "variant-", null);
+        try {
+            Files.write(temp, bytes);
+            moveIntoPlace(temp, resolve(key));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Set<String> deleteAll(Collection<String> keys) {
+        Set<String> failed = new HashSet<>();
+        int deleted = 0;
+        for (String key : keys) {
+            try {
+                if (Files.deleteIfExists(resolve(key))) {
+                    deleted++;
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to delete {}: {}", key, e.getMessage());
+                failed.add(key);
+            }
+        }
+        logger.info("Deleted {} images from local disk", deleted);
+        return failed;
+    }
+
+    @Override
+    public List<StoredObject> list(String prefix) {
+        Path folder = resolve(prefix);
+        if (!Files.isDirectory(folder)) {
+            return List.of();
+        }
+        List<StoredObject> objects = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(folder)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                try {
+                    String key = root.relativize(file).toString().replace('\\', '/');
+                    objects.add(toStoredObject(key, file));
+                } catch (IOException e) {
+                    // Deleted while we were walking - nothing to sweep then
+                    logger.debug("Skipping {}: {}", file, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return objects;
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) {
+        Path file = resolve(key);
+        try {
+            return Optional.of(toStoredObject(key, file));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+            long end = position + count;
+            long current = position;
+            // transferTo may move fewer bytes than asked for, keep going until the range is done
+            while (current < end) {
+                long sent = channel.transferTo(current, end - current, target);
+                if (sent <= 0) {
+                    break;
+                }
+                current += sent;
+            }
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        Path file = resolve(key);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    @Override
+    public String urlFor(String key) {
+        return baseUrl + key;
+    }
+
+    @Override
+    public String keyOf(String url) {
+        return url.startsWith(baseUrl) ? url.substring(baseUrl.length()) : null;
+    }
+
+    @Override
+    public boolean isContentAddressed() {
+        return true;
+    }
+
+    /**
+     * Maps a key to a file below the root.
+     *
+     * @throws IllegalArgumentException if the key tries to escape the root (../../etc/passwd, nice try)
+     */
+    private Path resolve(String key) {
+        Path file = root.resolve(key).normalize();
+        if (!file.startsWith(root) || file.startsWith(root.resolve(TEMP_DIR))) {
+            throw new IllegalArgumentException("Invalid image key: " + key);
+        }
+        return file;
+    }
+
+    private void moveIntoPlace(Path temp, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private StoredObject toStoredObject(String key, Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        if (!attributes.isRegularFile()) {
+            throw new IOException("Not a file: " + key);
+        }
+        // Files are only ever replaced whole, by a move, so size and mtime identify the content
+        return new StoredObject(key, attributes.size(), attributes.lastModifiedTime().toInstant(),
+                contentTypeOf(key), "\"" + Long.toHexString(attributes.lastModifiedTime().toMillis())
+                + "-" + Long.toHexString(attributes.size()) + "\"");
+    }
+
+    private static String contentTypeOf(String key) {
+        String lower = key.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) {
+            return "image/jpeg";
+        } else if (lower.endsWith(".png")) {
+            return "image/png";
+        } else if (lower.endsWith(".gif")) {
+            return "image/gif";
+        } else if (lower.endsWith(".webp")) {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
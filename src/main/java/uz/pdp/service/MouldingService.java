@@ -5,6 +5,7 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,9 +19,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import uz.pdp.dto.MouldingCreateDTO;
+import uz.pdp.dto.ImageVariantsDTO;
 import uz.pdp.dto.MouldingDTO;
 import uz.pdp.entity.Moulding;
 import uz.pdp.entity.User;
+import uz.pdp.enums.ItemType;
 import uz.pdp.enums.Role;
 import uz.pdp.repository.MouldingRepository;
 import uz.pdp.repository.UserRepository;
@@ -37,6 +40,7 @@ public class MouldingService {
 
     private final MouldingRepository mouldingRepository;
     private final UserRepository userRepository;
+    private final LiveUpdateService liveUpdateService;
     @Autowired
     private ImageStorageService imageStorageService;
 
@@ -110,7 +114,9 @@ public class MouldingService {
         Moulding moulding = new Moulding();
         moulding.setUser(seller);
         updateMouldingFromCreateDTO(moulding, dto);
-        return mouldingRepository.save(moulding);
+        Moulding savedMoulding = mouldingRepository.save(moulding);
+        liveUpdateService.stockChanged(ItemType.MOULDING, savedMoulding.getId(), savedMoulding.getQuantity());
+        return savedMoulding;
     }
 
     /**
@@ -128,6 +134,8 @@ public class MouldingService {
             throw new AccessDeniedException("You don't have permission to update this moulding");
         }
 
+        boolean quantityChanged = !Objects.equals(moulding.getQuantity(), dto.getQuantity());
+
         // Update moulding details
         moulding.setTitle(dto.getTitle());
         moulding.setDescription(dto.getDescription());
@@ -137,6 +145,9 @@ public class MouldingService {
 
         // Save and return updated moulding
         moulding = mouldingRepository.save(moulding);
+        if (quantityChanged) {
+            liveUpdateService.stockChanged(ItemType.MOULDING, moulding.getId(), moulding.getQuantity());
+        }
         return moulding;
     }
 
@@ -199,6 +210,7 @@ public class MouldingService {
         if (deleteUrls != null && !deleteUrls.isEmpty()) {
             log.info("Processing {} URLs for deletion: {}", deleteUrls.size(), deleteUrls);
             
+            List<String> removedUrls = new ArrayList<>();
             for (String url : deleteUrls) {
                 try {
                     // Skip invalid URLs
@@ -214,14 +226,11 @@ public class MouldingService {
                             ". It may have been already deleted.");
                     }
 
-                    // Delete from S3
-                    log.info("Attempting to delete image from S3: {}", url);
-                    imageStorageService.deleteImage(url);
-                    
                     // Remove from current images list
                     currentImages.remove(url);
+                    removedUrls.add(url);
                     anyChanges = true;
-                    log.info("Successfully deleted image. Remaining images: {}", currentImages);
+                    log.info("Removed image from moulding. Remaining images: {}", currentImages);
                     
                 } catch (IllegalArgumentException e) {
                     // Throw validation errors to user
@@ -232,6 +241,9 @@ public class MouldingService {
                 }
             }
             
+            // Delete from S3 in one batch, after the transaction commits
+            imageStorageService.deleteImages(removedUrls);
+
             // Update moulding's image list after deletions if any changes were made
             if (anyChanges) {
                 moulding.setImagesUrl(currentImages);
@@ -244,29 +256,33 @@ public class MouldingService {
         List<String> newImageUrls = new ArrayList<>();
         if (newImages != null && newImages.length > 0) {
             log.info("Processing {} new images", newImages.length);
-            
+
+            List<MultipartFile> files = new ArrayList<>();
             for (MultipartFile image : newImages) {
                 if (image == null || image.isEmpty()) {
                     log.warn("Skipping empty file in newImages");
                     continue;
                 }
-                try {
-                    String imageUrl = imageStorageService.storeMouldingImage(image);
-                    log.info("Uploaded new image: {}", imageUrl);
-                    
-                    if (isValidS3Url(imageUrl)) {
-                        newImageUrls.add(imageUrl);
-                        anyChanges = true;
-                        log.info("Added new image URL to list");
-                    } else {
-                        log.error("Invalid URL format returned from S3: {}", imageUrl);
-                        throw new IllegalStateException("Failed to upload image: invalid URL format");
-                    }
-                } catch (Exception e) {
-                    log.error("Failed to upload image {}: {}", image.getOriginalFilename(), e.getMessage(), e);
-                    throw new IllegalStateException("Failed to upload image: " + e.getMessage());
+                files.add(image);
+            }
+
+            try {
+                // Uploaded in parallel; a single failure rolls back the whole batch in S3
+                newImageUrls = imageStorageService.storeMouldingImages(files);
+                log.info("Uploaded new images: {}", newImageUrls);
+            } catch (Exception e) {
+                log.error("Failed to upload {} images: {}", files.size(), e.getMessage(), e);
+                throw new IllegalStateException("Failed to upload image: " + e.getMessage());
+            }
+
+            for (String imageUrl : newImageUrls) {
+                if (!isValidS3Url(imageUrl)) {
+                    log.error("Invalid URL format returned from S3: {}", imageUrl);
+                    imageStorageService.discardUploads(newImageUrls);
+                    throw new IllegalStateException("Failed to upload image: invalid URL format");
                 }
             }
+            anyChanges = anyChanges || !newImageUrls.isEmpty();
         }
 
         try {
@@ -287,12 +303,10 @@ public class MouldingService {
             log.error("Failed to update moulding with new images: {}", e.getMessage(), e);
             
             // Cleanup any newly uploaded images
-            for (String url : newImageUrls) {
-                try {
-                    imageStorageService.deleteImage(url);
-                } catch (Exception ex) {
-                    log.warn("Failed to cleanup image {} after failed update: {}", url, ex.getMessage());
-                }
+            try {
+                imageStorageService.discardUploads(newImageUrls);
+            } catch (Exception ex) {
+                log.warn("Failed to cleanup images {} after failed update: {}", newImageUrls, ex.getMessage());
             }
             throw new IllegalStateException("Failed to update moulding: " + e.getMessage());
         }
@@ -311,7 +325,10 @@ public class MouldingService {
             throw new AccessDeniedException("You don't have permission to delete this moulding");
         }
 
+        List<String> imageUrls = moulding.getImagesUrl() != null
+            ? new ArrayList<>(moulding.getImagesUrl()) : new ArrayList<>();
         mouldingRepository.delete(moulding);
+        imageStorageService.deleteImages(imageUrls);
     }
 
     /**
@@ -328,6 +345,7 @@ public class MouldingService {
         dto.setQuantity(moulding.getQuantity());
         dto.setDescription(moulding.getDescription());
         dto.setImagesUrl(moulding.getImagesUrl());
+        dto.setImageVariants(ImageVariantsDTO.fromAll(moulding.getImagesUrl()));
         
         // Safely handle null user
         User user = moulding.getUser();
@@ -16,7 +16,9 @@ import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -39,6 +41,8 @@ public class OrderService {
     private final UserRepository userRepository;
     private final DoorRepository doorRepository;
     private final EmailService emailService;
+    private final LiveUpdateService liveUpdateService;
+    private final CurrentUserContext currentUserContext;
 
     /**
      * Creates a new order for a user.
@@ -55,8 +59,7 @@ public class OrderService {
         try {
             logger.info("Creating order for user with email: {} and door ID: {}", email, orderDto.getItemId());
             
-            User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+            User user = userByEmail(email);
             
             Door door = doorRepository.findById(orderDto.getItemId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Door not found"));
@@ -113,8 +116,7 @@ public class OrderService {
         try {
             logger.info("Retrieving orders for user with email: {}", email);
             
-            User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+            User user = userByEmail(email);
             
             List<Order> orders = orderRepository.findByUserOrderByOrderDateDesc(user);
             logger.info("Retrieved {} orders for user with email: {}", orders.size(), email);
@@ -145,6 +147,7 @@ public class OrderService {
             order.setStatus(status);
             Order updatedOrder = orderRepository.save(order);
             logger.info("Order status updated successfully");
+            liveUpdateService.orderStatusChanged(updatedOrder);
             
             return new EntityResponse<>("Order status updated successfully", true, updatedOrder);
         } catch (Exception e) {
@@ -182,6 +185,7 @@ public class OrderService {
             order.setStatus(Order.OrderStatus.CANCELLED);
             order = orderRepository.save(order);
             logger.info("Successfully cancelled order {}", orderId);
+            liveUpdateService.orderStatusChanged(order);
             
             return EntityResponse.<Order>success("Order cancelled successfully", order);
         } catch (Exception e) {
@@ -246,16 +250,22 @@ public class OrderService {
         try {
             logger.info("Creating {} orders for user with email: {}", orderDtos.size(), email);
             
-            User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+            User user = userByEmail(email);
+            
+            // All the doors in one query, not one per order
+            Map<Long, Door> doors = new HashMap<>();
+            doorRepository.findAllById(orderDtos.stream().map(OrderDto::getItemId).toList())
+                .forEach(door -> doors.put(door.getId(), door));
             
             List<Order> orders = new ArrayList<>();
             
             for (OrderDto orderDto : orderDtos) {
                 // Validate door existence and availability
-                Door door = doorRepository.findById(orderDto.getItemId())
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, 
-                        "Door not found: " + orderDto.getItemId()));
+                Door door = doors.get(orderDto.getItemId());
+                if (door == null) {
+                    throw new ResponseStatusException(HttpStatus.NOT_FOUND, 
+                        "Door not found: " + orderDto.getItemId());
+                }
                 
                 if (!door.isActive()) {
                     throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
@@ -295,4 +305,14 @@ public class OrderService {
                 Collections.emptyList());
         }
     }
+
+    // Orders are nearly always placed for the logged-in user, who is already loaded
+    private User userByEmail(String email) {
+        User current = currentUserContext.getOrNull();
+        if (current != null && email != null && email.equals(current.getEmail())) {
+            return current;
+        }
+        return userRepository.findByEmail(email)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+    }
 }
@@ -0,0 +1,176 @@
+package uz.pdp.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import uz.pdp.dto.PriceListRow;
+import uz.pdp.enums.PriceListFormat;
+import uz.pdp.exception.GlobalExceptionHandler.TooManyRequestsException;
+import uz.pdp.payload.EntityResponse;
+import uz.pdp.repository.DoorRepository;
+import uz.pdp.repository.FurnitureDoorRepository;
+import uz.pdp.repository.MouldingRepository;
+
+/**
+ * The whole catalog as one price list - doors, mouldings and accessories.
+ *
+ * Rows come off a database cursor 500 at a time and go straight into the file
+ * writer, which sends them on to the HTTP response or a temp file for email. Nothing
+ * is collected along the way, so a catalog of a million doors needs as much memory
+ * as a catalog of ten. 📜
+ *
+ * Every export holds a connection for as long as the client keeps reading, so only
+ * a few may run at once.
+ *
+ * @version 1.0
+ * @since 2025-02-24
+ */
+@Service
+public class PriceListExportService {
+    private static final Logger logger = LoggerFactory.getLogger(PriceListExportService.class);
+
+    private final DoorRepository doorRepository;
+    private final MouldingRepository mouldingRepository;
+    private final FurnitureDoorRepository furnitureDoorRepository;
+    private final EmailService emailService;
+    private final Executor exportExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Semaphore running;
+
+    public PriceListExportService(DoorRepository doorRepository, MouldingRepository mouldingRepository,
+                                  FurnitureDoorRepository furnitureDoorRepository, EmailService emailService,
+                                  @Qualifier("priceListExportExecutor") Executor exportExecutor,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${price-list.export.max-concurrent:4}") int maxConcurrent) {
+        this.doorRepository = doorRepository;
+        this.mouldingRepository = mouldingRepository;
+        this.furnitureDoorRepository = furnitureDoorRepository;
+        this.emailService = emailService;
+        this.exportExecutor = exportExecutor;
+        // Cursors only stream inside a transaction; read-only spares Hibernate the dirty checks
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.running = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * File name for an export made today, e.g. {@code price-list-2025-02-24.xlsx}.
+     */
+    public static String fileName(PriceListFormat format) {
+        return "price-list-" + LocalDate.now() + "." + format.getExtension();
+    }
+
+    /**
+     * Writes the full price list to a stream. The stream is flushed but not closed.
+     *
+     * @param format File format
+     * @param out Where the file goes
+     * @return Number of rows written
+     * @throws TooManyRequestsException if the maximum number of exports is already running
+     */
+    public long export(PriceListFormat format, OutputStream out) throws IOException {
+        if (!running.tryAcquire()) {
+            throw new TooManyRequestsException("Too many price lists are being exported right now, please try again in a minute");
+        }
+        long started = System.nanoTime();
+        try {
+            Long rows = readOnlyTransaction.execute(status -> {
+                try (PriceListWriter writer = PriceListWriter.open(format, out)) {
+                    long written = writeAll(writer, doorRepository.streamPriceList())
+                            + writeAll(writer, mouldingRepository.streamPriceList())
+                            + writeAll(writer, furnitureDoorRepository.streamPriceList());
+                    writer.finish();
+                    return written;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            logger.info("Exported a {} price list with {} rows in {} ms", format, rows,
+                    (System.nanoTime() - started) / 1_000_000);
+            return rows;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            running.release();
+        }
+    }
+
+    /**
+     * Exports the price list in the background and emails it as an attachment.
+     *
+     * @param format File format
+     * @param email Recipient
+     * @throws TooManyRequestsException if too many emailed exports are already waiting
+     */
+    public void emailExport(PriceListFormat format, String email) {
+        try {
+            exportExecutor.execute(() -> sendExport(format, email));
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("Too many price lists are waiting to be emailed, please try again later");
+        }
+    }
+
+    private void sendExport(PriceListFormat format, String email) {
+        Path file = null;
+        try {
+            file = Files.createTempFile("price-list-", "." + format.getExtension());
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                export(format, out);
+            }
+            EntityResponse<Void> sent = emailService.sendHtmlEmailWithAttachment(email, "DoorShop price list",
+                    """
+                    <div class="header"><h1>Your DoorShop price list</h1></div>
+                    <div class="section">
+                        <p>The full catalog price list - doors, mouldings and accessories - is attached.</p>
+                        <p>Prices are current as of %s.</p>
+                    </div>
+                    <div class="footer"><small>DoorShop - Where doors come to life!</small></div>
+                    """.formatted(LocalDate.now()),
+                    file.toFile(), fileName(format), format.getContentType());
+            if (!sent.isSuccess()) {
+                logger.warn("Price list for {} was not sent: {}", email, sent.getMessage());
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to email a {} price list to {}: {}", format, email, e.getMessage(), e);
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    logger.warn("Could not delete temp price list {}: {}", file, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static long writeAll(PriceListWriter writer, Stream<PriceListRow> rows) throws IOException {
+        long written = 0;
+        // Closing the stream closes the cursor
+        try (rows) {
+            Iterator<PriceListRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                written++;
+            }
+        }
+        return written;
+    }
+}
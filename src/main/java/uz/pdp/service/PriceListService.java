@@ -6,11 +6,16 @@ import uz.pdp.dto.PriceListRequestDto;
 import uz.pdp.entity.Door;
 import uz.pdp.entity.FurnitureDoor;
 import uz.pdp.entity.Moulding;
+import uz.pdp.entity.PricingRule;
+import uz.pdp.enums.PriceAdjustment;
 import uz.pdp.payload.EntityResponse;
 import uz.pdp.repository.DoorRepository;
 import uz.pdp.repository.FurnitureDoorRepository;
 import uz.pdp.repository.MouldingRepository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * Service for generating and sending price lists.
  * 
@@ -19,10 +24,18 @@ import uz.pdp.repository.MouldingRepository;
 @Service
 @RequiredArgsConstructor
 public class PriceListService {
+    private static final String VARIANT_ROW = """
+                            <li>
+                                <span class="variant-name">%s</span>
+                                <span class="variant-price">$%.2f</span>
+                            </li>
+            """;
+
     private final DoorRepository doorRepository;
     private final FurnitureDoorRepository furnitureDoorRepository;
     private final MouldingRepository mouldingRepository;
     private final EmailService emailService;
+    private final PricingEngine pricingEngine;
 
     /**
      * Generates and sends a price list for the specified item.
@@ -147,11 +160,40 @@ public class PriceListService {
         }
     }
 
+    /**
+     * Rules of the pricing engine that can apply to this door right now, straight from
+     * the engine - so the email never quotes different numbers than the shop.
+     */
+    private List<PricingRule> applicableRules(Door door) {
+        LocalDateTime now = LocalDateTime.now();
+        Long categoryId = door.getCategory() != null ? door.getCategory().getId() : null;
+        Long sellerId = door.getSeller() != null ? door.getSeller().getId() : null;
+        return pricingEngine.rules().rules().stream()
+                .filter(rule -> rule.getCategoryId() == null || rule.getCategoryId().equals(categoryId))
+                .filter(rule -> rule.getSellerId() == null || rule.getSellerId().equals(sellerId))
+                .filter(rule -> rule.getValidFrom() == null || !rule.getValidFrom().isAfter(now))
+                .filter(rule -> rule.getValidUntil() == null || rule.getValidUntil().isAfter(now))
+                .toList();
+    }
+
     private void generateDoorPriceList(Long doorId, StringBuilder content) {
         Door door = doorRepository.findById(doorId)
                 .orElseThrow(() -> new IllegalArgumentException("Door not found"));
 
         // Base info
+        StringBuilder adjustments = new StringBuilder();
+        adjustments.append(VARIANT_ROW.formatted("Standard Size", door.getPrice()));
+        for (PricingRule rule : applicableRules(door)) {
+            boolean percent = rule.getAdjustment() != PriceAdjustment.FIXED;
+            String label = percent
+                    ? "%s (%+.0f%%)".formatted(rule.getName(), rule.getAmount())
+                    : "%s (%+.2f)".formatted(rule.getName(), rule.getAmount());
+            double adjusted = percent
+                    ? door.getPrice() * (1 + rule.getAmount() / 100.0)
+                    : door.getPrice() + rule.getAmount();
+            adjustments.append(VARIANT_ROW.formatted(label, adjusted));
+        }
+
         content.append("""
                     <h2 class="title">%s</h2>
                     <div class="price">Base Price: $%.2f</div>
@@ -159,37 +201,14 @@ public class PriceListService {
                     <div class="variants">
                         <h3>Price Adjustments:</h3>
                         <ul>
-                            <li>
-                                <span class="variant-name">Standard Size</span>
-                                <span class="variant-price">$%.2f</span>
-                            </li>
-                            <li>
-                                <span class="variant-name">Custom Size (+10%%)</span>
-                                <span class="variant-price">$%.2f</span>
-                            </li>
-                            <li>
-                                <span class="variant-name">Custom Color (+5%%)</span>
-                                <span class="variant-price">$%.2f</span>
-                            </li>
-                            <li>
-                                <span class="variant-name">Hidden Frame (+15%%)</span>
-                                <span class="variant-price">$%.2f</span>
-                            </li>
-                            <li>
-                                <span class="variant-name">Pivot Hardware (+8%%)</span>
-                                <span class="variant-price">$%.2f</span>
-                            </li>
+                    %s
                         </ul>
                     </div>
                     """.formatted(
                         door.getName(),
                         door.getPrice(),
                         door.getDescription(),
-                        door.getPrice(),
-                        door.getPrice() * 1.10,
-                        door.getPrice() * 1.05,
-                        door.getPrice() * 1.15,
-                        door.getPrice() * 1.08
+                        adjustments
                     ));
 
         // Who knew doors could be so customizable? 
@@ -0,0 +1,294 @@
+package uz.pdp.service;
+
+import java.awt.Color;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Element;
+import com.lowagie.text.FontFactory;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+
+import uz.pdp.dto.PriceListRow;
+import uz.pdp.enums.PriceListFormat;
+
+/**
+ * Writes price list rows one at a time into a file format.
+ *
+ * Every writer keeps a fixed amount of state no matter how many rows go through:
+ * CSV writes straight through, XLSX keeps a window of rows in memory and spills the
+ * rest to a temp file, PDF hands finished table rows to the page as it goes.
+ */
+interface PriceListWriter extends Closeable {
+    String[] HEADERS = {"Type", "ID", "Name", "Group", "Details", "Base price", "Price"};
+
+    void write(PriceListRow row) throws IOException;
+
+    /**
+     * Completes the document. Closing without finishing just frees resources.
+     */
+    void finish() throws IOException;
+
+    /**
+     * Opens a writer on a stream. The stream stays open - it belongs to the caller.
+     */
+    static PriceListWriter open(PriceListFormat format, OutputStream out) throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(out);
+            case XLSX -> new Xlsx(out);
+            case PDF -> new Pdf(out);
+        };
+    }
+
+    private static String text(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static String money(Double value) {
+        return value == null ? "" : String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    /**
+     * RFC 4180 CSV with a BOM so Excel reads it as UTF-8.
+     */
+    final class Csv implements PriceListWriter {
+        private final BufferedWriter writer;
+
+        Csv(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            writer.write('\uFEFF');
+            line(HEADERS);
+        }
+
+        @Override
+        public void write(PriceListRow row) throws IOException {
+            line(text(row.type()), text(row.id()), text(row.name()), text(row.group()), text(row.details()),
+                    money(row.basePrice()), money(row.price()));
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() {
+            // The stream belongs to the caller
+        }
+
+        private void line(String... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(values[i]));
+            }
+            writer.write("\r\n");
+        }
+
+        private static String escape(String value) {
+            // Seller-typed names must not turn into spreadsheet formulas
+            if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0 && !isNumber(value)) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        private static boolean isNumber(String value) {
+            try {
+                Double.parseDouble(value);
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Streaming workbook: only the last {@link #WINDOW} rows live in memory.
+     */
+    final class Xlsx implements PriceListWriter {
+        private static final int WINDOW = 200;
+        // Excel's hard limit, header included
+        private static final int MAX_ROWS = 1_048_576;
+
+        private final OutputStream out;
+        private final SXSSFWorkbook workbook;
+        private final CellStyle headerStyle;
+        private final CellStyle moneyStyle;
+        private SXSSFSheet sheet;
+        private int rowIndex;
+        private int sheets;
+
+        Xlsx(OutputStream out) {
+            this.out = out;
+            this.workbook = new SXSSFWorkbook(WINDOW);
+            workbook.setCompressTempFiles(true);
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            this.headerStyle = workbook.createCellStyle();
+            headerStyle.setFont(bold);
+            this.moneyStyle = workbook.createCellStyle();
+            moneyStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+            newSheet();
+        }
+
+        @Override
+        public void write(PriceListRow row) {
+            if (rowIndex == MAX_ROWS) {
+                newSheet();
+            }
+            Row cells = sheet.createRow(rowIndex++);
+            cells.createCell(0).setCellValue(text(row.type()));
+            if (row.id() != null) {
+                cells.createCell(1).setCellValue(row.id());
+            }
+            cells.createCell(2).setCellValue(text(row.name()));
+            cells.createCell(3).setCellValue(text(row.group()));
+            cells.createCell(4).setCellValue(text(row.details()));
+            money(cells, 5, row.basePrice());
+            money(cells, 6, row.price());
+        }
+
+        @Override
+        public void finish() throws IOException {
+            workbook.write(out);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Drops the temp files behind the flushed rows
+            workbook.dispose();
+            workbook.close();
+        }
+
+        private void money(Row cells, int column, Double value) {
+            if (value != null) {
+                var cell = cells.createCell(column);
+                cell.setCellValue(value);
+                cell.setCellStyle(moneyStyle);
+            }
+        }
+
+        private void newSheet() {
+            sheet = workbook.createSheet(++sheets == 1 ? "Price list" : "Price list " + sheets);
+            sheet.createFreezePane(0, 1);
+            // Fixed widths: auto-sizing would need every row in memory
+            int[] widths = {16, 10, 48, 24, 40, 14, 14};
+            for (int i = 0; i < widths.length; i++) {
+                sheet.setColumnWidth(i, widths[i] * 256);
+            }
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < HEADERS.length; i++) {
+                var cell = header.createCell(i);
+                cell.setCellValue(HEADERS[i]);
+                cell.setCellStyle(headerStyle);
+            }
+            rowIndex = 1;
+        }
+    }
+
+    /**
+     * Landscape A4 table. Rows are handed to the document every {@link #CHUNK}
+     * rows and then dropped; the header repeats on every page.
+     * Built-in Helvetica covers Latin text only.
+     */
+    final class Pdf implements PriceListWriter {
+        private static final int CHUNK = 200;
+        private static final com.lowagie.text.Font HEADER_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9);
+        private static final com.lowagie.text.Font BODY_FONT = FontFactory.getFont(FontFactory.HELVETICA, 8);
+
+        private final Document document;
+        private final PdfPTable table = new PdfPTable(new float[]{10, 6, 30, 16, 26, 8, 8});
+        private int pending;
+
+        Pdf(OutputStream out) throws IOException {
+            this.document = new Document(PageSize.A4.rotate(), 24, 24, 24, 24);
+            try {
+                PdfWriter writer = PdfWriter.getInstance(document, out);
+                writer.setCloseStream(false);
+                document.open();
+                document.add(new Paragraph("DoorShop price list", FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14)));
+                document.add(new Paragraph(" "));
+            } catch (DocumentException e) {
+                throw new IOException("Can't start the PDF price list", e);
+            }
+            table.setWidthPercentage(100);
+            table.setHeaderRows(1);
+            table.setComplete(false);
+            for (String header : HEADERS) {
+                PdfPCell cell = new PdfPCell(new Phrase(header, HEADER_FONT));
+                cell.setBackgroundColor(new Color(0xE9, 0xEC, 0xEF));
+                table.addCell(cell);
+            }
+        }
+
+        @Override
+        public void write(PriceListRow row) throws IOException {
+            cell(text(row.type()), false);
+            cell(text(row.id()), false);
+            cell(text(row.name()), false);
+            cell(text(row.group()), false);
+            cell(text(row.details()), false);
+            cell(money(row.basePrice()), true);
+            cell(money(row.price()), true);
+            if (++pending == CHUNK) {
+                flush();
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            table.setComplete(true);
+            flush();
+            document.close();
+        }
+
+        @Override
+        public void close() {
+            if (document.isOpen()) {
+                document.close();
+            }
+        }
+
+        private void flush() throws IOException {
+            try {
+                // An incomplete table gives its finished rows to the page and forgets them
+                document.add(table);
+                pending = 0;
+            } catch (DocumentException e) {
+                throw new IOException("Can't write the PDF price list", e);
+            }
+        }
+
+        private void cell(String value, boolean number) {
+            PdfPCell cell = new PdfPCell(new Phrase(value, BODY_FONT));
+            if (number) {
+                cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+            }
+            table.addCell(cell);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package uz.pdp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import uz.pdp.dto.PriceQuoteRequest;
+import uz.pdp.dto.PriceQuoteResponse;
+import uz.pdp.enums.Color;
+import uz.pdp.enums.DoorLocation;
+import uz.pdp.enums.FrameType;
+import uz.pdp.enums.HardwareType;
+import uz.pdp.enums.Size;
+import uz.pdp.exception.GlobalExceptionHandler.ResourceNotFoundException;
+
+/**
+ * Prices door configurations without touching the door.
+ *
+ * The configurator used to call configureDoor on every slider tick - a load, a
+ * save and a live update per preview. Quotes work on a small cached snapshot of
+ * the door's pricing attributes instead and run the compiled rules once per
+ * candidate: no entity, no transaction, no write. 🎚️
+ *
+ * @version 1.0
+ * @since 2025-02-23
+ */
+@Service
+public class PriceQuoteService {
+    private static final String SNAPSHOT_SQL = """
+            SELECT name, price, final_price, size, color, is_custom_color, frame_type, hardware, door_location,
+                   category_id, seller_id
+            FROM doors
+            WHERE id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PricingEngine pricingEngine;
+    private final ConcurrentHashMap<Long, DoorSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Value("${quotes.door-snapshot.ttl-seconds:30}")
+    private long snapshotTtlSeconds;
+
+    @Value("${quotes.door-snapshot.max-entries:10000}")
+    private int maxSnapshots;
+
+    public PriceQuoteService(JdbcTemplate jdbcTemplate, PricingEngine pricingEngine) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pricingEngine = pricingEngine;
+    }
+
+    /**
+     * What pricing needs to know about a door, as enum ordinals.
+     */
+    private record DoorSnapshot(String name, Double price, Double finalPrice, int size, int color, boolean customColor,
+                                int frameType, int hardware, int location, long categoryId, long sellerId,
+                                long loadedAt) {
+    }
+
+    /**
+     * Prices every candidate configuration of a door.
+     *
+     * @param doorId Door ID
+     * @param request Candidate configurations
+     * @return Prices in request order; invalid configurations carry an error instead
+     * @throws ResourceNotFoundException if the door doesn't exist
+     */
+    public PriceQuoteResponse quote(Long doorId, PriceQuoteRequest request) {
+        DoorSnapshot door = snapshot(doorId);
+        PriceRules rules = pricingEngine.rules();
+        long now = System.currentTimeMillis();
+
+        List<PriceQuoteResponse.Quote> quotes = new ArrayList<>(request.getConfigurations().size());
+        for (PriceQuoteRequest.Configuration configuration : request.getConfigurations()) {
+            String error = validate(configuration);
+            if (error != null || door.price() == null) {
+                quotes.add(new PriceQuoteResponse.Quote(configuration, error == null ? 0.0 : null, error));
+                continue;
+            }
+            Color color = configuration.getColor();
+            double price = rules.price(door.price(),
+                    configuration.getSize() != null ? configuration.getSize().ordinal() : door.size(),
+                    color != null ? color.ordinal() : door.color(),
+                    color != null ? color == Color.CUSTOM : door.customColor(),
+                    configuration.getFrameType() != null ? configuration.getFrameType().ordinal() : door.frameType(),
+                    configuration.getHardware() != null ? configuration.getHardware().ordinal() : door.hardware(),
+                    door.location(),
+                    door.categoryId(),
+                    door.sellerId(),
+                    now);
+            quotes.add(new PriceQuoteResponse.Quote(configuration, price, null));
+        }
+        return new PriceQuoteResponse(doorId, door.name(), door.price(), door.finalPrice(), quotes);
+    }
+
+    /**
+     * Forgets the cached snapshot of a door, e.g. after it changed.
+     *
+     * @param doorId Door ID
+     */
+    public void evict(Long doorId) {
+        snapshots.remove(doorId);
+    }
+
+    /**
+     * Forgets every cached snapshot, e.g. after a bulk import.
+     */
+    public void evictAll() {
+        snapshots.clear();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    // Same rules as DoorService.configureDoor, reported per configuration
+    private static String validate(PriceQuoteRequest.Configuration configuration) {
+        if (configuration.getSize() == Size.CUSTOM
+                && (configuration.getWidth() == null || configuration.getHeight() == null)) {
+            return "Custom size requires both width and height to be specified";
+        }
+        if ((configuration.getWidth() != null && configuration.getWidth() <= 0)
+                || (configuration.getHeight() != null && configuration.getHeight() <= 0)) {
+            return "Width and height must be positive";
+        }
+        return null;
+    }
+
+    private DoorSnapshot snapshot(Long doorId) {
+        DoorSnapshot cached = snapshots.get(doorId);
+        long now = System.nanoTime();
+        if (cached != null && now - cached.loadedAt() < TimeUnit.SECONDS.toNanos(snapshotTtlSeconds)) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        List<DoorSnapshot> rows = jdbcTemplate.query(SNAPSHOT_SQL, (rs, rowNum) -> {
+            Double price = rs.getDouble("price");
+            if (rs.wasNull()) {
+                price = null;
+            }
+            Double finalPrice = rs.getDouble("final_price");
+            if (rs.wasNull()) {
+                finalPrice = null;
+            }
+            long categoryId = rs.getLong("category_id");
+            if (rs.wasNull()) {
+                categoryId = PriceRules.NO_ID;
+            }
+            long sellerId = rs.getLong("seller_id");
+            if (rs.wasNull()) {
+                sellerId = PriceRules.NO_ID;
+            }
+            return new DoorSnapshot(rs.getString("name"), price, finalPrice,
+                    PriceRules.ordinal(Size.class, rs.getString("size")),
+                    PriceRules.ordinal(Color.class, rs.getString("color")),
+                    rs.getBoolean("is_custom_color"),
+                    PriceRules.ordinal(FrameType.class, rs.getString("frame_type")),
+                    PriceRules.ordinal(HardwareType.class, rs.getString("hardware")),
+                    PriceRules.ordinal(DoorLocation.class, rs.getString("door_location")),
+                    categoryId, sellerId, now);
+        }, doorId);
+        if (rows.isEmpty()) {
+            snapshots.remove(doorId);
+            throw new ResourceNotFoundException("Door", "id", doorId);
+        }
+        if (snapshots.size() >= maxSnapshots) {
+            // Cheap bound; the configurator only ever works on a handful of doors at a time
+            snapshots.clear();
+        }
+        DoorSnapshot snapshot = rows.get(0);
+        snapshots.put(doorId, snapshot);
+        return snapshot;
+    }
+}
@@ -0,0 +1,190 @@
+package uz.pdp.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uz.pdp.entity.Door;
+import uz.pdp.entity.PricingRule;
+import uz.pdp.enums.PriceAdjustment;
+import uz.pdp.enums.PricingAttribute;
+
+/**
+ * Pricing rules compiled into flat arrays.
+ *
+ * Every condition of rule {@code i} sits at index {@code i} of a primitive array,
+ * attributes are compared as enum ordinals and percentages are pre-turned into
+ * factors. Pricing a door is one loop of int/long compares and a multiply - no
+ * maps, no boxing, no allocation - so re-pricing the whole catalog costs about
+ * as much as reading it. Immutable, so one instance is shared by all threads.
+ */
+public final class PriceRules {
+    private static final Logger logger = LoggerFactory.getLogger(PriceRules.class);
+    // Marks a condition that matches anything
+    private static final int ANY = -1;
+    // A stored value this build doesn't know; no rule ever matches it
+    private static final int UNKNOWN = -2;
+    public static final long NO_ID = Long.MIN_VALUE;
+    private static final int SIZE = PricingAttribute.SIZE.ordinal();
+    private static final int COLOR = PricingAttribute.COLOR.ordinal();
+    private static final int CUSTOM_COLOR = PricingAttribute.CUSTOM_COLOR.ordinal();
+    private static final int FRAME_TYPE = PricingAttribute.FRAME_TYPE.ordinal();
+    private static final int HARDWARE = PricingAttribute.HARDWARE.ordinal();
+
+    private final int[] attributes;
+    private final int[] values;
+    private final long[] categories;
+    private final long[] sellers;
+    private final long[] validFrom;
+    private final long[] validUntil;
+    private final boolean[] percent;
+    private final double[] amounts;
+    private final List<PricingRule> source;
+
+    private PriceRules(int size, List<PricingRule> source) {
+        this.attributes = new int[size];
+        this.values = new int[size];
+        this.categories = new long[size];
+        this.sellers = new long[size];
+        this.validFrom = new long[size];
+        this.validUntil = new long[size];
+        this.percent = new boolean[size];
+        this.amounts = new double[size];
+        this.source = source;
+    }
+
+    /**
+     * Compiles rules, keeping their order.
+     *
+     * @param rules Active rules in priority order
+     * @return Compiled rules
+     * @throws IllegalArgumentException if a rule's attribute value is invalid
+     */
+    public static PriceRules compile(List<PricingRule> rules) {
+        PriceRules compiled = new PriceRules(rules.size(), List.copyOf(rules));
+        for (int i = 0; i < rules.size(); i++) {
+            PricingRule rule = rules.get(i);
+            compiled.attributes[i] = rule.getAttribute() != null ? rule.getAttribute().ordinal() : ANY;
+            compiled.values[i] = rule.getAttribute() != null ? rule.getAttribute().code(rule.getAttributeValue()) : ANY;
+            compiled.categories[i] = rule.getCategoryId() != null ? rule.getCategoryId() : NO_ID;
+            compiled.sellers[i] = rule.getSellerId() != null ? rule.getSellerId() : NO_ID;
+            compiled.validFrom[i] = rule.getValidFrom() != null ? toMillis(rule.getValidFrom()) : Long.MIN_VALUE;
+            compiled.validUntil[i] = rule.getValidUntil() != null ? toMillis(rule.getValidUntil()) : Long.MAX_VALUE;
+            compiled.percent[i] = rule.getAdjustment() != PriceAdjustment.FIXED;
+            compiled.amounts[i] = compiled.percent[i] ? 1 + rule.getAmount() / 100.0 : rule.getAmount();
+        }
+        return compiled;
+    }
+
+    /**
+     * Final price of a door at the given moment.
+     *
+     * @param door Door to price
+     * @param now Epoch millis, decides which promotions are running
+     * @return Price rounded to cents; 0 for doors without a base price
+     */
+    public double price(Door door, long now) {
+        if (door.getPrice() == null) {
+            return 0.0;
+        }
+        return price(door.getPrice(),
+                ordinal(door.getSize()),
+                ordinal(door.getColor()),
+                Boolean.TRUE.equals(door.getIsCustomColor()),
+                ordinal(door.getFrameType()),
+                ordinal(door.getHardware()),
+                ordinal(door.getDoorLocation()),
+                door.getCategory() != null ? door.getCategory().getId() : NO_ID,
+                door.getSeller() != null ? door.getSeller().getId() : NO_ID,
+                now);
+    }
+
+    /**
+     * Final price from raw attributes, for callers that have no Door at hand.
+     * Enum attributes are ordinals, -1 when not set; ids are {@link #NO_ID} when not set.
+     */
+    public double price(double basePrice, int size, int color, boolean customColor, int frameType, int hardware,
+                        int location, long categoryId, long sellerId, long now) {
+        double price = basePrice;
+        for (int i = 0; i < attributes.length; i++) {
+            if (now < validFrom[i] || now >= validUntil[i]) {
+                continue;
+            }
+            if (categories[i] != NO_ID && categories[i] != categoryId) {
+                continue;
+            }
+            if (sellers[i] != NO_ID && sellers[i] != sellerId) {
+                continue;
+            }
+            if (attributes[i] != ANY) {
+                int attribute = attributes[i];
+                int actual = attribute == SIZE ? size
+                        : attribute == COLOR ? color
+                        : attribute == CUSTOM_COLOR ? (customColor ? 1 : 0)
+                        : attribute == FRAME_TYPE ? frameType
+                        : attribute == HARDWARE ? hardware
+                        : location;
+                if (actual != values[i]) {
+                    continue;
+                }
+            }
+            price = percent[i] ? price * amounts[i] : price + amounts[i];
+        }
+        return Math.max(0.0, Math.round(price * 100.0) / 100.0);
+    }
+
+    /**
+     * The first moment after {@code now} at which a promotion starts or ends,
+     * i.e. when stored final prices go stale.
+     *
+     * @param now Epoch millis
+     * @return Epoch millis, or Long.MAX_VALUE if nothing is scheduled
+     */
+    public long nextChange(long now) {
+        long next = Long.MAX_VALUE;
+        for (int i = 0; i < attributes.length; i++) {
+            if (validFrom[i] > now && validFrom[i] < next) {
+                next = validFrom[i];
+            }
+            if (validUntil[i] > now && validUntil[i] < next) {
+                next = validUntil[i];
+            }
+        }
+        return next;
+    }
+
+    /**
+     * The rules these were compiled from, in priority order.
+     */
+    public List<PricingRule> rules() {
+        return source;
+    }
+
+    /**
+     * Ordinal of a stored enum name, -1 for null - for rows read straight from JDBC.
+     * A name the enum doesn't have (say, a value added by a newer release) gets an
+     * ordinal no rule matches, so one odd row doesn't stop a whole reprice.
+     */
+    public static <E extends Enum<E>> int ordinal(Class<E> type, String name) {
+        if (name == null) {
+            return ANY;
+        }
+        try {
+            return Enum.valueOf(type, name).ordinal();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown {} '{}', no attribute rule will match it", type.getSimpleName(), name);
+            return UNKNOWN;
+        }
+    }
+
+    private static int ordinal(Enum<?> value) {
+        return value != null ? value.ordinal() : ANY;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
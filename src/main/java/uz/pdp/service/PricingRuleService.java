@@ -0,0 +1,130 @@
+package uz.pdp.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import uz.pdp.dto.PricingRuleDto;
+import uz.pdp.entity.PricingRule;
+import uz.pdp.exception.GlobalExceptionHandler.BadRequestException;
+import uz.pdp.exception.GlobalExceptionHandler.ResourceNotFoundException;
+import uz.pdp.repository.PricingRuleRepository;
+
+/**
+ * Admin side of the pricing rules.
+ *
+ * Every change is checked by compiling it first, and once committed the engine
+ * reloads and re-prices the catalog right away - other instances notice within
+ * their reload interval. 🧮
+ *
+ * @version 1.0
+ * @since 2025-02-22
+ */
+@Service
+public class PricingRuleService {
+    private static final Logger logger = LoggerFactory.getLogger(PricingRuleService.class);
+
+    private final PricingRuleRepository ruleRepository;
+    private final PricingEngine pricingEngine;
+
+    public PricingRuleService(PricingRuleRepository ruleRepository, PricingEngine pricingEngine) {
+        this.ruleRepository = ruleRepository;
+        this.pricingEngine = pricingEngine;
+    }
+
+    /**
+     * All rules, active or not, in the order they are applied.
+     */
+    @Transactional(readOnly = true)
+    public List<PricingRule> getRules() {
+        return ruleRepository.findAllByOrderByPriorityAscIdAsc();
+    }
+
+    /**
+     * Adds a rule.
+     *
+     * @param dto Rule details
+     * @return Saved rule
+     * @throws BadRequestException if the rule can't be compiled
+     */
+    @Transactional
+    public PricingRule createRule(PricingRuleDto dto) {
+        PricingRule rule = validate(dto.applyTo(new PricingRule()));
+        PricingRule saved = ruleRepository.save(rule);
+        refreshAfterCommit();
+        return saved;
+    }
+
+    /**
+     * Changes a rule.
+     *
+     * @param id Rule ID
+     * @param dto New rule details
+     * @return Saved rule
+     * @throws ResourceNotFoundException if there is no such rule
+     * @throws BadRequestException if the rule can't be compiled
+     */
+    @Transactional
+    public PricingRule updateRule(Long id, PricingRuleDto dto) {
+        PricingRule rule = ruleRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Pricing rule", "id", id));
+        PricingRule saved = ruleRepository.save(validate(dto.applyTo(rule)));
+        refreshAfterCommit();
+        return saved;
+    }
+
+    /**
+     * Deletes a rule.
+     *
+     * @param id Rule ID
+     * @throws ResourceNotFoundException if there is no such rule
+     */
+    @Transactional
+    public void deleteRule(Long id) {
+        PricingRule rule = ruleRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Pricing rule", "id", id));
+        ruleRepository.delete(rule);
+        refreshAfterCommit();
+    }
+
+    /**
+     * Re-prices the whole catalog under the current rules.
+     *
+     * @return Number of doors whose final price changed
+     */
+    public int repriceCatalog() {
+        return pricingEngine.repriceCatalog();
+    }
+
+    private static PricingRule validate(PricingRule rule) {
+        if (rule.getValidFrom() != null && rule.getValidUntil() != null
+                && !rule.getValidUntil().isAfter(rule.getValidFrom())) {
+            throw new BadRequestException("validUntil must be after validFrom");
+        }
+        try {
+            PriceRules.compile(List.of(rule));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        return rule;
+    }
+
+    private void refreshAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    pricingEngine.refresh();
+                } catch (RuntimeException e) {
+                    logger.warn("Pricing rules changed but re-pricing failed, the next refresh will retry: {}",
+                            e.getMessage());
+                }
+            }
+        });
+    }
+}
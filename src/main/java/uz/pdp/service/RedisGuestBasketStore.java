@@ -0,0 +1,73 @@
+package uz.pdp.service;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@link GuestBasketStore} in Redis: one JSON value per guest with a TTL, shared by all instances.
+ *
+ * Redis does the expiring, so a guest who never comes back costs nothing after
+ * {@code guest-basket.ttl-hours}. ⏳
+ *
+ * @version 1.0
+ * @since 2025-02-21
+ */
+@Service
+@ConditionalOnProperty(name = "spring.data.redis.enabled", havingValue = "true")
+public class RedisGuestBasketStore implements GuestBasketStore {
+    private static final String KEY_PREFIX = "guest-basket:";
+    private static final TypeReference<List<BasketStore.Line>> LINES = new TypeReference<>() {
+    };
+
+    private final StringRedisTemplate redis;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    public RedisGuestBasketStore(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper,
+                                 @Value("${guest-basket.ttl-hours:72}") long ttlHours) {
+        this.redis = new StringRedisTemplate(connectionFactory);
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+    }
+
+    @Override
+    public List<BasketStore.Line> load(String guestId) {
+        String json = redis.opsForValue().get(KEY_PREFIX + guestId);
+        if (json == null) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(json, LINES);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable guest basket " + guestId, e);
+        }
+    }
+
+    @Override
+    public void save(String guestId, List<BasketStore.Line> lines) {
+        if (lines.isEmpty()) {
+            delete(guestId);
+            return;
+        }
+        try {
+            redis.opsForValue().set(KEY_PREFIX + guestId, objectMapper.writeValueAsString(lines), ttl);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Can't write guest basket " + guestId, e);
+        }
+    }
+
+    @Override
+    public void delete(String guestId) {
+        redis.delete(KEY_PREFIX + guestId);
+    }
+}
@@ -0,0 +1,207 @@
+package uz.pdp.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.transfer.TransferManager;
+
+/**
+ * {@link ImageStore} on Amazon S3 (or anything S3-compatible, see {@code aws.s3.endpoint}).
+ *
+ * Originals get random UUID names and are streamed through the {@link TransferManager},
+ * which switches to multipart upload for big files. Deletes go out as DeleteObjects
+ * calls of up to 1000 keys. ☁️
+ *
+ * @version 1.0
+ * @since 2025-02-14
+ */
+@Service
+@ConditionalOnProperty(name = "images.storage.type", havingValue = "s3", matchIfMissing = true)
+public class S3ImageStore implements ImageStore {
+    private static final Logger logger = LoggerFactory.getLogger(S3ImageStore.class);
+    private static final int MAX_KEYS_PER_REQUEST = 1000; // S3 DeleteObjects hard limit
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final String ORIGINAL_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private final AmazonS3 s3Client;
+    private final TransferManager transferManager;
+
+    @Value("${aws.s3.bucket}")
+    private String bucketName;
+
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
+
+    public S3ImageStore(AmazonS3 s3Client, TransferManager transferManager) {
+        this.s3Client = s3Client;
+        this.transferManager = transferManager;
+    }
+
+    @Override
+    public String store(String prefix, String extension, InputStream input, long length, String contentType)
+            throws IOException {
+        String key = prefix + UUID.randomUUID() + extension;
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        // Known length lets the SDK stream instead of buffering the whole file
+        metadata.setContentLength(length);
+        // UUID keys are never rewritten, so the original may be cached forever just like its variants
+        metadata.setCacheControl(ORIGINAL_CACHE_CONTROL);
+        try {
+            transferManager.upload(bucketName, key, input, metadata).waitForCompletion();
+            return key;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Upload interrupted: " + key, e);
+        } catch (AmazonServiceException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void write(String key, byte[] bytes, String contentType, String cacheControl) throws IOException {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        metadata.setContentLength(bytes.length);
+        if (cacheControl != null) {
+            metadata.setCacheControl(cacheControl);
+        }
+        try {
+            s3Client.putObject(bucketName, key, new ByteArrayInputStream(bytes), metadata);
+        } catch (AmazonServiceException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Set<String> deleteAll(Collection<String> keys) {
+        Set<String> failed = new HashSet<>();
+        List<String> all = new ArrayList<>(keys);
+        for (int from = 0; from < all.size(); from += MAX_KEYS_PER_REQUEST) {
+            List<String> chunk = all.subList(from, Math.min(all.size(), from + MAX_KEYS_PER_REQUEST));
+            try {
+                s3Client.deleteObjects(new DeleteObjectsRequest(bucketName)
+                        .withKeys(chunk.toArray(new String[0]))
+                        .withQuiet(true));
+                logger.info("Deleted {} objects from S3", chunk.size());
+            } catch (MultiObjectDeleteException e) {
+                // Partial failure: only the listed keys need another try
+                e.getErrors().forEach(error -> failed.add(error.getKey()));
+                logger.warn("Failed to delete {} of {} objects from S3", e.getErrors().size(), chunk.size());
+            } catch (Exception e) {
+                failed.addAll(chunk);
+                logger.warn("Failed to delete {} objects from S3: {}", chunk.size(), e.getMessage());
+            }
+        }
+        return failed;
+    }
+
+    @Override
+    public List<StoredObject> list(String prefix) {
+        List<StoredObject> objects = new ArrayList<>();
+        ListObjectsV2Request request = new ListObjectsV2Request()
+                .withBucketName(bucketName)
+                .withPrefix(prefix);
+        ListObjectsV2Result result;
+        do {
+            result = s3Client.listObjectsV2(request);
+            for (S3ObjectSummary summary : result.getObjectSummaries()) {
+                objects.add(new StoredObject(summary.getKey(), summary.getSize(),
+                        summary.getLastModified().toInstant(), null, quoted(summary.getETag())));
+            }
+            request.setContinuationToken(result.getNextContinuationToken());
+        } while (result.isTruncated());
+        return objects;
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) {
+        try {
+            ObjectMetadata metadata = s3Client.getObjectMetadata(bucketName, key);
+            return Optional.of(new StoredObject(key, metadata.getContentLength(),
+                    metadata.getLastModified().toInstant(), metadata.getContentType(), quoted(metadata.getETag())));
+        } catch (AmazonServiceException e) {
+            if (e.getStatusCode() == 404) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        if (count <= 0) {
+            return;
+        }
+        GetObjectRequest request = new GetObjectRequest(bucketName, key)
+                .withRange(position, position + count - 1);
+        try (S3Object object = s3Client.getObject(request);
+             ReadableByteChannel source = Channels.newChannel(object.getObjectContent())) {
+            ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                buffer.clear();
+            }
+        } catch (AmazonServiceException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String urlFor(String key) {
+        return s3Client.getUrl(bucketName, key).toString();
+    }
+
+    @Override
+    public String keyOf(String url) {
+        // S3-compatible endpoints (MinIO) use path style: <endpoint>/<bucket>/<key>
+        String endpointBase = endpoint == null || endpoint.isBlank() ? null
+                : (endpoint.endsWith("/") ? endpoint : endpoint + "/") + bucketName + "/";
+        if (endpointBase != null && url.startsWith(endpointBase)) {
+            return url.substring(endpointBase.length());
+        }
+        if (url.contains(".amazonaws.com/")) {
+            return url.split(".amazonaws.com/")[1];
+        }
+        return null;
+    }
+
+    // The SDK hands out ETags without their quotes
+    private static String quoted(String etag) {
+        if (etag == null || etag.isEmpty()) {
+            return null;
+        }
+        return etag.startsWith("\"") ? etag : "\"" + etag + "\"";
+    }
+}
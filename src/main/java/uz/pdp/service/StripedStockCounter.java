@@ -0,0 +1,102 @@
+package uz.pdp.service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory stock of one hot item, spread over several counters.
+ *
+ * Threads start at different stripes, so a flash sale with hundreds of concurrent
+ * checkouts turns into CAS operations on separate counters instead of a queue of
+ * transactions waiting for one row lock. The count can never go below zero: a take
+ * either finds enough units or takes nothing.
+ */
+public class StripedStockCounter {
+    private final AtomicInteger[] stripes;
+    private final AtomicBoolean used = new AtomicBoolean();
+
+    public StripedStockCounter(int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("At least one stripe is needed");
+        }
+        this.stripes = new AtomicInteger[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Takes units if there are enough of them.
+     *
+     * @param amount Units to take
+     * @return true if they were taken, false if the counter is short
+     */
+    public boolean tryTake(int amount) {
+        int start = stripeIndex();
+        for (int i = 0; i < stripes.length; i++) {
+            AtomicInteger stripe = stripes[(start + i) % stripes.length];
+            int current;
+            while ((current = stripe.get()) >= amount) {
+                if (stripe.compareAndSet(current, current - amount)) {
+                    used.set(true);
+                    return true;
+                }
+            }
+        }
+        // Enough in total but spread thin over the stripes - pool it and try once more
+        int pooled = drain();
+        if (pooled >= amount) {
+            add(pooled - amount);
+            used.set(true);
+            return true;
+        }
+        add(pooled);
+        return false;
+    }
+
+    /**
+     * Adds units, e.g. a fresh allotment or a released hold.
+     *
+     * @param amount Units to add
+     */
+    public void add(int amount) {
+        if (amount > 0) {
+            stripes[stripeIndex()].addAndGet(amount);
+        }
+    }
+
+    /**
+     * Empties the counter.
+     *
+     * @return Units that were in it
+     */
+    public int drain() {
+        int total = 0;
+        for (AtomicInteger stripe : stripes) {
+            total += stripe.getAndSet(0);
+        }
+        return total;
+    }
+
+    /**
+     * Units currently in the counter. Only a snapshot while others are taking.
+     */
+    public int available() {
+        int total = 0;
+        for (AtomicInteger stripe : stripes) {
+            total += stripe.get();
+        }
+        return total;
+    }
+
+    /**
+     * Whether anything was taken since the last call.
+     */
+    public boolean checkAndClearUsed() {
+        return used.getAndSet(false);
+    }
+
+    private int stripeIndex() {
+        return (int) Math.floorMod(Thread.currentThread().getId(), (long) stripes.length);
+    }
+}
@@ -6,8 +6,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import uz.pdp.entity.EmailVerification;
@@ -79,15 +77,20 @@ public class UserService {
     // Cache for user sessions (because databases need naps too)
     private final RedisTemplate<String, Integer> redisTemplate;
 
+    // Who's asking, looked up once per request
+    private final CurrentUserContext currentUserContext;
+
     @Autowired
     public UserService(UserRepository userRepository,
             EmailService emailService,
             EmailVerificationRepository emailVerificationRepository,
-            RedisTemplate<String, Integer> redisTemplate) {
+            RedisTemplate<String, Integer> redisTemplate,
+            CurrentUserContext currentUserContext) {
         this.userRepository = userRepository;
         this.emailService = emailService;
         this.emailVerificationRepository = emailVerificationRepository;
         this.redisTemplate = redisTemplate;
+        this.currentUserContext = currentUserContext;
     }
 
     /**
@@ -97,14 +100,12 @@ public class UserService {
      * @throws UnauthorizedException when they try to be sneaky
      */
     public User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
+        // Resolved once per request, however many times we're asked
+        User user = currentUserContext.getOrNull();
+        if (user == null) {
             throw new UnauthorizedException("No authenticated user found");
         }
-
-        String username = authentication.getName();
-        return userRepository.findByName(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
+        return user;
     }
 
     /**
@@ -0,0 +1,73 @@
+package uz.pdp.config;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The Automatic Persisted Queries handshake over HTTP, the way Apollo clients do it:
+ * hash only, then hash and text after a miss, then hash only again.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PersistedQueryHandshakeTest {
+    private static final String QUERY = "query ApqHandshake { __typename }";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void hashOnlyRequestIsAnsweredFromTheCache() throws Exception {
+        String hash = HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(QUERY.getBytes(StandardCharsets.UTF_8)));
+
+        // Not seen yet - the client has to send the text, but this is no 400
+        graphQl(null, hash)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors[0].message").value("PersistedQueryNotFound"));
+
+        graphQl(QUERY, hash)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.__typename").value("Query"));
+
+        graphQl(null, hash)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors").doesNotExist())
+                .andExpect(jsonPath("$.data.__typename").value("Query"));
+    }
+
+    private ResultActions graphQl(String query, String hash) throws Exception {
+        Map<String, Object> body = new HashMap<>();
+        if (query != null) {
+            body.put("query", query);
+        }
+        body.put("extensions", Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash)));
+
+        ResultActions actions = mockMvc.perform(post("/graphql")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body)));
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+}
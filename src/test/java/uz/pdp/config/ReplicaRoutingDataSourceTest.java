@@ -0,0 +1,130 @@
+package uz.pdp.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ReplicaRoutingDataSourceTest {
+
+    @Test
+    void sendsReadOnlyTransactionsToTheReplica() {
+        ReplicaRoutingDataSource router = router("lag-ok", "SELECT 0", database("ok-replica", "replica"));
+        router.checkLag();
+
+        assertEquals("replica", whereAmI(router, true));
+        assertEquals("primary", whereAmI(router, false));
+    }
+
+    @Test
+    void fallsBackToThePrimaryWhenTheReplicaLags() {
+        ReplicaRoutingDataSource router = router("lag-high", "SELECT 30", database("slow-replica", "replica"));
+        router.checkLag();
+
+        assertTrue(router.healthyReplicas().isEmpty());
+        assertEquals("primary", whereAmI(router, true));
+    }
+
+    @Test
+    void fallsBackToThePrimaryWhenTheReplicaIsDown() {
+        JdbcDataSource down = new JdbcDataSource();
+        // Nothing listens there, so every connection fails
+        down.setURL("jdbc:h2:tcp://localhost:1/replica");
+        ReplicaRoutingDataSource router = router("down", "SELECT 0", down);
+        router.checkLag();
+
+        assertTrue(router.healthyReplicas().isEmpty());
+        assertEquals("primary", whereAmI(router, true));
+    }
+
+    @Test
+    void leavesReplicasOutUntilTheFirstCheck() {
+        ReplicaRoutingDataSource router = router("unchecked", "SELECT 0", database("new-replica", "replica"));
+
+        assertEquals("primary", whereAmI(router, true));
+        router.checkLag();
+        assertEquals(List.of("replica-1"), router.healthyReplicas());
+    }
+
+    @Test
+    void writeAfterReadOnlyLookupInOneRequestGoesToThePrimary() {
+        ReplicaRoutingDataSource router = router("osiv", "SELECT 0", database("osiv-replica", "replica"));
+        router.checkLag();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(router);
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setPackagesToScan("uz.pdp.config.none");
+        Map<String, Object> properties = new HashMap<>();
+        new ReadReplicaConfig().releaseConnectionAfterTransaction().customize(properties);
+        factoryBean.setJpaPropertyMap(properties);
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+
+        // What open-in-view does: one EntityManager for the whole request
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+            TransactionTemplate read = new TransactionTemplate(transactionManager);
+            read.setReadOnly(true);
+            TransactionTemplate write = new TransactionTemplate(transactionManager);
+
+            assertEquals("replica", read.execute(status -> role(entityManager)));
+            assertEquals("primary", write.execute(status -> role(entityManager)));
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+            factoryBean.destroy();
+        }
+    }
+
+    private static String role(EntityManager entityManager) {
+        return (String) entityManager.createNativeQuery("SELECT role FROM whoami").getSingleResult();
+    }
+
+    private static ReplicaRoutingDataSource router(String name, String lagQuery, DataSource replica) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica);
+        return new ReplicaRoutingDataSource(database(name + "-primary", "primary"), replicas, lagQuery, 5);
+    }
+
+    private static DataSource database(String name, String role) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS whoami (role VARCHAR(20))");
+        jdbc.update("DELETE FROM whoami");
+        jdbc.update("INSERT INTO whoami (role) VALUES (?)", role);
+        return dataSource;
+    }
+
+    private static String whereAmI(ReplicaRoutingDataSource router, boolean readOnly) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(router);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT role FROM whoami", String.class));
+    }
+}
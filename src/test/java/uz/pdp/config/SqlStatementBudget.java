@@ -0,0 +1,74 @@
+package uz.pdp.config;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import uz.pdp.config.filtr.SqlStatementFilter;
+
+/**
+ * Statement budgets for tests: a change that makes a code path or an endpoint
+ * chattier than its budget fails the build.
+ *
+ * <pre>
+ * List&lt;Door&gt; doors = SqlStatementBudget.within(3, () -&gt; doorService.getAllDoors());
+ *
+ * // MockMvc, with sql-statements.header.enabled=true
+ * mockMvc.perform(get("/api/doors")).andExpect(SqlStatementBudget.atMost(3));
+ * </pre>
+ */
+public final class SqlStatementBudget {
+
+    private SqlStatementBudget() {
+    }
+
+    /**
+     * Runs {@code work} on this thread and fails if it sent more than
+     * {@code budget} statements, listing them by shape.
+     */
+    public static <T> T within(int budget, Supplier<T> work) {
+        SqlStatementCounter.begin();
+        T result;
+        SqlStatementCounter.Report report;
+        try {
+            result = work.get();
+        } finally {
+            report = SqlStatementCounter.end();
+        }
+        if (report.statements() > budget) {
+            fail(report.statements() + " statements, budget is " + budget + describe(report.shapes()));
+        }
+        return result;
+    }
+
+    /**
+     * Fails unless the response reports at most {@code budget} statements in its
+     * {@code X-SQL-Count} header.
+     */
+    public static ResultMatcher atMost(int budget) {
+        return result -> {
+            String header = result.getResponse().getHeader(SqlStatementFilter.SQL_COUNT_HEADER);
+            assertNotNull(header, "No " + SqlStatementFilter.SQL_COUNT_HEADER
+                    + " header, is sql-statements.header.enabled set?");
+            int statements = Integer.parseInt(header);
+            if (statements > budget) {
+                fail(result.getRequest().getMethod() + " " + result.getRequest().getRequestURI() + " sent "
+                        + statements + " statements, budget is " + budget + " (the log names repeated ones)");
+            }
+        };
+    }
+
+    private static String describe(Map<String, Integer> shapes) {
+        StringBuilder description = new StringBuilder();
+        shapes.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .forEach(shape -> description.append("\n  ").append(shape.getValue()).append(" x ")
+                        .append(shape.getKey()));
+        return description.toString();
+    }
+}
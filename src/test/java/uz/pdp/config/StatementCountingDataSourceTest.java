@@ -0,0 +1,83 @@
+package uz.pdp.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class StatementCountingDataSourceTest {
+    private final JdbcTemplate jdbc = new JdbcTemplate(new StatementCountingDataSource(database()));
+
+    @AfterEach
+    void closeCount() {
+        SqlStatementCounter.end();
+    }
+
+    @Test
+    void countsPreparedAndPlainStatements() {
+        SqlStatementCounter.begin();
+        jdbc.queryForObject("SELECT name FROM sellers WHERE id = ?", String.class, 1);
+        jdbc.queryForObject("SELECT count(*) FROM sellers", Integer.class);
+        jdbc.update("UPDATE sellers SET name = ? WHERE id = ?", "Door Master", 2);
+
+        assertEquals(3, SqlStatementCounter.end().statements());
+    }
+
+    @Test
+    void flagsTheSameShapeSentOverAndOver() {
+        SqlStatementCounter.begin();
+        jdbc.queryForObject("SELECT count(*) FROM sellers", Integer.class);
+        for (int id = 1; id <= 10; id++) {
+            // One seller per door - the N+1
+            jdbc.queryForObject("SELECT name FROM sellers WHERE id = " + id, String.class);
+        }
+        SqlStatementCounter.Report report = SqlStatementCounter.end();
+
+        assertEquals(11, report.statements());
+        assertEquals(Map.of("SELECT name FROM sellers WHERE id = ?", 10), report.repeated(5));
+    }
+
+    @Test
+    void ignoresThreadsWithoutAnOpenCount() {
+        jdbc.queryForObject("SELECT count(*) FROM sellers", Integer.class);
+
+        assertEquals(0, SqlStatementCounter.end().statements());
+    }
+
+    @Test
+    void collapsesLiteralsAndInLists() {
+        assertEquals("select d1_0.id from doors d1_0 where d1_0.seller_id in (?) and d1_0.name = ? and d1_0.price > ?",
+                SqlStatementCounter.shapeOf("select d1_0.id from doors d1_0\n  where d1_0.seller_id in (?, ?,?) "
+                        + "and d1_0.name = 'It''s oak' and d1_0.price > 99.5"));
+    }
+
+    @Test
+    void budgetFailsWhenExceeded() {
+        assertEquals(1, SqlStatementBudget.within(1,
+                () -> jdbc.queryForObject("SELECT count(*) FROM sellers WHERE id = 1", Integer.class)));
+
+        AssertionFailedError error = assertThrows(AssertionFailedError.class, () -> SqlStatementBudget.within(2, () -> {
+            for (int id = 1; id <= 3; id++) {
+                jdbc.queryForObject("SELECT name FROM sellers WHERE id = ?", String.class, id);
+            }
+            return null;
+        }));
+        assertTrue(error.getMessage().contains("3 x SELECT name FROM sellers WHERE id = ?"), error.getMessage());
+    }
+
+    private static JdbcDataSource database() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:statement-counting;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS sellers (id INT PRIMARY KEY, name VARCHAR(50))");
+        jdbc.update("MERGE INTO sellers KEY (id) VALUES (1, 'Door'), (2, 'Etadoor'), (3, 'Oak & Co')");
+        return dataSource;
+    }
+}
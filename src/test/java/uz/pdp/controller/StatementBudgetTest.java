@@ -0,0 +1,200 @@
+package uz.pdp.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import uz.pdp.config.SqlStatementBudget;
+import uz.pdp.dto.OrderDto;
+import uz.pdp.entity.Door;
+import uz.pdp.entity.DoorHistory;
+import uz.pdp.entity.Order;
+import uz.pdp.entity.User;
+import uz.pdp.enums.Color;
+import uz.pdp.enums.ItemType;
+import uz.pdp.enums.OrderType;
+import uz.pdp.enums.Role;
+import uz.pdp.enums.Size;
+import uz.pdp.payload.EntityResponse;
+import uz.pdp.repository.DoorHistoryRepository;
+import uz.pdp.repository.DoorRepository;
+import uz.pdp.repository.UserRepository;
+import uz.pdp.service.BasketService;
+import uz.pdp.service.BasketStore;
+import uz.pdp.service.OrderService;
+
+/**
+ * Holds the busiest paths to a statement budget, so an N+1 fails the build
+ * instead of showing up on the dashboard. Every test works on several doors:
+ * a budget that only holds for one item proves nothing.
+ *
+ * Runs against the configured database, like the context test.
+ */
+@SpringBootTest(properties = "sql-statements.header.enabled=true")
+@AutoConfigureMockMvc
+class StatementBudgetTest {
+    private static final int DOORS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private DoorRepository doorRepository;
+    @Autowired
+    private DoorHistoryRepository doorHistoryRepository;
+    @Autowired
+    private BasketService basketService;
+    @Autowired
+    private BasketStore basketStore;
+    @Autowired
+    private OrderService orderService;
+
+    private User seller;
+    private User customer;
+    private final List<Door> doors = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        seller = userRepository.save(user(Role.SELLER));
+        customer = userRepository.save(user(Role.USER));
+        for (int i = 0; i < DOORS; i++) {
+            Door door = new Door();
+            door.setName("Budget door " + i);
+            door.setPrice(100.0 + i);
+            door.setFinalPrice(100.0 + i);
+            door.setSize(Size.SIZE_800x2000);
+            door.setColor(Color.WHITE);
+            door.setMaterial("Oak");
+            door.setSeller(seller);
+            doors.add(doorRepository.save(door));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        // The basket is written behind, make sure nothing of it is still on its way
+        basketStore.flush();
+        jdbcTemplate.update("DELETE FROM stock_reservations WHERE user_id = ?", customer.getId());
+        jdbcTemplate.update("DELETE FROM orders WHERE user_id = ?", customer.getId());
+        jdbcTemplate.update("DELETE FROM door_history WHERE user_id = ?", customer.getId());
+        jdbcTemplate.update("DELETE FROM basket_items WHERE basket_id IN (SELECT id FROM baskets WHERE user_id = ?)",
+                customer.getId());
+        jdbcTemplate.update("DELETE FROM baskets WHERE user_id = ?", customer.getId());
+        doorRepository.deleteAll(doors);
+        userRepository.deleteAll(List.of(customer, seller));
+    }
+
+    @Test
+    void doorHistoryIsOneQueryHoweverLongItIs() throws Exception {
+        for (Door door : doors) {
+            doorHistoryRepository.save(new DoorHistory(null, customer, door, LocalDateTime.now()));
+        }
+
+        // History, users and doors in one go - one more per entry would be the N+1
+        mockMvc.perform(get("/api/doors/history").with(loggedIn()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.history.length()").value(DOORS))
+                .andExpect(SqlStatementBudget.atMost(2));
+    }
+
+    @Test
+    void checkoutStaysWithinItsBudget() throws Exception {
+        login();
+        for (Door door : doors) {
+            basketService.addItem(door.getId(), ItemType.DOOR, 1);
+        }
+        SecurityContextHolder.clearContext();
+
+        Map<String, Object> checkout = Map.of(
+                "deliveryAddress", "Amir Temur 1, Tashkent",
+                "orderType", OrderType.FULL_SET,
+                "preferredDeliveryTime", "2026-11-02T10:00:00+05:00");
+
+        // Per door: the availability check and the order insert (identity ids, no batching).
+        // On top: the holds, the door lookup in createOrders and clearing the basket
+        mockMvc.perform(post("/api/basket/checkout").with(loggedIn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(checkout)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.length()").value(DOORS))
+                .andExpect(SqlStatementBudget.atMost(2 * DOORS + 5));
+    }
+
+    @Test
+    void createOrdersLooksTheDoorsUpOnce() {
+        login();
+        List<OrderDto> orderDtos = new ArrayList<>();
+        for (Door door : doors) {
+            OrderDto orderDto = new OrderDto();
+            orderDto.setItemId(door.getId());
+            orderDto.setItemType(ItemType.DOOR);
+            orderDto.setOrderType(OrderType.POLOTNO);
+            orderDto.setCustomerName(customer.getName());
+            orderDto.setEmail(customer.getEmail());
+            orderDto.setContactPhone(customer.getPhone());
+            orderDto.setDeliveryAddress("Amir Temur 1, Tashkent");
+            orderDtos.add(orderDto);
+        }
+
+        // One query for all the doors, then an insert per order
+        EntityResponse<List<Order>> response = SqlStatementBudget.within(DOORS + 2,
+                () -> orderService.createOrders(customer.getEmail(), orderDtos));
+
+        assertTrue(response.isSuccess(), response.getMessage());
+        assertEquals(DOORS, response.getData().size());
+    }
+
+    private UsernamePasswordAuthenticationToken token() {
+        return new UsernamePasswordAuthenticationToken(customer, null, customer.getAuthorities());
+    }
+
+    private RequestPostProcessor loggedIn() {
+        return authentication(token());
+    }
+
+    private void login() {
+        SecurityContextHolder.getContext().setAuthentication(token());
+    }
+
+    private static User user(Role role) {
+        String name = "budget-" + UUID.randomUUID();
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@doorshop.test");
+        user.setPhone("+998901234567");
+        user.setRole(role);
+        return user;
+    }
+}
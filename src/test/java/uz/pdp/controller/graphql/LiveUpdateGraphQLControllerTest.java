@@ -0,0 +1,122 @@
+package uz.pdp.controller.graphql;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import reactor.core.publisher.Flux;
+import uz.pdp.entity.Door;
+import uz.pdp.entity.Order;
+import uz.pdp.entity.User;
+import uz.pdp.enums.ItemType;
+import uz.pdp.repository.DoorRepository;
+import uz.pdp.repository.FurnitureDoorRepository;
+import uz.pdp.repository.MouldingRepository;
+import uz.pdp.repository.OrderRepository;
+import uz.pdp.repository.UserRepository;
+import uz.pdp.service.LiveUpdateService;
+
+class LiveUpdateGraphQLControllerTest {
+    private final LiveUpdateService liveUpdateService = mock(LiveUpdateService.class);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final DoorRepository doorRepository = mock(DoorRepository.class);
+    private final LiveUpdateGraphQLController controller = new LiveUpdateGraphQLController(liveUpdateService,
+            orderRepository, userRepository, doorRepository, mock(MouldingRepository.class),
+            mock(FurnitureDoorRepository.class));
+
+    private final User customer = user(1L, "alice");
+    private final User otherCustomer = user(2L, "bob");
+    private final User doorSeller = user(3L, "doormaster");
+    private final User otherSeller = user(4L, "rival");
+
+    @BeforeEach
+    void setUp() {
+        Door door = new Door();
+        door.setId(10L);
+        door.setSeller(doorSeller);
+        Order order = new Order();
+        order.setId(100L);
+        order.setUser(customer);
+        order.setItemType(ItemType.DOOR);
+        order.setItemId(door.getId());
+
+        when(orderRepository.findById(100L)).thenReturn(Optional.of(order));
+        when(doorRepository.findById(10L)).thenReturn(Optional.of(door));
+        when(liveUpdateService.orderUpdates(100L)).thenReturn(Flux.empty());
+        for (User user : new User[]{customer, otherCustomer, doorSeller, otherSeller}) {
+            when(userRepository.findByName(user.getName())).thenReturn(Optional.of(user));
+        }
+    }
+
+    @AfterEach
+    void clear() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void ownerCanFollowTheirOrder() {
+        login(customer, "ROLE_USER");
+        assertNotNull(controller.orderStatusChanged(100L));
+    }
+
+    @Test
+    void otherCustomerCannotFollowIt() {
+        login(otherCustomer, "ROLE_USER");
+        assertThrows(AccessDeniedException.class, () -> controller.orderStatusChanged(100L));
+    }
+
+    @Test
+    void sellerOfTheItemCanFollowIt() {
+        login(doorSeller, "ROLE_SELLER");
+        assertNotNull(controller.orderStatusChanged(100L));
+    }
+
+    @Test
+    void otherSellerCannotFollowIt() {
+        login(otherSeller, "ROLE_SELLER");
+        assertThrows(AccessDeniedException.class, () -> controller.orderStatusChanged(100L));
+    }
+
+    @Test
+    void adminCanFollowAnyOrder() {
+        login(user(5L, "etadoor"), "ROLE_ADMIN");
+        assertNotNull(controller.orderStatusChanged(100L));
+    }
+
+    @Test
+    void noAuthenticationIsDenied() {
+        assertThrows(AccessDeniedException.class, () -> controller.orderStatusChanged(100L));
+    }
+
+    @Test
+    void anonymousIsDenied() {
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("key",
+                "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        assertThrows(AccessDeniedException.class, () -> controller.orderStatusChanged(100L));
+    }
+
+    private static void login(User user, String role) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                user.getName(), null, AuthorityUtils.createAuthorityList(role)));
+    }
+
+    private static User user(Long id, String name) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        return user;
+    }
+}
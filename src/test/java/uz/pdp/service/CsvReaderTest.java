@@ -0,0 +1,60 @@
+package uz.pdp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CsvReaderTest {
+
+    @Test
+    void readsQuotedFieldsWithSeparatorsQuotesAndLineBreaks() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader(
+                "\uFEFFexternalId,name,price\r\n"
+                        + "D-1,\"Oak, \"\"classic\"\"\nedition\",120.50\r\n"
+                        + "\r\n"
+                        + "D-2,Pine,99"));
+
+        assertEquals(List.of("externalId", "name", "price"), csv.next());
+        assertEquals(1, csv.recordLine());
+
+        assertEquals(List.of("D-1", "Oak, \"classic\"\nedition", "120.50"), csv.next());
+        assertEquals(2, csv.recordLine());
+
+        // The quoted line break and the blank line both count
+        assertEquals(List.of("D-2", "Pine", "99"), csv.next());
+        assertEquals(5, csv.recordLine());
+
+        assertNull(csv.next());
+    }
+
+    @Test
+    void detectsSemicolonSeparatedFiles() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("externalId;price\nD-1;120,50\n"));
+
+        assertEquals(List.of("externalId", "price"), csv.next());
+        assertEquals(List.of("D-1", "120,50"), csv.next());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void keepsEmptyFields() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("a,b,c\n,,x\n"));
+
+        csv.next();
+        assertEquals(List.of("", "", "x"), csv.next());
+    }
+
+    @Test
+    void rejectsUnclosedQuotes() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("a,b\n\"never closed,1\n"));
+
+        csv.next();
+        assertThrows(IOException.class, csv::next);
+    }
+}
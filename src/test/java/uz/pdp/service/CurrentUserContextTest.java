@@ -0,0 +1,78 @@
+package uz.pdp.service;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import uz.pdp.entity.User;
+import uz.pdp.repository.UserRepository;
+
+class CurrentUserContextTest {
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CurrentUserContext context = new CurrentUserContext(userRepository);
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    @BeforeEach
+    void bindRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void clear() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void usesTheUserTheFilterLoaded() {
+        User bob = user("bob");
+        context.set(request, bob);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(bob, null, bob.getAuthorities()));
+
+        assertSame(bob, context.getOrNull());
+        assertSame(bob, context.getOrNull());
+        verify(userRepository, never()).findByName("bob");
+    }
+
+    @Test
+    void looksOtherLoginsUpOncePerRequest() {
+        User bob = user("bob");
+        when(userRepository.findByName("bob")).thenReturn(Optional.of(bob));
+        // Principal is just a name, as with form or OAuth2 logins
+        TestingAuthenticationToken authentication = new TestingAuthenticationToken("bob", null, "ROLE_USER");
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        assertSame(bob, context.getOrNull());
+        assertSame(bob, context.getOrNull());
+        assertSame(bob, context.getOrNull());
+        verify(userRepository, times(1)).findByName("bob");
+    }
+
+    @Test
+    void guestsHaveNoUser() {
+        assertNull(context.getOrNull());
+    }
+
+    private static User user(String name) {
+        User user = new User();
+        user.setName(name);
+        return user;
+    }
+}
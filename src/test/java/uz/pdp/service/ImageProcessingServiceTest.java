@@ -0,0 +1,66 @@
+package uz.pdp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+import uz.pdp.enums.ImageVariant;
+
+class ImageProcessingServiceTest {
+
+    private final ImageProcessingService service = new ImageProcessingService(0.8f);
+
+    @Test
+    void rendersEveryVariantWithinItsBounds() throws Exception {
+        Map<ImageVariant, ImageProcessingService.ProcessedImage> variants = service.process(png(2000, 1000));
+
+        assertEquals(ImageVariant.values().length, variants.size());
+        for (ImageVariant variant : ImageVariant.values()) {
+            ImageProcessingService.ProcessedImage image = variants.get(variant);
+            assertNotNull(image);
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(image.bytes()));
+            assertNotNull(decoded);
+            assertEquals(variant.getMaxDimension(), decoded.getWidth());
+            assertEquals(variant.getMaxDimension() / 2, decoded.getHeight());
+        }
+    }
+
+    @Test
+    void neverUpscalesSmallImages() throws Exception {
+        Map<ImageVariant, ImageProcessingService.ProcessedImage> variants = service.process(png(100, 50));
+
+        BufferedImage medium = ImageIO.read(new ByteArrayInputStream(variants.get(ImageVariant.MEDIUM).bytes()));
+        assertEquals(100, medium.getWidth());
+        assertEquals(50, medium.getHeight());
+    }
+
+    @Test
+    void rejectsBytesThatAreNotAnImage() {
+        assertThrows(IllegalArgumentException.class, () -> service.process("not an image".getBytes()));
+    }
+
+    @Test
+    void derivesVariantKeysNextToTheOriginal() {
+        assertEquals("doors/abc_thumb.webp", ImageVariant.THUMBNAIL.deriveFrom("doors/abc.jpg"));
+        assertEquals("https://etadoor.s3.amazonaws.com/doors/abc_medium.webp",
+                ImageVariant.MEDIUM.deriveFrom("https://etadoor.s3.amazonaws.com/doors/abc.jpg"));
+        assertTrue(ImageVariant.isVariant("doors/abc_thumb.webp"));
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,72 @@
+package uz.pdp.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LocalImageStoreTest {
+
+    private static final String BASE_URL = "http://localhost:8080/images/";
+
+    @TempDir
+    Path root;
+
+    @Test
+    void storesIdenticalBytesOnceUnderTheirHash() throws Exception {
+        LocalImageStore store = new LocalImageStore(root.toString(), BASE_URL);
+        byte[] bytes = "not really a door".getBytes(StandardCharsets.UTF_8);
+
+        String first = store.store("doors/", ".JPG", new ByteArrayInputStream(bytes), bytes.length, "image/jpeg");
+        String second = store.store("doors/", ".JPG", new ByteArrayInputStream(bytes), bytes.length, "image/jpeg");
+
+        assertEquals(first, second);
+        assertTrue(first.matches("doors/[0-9a-f]{64}\\.jpg"));
+        assertEquals(1, store.list("doors/").size());
+        assertTrue(store.isContentAddressed());
+    }
+
+    @Test
+    void transfersByteRanges() throws Exception {
+        LocalImageStore store = new LocalImageStore(root.toString(), BASE_URL);
+        byte[] bytes = "0123456789".getBytes(StandardCharsets.UTF_8);
+        String key = store.store("mouldings/", ".png", new ByteArrayInputStream(bytes), bytes.length, "image/png");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        store.transferTo(key, 3, 4, Channels.newChannel(out));
+
+        assertArrayEquals("3456".getBytes(StandardCharsets.UTF_8), out.toByteArray());
+        assertEquals(10, store.stat(key).orElseThrow().size());
+        assertEquals("image/png", store.stat(key).orElseThrow().contentType());
+    }
+
+    @Test
+    void mapsUrlsAndKeysBothWays() throws Exception {
+        LocalImageStore store = new LocalImageStore(root.toString(), BASE_URL);
+
+        assertEquals(BASE_URL + "doors/a.jpg", store.urlFor("doors/a.jpg"));
+        assertEquals("doors/a.jpg", store.keyOf(BASE_URL + "doors/a.jpg"));
+        assertNull(store.keyOf("https://images.unsplash.com/photo.jpg"));
+    }
+
+    @Test
+    void deletesAndRejectsKeysOutsideTheRoot() throws Exception {
+        LocalImageStore store = new LocalImageStore(root.toString(), BASE_URL);
+        store.write("doors/x_thumb.webp", new byte[]{1, 2, 3}, "image/webp", null);
+
+        assertTrue(store.deleteAll(List.of("doors/x_thumb.webp", "doors/missing.jpg")).isEmpty());
+        assertTrue(store.stat("doors/x_thumb.webp").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> store.stat("../../etc/passwd"));
+    }
+}
@@ -0,0 +1,87 @@
+package uz.pdp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import uz.pdp.entity.Door;
+import uz.pdp.entity.PricingRule;
+import uz.pdp.enums.FrameType;
+import uz.pdp.enums.HardwareType;
+import uz.pdp.enums.PriceAdjustment;
+import uz.pdp.enums.PricingAttribute;
+import uz.pdp.enums.Size;
+
+class PriceRulesTest {
+    private static final long NOW = System.currentTimeMillis();
+
+    @Test
+    void defaultRulesPriceLikeTheOldHardCodedMultipliers() {
+        PriceRules rules = PriceRules.compile(PricingEngine.defaultRules());
+
+        Door plain = door(100.0);
+        assertEquals(100.0, rules.price(plain, NOW));
+
+        Door everything = door(100.0);
+        everything.setSize(Size.CUSTOM);
+        everything.setIsCustomColor(true);
+        everything.setFrameType(FrameType.HIDDEN);
+        everything.setHardware(HardwareType.PIVOT);
+        assertEquals(143.45, rules.price(everything, NOW));
+    }
+
+    @Test
+    void promotionsOnlyApplyInsideTheirWindow() {
+        PricingRule sale = new PricingRule("Spring sale", null, null, -20, 1);
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 0, 0);
+        sale.setValidFrom(start);
+        sale.setValidUntil(start.plusDays(7));
+        PriceRules rules = PriceRules.compile(List.of(sale));
+        long startMillis = start.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        assertEquals(200.0, rules.price(door(200.0), startMillis - 1));
+        assertEquals(160.0, rules.price(door(200.0), startMillis));
+        assertEquals(startMillis, rules.nextChange(startMillis - 1));
+    }
+
+    @Test
+    void categoryRulesOnlyHitTheirCategory() {
+        PricingRule premium = new PricingRule("Premium category", null, null, 0, 1);
+        premium.setCategoryId(7L);
+        premium.setAdjustment(PriceAdjustment.FIXED);
+        premium.setAmount(25);
+        PriceRules rules = PriceRules.compile(List.of(premium));
+
+        assertEquals(125.0, rules.price(100.0, -1, -1, false, -1, -1, -1, 7L, PriceRules.NO_ID, NOW));
+        assertEquals(100.0, rules.price(100.0, -1, -1, false, -1, -1, -1, 8L, PriceRules.NO_ID, NOW));
+    }
+
+    @Test
+    void rejectsValuesThatDontFitTheAttribute() {
+        PricingRule broken = new PricingRule("Typo", PricingAttribute.FRAME_TYPE, "HIDEN", 15, 1);
+        assertThrows(IllegalArgumentException.class, () -> PriceRules.compile(List.of(broken)));
+    }
+
+    @Test
+    void unknownStoredValuesMatchNoRule() {
+        PricingRule custom = new PricingRule("Custom size", PricingAttribute.SIZE, "CUSTOM", 15, 1);
+        PriceRules rules = PriceRules.compile(List.of(custom));
+
+        int unknown = PriceRules.ordinal(Size.class, "EXTRA_WIDE");
+        assertEquals(100.0, rules.price(100.0, unknown, -1, false, -1, -1, -1,
+                PriceRules.NO_ID, PriceRules.NO_ID, NOW));
+        assertEquals(115.0, rules.price(100.0, PriceRules.ordinal(Size.class, "CUSTOM"), -1, false, -1, -1, -1,
+                PriceRules.NO_ID, PriceRules.NO_ID, NOW));
+    }
+
+    private static Door door(double price) {
+        Door door = new Door();
+        door.setPrice(price);
+        return door;
+    }
+}
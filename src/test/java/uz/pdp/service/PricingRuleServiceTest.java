@@ -0,0 +1,82 @@
+package uz.pdp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import uz.pdp.dto.PricingRuleDto;
+import uz.pdp.entity.PricingRule;
+import uz.pdp.enums.PriceAdjustment;
+import uz.pdp.repository.PricingRuleRepository;
+
+class PricingRuleServiceTest {
+    private final HikariDataSource dataSource = database();
+    private final JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+    private final TransactionTemplate transactionTemplate =
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    private final PricingRuleRepository ruleRepository = mock(PricingRuleRepository.class);
+    private final List<PricingRule> activeRules = new ArrayList<>();
+
+    @AfterEach
+    void closePool() {
+        dataSource.close();
+    }
+
+    @Test
+    void ruleChangeReachesStoredFinalPrices() {
+        when(ruleRepository.findByActiveTrueOrderByPriorityAscIdAsc())
+                .thenAnswer(invocation -> List.copyOf(activeRules));
+        when(ruleRepository.save(any(PricingRule.class))).thenAnswer(invocation -> {
+            PricingRule rule = invocation.getArgument(0);
+            jdbc.update("INSERT INTO pricing_rules (name, updated_at) VALUES (?, CURRENT_TIMESTAMP)", rule.getName());
+            activeRules.add(rule);
+            return rule;
+        });
+        PricingEngine engine = new PricingEngine(ruleRepository, dataSource, transactionTemplate,
+                mock(DoorFamilyService.class));
+        engine.reload();
+        PricingRuleService service = new PricingRuleService(ruleRepository, engine);
+
+        PricingRuleDto markup = new PricingRuleDto();
+        markup.setName("Autumn markup");
+        markup.setAdjustment(PriceAdjustment.PERCENT);
+        markup.setAmount(10.0);
+        // What @Transactional does around the admin's call
+        transactionTemplate.executeWithoutResult(status -> service.createRule(markup));
+
+        assertEquals(110.0, jdbc.queryForObject("SELECT final_price FROM doors WHERE id = 1", Double.class));
+    }
+
+    // Like production: the pool hands out connections with auto-commit off
+    private static HikariDataSource database() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:pricing-rules-" + System.nanoTime() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        config.setAutoCommit(false);
+        config.setMaximumPoolSize(4);
+        HikariDataSource dataSource = new HikariDataSource(config);
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            jdbc.execute("CREATE TABLE pricing_rules (id IDENTITY PRIMARY KEY, name VARCHAR(100), "
+                    + "updated_at TIMESTAMP)");
+            jdbc.execute("CREATE TABLE doors (id BIGINT PRIMARY KEY, price DOUBLE PRECISION, "
+                    + "final_price DOUBLE PRECISION, size VARCHAR(20), color VARCHAR(20), is_custom_color BOOLEAN, "
+                    + "frame_type VARCHAR(20), hardware VARCHAR(20), door_location VARCHAR(20), category_id BIGINT, "
+                    + "seller_id BIGINT)");
+            jdbc.update("INSERT INTO doors (id, price, final_price, is_custom_color) VALUES (1, 100, 100, false)");
+        });
+        return dataSource;
+    }
+}
@@ -0,0 +1,68 @@
+package uz.pdp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class StripedStockCounterTest {
+
+    @Test
+    void neverHandsOutMoreThanItHas() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(4);
+        counter.add(1000);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> buyers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                buyers.add(() -> {
+                    int taken = 0;
+                    // Keep buying until the shelf is empty
+                    while (counter.available() > 0) {
+                        if (counter.tryTake(1)) {
+                            taken++;
+                        }
+                    }
+                    return taken;
+                });
+            }
+            int total = 0;
+            for (Future<Integer> result : pool.invokeAll(buyers)) {
+                total += result.get();
+            }
+            assertEquals(1000, total);
+            assertEquals(0, counter.available());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void poolsUnitsSpreadOverStripes() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(4);
+        // Three units on three different stripes, none of them enough on its own
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Thread thread = new Thread(() -> counter.add(1));
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(counter.tryTake(3));
+        assertFalse(counter.tryTake(1));
+        assertTrue(counter.checkAndClearUsed());
+        assertFalse(counter.checkAndClearUsed());
+    }
+}